@@ -2,14 +2,19 @@ package app;
 
 import java.awt.CardLayout;
 import java.awt.Dimension;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import javax.swing.JFrame;
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 import javax.swing.WindowConstants;
 
 import data_access.CachedUserDataAccessObject;
-import data_access.FileUserDataAccessObject;
+import data_access.CachingMovieGateway;
+import data_access.ShardedUserDataAccessObject;
 import data_access.TMDbMovieDataAccessObject;
+import data_access.UserRecordFormat;
 import entity.factories.UserFactory;
 import interface_adapter.ViewManagerModel;
 import interface_adapter.add_to_watchlist.AddWatchListController;
@@ -54,7 +59,7 @@ import use_case.add_to_watchlist.AddWatchListInteractor;
 import use_case.change_password.ChangePasswordInputBoundary;
 import use_case.change_password.ChangePasswordInteractor;
 import use_case.change_password.ChangePasswordOutputBoundary;
-import use_case.common.MovieGateway;
+import use_case.common.Durability;
 import use_case.common.UserDataAccessInterface;
 import use_case.login.LoginInputBoundary;
 import use_case.login.LoginInteractor;
@@ -67,8 +72,9 @@ import use_case.record_watchhistory.RecordWatchHistoryInteractor;
 import use_case.record_watchhistory.RecordWatchHistoryOutputBoundary;
 import use_case.review_movie.ReviewMovieInteractor;
 import use_case.search_movie.SearchMovieInputBoundary;
-import use_case.search_movie.SearchMovieInteractor;
+import use_case.search_movie.SearchMovieAsyncInteractor;
 import use_case.search_movie.SearchMovieOutputBoundary;
+import use_case.search_movie.SearchPagePrefetcher;
 import use_case.signup.SignupInputBoundary;
 import use_case.signup.SignupInteractor;
 import use_case.signup.SignupOutputBoundary;
@@ -88,7 +94,7 @@ import use_case.view_watchlists.ViewWatchListsInputBoundary;
 import use_case.view_watchlists.ViewWatchListsInteractor;
 import use_case.view_watchlists.ViewWatchListsOutputBoundary;
 import use_case.filter_movies.FilterMoviesInputBoundary;
-import use_case.filter_movies.FilterMoviesInteractor;
+import use_case.filter_movies.FilterMoviesAsyncInteractor;
 import use_case.filter_movies.FilterMoviesOutputBoundary;
 import view.AddReviewPopup;
 import view.AddToWatchListPopup;
@@ -128,12 +134,26 @@ public class AppBuilder {
     // ==============================================================
 
     private final UserFactory userFactory = new UserFactory();
+    // One binary file per user under data/users; an existing data/users.json is migrated on first start.
+    // Saves are synced in groups by a background checkpointer; sign-up and password changes are synced at once.
     private final UserDataAccessInterface fileUserDataAccessObject =
-            new FileUserDataAccessObject("data/users.json", userFactory);
+            ShardedUserDataAccessObject.migrateFrom("data/users.json", "data/users", userFactory,
+                    UserRecordFormat.BINARY, Durability.GROUPED);
+    // Saves return once the cache is updated; the file is written in the background and on exit
     private final CachedUserDataAccessObject userDataAccessObject =
-            new CachedUserDataAccessObject(fileUserDataAccessObject);
+            new CachedUserDataAccessObject(fileUserDataAccessObject,
+                    CachedUserDataAccessObject.DEFAULT_MAX_PENDING,
+                    CachedUserDataAccessObject.DEFAULT_MAX_DELAY_MILLIS);
 
-    private final MovieGateway movieDataAccessObject = new TMDbMovieDataAccessObject();
+    private final CachingMovieGateway movieDataAccessObject =
+            new CachingMovieGateway(new TMDbMovieDataAccessObject(), "data/movie_cache");
+
+    // Background worker for use cases that run off the Swing event dispatch thread
+    private final ExecutorService useCaseExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "use-case-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     // ==============================================================
     // =================== View Models and Views ====================
@@ -311,10 +331,12 @@ public class AppBuilder {
         final SearchMovieOutputBoundary searchOutputBoundary =
                 new SearchMoviePresenter(loggedInViewModel);
 
-        final TMDbMovieDataAccessObject movieGateway = new TMDbMovieDataAccessObject();
-
+        // Shares the cached gateway so movies seen in search results are reused by findById.
+        // The search runs asynchronously, is ranked on the use-case thread and presented back on the event dispatch
+        // thread. The next page of every result is prefetched so Prev/Next paging does not wait for TMDb.
         final SearchMovieInputBoundary searchInteractor =
-                new SearchMovieInteractor(movieGateway, searchOutputBoundary);
+                new SearchMovieAsyncInteractor(new SearchPagePrefetcher(movieDataAccessObject), searchOutputBoundary,
+                        SwingUtilities::invokeLater, useCaseExecutor);
 
         final SearchMovieController searchController = new SearchMovieController(searchInteractor);
 
@@ -433,16 +455,18 @@ public class AppBuilder {
         final use_case.filter_movies.FilterMoviesValidator validator =
                 new use_case.filter_movies.FilterMoviesValidator();
         final use_case.filter_movies.MovieFilterStrategy filterStrategy =
-                new use_case.filter_movies.GenreMatchFilterStrategy();
+                new use_case.filter_movies.GenreFilterEngine();
         final use_case.filter_movies.GenreUtilsAdapter genreConverter = new use_case.filter_movies.GenreUtilsAdapter();
 
         final FilterMoviesInputBoundary filterMoviesInteractor =
-                new FilterMoviesInteractor(
+                new FilterMoviesAsyncInteractor(
                         movieDataAccessObject,
                         filterMoviesOutputBoundary,
                         validator,
                         filterStrategy,
-                        genreConverter);
+                        genreConverter,
+                        useCaseExecutor,
+                        SwingUtilities::invokeLater);
 
         final FilterMoviesController filterMoviesController =
                 new FilterMoviesController(filterMoviesInteractor);
@@ -538,6 +562,7 @@ public class AppBuilder {
     public JFrame build() {
         final JFrame application = new JFrame("MovieNight");
         application.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
+        userDataAccessObject.closeOnShutdown();
 
         application.add(cardPanel);
 
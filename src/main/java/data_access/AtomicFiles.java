@@ -0,0 +1,93 @@
+package data_access;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * File helpers shared by the user stores.
+ *
+ * <p>A file is replaced in three steps: the new contents go to a temporary sibling, which is flushed to disk
+ * ({@link #writeTemp}); the temporary file is renamed over the target ({@link #commit}); and the directory is flushed
+ * so that the rename itself survives a crash ({@link #syncDirectory}). Readers, and a machine that crashes at any
+ * point, only ever see the old or the new contents. Callers replacing several files can commit them all before
+ * syncing the directory once.
+ */
+final class AtomicFiles {
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private AtomicFiles() {
+    }
+
+    /**
+     * Durably replaces a file in one step.
+     *
+     * @param target   the file to replace
+     * @param contents the new contents
+     * @throws IOException if the file cannot be written
+     */
+    static void write(Path target, byte[] contents) throws IOException {
+        commit(writeTemp(target, contents), target);
+        syncDirectory(target.toAbsolutePath().getParent());
+    }
+
+    /**
+     * Writes the future contents of {@code target} to a temporary sibling and flushes it to disk.
+     *
+     * @param target   the file that will be replaced
+     * @param contents the new contents
+     * @return the temporary file, to be passed to {@link #commit}
+     * @throws IOException if the file cannot be written
+     */
+    static Path writeTemp(Path target, byte[] contents) throws IOException {
+        final Path temp = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            final ByteBuffer buffer = ByteBuffer.wrap(contents);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        return temp;
+    }
+
+    /**
+     * Renames a temporary file written by {@link #writeTemp} over its target.
+     *
+     * @param temp   the temporary file
+     * @param target the file to replace
+     * @throws IOException if the rename fails
+     */
+    static void commit(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Flushes a directory's entries to disk, making earlier renames and new files in it durable.
+     *
+     * <p>Some platforms (notably Windows) cannot open a directory for syncing; there the rename is already as
+     * durable as the file system makes it, and this does nothing.
+     *
+     * @param directory the directory
+     */
+    static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+        catch (IOException e) {
+            // Not supported here
+        }
+    }
+}
@@ -1,27 +1,85 @@
 package data_access;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import entity.Movie;
+import entity.Review;
 import entity.User;
+import entity.WatchList;
+import entity.WatchedMovie;
 import use_case.change_password.ChangePasswordUserDataAccessInterface;
+import use_case.common.Durability;
 import use_case.common.UserDataAccessInterface;
 import use_case.view_profile.ProfileStats;
 import use_case.view_profile.ViewProfileUserDataAccessInterface;
 
 /**
  * A caching wrapper that combines a persistent user store
- * ({@link FileUserDataAccessObject}) with an in-memory cache
- * ({@link InMemoryUserDataAccessObject}).
+ * ({@link FileUserDataAccessObject}) with a bounded in-memory cache.
  *
  * <p>Reads are served from the in-memory cache whenever possible,
  * while writes go to both the cache and the persistent store.
  *
+ * <p>The cache holds at most {@code maxCachedUsers} users and drops the least recently used one beyond that; it can
+ * also drop users that have not been accessed for {@code expireAfterAccessMillis}. The logged-in user is pinned and
+ * never dropped, and users with changes still waiting to be written are served from the write-behind queue until
+ * they are. Hits, misses, evictions and load times are reported by {@link #getCacheStats()}.
+ *
+ * <p>The DAO is thread-safe. Read-modify-save cycles passed to {@link #runLocked} are serialised per username by
+ * striped locks, so concurrent interactors never lose each other's changes to a user.
+ *
+ * <p>By default writes reach the persistent store before {@link #save} returns. In write-behind mode they only
+ * update the cache and mark the user dirty; a background writer later saves each dirty user once, either after
+ * {@code maxDelayMillis} or as soon as {@code maxPending} users are waiting. Several saves of the same user in
+ * between cost a single write. {@link #flush()} writes everything immediately, and {@link #close()} (also run by
+ * {@link #closeOnShutdown()}) flushes before releasing the store.
+ *
  * <p>This class should be used by the application's dependency-injection layer.
  */
 public class CachedUserDataAccessObject implements UserDataAccessInterface,
                                                    ChangePasswordUserDataAccessInterface,
-                                                   ViewProfileUserDataAccessInterface {
+                                                   ViewProfileUserDataAccessInterface,
+                                                   AutoCloseable {
+
+    public static final int DEFAULT_MAX_PENDING = 64;
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 500;
+    public static final int DEFAULT_MAX_CACHED_USERS = 256;
 
     private final UserDataAccessInterface persistentStore;
-    private final InMemoryUserDataAccessObject cache;
+    private final UserCache cache;
+    private final StripedLocks locks = new StripedLocks(StripedLocks.DEFAULT_STRIPES);
+    private volatile String currentUsername;
+
+    // Write-behind state; the writer is null in write-through mode
+    private final ScheduledExecutorService writer;
+    private final int maxPending;
+    private final long maxDelayMillis;
+    private final Object pendingLock = new Object();
+    // Held for a whole flush so flushes never overlap
+    private final Object flushLock = new Object();
+    private final Map<String, User> dirty = new LinkedHashMap<>();
+    // Users taken out of the queue by the flush in progress
+    private Map<String, User> inFlight = Map.of();
+    private boolean currentUserDirty;
+    private String pendingCurrentUser;
+    private ScheduledFuture<?> scheduledFlush;
+    private boolean immediateFlushQueued;
+    private boolean closed;
+
+    // Counters, guarded by pendingLock
+    private long savesRequested;
+    private long writesPerformed;
+    private long flushes;
+    private long failedWrites;
+    private long lastFlushNanos;
+    private long maxFlushNanos;
+    private long totalFlushNanos;
 
     /**
      * Constructs a new cached DAO using the provided persistent store.
@@ -32,15 +90,60 @@ public class CachedUserDataAccessObject implements UserDataAccessInterface,
      * @param persistentStore a persistent implementation such as {@link FileUserDataAccessObject}
      */
     public CachedUserDataAccessObject(UserDataAccessInterface persistentStore) {
+        this(persistentStore, new UserCache(DEFAULT_MAX_CACHED_USERS, 0));
+    }
+
+    CachedUserDataAccessObject(UserDataAccessInterface persistentStore, UserCache cache) {
         this.persistentStore = persistentStore;
-        this.cache = new InMemoryUserDataAccessObject();
+        this.cache = cache;
+        this.writer = null;
+        this.maxPending = 0;
+        this.maxDelayMillis = 0;
+
+        preloadCache();
+    }
+
+    /**
+     * Constructs a cached DAO in write-behind mode.
+     *
+     * @param persistentStore a persistent implementation such as {@link FileUserDataAccessObject}
+     * @param maxPending      number of dirty users that triggers an immediate flush
+     * @param maxDelayMillis  longest time a change waits before it is written
+     * @throws IllegalArgumentException if either limit is not positive
+     */
+    public CachedUserDataAccessObject(UserDataAccessInterface persistentStore, int maxPending, long maxDelayMillis) {
+        this(persistentStore, maxPending, maxDelayMillis, DEFAULT_MAX_CACHED_USERS, 0);
+    }
+
+    /**
+     * Constructs a cached DAO in write-behind mode with explicit cache bounds.
+     *
+     * @param persistentStore         a persistent implementation such as {@link FileUserDataAccessObject}
+     * @param maxPending              number of dirty users that triggers an immediate flush
+     * @param maxDelayMillis          longest time a change waits before it is written
+     * @param maxCachedUsers          most users kept in memory besides the logged-in user
+     * @param expireAfterAccessMillis time after its last access at which a cached user is dropped, or {@code 0} to
+     *                                keep users until they are evicted
+     * @throws IllegalArgumentException if a limit is not positive or the expiry is negative
+     */
+    public CachedUserDataAccessObject(UserDataAccessInterface persistentStore, int maxPending, long maxDelayMillis,
+                                      int maxCachedUsers, long expireAfterAccessMillis) {
+        if (maxPending < 1 || maxDelayMillis < 1) {
+            throw new IllegalArgumentException("maxPending and maxDelayMillis must be positive");
+        }
+        this.persistentStore = persistentStore;
+        this.cache = new UserCache(maxCachedUsers, expireAfterAccessMillis);
+        this.writer = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("user-write-behind"));
+        this.maxPending = maxPending;
+        this.maxDelayMillis = maxDelayMillis;
 
         preloadCache();
     }
 
     private void preloadCache() {
         // Users are lazy loaded into the cache as soon as they are accessed, not preloaded all at once.
-        cache.setCurrentUsername(persistentStore.getCurrentUsername());
+        currentUsername = persistentStore.getCurrentUsername();
+        cache.pin(currentUsername);
     }
 
     // ===============================================================================================================
@@ -55,8 +158,34 @@ public class CachedUserDataAccessObject implements UserDataAccessInterface,
     @Override
     public void save(User user) {
         // Update both in-memory cache and file storage
-        cache.save(user);
-        persistentStore.save(user);
+        cache.put(user);
+        if (!enqueue(() -> dirty.put(user.getUserName(), user))) {
+            persistentStore.save(user);
+        }
+    }
+
+    /**
+     * Saves a {@link User} with the requested durability.
+     *
+     * <p>An {@code IMMEDIATE} save is written to the persistent store before this method returns, even in
+     * write-behind mode, and replaces any queued save of the same user. Other levels are queued like
+     * {@link #save(User)} in write-behind mode and passed on to the persistent store otherwise.
+     *
+     * @param user       the user to persist (must not be {@code null})
+     * @param durability how soon the change must be on disk
+     */
+    @Override
+    public void save(User user, Durability durability) {
+        cache.put(user);
+        if (durability == Durability.IMMEDIATE && writer != null) {
+            synchronized (pendingLock) {
+                dirty.remove(user.getUserName());
+            }
+            persistentStore.save(user, durability);
+        }
+        else if (!enqueue(() -> dirty.put(user.getUserName(), user))) {
+            persistentStore.save(user, durability);
+        }
     }
 
     /**
@@ -64,28 +193,101 @@ public class CachedUserDataAccessObject implements UserDataAccessInterface,
      *
      * <p>This method first attempts to retrieve the user from the in-memory cache.
      * If the user is not in the cache, it is loaded from the persistent store and
-     * then cached for future lookups.
+     * then cached for future lookups. A user that was dropped from the cache while a change to it was still
+     * waiting to be written is taken from the write-behind queue instead, so the store is never read stale.
      *
      * @param userName the username to look up (must not be {@code null})
      * @return the corresponding user, or {@code null} if no such user exists
      */
     @Override
     public User getUser(String userName) {
-        User user = cache.getUser(userName);
+        User user = cache.get(userName);
         if (user != null) {
             return user;
         }
 
-        // if not found in cache, load from persistent store
-        user = persistentStore.getUser(userName);
+        user = pendingUser(userName);
+        if (user == null) {
+            // if not found in cache, load from persistent store
+            final long start = System.nanoTime();
+            user = persistentStore.getUser(userName);
+            cache.recordLoad(System.nanoTime() - start);
+        }
 
         // cache it for future use
         if (user != null) {
-            cache.save(user);
+            cache.put(user);
         }
         return user;
     }
 
+    /**
+     * Saves a movie added to a watch list. In write-through mode only the delta is passed on to the persistent
+     * store; in write-behind mode the whole user is queued.
+     *
+     * @param user            the changed user (must not be {@code null})
+     * @param watchList       the user's watch list the movie was added to
+     * @param movie           the added movie
+     * @param expectedVersion the version the user had when it was read
+     * @return {@code true} if the change was saved, {@code false} on a version conflict
+     */
+    @Override
+    public boolean addMovieToWatchList(User user, WatchList watchList, Movie movie, long expectedVersion) {
+        return saveDelta(user, expectedVersion,
+                store -> store.addMovieToWatchList(user, watchList, movie, expectedVersion));
+    }
+
+    /**
+     * Saves a recorded watch event, as a delta in write-through mode and by queueing the user otherwise.
+     *
+     * @param user            the changed user (must not be {@code null})
+     * @param watched         the recorded watch event
+     * @param expectedVersion the version the user had when it was read
+     * @return {@code true} if the change was saved, {@code false} on a version conflict
+     */
+    @Override
+    public boolean appendWatchEvent(User user, WatchedMovie watched, long expectedVersion) {
+        return saveDelta(user, expectedVersion, store -> store.appendWatchEvent(user, watched, expectedVersion));
+    }
+
+    /**
+     * Saves an added or replaced review, as a delta in write-through mode and by queueing the user otherwise.
+     *
+     * @param user            the changed user (must not be {@code null})
+     * @param review          the user's review
+     * @param expectedVersion the version the user had when it was read
+     * @return {@code true} if the change was saved, {@code false} on a version conflict
+     */
+    @Override
+    public boolean upsertReview(User user, Review review, long expectedVersion) {
+        return saveDelta(user, expectedVersion, store -> store.upsertReview(user, review, expectedVersion));
+    }
+
+    /**
+     * Saves the removal of a movie's watch events, as a delta in write-through mode and by queueing the user
+     * otherwise.
+     *
+     * @param user            the changed user (must not be {@code null})
+     * @param movieId         the movie whose entries were removed
+     * @param expectedVersion the version the user had when it was read
+     * @return {@code true} if the change was saved, {@code false} on a version conflict
+     */
+    @Override
+    public boolean removeWatchEvent(User user, String movieId, long expectedVersion) {
+        return saveDelta(user, expectedVersion, store -> store.removeWatchEvent(user, movieId, expectedVersion));
+    }
+
+    /**
+     * Runs {@code cycle} while holding the lock stripe of {@code username}.
+     *
+     * @param username the user the cycle reads and writes
+     * @param cycle    the read-modify-save steps
+     */
+    @Override
+    public void runLocked(String username, Runnable cycle) {
+        locks.run(username, cycle);
+    }
+
     /**
      * Returns whether a user with the specified username exists.
      *
@@ -97,7 +299,7 @@ public class CachedUserDataAccessObject implements UserDataAccessInterface,
      */
     @Override
     public boolean existsByName(String username) {
-        if (cache.existsByName(username)) {
+        if (cache.contains(username) || pendingUser(username) != null) {
             return true;
         }
 
@@ -111,8 +313,15 @@ public class CachedUserDataAccessObject implements UserDataAccessInterface,
      */
     @Override
     public void setCurrentUsername(String username) {
-        cache.setCurrentUsername(username);
-        persistentStore.setCurrentUsername(username);
+        currentUsername = username;
+        cache.pin(username);
+        final boolean queued = enqueue(() -> {
+            currentUserDirty = true;
+            pendingCurrentUser = username;
+        });
+        if (!queued) {
+            persistentStore.setCurrentUsername(username);
+        }
     }
 
     /**
@@ -122,17 +331,17 @@ public class CachedUserDataAccessObject implements UserDataAccessInterface,
      */
     @Override
     public String getCurrentUsername() {
-        return cache.getCurrentUsername();
+        return currentUsername;
     }
 
     /**
-     * Updates the password for the existing user.
+     * Updates the password for the existing user. The change is written through immediately.
      *
      * @param user the user whose password is to be updated
      */
     @Override
     public void changePassword(User user) {
-        save(user);
+        runLocked(user.getUserName(), () -> save(user, Durability.IMMEDIATE));
     }
 
     @Override
@@ -148,4 +357,240 @@ public class CachedUserDataAccessObject implements UserDataAccessInterface,
 
         return new ProfileStats(watchlistCount, reviewCount, watchedMoviesCount);
     }
+
+    /**
+     * Writes every pending change to the persistent store now. Does nothing in write-through mode.
+     *
+     * <p>Changes that fail to write stay queued and are retried by the next flush. Each user is written while holding
+     * its {@link #runLocked} stripe, so this must not be called from inside a locked cycle.
+     *
+     * @throws RuntimeException the first failure of the persistent store, after all other changes were written
+     */
+    public void flush() {
+        if (writer == null) {
+            return;
+        }
+        synchronized (flushLock) {
+            final Map<String, User> batch;
+            final boolean writeCurrentUser;
+            final String currentUser;
+            synchronized (pendingLock) {
+                batch = new LinkedHashMap<>(dirty);
+                dirty.clear();
+                inFlight = batch;
+                writeCurrentUser = currentUserDirty;
+                currentUser = pendingCurrentUser;
+                currentUserDirty = false;
+                if (scheduledFlush != null) {
+                    scheduledFlush.cancel(false);
+                    scheduledFlush = null;
+                }
+                immediateFlushQueued = false;
+            }
+            if (batch.isEmpty() && !writeCurrentUser) {
+                return;
+            }
+            try {
+                writeBatch(batch, writeCurrentUser, currentUser);
+            }
+            finally {
+                synchronized (pendingLock) {
+                    inFlight = Map.of();
+                }
+            }
+        }
+    }
+
+    private void writeBatch(Map<String, User> batch, boolean writeCurrentUser, String currentUser) {
+        final long start = System.nanoTime();
+        int written = 0;
+        int failed = 0;
+        RuntimeException failure = null;
+        if (writeCurrentUser) {
+            try {
+                persistentStore.setCurrentUsername(currentUser);
+                written++;
+            }
+            catch (RuntimeException e) {
+                failed++;
+                failure = e;
+                requeueCurrentUser(currentUser);
+            }
+        }
+        for (Map.Entry<String, User> entry : batch.entrySet()) {
+            try {
+                // Interactors change the cached instance under its stripe, so encode it under the same stripe
+                locks.run(entry.getKey(), () -> persistentStore.save(entry.getValue()));
+                written++;
+            }
+            catch (RuntimeException e) {
+                failed++;
+                if (failure == null) {
+                    failure = e;
+                }
+                synchronized (pendingLock) {
+                    // A newer save made during the flush already replaced it
+                    dirty.putIfAbsent(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        final long elapsed = System.nanoTime() - start;
+
+        synchronized (pendingLock) {
+            writesPerformed += written;
+            failedWrites += failed;
+            flushes++;
+            lastFlushNanos = elapsed;
+            maxFlushNanos = Math.max(maxFlushNanos, elapsed);
+            totalFlushNanos += elapsed;
+            if (failed > 0) {
+                scheduleFlush();
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Returns a snapshot of the cache's hit ratio, evictions and load times.
+     *
+     * @return the current statistics
+     */
+    public UserCacheStats getCacheStats() {
+        return cache.stats();
+    }
+
+    /**
+     * Flushes pending changes, stops the background writer and closes the persistent store if it holds resources.
+     * The DAO must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        synchronized (pendingLock) {
+            closed = true;
+        }
+        try {
+            flush();
+        }
+        finally {
+            if (writer != null) {
+                writer.shutdown();
+            }
+            if (persistentStore instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable) persistentStore).close();
+                }
+                catch (Exception e) {
+                    throw new IllegalStateException("Could not close the persistent store", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Registers a JVM shutdown hook that {@linkplain #close() closes} this DAO, so that changes still waiting to be
+     * written when the application exits are not lost.
+     */
+    public void closeOnShutdown() {
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "user-store-shutdown"));
+    }
+
+    /**
+     * Returns a snapshot of the write-behind queue and flush timings. All zero in write-through mode.
+     *
+     * @return the current statistics
+     */
+    public WriteBehindStats getWriteBehindStats() {
+        synchronized (pendingLock) {
+            return new WriteBehindStats(queueDepth(), savesRequested, writesPerformed, flushes, failedWrites,
+                    TimeUnit.NANOSECONDS.toMillis(lastFlushNanos), TimeUnit.NANOSECONDS.toMillis(maxFlushNanos),
+                    TimeUnit.NANOSECONDS.toMillis(totalFlushNanos));
+        }
+    }
+
+    // ===============================================================================================================
+    // ================================================= WRITE-BEHIND ================================================
+    // ===============================================================================================================
+
+    // Queued users are written whole, so only write-through mode hands the delta to the store
+    private boolean saveDelta(User user, long expectedVersion, Predicate<UserDataAccessInterface> delta) {
+        if (writer != null) {
+            return compareAndSave(user, expectedVersion);
+        }
+        final boolean[] saved = new boolean[1];
+        runLocked(user.getUserName(), () -> {
+            saved[0] = delta.test(persistentStore);
+            if (saved[0]) {
+                cache.put(user);
+            }
+        });
+        return saved[0];
+    }
+
+    // Records a change for the background writer; returns false if the caller must write it through itself
+    private boolean enqueue(Runnable change) {
+        if (writer == null) {
+            return false;
+        }
+        synchronized (pendingLock) {
+            if (closed) {
+                return false;
+            }
+            change.run();
+            savesRequested++;
+            if (queueDepth() >= maxPending) {
+                if (!immediateFlushQueued) {
+                    immediateFlushQueued = true;
+                    writer.execute(this::flushQuietly);
+                }
+            }
+            else {
+                scheduleFlush();
+            }
+        }
+        return true;
+    }
+
+    // Must be called while holding pendingLock
+    private void scheduleFlush() {
+        if (scheduledFlush == null && !writer.isShutdown()) {
+            scheduledFlush = writer.schedule(this::flushQuietly, maxDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // A user whose latest change has not reached the persistent store yet, or null
+    private User pendingUser(String username) {
+        if (writer == null) {
+            return null;
+        }
+        synchronized (pendingLock) {
+            final User user = dirty.get(username);
+            return user != null ? user : inFlight.get(username);
+        }
+    }
+
+    private void requeueCurrentUser(String username) {
+        synchronized (pendingLock) {
+            if (!currentUserDirty) {
+                currentUserDirty = true;
+                pendingCurrentUser = username;
+            }
+        }
+    }
+
+    // Must be called while holding pendingLock
+    private int queueDepth() {
+        return dirty.size() + (currentUserDirty ? 1 : 0);
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        }
+        catch (RuntimeException e) {
+            // The failed changes are still queued and a retry has been scheduled
+            System.err.println("Error writing users: " + e.getMessage());
+        }
+    }
 }
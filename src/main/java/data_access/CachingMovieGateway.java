@@ -0,0 +1,490 @@
+package data_access;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import entity.Movie;
+import use_case.common.AsyncMovieGateway;
+import use_case.common.MovieDataAccessException;
+import use_case.common.MovieGateway;
+import use_case.common.PagedMovieResult;
+
+/**
+ * A caching decorator for any {@link MovieGateway}.
+ *
+ * <p>Movie details are kept in two tiers:
+ * <ul>
+ *     <li>a bounded in-memory LRU tier, and</li>
+ *     <li>an optional on-disk tier (one JSON file per movie) that survives restarts.</li>
+ * </ul>
+ * Search, popular and discover pages are cached in memory only. Each endpoint has its own time-to-live.
+ *
+ * <p>Every movie returned by a search, popular or discover call is also recorded in the in-memory tier once it has
+ * been read from its page, so a later {@link #findById(String)} for a movie the user has just seen is served without
+ * another request. Lazily built pages stay lazy: caching them builds none of their movies.
+ *
+ * <p>The cache also implements {@link AsyncMovieGateway}. Memory hits complete immediately; disk reads run on a
+ * background thread, and misses go to the wrapped gateway's own non-blocking API when it has one.
+ *
+ * <p>This class is safe to use from multiple threads. Requests to the wrapped gateway are made outside of any
+ * lock.
+ */
+public class CachingMovieGateway implements MovieGateway, AsyncMovieGateway {
+
+    /**
+     * The TMDb endpoints whose results are cached, each with its own time-to-live.
+     */
+    public enum Endpoint {
+        DETAILS,
+        SEARCH,
+        POPULAR,
+        DISCOVER
+    }
+
+    private static final int DEFAULT_MAX_ENTRIES = 500;
+    private static final int MAX_PAGES = 64;
+    private static final String CACHED_AT = "cachedAt";
+    private static final String MOVIE = "movie";
+
+    private final MovieGateway delegate;
+    private final AsyncMovieGateway asyncDelegate;
+    private final ExecutorService ioExecutor =
+            Executors.newSingleThreadExecutor(new DaemonThreadFactory("movie-cache-io"));
+    private final Path cacheDirectory;
+    private final Map<Endpoint, Duration> ttls;
+    private final Clock clock;
+
+    private final LinkedHashMap<String, CacheEntry<Movie>> movies;
+    private final LinkedHashMap<String, CacheEntry<Object>> pages;
+
+    private long memoryHits;
+    private long diskHits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Creates a cache with default bounds and time-to-live values.
+     *
+     * @param delegate       the gateway that actually talks to TMDb
+     * @param cacheDirectory directory for the on-disk tier, or {@code null} for a memory-only cache
+     */
+    public CachingMovieGateway(MovieGateway delegate, String cacheDirectory) {
+        this(delegate, cacheDirectory, DEFAULT_MAX_ENTRIES, defaultTtls(), Clock.systemUTC());
+    }
+
+    /**
+     * Creates a cache with explicit settings.
+     *
+     * @param delegate       the gateway that actually talks to TMDb
+     * @param cacheDirectory directory for the on-disk tier, or {@code null} for a memory-only cache
+     * @param maxEntries     maximum number of movies kept in memory
+     * @param ttls           time-to-live per endpoint; missing endpoints use the defaults
+     * @param clock          clock used to stamp and expire entries
+     * @throws IllegalArgumentException if {@code maxEntries} is not positive
+     */
+    public CachingMovieGateway(MovieGateway delegate,
+                               String cacheDirectory,
+                               int maxEntries,
+                               Map<Endpoint, Duration> ttls,
+                               Clock clock) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.delegate = delegate;
+        this.asyncDelegate = delegate instanceof AsyncMovieGateway
+                ? (AsyncMovieGateway) delegate
+                : new ExecutorAsyncMovieGateway(delegate, ioExecutor);
+        this.cacheDirectory = cacheDirectory == null ? null : Path.of(cacheDirectory);
+        this.ttls = defaultTtls();
+        this.ttls.putAll(ttls);
+        this.clock = clock;
+        this.movies = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry<Movie>> eldest) {
+                if (size() > maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry<Object>> eldest) {
+                if (size() > MAX_PAGES) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    private static Map<Endpoint, Duration> defaultTtls() {
+        final Map<Endpoint, Duration> defaults = new EnumMap<>(Endpoint.class);
+        defaults.put(Endpoint.DETAILS, Duration.ofHours(24));
+        defaults.put(Endpoint.SEARCH, Duration.ofMinutes(10));
+        defaults.put(Endpoint.POPULAR, Duration.ofMinutes(30));
+        defaults.put(Endpoint.DISCOVER, Duration.ofMinutes(30));
+        return defaults;
+    }
+
+    // ===============================================================================================================
+    // ================================================ PUBLIC METHODS ===============================================
+    // ===============================================================================================================
+
+    /**
+     * Looks a movie up in memory, then on disk, and only then asks the wrapped gateway.
+     *
+     * @param movieId the TMDb movie id
+     * @return the movie, or empty if TMDb does not know it
+     */
+    @Override
+    public Optional<Movie> findById(String movieId) {
+        final Movie cached = lookupMovie(movieId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        return storeDetails(delegate.findById(movieId));
+    }
+
+    /**
+     * Serves every id it can from the cache and fetches only the misses, as a single batch, from the wrapped
+     * gateway.
+     */
+    @Override
+    public Map<String, Movie> findByIds(Collection<String> movieIds) {
+        final Map<String, Movie> cached = new LinkedHashMap<>();
+        final List<String> missing = new ArrayList<>();
+        for (String movieId : new LinkedHashSet<>(movieIds)) {
+            final Movie movie = lookupMovie(movieId);
+            if (movie != null) {
+                cached.put(movieId, movie);
+            }
+            else {
+                missing.add(movieId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return cached;
+        }
+
+        final Map<String, Movie> fetched = delegate.findByIds(missing);
+        for (Movie movie : fetched.values()) {
+            storeDetails(Optional.of(movie));
+        }
+
+        // Preserve the caller's order across cached and fetched entries
+        final Map<String, Movie> found = new LinkedHashMap<>();
+        for (String movieId : movieIds) {
+            final Movie movie = cached.containsKey(movieId) ? cached.get(movieId) : fetched.get(movieId);
+            if (movie != null) {
+                found.put(movieId, movie);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public List<Movie> searchByTitle(String query) {
+        return delegate.searchByTitle(query);
+    }
+
+    @Override
+    public PagedMovieResult searchByTitle(String query, int page) throws MovieDataAccessException {
+        final String key = "search:" + query + ":" + page;
+        final PagedMovieResult cached = lookupPage(key, PagedMovieResult.class);
+        if (cached != null) {
+            return cached;
+        }
+
+        return storePage(key, delegate.searchByTitle(query, page), Endpoint.SEARCH);
+    }
+
+    @Override
+    public List<Movie> filterByGenres(List<Integer> genreIds) {
+        final String key = "discover:" + genreIds;
+        @SuppressWarnings("unchecked")
+        final List<Movie> cached = lookupPage(key, List.class);
+        if (cached != null) {
+            return cached;
+        }
+
+        return storeDiscover(key, delegate.filterByGenres(genreIds));
+    }
+
+    @Override
+    public PagedMovieResult getPopularMovies(int page) throws MovieDataAccessException {
+        final String key = "popular:" + page;
+        final PagedMovieResult cached = lookupPage(key, PagedMovieResult.class);
+        if (cached != null) {
+            return cached;
+        }
+
+        return storePage(key, delegate.getPopularMovies(page), Endpoint.POPULAR);
+    }
+
+    // ===============================================================================================================
+    // ================================================ ASYNC METHODS ================================================
+    // ===============================================================================================================
+
+    @Override
+    public CompletableFuture<Optional<Movie>> findByIdAsync(String movieId) {
+        final Movie inMemory = lookupMemory(movieId);
+        if (inMemory != null) {
+            return CompletableFuture.completedFuture(Optional.of(inMemory));
+        }
+        return CompletableFuture.supplyAsync(() -> lookupDisk(movieId), ioExecutor)
+                .thenCompose(fromDisk -> fromDisk != null
+                        ? CompletableFuture.completedFuture(Optional.of(fromDisk))
+                        : asyncDelegate.findByIdAsync(movieId).thenApply(this::storeDetails));
+    }
+
+    @Override
+    public CompletableFuture<PagedMovieResult> searchByTitleAsync(String query, int page) {
+        final String key = "search:" + query + ":" + page;
+        final PagedMovieResult cached = lookupPage(key, PagedMovieResult.class);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return asyncDelegate.searchByTitleAsync(query, page)
+                .thenApply(result -> storePage(key, result, Endpoint.SEARCH));
+    }
+
+    @Override
+    public CompletableFuture<List<Movie>> filterByGenresAsync(List<Integer> genreIds) {
+        final String key = "discover:" + genreIds;
+        @SuppressWarnings("unchecked")
+        final List<Movie> cached = lookupPage(key, List.class);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return asyncDelegate.filterByGenresAsync(genreIds)
+                .thenApply(result -> storeDiscover(key, result));
+    }
+
+    @Override
+    public CompletableFuture<PagedMovieResult> getPopularMoviesAsync(int page) {
+        final String key = "popular:" + page;
+        final PagedMovieResult cached = lookupPage(key, PagedMovieResult.class);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return asyncDelegate.getPopularMoviesAsync(page)
+                .thenApply(result -> storePage(key, result, Endpoint.POPULAR));
+    }
+
+    /**
+     * Returns a snapshot of the cache counters.
+     *
+     * @return the current hit, miss and eviction counts
+     */
+    public synchronized MovieCacheStats getStats() {
+        return new MovieCacheStats(memoryHits, diskHits, misses, evictions, movies.size());
+    }
+
+    /**
+     * Returns the wrapped gateway's rate limiter counters, when it is a {@link TMDbMovieDataAccessObject}.
+     *
+     * @return a snapshot of the rate limiter and retry counters, or empty for other gateways
+     */
+    public Optional<RateLimiterStats> getRateLimiterStats() {
+        return tmdbDelegate().map(TMDbMovieDataAccessObject::getRateLimiterStats);
+    }
+
+    /**
+     * Returns the wrapped gateway's request coalescing counters, when it is a {@link TMDbMovieDataAccessObject}.
+     *
+     * @return a snapshot of the request coalescing counters, or empty for other gateways
+     */
+    public Optional<RequestCoalescingStats> getCoalescingStats() {
+        return tmdbDelegate().map(TMDbMovieDataAccessObject::getCoalescingStats);
+    }
+
+    private Optional<TMDbMovieDataAccessObject> tmdbDelegate() {
+        return delegate instanceof TMDbMovieDataAccessObject
+                ? Optional.of((TMDbMovieDataAccessObject) delegate)
+                : Optional.empty();
+    }
+
+    // ===============================================================================================================
+    // =============================================== MEMORY TIER ===================================================
+    // ===============================================================================================================
+
+    private Movie lookupMovie(String movieId) {
+        final Movie inMemory = lookupMemory(movieId);
+        return inMemory != null ? inMemory : lookupDisk(movieId);
+    }
+
+    private synchronized Movie lookupMemory(String movieId) {
+        final CacheEntry<Movie> entry = movies.get(movieId);
+        if (entry != null && !entry.isExpired(clock.millis())) {
+            memoryHits++;
+            return entry.value;
+        }
+        if (entry != null) {
+            movies.remove(movieId);
+        }
+        return null;
+    }
+
+    private Movie lookupDisk(String movieId) {
+        final CacheEntry<Movie> fromDisk = readFromDisk(movieId);
+        synchronized (this) {
+            if (fromDisk != null) {
+                diskHits++;
+                // Keeps the expiry of the file, so reloading it does not extend its life
+                movies.put(movieId, fromDisk);
+            }
+            else {
+                misses++;
+            }
+        }
+        return fromDisk == null ? null : fromDisk.value;
+    }
+
+    private Optional<Movie> storeDetails(Optional<Movie> fetched) {
+        fetched.ifPresent(movie -> {
+            putMovie(movie, Endpoint.DETAILS);
+            writeToDisk(movie);
+        });
+        return fetched;
+    }
+
+    private PagedMovieResult storePage(String key, PagedMovieResult result, Endpoint endpoint) {
+        // Movies of a lazily built page are recorded as they are read, so caching the page builds none of them
+        final long expiresAt = expiryFor(endpoint);
+        final PagedMovieResult seeding = result.onMaterialise(movie -> seedMovie(movie, expiresAt));
+        putPage(key, seeding, endpoint);
+        return seeding;
+    }
+
+    private List<Movie> storeDiscover(String key, List<Movie> result) {
+        // An empty list is also what the gateway returns on failure, so it is not worth remembering
+        if (!result.isEmpty()) {
+            putPage(key, result, Endpoint.DISCOVER);
+            final long expiresAt = expiryFor(Endpoint.DISCOVER);
+            for (Movie movie : result) {
+                seedMovie(movie, expiresAt);
+            }
+        }
+        return result;
+    }
+
+    private synchronized void putMovie(Movie movie, Endpoint endpoint) {
+        movies.put(movie.getMovieId(), new CacheEntry<>(movie, expiryFor(endpoint)));
+    }
+
+    // Search results carry the same fields as the details endpoint, so they can answer findById directly
+    private synchronized void seedMovie(Movie movie, long expiresAt) {
+        final CacheEntry<Movie> existing = movies.get(movie.getMovieId());
+        // Never shorten the life of a fresher details entry
+        if (existing == null || existing.expiresAt < expiresAt) {
+            movies.put(movie.getMovieId(), new CacheEntry<>(movie, expiresAt));
+        }
+    }
+
+    private synchronized <T> T lookupPage(String key, Class<T> type) {
+        final CacheEntry<Object> entry = pages.get(key);
+        if (entry != null && !entry.isExpired(clock.millis())) {
+            memoryHits++;
+            return type.cast(entry.value);
+        }
+        if (entry != null) {
+            pages.remove(key);
+        }
+        misses++;
+        return null;
+    }
+
+    private synchronized void putPage(String key, Object value, Endpoint endpoint) {
+        pages.put(key, new CacheEntry<>(value, expiryFor(endpoint)));
+    }
+
+    private long expiryFor(Endpoint endpoint) {
+        return clock.millis() + ttls.get(endpoint).toMillis();
+    }
+
+    // ===============================================================================================================
+    // ================================================ DISK TIER ====================================================
+    // ===============================================================================================================
+
+    private Path diskPath(String movieId) {
+        return cacheDirectory.resolve(URLEncoder.encode(movieId, StandardCharsets.UTF_8) + ".json");
+    }
+
+    // Returns the movie with the expiry its file was written with, or null if there is no fresh file
+    private CacheEntry<Movie> readFromDisk(String movieId) {
+        if (cacheDirectory == null) {
+            return null;
+        }
+        final Path path = diskPath(movieId);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try {
+            final JSONObject json = new JSONObject(Files.readString(path));
+            final long expiresAt = json.getLong(CACHED_AT) + ttls.get(Endpoint.DETAILS).toMillis();
+            if (clock.millis() >= expiresAt) {
+                Files.deleteIfExists(path);
+                return null;
+            }
+            return new CacheEntry<>(MovieJsonMapper.fromJson(json.getJSONObject(MOVIE)), expiresAt);
+        }
+        catch (IOException | JSONException e) {
+            // A damaged cache file is just a miss
+            return null;
+        }
+    }
+
+    private void writeToDisk(Movie movie) {
+        if (cacheDirectory == null) {
+            return;
+        }
+        final JSONObject json = new JSONObject();
+        json.put(CACHED_AT, clock.millis());
+        json.put(MOVIE, MovieJsonMapper.toJson(movie));
+        try {
+            Files.createDirectories(cacheDirectory);
+            // Replaced in one step, so a crash mid-write cannot leave a torn file behind
+            AtomicFiles.write(diskPath(movie.getMovieId()), json.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        catch (IOException e) {
+            // The disk tier is best-effort; the movie is still cached in memory
+        }
+    }
+
+    private static final class CacheEntry<T> {
+        private final T value;
+        private final long expiresAt;
+
+        private CacheEntry(T value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package data_access;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import entity.User;
+import use_case.change_password.ChangePasswordUserDataAccessInterface;
+import use_case.common.UserDataAccessInterface;
+
+/**
+ * Thread-safe in-memory user store.
+ *
+ * <p>Users are kept in a {@link ConcurrentHashMap}, so single lookups and saves never block one another.
+ * Read-modify-save cycles passed to {@link #runLocked} hold a lock striped by username: two cycles on the same user
+ * run one after the other (neither loses the other's changes), while cycles on different users run in parallel.
+ */
+public class ConcurrentUserDataAccessObject implements UserDataAccessInterface,
+                                                       ChangePasswordUserDataAccessInterface {
+
+    private final ConcurrentMap<String, User> accounts = new ConcurrentHashMap<>();
+    private final StripedLocks locks;
+    private volatile String currentUsername;
+
+    /**
+     * Creates an empty store with {@link StripedLocks#DEFAULT_STRIPES} lock stripes.
+     */
+    public ConcurrentUserDataAccessObject() {
+        this(StripedLocks.DEFAULT_STRIPES);
+    }
+
+    /**
+     * Creates an empty store.
+     *
+     * @param lockStripes number of locks shared by all usernames; more stripes mean fewer unrelated users waiting
+     *                    on each other
+     * @throws IllegalArgumentException if {@code lockStripes} is not positive
+     */
+    public ConcurrentUserDataAccessObject(int lockStripes) {
+        this.locks = new StripedLocks(lockStripes);
+    }
+
+    // ===============================================================================================================
+    // =========================================== PUBLIC INTERFACE METHODS ==========================================
+    // ===============================================================================================================
+
+    /**
+     * Saves the full state of a user.
+     *
+     * @param user the user to persist (must not be {@code null})
+     */
+    @Override
+    public void save(User user) {
+        accounts.put(user.getUserName(), user);
+    }
+
+    /**
+     * Retrieves a user by username.
+     *
+     * @param userName the username to look up (must not be {@code null})
+     * @return the {@link User} if found or {@code null} otherwise
+     */
+    @Override
+    public User getUser(String userName) {
+        return accounts.get(userName);
+    }
+
+    /**
+     * Runs {@code cycle} while holding the lock stripe of {@code username}.
+     *
+     * @param username the user the cycle reads and writes
+     * @param cycle    the read-modify-save steps
+     */
+    @Override
+    public void runLocked(String username, Runnable cycle) {
+        locks.run(username, cycle);
+    }
+
+    /**
+     * Returns {@code true} iff a user with this username exists in storage.
+     *
+     * @param username the username to check
+     * @return {@code true} if the user exists,
+     *         {@code false} otherwise
+     */
+    @Override
+    public boolean existsByName(String username) {
+        return accounts.containsKey(username);
+    }
+
+    /**
+     * Records the username of the currently authenticated user, or clears it if {@code null}.
+     *
+     * @param username the username to record, or {@code null} to clear
+     */
+    @Override
+    public void setCurrentUsername(String username) {
+        this.currentUsername = username;
+    }
+
+    /**
+     * Returns the username of the user currently recorded as logged in.
+     *
+     * @return the username of the logged-in user, or {@code null} if none is set
+     */
+    @Override
+    public String getCurrentUsername() {
+        return currentUsername;
+    }
+
+    /**
+     * Saves the updated password for an existing user.
+     *
+     * @param user the user whose password is to be updated
+     */
+    @Override
+    public void changePassword(User user) {
+        runLocked(user.getUserName(), () -> save(user));
+    }
+}
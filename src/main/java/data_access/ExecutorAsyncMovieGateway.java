@@ -0,0 +1,71 @@
+package data_access;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import entity.Movie;
+import use_case.common.AsyncMovieGateway;
+import use_case.common.MovieDataAccessException;
+import use_case.common.MovieGateway;
+import use_case.common.PagedMovieResult;
+
+/**
+ * Adapts any blocking {@link MovieGateway} to the {@link AsyncMovieGateway} API by running each call on an
+ * executor.
+ *
+ * <p>Used for gateways that have no native non-blocking transport, such as test doubles, and as the fallback
+ * path of {@link CachingMovieGateway}.
+ */
+public class ExecutorAsyncMovieGateway implements AsyncMovieGateway {
+
+    private final MovieGateway delegate;
+    private final Executor executor;
+
+    /**
+     * Creates an adapter.
+     *
+     * @param delegate the blocking gateway to call
+     * @param executor the executor the blocking calls run on
+     */
+    public ExecutorAsyncMovieGateway(MovieGateway delegate, Executor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Optional<Movie>> findByIdAsync(String movieId) {
+        return CompletableFuture.supplyAsync(() -> delegate.findById(movieId), executor);
+    }
+
+    @Override
+    public CompletableFuture<PagedMovieResult> searchByTitleAsync(String query, int page) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return delegate.searchByTitle(query, page);
+            }
+            catch (MovieDataAccessException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<List<Movie>> filterByGenresAsync(List<Integer> genreIds) {
+        return CompletableFuture.supplyAsync(() -> delegate.filterByGenres(genreIds), executor);
+    }
+
+    @Override
+    public CompletableFuture<PagedMovieResult> getPopularMoviesAsync(int page) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return delegate.getPopularMovies(page);
+            }
+            catch (MovieDataAccessException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+}
@@ -1,25 +1,33 @@
 package data_access;
 
 import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.time.LocalDateTime;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
 
-import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
+import org.json.JSONTokener;
 
-import entity.Movie;
-import entity.Review;
 import entity.User;
-import entity.WatchHistory;
-import entity.WatchList;
-import entity.WatchedMovie;
 import entity.factories.UserFactory;
 import use_case.change_password.ChangePasswordUserDataAccessInterface;
+import use_case.common.Durability;
 import use_case.common.UserDataAccessInterface;
 import use_case.view_profile.ProfileStats;
 import use_case.view_profile.ViewProfileUserDataAccessInterface;
@@ -29,33 +37,73 @@ import use_case.view_profile.ViewProfileUserDataAccessInterface;
  *
  * <p>This DAO persists complete {@link User} entities, including nested watch lists,
  * reviews, and watch history, to a JSON file.
+ *
+ * <p>Changes are not written by rewriting that file. Each {@link #save} appends one record holding the saved user
+ * to a change log next to it ({@code users.json.log}), so the cost of a save depends only on the size of that user.
+ * Once the log has grown past a threshold it is compacted in the background: the current state is written to
+ * {@code users.json} as a new snapshot and the records it covers are dropped from the log. On startup the snapshot
+ * is loaded and the log replayed over it; a record cut short by a crash is discarded.
+ *
+ * <p>A plain {@link #save(User)} hands its record to the operating system without syncing it, so it survives the
+ * application crashing but not the operating system crashing or losing power. Saves made with
+ * {@link Durability#IMMEDIATE} sync the log before they return.
  */
 public class FileUserDataAccessObject implements UserDataAccessInterface,
                                                  ChangePasswordUserDataAccessInterface,
-                                                 ViewProfileUserDataAccessInterface {
+                                                 ViewProfileUserDataAccessInterface,
+                                                 AutoCloseable {
+
+    /** Log size, in bytes, after which a compaction is started (it also waits until the log outgrows the snapshot). */
+    public static final long DEFAULT_COMPACTION_THRESHOLD_BYTES = 1024 * 1024;
+
+    private static final String LOG_SUFFIX = ".log";
 
     private final Path jsonPath;
-    private final UserFactory userFactory;
+    private final Path logPath;
+    private final UserJsonCodec codec;
+    private final long compactionThresholdBytes;
     private final Map<String, User> accounts = new HashMap<>();
+    // The last persisted JSON of each user; snapshots are built from these so compaction never reads live entities
+    private final Map<String, String> persisted = new LinkedHashMap<>();
+    private final ExecutorService compactor;
+    // Held for a whole compaction so two of them never interleave
+    private final Object compactionLock = new Object();
     private String currentUsername;
+    private FileChannel log;
+    private long logBytes;
+    private long snapshotBytes;
+    private boolean compactionScheduled;
 
     /**
      * Constructs this DAO, loading any existing data or creating an empty file if needed.
      *
      * @param filePath the path of the JSON file
      * @param userFactory factory for creating {@link User} objects
-     * @throws RuntimeException if there is an IOException when accessing the file
+     * @throws UncheckedIOException if there is an IOException when accessing the file
      */
     public FileUserDataAccessObject(String filePath, UserFactory userFactory) {
-        this.jsonPath = Path.of(filePath);
-        this.userFactory = userFactory;
+        this(filePath, userFactory, DEFAULT_COMPACTION_THRESHOLD_BYTES);
+    }
 
-        if (!Files.exists(jsonPath)) {
-            writeJSON();
-        }
-        else {
-            load();
-        }
+    /**
+     * Constructs this DAO with a custom compaction threshold.
+     *
+     * @param filePath the path of the JSON file
+     * @param userFactory factory for creating {@link User} objects
+     * @param compactionThresholdBytes log size in bytes after which the log is folded into the snapshot
+     * @throws UncheckedIOException if there is an IOException when accessing the file
+     */
+    public FileUserDataAccessObject(String filePath, UserFactory userFactory, long compactionThresholdBytes) {
+        this.jsonPath = Path.of(filePath);
+        this.logPath = jsonPath.resolveSibling(jsonPath.getFileName() + LOG_SUFFIX);
+        this.codec = new UserJsonCodec(userFactory);
+        this.compactionThresholdBytes = compactionThresholdBytes;
+        // A single compaction thread that goes away when idle
+        this.compactor = new ThreadPoolExecutor(0, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new DaemonThreadFactory("user-log-compactor"));
+
+        load();
+        openLog();
     }
 
     // ===============================================================================================================
@@ -63,13 +111,36 @@ public class FileUserDataAccessObject implements UserDataAccessInterface,
     // ===============================================================================================================
 
     /**
-     * Saves the full state of a user, including nested entities, into the JSON file.
+     * Saves the full state of a user, including nested entities, by appending it to the change log.
      * @param user the user to persist (must not be {@code null})
      */
     @Override
-    public void save(User user) {
+    public synchronized void save(User user) {
+        final String userJson = codec.toJson(user).toString();
         accounts.put(user.getUserName(), user);
-        writeJSON();
+        persisted.put(user.getUserName(), userJson);
+        append("{\"" + LogKeys.OP + "\":\"" + LogKeys.OP_USER + "\",\"" + LogKeys.USER + "\":" + userJson + "}");
+    }
+
+    /**
+     * Saves a user like {@link #save(User)}, syncing the log to disk first if {@code durability} is
+     * {@link Durability#IMMEDIATE}. Other durabilities leave the record to the operating system.
+     *
+     * @param user       the user to persist (must not be {@code null})
+     * @param durability how soon the change must be safe on disk
+     * @throws UncheckedIOException if the log cannot be written or synced
+     */
+    @Override
+    public synchronized void save(User user, Durability durability) {
+        save(user);
+        if (durability == Durability.IMMEDIATE) {
+            try {
+                log.force(false);
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
     }
 
     /**
@@ -79,7 +150,7 @@ public class FileUserDataAccessObject implements UserDataAccessInterface,
      * @return the {@link User} if found or {@code null} otherwise
      */
     @Override
-    public User getUser(String username) {
+    public synchronized User getUser(String username) {
         return accounts.get(username);
     }
 
@@ -91,7 +162,7 @@ public class FileUserDataAccessObject implements UserDataAccessInterface,
      *         {@code false} otherwise
      */
     @Override
-    public boolean existsByName(String username) {
+    public synchronized boolean existsByName(String username) {
         return accounts.containsKey(username);
     }
 
@@ -101,9 +172,12 @@ public class FileUserDataAccessObject implements UserDataAccessInterface,
      * @param username the username to record, or {@code null} to clear
      */
     @Override
-    public void setCurrentUsername(String username) {
+    public synchronized void setCurrentUsername(String username) {
         this.currentUsername = username;
-        writeJSON();
+        append(new JSONObject()
+                .put(LogKeys.OP, LogKeys.OP_CURRENT)
+                .put(LogKeys.USERNAME, username == null ? JSONObject.NULL : username)
+                .toString());
     }
 
     /**
@@ -112,7 +186,7 @@ public class FileUserDataAccessObject implements UserDataAccessInterface,
      * @return the username of the logged-in user, or {@code null} if none is set
      */
     @Override
-    public String getCurrentUsername() {
+    public synchronized String getCurrentUsername() {
         return currentUsername;
     }
 
@@ -133,7 +207,7 @@ public class FileUserDataAccessObject implements UserDataAccessInterface,
      * @return a {@link ProfileStats} instance
      */
     @Override
-    public ProfileStats getUserStats(String username) {
+    public synchronized ProfileStats getUserStats(String username) {
         final User user = accounts.get(username);
         if (user == null) {
             return null;
@@ -147,296 +221,256 @@ public class FileUserDataAccessObject implements UserDataAccessInterface,
         return new ProfileStats(watchlistCount, reviewCount, watchedMoviesCount);
     }
 
-    // ===============================================================================================================
-    // ================================================== I/O LOGIC ==================================================
-    // ===============================================================================================================
-
-    private void writeJSON() {
-        try {
-            final JSONObject root = new JSONObject();
-            root.put(JsonKeys.CURRENT_USER, currentUsername);
+    // Used when migrating to another store
+    synchronized List<User> allUsers() {
+        return new ArrayList<>(accounts.values());
+    }
 
-            final JSONObject usersJson = new JSONObject();
-            for (User user : accounts.values()) {
-                usersJson.put(user.getUserName(), userToJson(user));
+    /**
+     * Writes the current state to the JSON snapshot and drops the log records it covers.
+     *
+     * <p>This normally happens in the background; saves made while the snapshot is written are kept in the log.
+     *
+     * @throws UncheckedIOException if the snapshot or the log cannot be written
+     */
+    public void compact() {
+        synchronized (compactionLock) {
+            final String current;
+            final Map<String, String> users;
+            final long covered;
+            synchronized (this) {
+                compactionScheduled = false;
+                // Only the references are copied here; the snapshot is built without blocking saves
+                current = currentUsername;
+                users = new LinkedHashMap<>(persisted);
+                covered = logBytes;
+            }
+            final byte[] snapshot = snapshotText(current, users).getBytes(StandardCharsets.UTF_8);
+            try {
+                // A crash after this step is harmless: replaying the old log over the new snapshot ends in the
+                // same state, because every record is a complete user
+                AtomicFiles.write(jsonPath, snapshot);
+                synchronized (this) {
+                    snapshotBytes = snapshot.length;
+                    final ByteBuffer tail = ByteBuffer.allocate(Math.toIntExact(logBytes - covered));
+                    try (FileChannel reader = FileChannel.open(logPath, StandardOpenOption.READ)) {
+                        while (tail.hasRemaining() && reader.read(tail, covered + tail.position()) >= 0) {
+                            // keep reading
+                        }
+                    }
+                    log.close();
+                    try {
+                        AtomicFiles.write(logPath, tail.array());
+                    }
+                    finally {
+                        openLog();
+                    }
+                }
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
-
-            root.put(JsonKeys.USERS, usersJson);
-
-            Files.writeString(jsonPath, root.toString(4));
-
-        }
-        catch (IOException e) {
-            throw new RuntimeException(e);
         }
     }
 
-    private void load() {
-        try {
-            final String raw = Files.readString(jsonPath);
-
-            if (raw.isBlank()) {
-                return;
+    /**
+     * Compacts the log and releases the file handle. The DAO must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        compact();
+        compactor.shutdown();
+        synchronized (this) {
+            try {
+                log.close();
             }
-
-            final JSONObject root = new JSONObject(raw);
-
-            this.currentUsername = root.optString(JsonKeys.CURRENT_USER, null);
-
-            final JSONObject usersJson = root.getJSONObject(JsonKeys.USERS);
-            if (usersJson != null) {
-                for (String username : usersJson.keySet()) {
-                    final JSONObject u = usersJson.getJSONObject(username);
-                    final User user = jsonToUser(u);
-                    accounts.put(username, user);
-                }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
         }
-        catch (IOException e) {
-            throw new RuntimeException(e);
-        }
     }
 
     // ===============================================================================================================
-    // ================================================= JSON HELPERS ================================================
+    // ================================================== I/O LOGIC ==================================================
     // ===============================================================================================================
 
-    private JSONObject userToJson(User user) {
-        final JSONObject json = new JSONObject();
-        json.put(JsonKeys.USERNAME, user.getUserName());
-        json.put(JsonKeys.PASSWORD, user.getPassword());
-
-        // WatchLists
-        final JSONArray wlsJson = new JSONArray();
-        for (WatchList wl : user.getWatchLists()) {
-            wlsJson.put(watchListToJson(wl));
+    // Must be called while holding the lock
+    private void append(String recordJson) {
+        final byte[] line = (checksum(recordJson) + ' ' + recordJson + '\n').getBytes(StandardCharsets.UTF_8);
+        try {
+            final ByteBuffer buffer = ByteBuffer.wrap(line);
+            while (buffer.hasRemaining()) {
+                log.write(buffer);
+            }
+            logBytes += line.length;
         }
-        json.put(JsonKeys.WATCHLISTS, wlsJson);
-
-        // Reviews
-        final JSONObject reviewsJson = new JSONObject();
-        for (Review r : user.getReviewsByMovieId().values()) {
-            reviewsJson.put(r.getReviewId(), reviewToJson(r));
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        json.put(JsonKeys.REVIEWS, reviewsJson);
-
-        // WatchHistory
-        if (user.getWatchHistory() != null) {
-            json.put(JsonKeys.WATCH_HISTORY, watchHistoryToJSON(user.getWatchHistory()));
+        if (logBytes >= Math.max(compactionThresholdBytes, snapshotBytes) && !compactionScheduled) {
+            compactionScheduled = true;
+            compactor.execute(this::compactQuietly);
         }
-
-        return json;
     }
 
-    private User jsonToUser(JSONObject json) {
-        final User user = userFactory.create(
-                json.getString(JsonKeys.USERNAME),
-                json.getString(JsonKeys.PASSWORD)
-        );
-
-        user.getWatchLists().clear();
-
-        // WatchLists
-        final JSONArray wlsJson = json.optJSONArray(JsonKeys.WATCHLISTS);
-        if (wlsJson != null) {
-            for (int i = 0; i < wlsJson.length(); i++) {
-                final WatchList wl = jsonToWatchList(wlsJson.getJSONObject(i), user);
-                user.addWatchList(wl);
-            }
+    private void compactQuietly() {
+        try {
+            compact();
         }
-
-        // Reviews
-        final JSONObject reviewsJson = json.optJSONObject(JsonKeys.REVIEWS);
-        if (reviewsJson != null) {
-            for (String id : reviewsJson.keySet()) {
-                final Review r = jsonToReview(reviewsJson.getJSONObject(id), user);
-                user.addReview(r);
-            }
+        catch (UncheckedIOException e) {
+            // The log still holds every change; the next threshold crossing tries again
+            System.err.println("Error compacting user log: " + e.getMessage());
         }
+    }
 
-        // WatchHistory
-        if (json.has(JsonKeys.WATCH_HISTORY)) {
-            final WatchHistory wh = jsonToWatchHistory(json.getJSONObject(JsonKeys.WATCH_HISTORY), user);
-            user.setWatchHistory(wh);
+    private static String snapshotText(String currentUsername, Map<String, String> users) {
+        final StringBuilder out = new StringBuilder("{\n");
+        out.append(JSONObject.quote(JsonKeys.CURRENT_USER)).append(": ")
+                .append(currentUsername == null ? "null" : JSONObject.quote(currentUsername)).append(",\n");
+        out.append(JSONObject.quote(JsonKeys.USERS)).append(": {");
+        String separator = "\n";
+        for (Map.Entry<String, String> entry : users.entrySet()) {
+            out.append(separator).append(JSONObject.quote(entry.getKey())).append(": ").append(entry.getValue());
+            separator = ",\n";
         }
-
-        return user;
+        return out.append("\n}}\n").toString();
     }
 
-    // ================================================== WatchList ==================================================
-
-    private JSONObject watchListToJson(WatchList watchList) {
-        final JSONObject json = new JSONObject();
-        json.put(JsonKeys.WL_ID, watchList.getWatchListId());
-        json.put(JsonKeys.WL_NAME, watchList.getName());
-        json.put(JsonKeys.WL_DATE_CREATED, watchList.getDateCreated().toString());
-
-        final JSONArray moviesJson = new JSONArray();
-        for (Movie m : watchList.getMovies()) {
-            moviesJson.put(movieToJSON(m));
+    private void load() {
+        try {
+            if (!Files.exists(jsonPath)) {
+                AtomicFiles.write(jsonPath, snapshotText(currentUsername, persisted).getBytes(StandardCharsets.UTF_8));
+            }
+            snapshotBytes = Files.size(jsonPath);
+
+            // Parsed straight from the file, so the snapshot is never held as one string as well as parsed
+            JSONObject root = null;
+            try (Reader reader = Files.newBufferedReader(jsonPath, StandardCharsets.UTF_8)) {
+                final JSONTokener tokener = new JSONTokener(reader);
+                if (tokener.nextClean() != 0) {
+                    tokener.back();
+                    root = new JSONObject(tokener);
+                }
+            }
+            if (root != null) {
+                this.currentUsername = root.optString(JsonKeys.CURRENT_USER, null);
+
+                final JSONObject usersJson = root.optJSONObject(JsonKeys.USERS);
+                if (usersJson != null) {
+                    for (String username : usersJson.keySet()) {
+                        apply(usersJson.getJSONObject(username));
+                    }
+                }
+            }
+            replayLog();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        json.put(JsonKeys.WL_MOVIES, moviesJson);
-
-        return json;
     }
 
-    private WatchList jsonToWatchList(JSONObject json, User owner) {
-        final WatchList wl = new WatchList(owner, json.getString(JsonKeys.WL_NAME));
-        final JSONArray moviesJson = json.optJSONArray(JsonKeys.WL_MOVIES);
-
-        if (moviesJson != null) {
-            for (int i = 0; i < moviesJson.length(); i++) {
-                final Movie m = jsonToMovie(moviesJson.getJSONObject(i));
-                wl.addMovie(m);
+    /*
+     * Applies every intact record of the log. A crash can leave the last record half written; replay stops at the
+     * first record that is incomplete or fails its checksum, and the log is cut back to the end of the last good
+     * record so that new appends do not follow garbage.
+     */
+    private void replayLog() throws IOException {
+        if (!Files.exists(logPath)) {
+            return;
+        }
+        final byte[] bytes = Files.readAllBytes(logPath);
+        int good = 0;
+        int start = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] != '\n') {
+                continue;
+            }
+            final JSONObject record = parseRecord(new String(bytes, start, i - start, StandardCharsets.UTF_8));
+            if (record == null) {
+                break;
+            }
+            if (LogKeys.OP_USER.equals(record.getString(LogKeys.OP))) {
+                apply(record.getJSONObject(LogKeys.USER));
+            }
+            else {
+                currentUsername = record.isNull(LogKeys.USERNAME) ? null : record.getString(LogKeys.USERNAME);
+            }
+            start = i + 1;
+            good = start;
+        }
+        if (good < bytes.length) {
+            try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.WRITE)) {
+                channel.truncate(good);
             }
         }
-
-        return wl;
     }
 
-    // ==================================================== Movie ====================================================
-
-    private JSONObject movieToJSON(Movie movie) {
-        final JSONObject json = new JSONObject();
-        json.put(JsonKeys.MOVIE_ID, movie.getMovieId());
-        json.put(JsonKeys.MOVIE_TITLE, movie.getTitle());
-        json.put(JsonKeys.MOVIE_PLOT, movie.getPlot());
-        json.put(JsonKeys.MOVIE_GENRE_IDS, new JSONArray(movie.getGenreIds()));
-        json.put(JsonKeys.MOVIE_RELEASE_DATE, movie.getReleaseDate());
-        json.put(JsonKeys.MOVIE_RATING, movie.getRating());
-        json.put(JsonKeys.MOVIE_POSTER_URL, movie.getPosterUrl());
-        json.put(JsonKeys.MOVIE_POPULARITY, movie.getPopularity());
-        return json;
+    private void apply(JSONObject userJson) {
+        final User user = codec.fromJson(userJson);
+        accounts.put(user.getUserName(), user);
+        persisted.put(user.getUserName(), userJson.toString());
     }
 
-    private Movie jsonToMovie(JSONObject json) {
-        final List<Integer> genreIds = new ArrayList<>();
-        final JSONArray genreIdsJson = json.getJSONArray(JsonKeys.MOVIE_GENRE_IDS);
-        for (int i = 0; i < genreIdsJson.length(); i++) {
-            genreIds.add(genreIdsJson.getInt(i));
+    private static JSONObject parseRecord(String line) {
+        final int space = line.indexOf(' ');
+        if (space < 0) {
+            return null;
+        }
+        final String json = line.substring(space + 1);
+        if (!line.substring(0, space).equals(checksum(json))) {
+            return null;
+        }
+        try {
+            final JSONObject record = new JSONObject(json);
+            return record.has(LogKeys.OP) ? record : null;
+        }
+        catch (JSONException e) {
+            return null;
         }
-
-        return new Movie(
-                json.getString(JsonKeys.MOVIE_ID),
-                json.getString(JsonKeys.MOVIE_TITLE),
-                json.optString(JsonKeys.MOVIE_PLOT, null),
-                genreIds,
-                json.optString(JsonKeys.MOVIE_RELEASE_DATE, null),
-                json.optDouble(JsonKeys.MOVIE_RATING, 0),
-                json.optDouble(JsonKeys.MOVIE_POPULARITY, 0),
-                json.optString(JsonKeys.MOVIE_POSTER_URL, null)
-        );
-    }
-
-    // =================================================== Review ====================================================
-
-    private JSONObject reviewToJson(Review review) {
-        final JSONObject json = new JSONObject();
-        json.put(JsonKeys.REVIEW_ID, review.getReviewId());
-        json.put(JsonKeys.REVIEW_MOVIE, movieToJSON(review.getMovie()));
-        json.put(JsonKeys.REVIEW_RATING, review.getRating());
-        json.put(JsonKeys.REVIEW_COMMENT, review.getComment());
-        json.put(JsonKeys.REVIEW_CREATED_AT, review.getCreatedAt().toString());
-        return json;
     }
 
-    private Review jsonToReview(JSONObject json, User owner) {
-        final Movie movie = jsonToMovie(json.getJSONObject(JsonKeys.REVIEW_MOVIE));
-        final int rating = json.getInt(JsonKeys.REVIEW_RATING);
-        final String comment = json.optString(JsonKeys.REVIEW_COMMENT, "");
-        final LocalDateTime createdAt = LocalDateTime.parse(json.getString(JsonKeys.REVIEW_CREATED_AT));
-
-        return new Review(
-                json.getString(JsonKeys.REVIEW_ID),
-                owner,
-                movie,
-                rating,
-                comment,
-                createdAt
-        );
+    private static String checksum(String json) {
+        final CRC32 crc = new CRC32();
+        crc.update(json.getBytes(StandardCharsets.UTF_8));
+        return Long.toHexString(crc.getValue());
     }
 
-    // ================================================= WatchHistory ================================================
-
-    private JSONObject watchHistoryToJSON(WatchHistory watchHistory) {
-        final JSONObject json = new JSONObject();
-        json.put(JsonKeys.WH_ID, watchHistory.getWatchHistoryId());
-
-        final JSONArray moviesJson = new JSONArray();
-        for (WatchedMovie wm : watchHistory.getMovies()) {
-            final JSONObject obj = movieToJSON(wm);
-            obj.put(JsonKeys.WH_WATCHED_AT, wm.getWatchedDate().toString());
-            moviesJson.put(obj);
+    private void openLog() {
+        try {
+            log = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            logBytes = log.size();
         }
-        json.put(JsonKeys.WH_MOVIES, moviesJson);
-
-        return json;
-    }
-
-    private WatchHistory jsonToWatchHistory(JSONObject json, User owner) {
-        final WatchHistory wh = new WatchHistory(
-                json.getString(JsonKeys.WH_ID),
-                owner
-        );
-
-        final JSONArray moviesJson = json.optJSONArray(JsonKeys.WH_MOVIES);
-        if (moviesJson != null) {
-            for (int i = 0; i < moviesJson.length(); i++) {
-                final JSONObject obj = moviesJson.getJSONObject(i);
-                final Movie m = jsonToMovie(obj);
-                final LocalDateTime watchedAt = LocalDateTime.parse(obj.getString(JsonKeys.WH_WATCHED_AT));
-                wh.addWatchedMovie(new WatchedMovie(m, watchedAt));
-            }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-
-        return wh;
     }
 
+
     /**
-     * JSON key constants used for persistence.
+     * Root-level keys of the snapshot file.
      */
     private static final class JsonKeys {
 
-        // Root-level
         static final String CURRENT_USER = "currentUser";
         static final String USERS = "users";
 
-        // User
+        private JsonKeys() {
+        }
+    }
+
+    /**
+     * Keys of the change log records.
+     */
+    private static final class LogKeys {
+
+        static final String OP = "op";
+        static final String OP_USER = "user";
+        static final String OP_CURRENT = "current";
+        static final String USER = "user";
         static final String USERNAME = "username";
-        static final String PASSWORD = "password";
-        static final String WATCHLISTS = "watchlists";
-        static final String REVIEWS = "reviews";
-        static final String WATCH_HISTORY = "watchHistory";
-
-        // WatchList
-        static final String WL_ID = "id";
-        static final String WL_NAME = "name";
-        static final String WL_DATE_CREATED = "dateCreated";
-        static final String WL_MOVIES = "movies";
-
-        // Movie
-        static final String MOVIE_ID = "id";
-        static final String MOVIE_TITLE = "title";
-        static final String MOVIE_PLOT = "plot";
-        static final String MOVIE_GENRE_IDS = "genreIds";
-        static final String MOVIE_RELEASE_DATE = "releaseDate";
-        static final String MOVIE_RATING = "rating";
-        static final String MOVIE_POSTER_URL = "posterUrl";
-        static final String MOVIE_POPULARITY = "popularity";
-
-        // Review
-        static final String REVIEW_ID = "id";
-        static final String REVIEW_MOVIE = "movie";
-        static final String REVIEW_RATING = "rating";
-        static final String REVIEW_COMMENT = "comment";
-        static final String REVIEW_CREATED_AT = "createdAt";
-
-        // WatchHistory / WatchedMovie
-        static final String WH_ID = "id";
-        static final String WH_MOVIES = "movies";
-        static final String WH_WATCHED_AT = "watchedAt";
 
-        private JsonKeys() {
+        private LogKeys() {
         }
     }
 }
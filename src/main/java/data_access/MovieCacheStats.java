@@ -0,0 +1,73 @@
+package data_access;
+
+/**
+ * Immutable snapshot of the counters kept by {@link CachingMovieGateway}.
+ */
+public final class MovieCacheStats {
+
+    private final long memoryHits;
+    private final long diskHits;
+    private final long misses;
+    private final long evictions;
+    private final int memorySize;
+
+    /**
+     * Creates a snapshot.
+     *
+     * @param memoryHits lookups served from the in-memory tier
+     * @param diskHits   lookups served from the on-disk tier
+     * @param misses     lookups that had to go to TMDb
+     * @param evictions  entries dropped from the in-memory tier to respect its bound
+     * @param memorySize entries currently held in memory
+     */
+    public MovieCacheStats(long memoryHits, long diskHits, long misses, long evictions, int memorySize) {
+        this.memoryHits = memoryHits;
+        this.diskHits = diskHits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.memorySize = memorySize;
+    }
+
+    public long getMemoryHits() {
+        return memoryHits;
+    }
+
+    public long getDiskHits() {
+        return diskHits;
+    }
+
+    public long getHits() {
+        return memoryHits + diskHits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public int getMemorySize() {
+        return memorySize;
+    }
+
+    /**
+     * Returns the fraction of lookups served by either cache tier.
+     *
+     * @return the hit ratio in {@code [0, 1]}, or {@code 0} if there have been no lookups
+     */
+    public double getHitRatio() {
+        final long total = getHits() + misses;
+        return total == 0 ? 0.0 : (double) getHits() / total;
+    }
+
+    @Override
+    public String toString() {
+        return "MovieCacheStats{memoryHits=" + memoryHits
+                + ", diskHits=" + diskHits
+                + ", misses=" + misses
+                + ", evictions=" + evictions
+                + ", memorySize=" + memorySize + '}';
+    }
+}
@@ -0,0 +1,134 @@
+package data_access;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import entity.Movie;
+import entity.WatchedMovie;
+
+/**
+ * Canonical store of {@link Movie} instances, keyed by movie id, so that a title loaded by many users (or returned
+ * by many TMDb responses) is held in memory once.
+ *
+ * <p>{@link #intern} returns the instance already in the catalog when it has exactly the same values as the movie
+ * passed in, and otherwise makes the new movie the canonical one for its id; either way the result is equal in value
+ * to the argument, so callers can intern unconditionally. Entries are weakly held: once no watch list, review or
+ * cached page refers to a movie, it drops out of the catalog.
+ *
+ * <p>Interned movies are shared, so they must not be changed with {@link Movie#updateRating}. A
+ * {@link WatchedMovie} is never substituted (it carries its own watch date), but building it from an interned movie
+ * shares the title, plot, genre list and poster URL.
+ */
+final class MovieCatalog {
+
+    private static final MovieCatalog SHARED = new MovieCatalog();
+
+    private final ConcurrentMap<String, Entry> movies = new ConcurrentHashMap<>();
+    private final ReferenceQueue<Movie> collected = new ReferenceQueue<>();
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder shared = new LongAdder();
+
+    /**
+     * Returns the catalog that the user stores and the movie gateway resolve movies through.
+     *
+     * @return the process-wide catalog
+     */
+    static MovieCatalog shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the canonical instance for {@code movie}.
+     *
+     * @param movie a freshly decoded movie, may be {@code null}
+     * @return the catalog's instance with the same values, or {@code movie} itself if there is none
+     */
+    Movie intern(Movie movie) {
+        if (movie == null || movie instanceof WatchedMovie) {
+            return movie;
+        }
+        expungeCollected();
+        lookups.increment();
+
+        final Movie[] result = new Movie[1];
+        movies.compute(movie.getMovieId(), (id, entry) -> {
+            final Movie existing = entry == null ? null : entry.get();
+            if (existing != null && sameValues(existing, movie)) {
+                result[0] = existing;
+                return entry;
+            }
+            result[0] = movie;
+            return new Entry(movie, collected);
+        });
+        if (result[0] != movie) {
+            shared.increment();
+        }
+        return result[0];
+    }
+
+    /**
+     * Returns the number of movies currently held.
+     *
+     * @return the number of live entries
+     */
+    int size() {
+        expungeCollected();
+        return movies.size();
+    }
+
+    /**
+     * Returns how many movies have been passed to {@link #intern}.
+     *
+     * @return the number of lookups
+     */
+    long getLookupCount() {
+        return lookups.sum();
+    }
+
+    /**
+     * Returns how many lookups were answered with an instance already in the catalog, i.e. how many duplicate
+     * copies were dropped instead of being kept alive.
+     *
+     * @return the number of lookups that reused an existing instance
+     */
+    long getSharedCount() {
+        return shared.sum();
+    }
+
+    /**
+     * Compares every field {@link Movie} keeps; popularity is left out because it is always {@code 0}.
+     *
+     * @param a one movie
+     * @param b another movie
+     * @return whether the two are interchangeable
+     */
+    static boolean sameValues(Movie a, Movie b) {
+        return a.getMovieId().equals(b.getMovieId())
+                && a.getTitle().equals(b.getTitle())
+                && Objects.equals(a.getPlot(), b.getPlot())
+                && a.getGenreIds().equals(b.getGenreIds())
+                && Objects.equals(a.getReleaseDate(), b.getReleaseDate())
+                && Double.compare(a.getRating(), b.getRating()) == 0
+                && Objects.equals(a.getPosterUrl(), b.getPosterUrl());
+    }
+
+    private void expungeCollected() {
+        Entry entry;
+        while ((entry = (Entry) collected.poll()) != null) {
+            movies.remove(entry.movieId, entry);
+        }
+    }
+
+    private static final class Entry extends WeakReference<Movie> {
+        private final String movieId;
+
+        private Entry(Movie movie, ReferenceQueue<Movie> queue) {
+            super(movie, queue);
+            this.movieId = movie.getMovieId();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package data_access;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import entity.Movie;
+
+/**
+ * Converts {@link Movie} entities to and from the JSON shape used by the on-disk stores.
+ *
+ * <p>Shared by {@link FileUserDataAccessObject} and {@link CachingMovieGateway} so that a movie is written
+ * the same way whether it is part of a user's data or a cached TMDb response. Decoded movies are resolved through
+ * the shared {@link MovieCatalog}.
+ */
+final class MovieJsonMapper {
+
+    static final String MOVIE_ID = "id";
+    static final String MOVIE_TITLE = "title";
+    static final String MOVIE_PLOT = "plot";
+    static final String MOVIE_GENRE_IDS = "genreIds";
+    static final String MOVIE_RELEASE_DATE = "releaseDate";
+    static final String MOVIE_RATING = "rating";
+    static final String MOVIE_POSTER_URL = "posterUrl";
+    static final String MOVIE_POPULARITY = "popularity";
+
+    private MovieJsonMapper() {
+    }
+
+    static JSONObject toJson(Movie movie) {
+        final JSONObject json = new JSONObject();
+        json.put(MOVIE_ID, movie.getMovieId());
+        json.put(MOVIE_TITLE, movie.getTitle());
+        json.put(MOVIE_PLOT, movie.getPlot());
+        json.put(MOVIE_GENRE_IDS, new JSONArray(movie.getGenreIds()));
+        json.put(MOVIE_RELEASE_DATE, movie.getReleaseDate());
+        json.put(MOVIE_RATING, movie.getRating());
+        json.put(MOVIE_POSTER_URL, movie.getPosterUrl());
+        json.put(MOVIE_POPULARITY, movie.getPopularity());
+        return json;
+    }
+
+    static Movie fromJson(JSONObject json) {
+        final List<Integer> genreIds = new ArrayList<>();
+        final JSONArray genreIdsJson = json.getJSONArray(MOVIE_GENRE_IDS);
+        for (int i = 0; i < genreIdsJson.length(); i++) {
+            genreIds.add(genreIdsJson.getInt(i));
+        }
+
+        return MovieCatalog.shared().intern(new Movie(
+                json.getString(MOVIE_ID),
+                json.getString(MOVIE_TITLE),
+                json.optString(MOVIE_PLOT, null),
+                genreIds,
+                json.optString(MOVIE_RELEASE_DATE, null),
+                json.optDouble(MOVIE_RATING, 0),
+                json.optDouble(MOVIE_POPULARITY, 0),
+                json.optString(MOVIE_POSTER_URL, null)
+        ));
+    }
+}
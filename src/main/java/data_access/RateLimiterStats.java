@@ -0,0 +1,85 @@
+package data_access;
+
+/**
+ * Immutable snapshot of the rate limiter and retry counters kept by {@link TMDbMovieDataAccessObject}.
+ */
+public final class RateLimiterStats {
+
+    private final double availableTokens;
+    private final double currentRatePerSecond;
+    private final long pausedForMillis;
+    private final long permitsGranted;
+    private final long throttledRequests;
+    private final long totalWaitMillis;
+    private final long rateLimitedResponses;
+    private final long retries;
+
+    /**
+     * Creates a snapshot.
+     *
+     * @param availableTokens      permits that can be taken right now without waiting
+     * @param currentRatePerSecond current refill rate, lowered after the server reports rate limiting
+     * @param pausedForMillis      remaining time the limiter holds all requests for, per {@code Retry-After}
+     * @param permitsGranted       requests that passed through the limiter
+     * @param throttledRequests    requests that had to wait for a permit
+     * @param totalWaitMillis      total time requests were held back
+     * @param rateLimitedResponses {@code 429} responses received
+     * @param retries              requests re-sent after a {@code 429} or {@code 5xx}
+     */
+    public RateLimiterStats(double availableTokens, double currentRatePerSecond, long pausedForMillis,
+                            long permitsGranted, long throttledRequests, long totalWaitMillis,
+                            long rateLimitedResponses, long retries) {
+        this.availableTokens = availableTokens;
+        this.currentRatePerSecond = currentRatePerSecond;
+        this.pausedForMillis = pausedForMillis;
+        this.permitsGranted = permitsGranted;
+        this.throttledRequests = throttledRequests;
+        this.totalWaitMillis = totalWaitMillis;
+        this.rateLimitedResponses = rateLimitedResponses;
+        this.retries = retries;
+    }
+
+    public double getAvailableTokens() {
+        return availableTokens;
+    }
+
+    public double getCurrentRatePerSecond() {
+        return currentRatePerSecond;
+    }
+
+    public long getPausedForMillis() {
+        return pausedForMillis;
+    }
+
+    public long getPermitsGranted() {
+        return permitsGranted;
+    }
+
+    public long getThrottledRequests() {
+        return throttledRequests;
+    }
+
+    public long getTotalWaitMillis() {
+        return totalWaitMillis;
+    }
+
+    public long getRateLimitedResponses() {
+        return rateLimitedResponses;
+    }
+
+    public long getRetries() {
+        return retries;
+    }
+
+    @Override
+    public String toString() {
+        return "RateLimiterStats{availableTokens=" + String.format("%.1f", availableTokens)
+                + ", currentRatePerSecond=" + String.format("%.1f", currentRatePerSecond)
+                + ", pausedForMillis=" + pausedForMillis
+                + ", permitsGranted=" + permitsGranted
+                + ", throttledRequests=" + throttledRequests
+                + ", totalWaitMillis=" + totalWaitMillis
+                + ", rateLimitedResponses=" + rateLimitedResponses
+                + ", retries=" + retries + '}';
+    }
+}
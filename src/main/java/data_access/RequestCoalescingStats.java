@@ -0,0 +1,57 @@
+package data_access;
+
+/**
+ * Immutable snapshot of the single-flight counters kept by {@link TMDbMovieDataAccessObject}.
+ */
+public final class RequestCoalescingStats {
+
+    private final long executedRequests;
+    private final long coalescedRequests;
+    private final int inFlightRequests;
+
+    /**
+     * Creates a snapshot.
+     *
+     * @param executedRequests  calls that actually went out to TMDb
+     * @param coalescedRequests calls served by an identical request that was already in flight
+     * @param inFlightRequests  distinct requests currently in flight
+     */
+    public RequestCoalescingStats(long executedRequests, long coalescedRequests, int inFlightRequests) {
+        this.executedRequests = executedRequests;
+        this.coalescedRequests = coalescedRequests;
+        this.inFlightRequests = inFlightRequests;
+    }
+
+    public long getExecutedRequests() {
+        return executedRequests;
+    }
+
+    public long getCoalescedRequests() {
+        return coalescedRequests;
+    }
+
+    public long getTotalRequests() {
+        return executedRequests + coalescedRequests;
+    }
+
+    public int getInFlightRequests() {
+        return inFlightRequests;
+    }
+
+    /**
+     * Returns the fraction of calls that did not need their own HTTP request.
+     *
+     * @return the coalescing ratio in {@code [0, 1]}, or {@code 0} if there have been no calls
+     */
+    public double getCoalescedRatio() {
+        final long total = getTotalRequests();
+        return total == 0 ? 0.0 : (double) coalescedRequests / total;
+    }
+
+    @Override
+    public String toString() {
+        return "RequestCoalescingStats{executedRequests=" + executedRequests
+                + ", coalescedRequests=" + coalescedRequests
+                + ", inFlightRequests=" + inFlightRequests + '}';
+    }
+}
@@ -0,0 +1,58 @@
+package data_access;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides whether a failed TMDb response is retried and how long to back off before the next attempt.
+ *
+ * <p>Only {@code 429} and {@code 5xx} responses are retried. Backoff grows exponentially from {@code baseDelayMillis}
+ * up to {@code maxDelayMillis} with "equal jitter" (a random delay between half and all of the exponential step), so
+ * clients that failed together do not retry in lockstep. A server-supplied {@code Retry-After} is always honoured as
+ * a lower bound.
+ */
+final class RetryPolicy {
+
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+
+    /**
+     * Creates a policy.
+     *
+     * @param maxAttempts     total attempts per request, including the first one
+     * @param baseDelayMillis backoff before the first retry
+     * @param maxDelayMillis  upper bound on the exponential backoff
+     */
+    RetryPolicy(int maxAttempts, long baseDelayMillis, long maxDelayMillis) {
+        if (maxAttempts < 1 || baseDelayMillis < 0 || maxDelayMillis < baseDelayMillis) {
+            throw new IllegalArgumentException("Invalid retry policy configuration");
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    static boolean isRetryable(int statusCode) {
+        return statusCode == 429 || (statusCode >= 500 && statusCode < 600);
+    }
+
+    /**
+     * Returns whether a request whose attempt number {@code attempt} (0-based) just failed with {@code statusCode}
+     * should be sent again.
+     */
+    boolean shouldRetry(int statusCode, int attempt) {
+        return isRetryable(statusCode) && attempt + 1 < maxAttempts;
+    }
+
+    /**
+     * Returns the delay before retrying after attempt number {@code attempt} (0-based).
+     *
+     * @param attempt          the attempt that just failed
+     * @param retryAfterMillis the server's {@code Retry-After}, or {@code 0} if it sent none
+     */
+    long backoffMillis(int attempt, long retryAfterMillis) {
+        final long step = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt, 20));
+        final long jittered = step / 2 + ThreadLocalRandom.current().nextLong(step / 2 + 1);
+        return Math.max(jittered, retryAfterMillis);
+    }
+}
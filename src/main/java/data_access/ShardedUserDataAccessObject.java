@@ -0,0 +1,701 @@
+package data_access;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import entity.User;
+import entity.factories.UserFactory;
+import use_case.change_password.ChangePasswordUserDataAccessInterface;
+import use_case.common.Durability;
+import use_case.common.UserDataAccessInterface;
+import use_case.view_profile.ProfileStats;
+import use_case.view_profile.ViewProfileUserDataAccessInterface;
+
+/**
+ * Directory-backed implementation of the {@link UserDataAccessInterface} that keeps one file per user.
+ *
+ * <p>The directory holds:
+ * <ul>
+ *   <li>one record per user, in JSON or binary form (see {@link UserRecordFormat}) and replaced atomically on every
+ *       save;</li>
+ *   <li>{@code index}, an append-only list of usernames and the file holding each one;</li>
+ *   <li>{@code current}, the username of the logged-in user.</li>
+ * </ul>
+ *
+ * <p>Opening the store only reads the index, so startup cost depends on the number of users rather than on how much
+ * data they have. A user's file is decoded the first time {@link #getUser} asks for it, and {@link #existsByName}
+ * never touches user files at all. A save rewrites only the file of the user being saved. Large records are
+ * memory-mapped and decoded in place.
+ *
+ * <p>How soon a save reaches the disk is set per call with a {@link Durability} (or by the store's default).
+ * {@code IMMEDIATE} saves are durable when {@code save} returns. {@code GROUPED} and {@code DEFERRED} saves only encode
+ * the user and hand the record to a background checkpointer, which writes every waiting record within a short group
+ * window or at the next checkpoint respectively; the records of one checkpoint share a single directory and index
+ * sync, and repeated saves of a user in between cost one write. Every record is written to a temporary file, synced
+ * and renamed over the old one, so a crash never leaves a half-written user behind.
+ *
+ * <p>Records are written in the configured format but read in whichever format their file has, so changing the
+ * format converts each user the next time it is saved.
+ *
+ * <p>{@link #migrateFrom} converts the single-file layout of {@link FileUserDataAccessObject}.
+ */
+public class ShardedUserDataAccessObject implements UserDataAccessInterface,
+                                                    ChangePasswordUserDataAccessInterface,
+                                                    ViewProfileUserDataAccessInterface,
+                                                    AutoCloseable {
+
+    static final String INDEX_FILE = "index";
+    static final String CURRENT_USER_FILE = "current";
+
+    /** Records at least this large are memory-mapped rather than read onto the heap. */
+    public static final int DEFAULT_MAP_THRESHOLD_BYTES = 64 * 1024;
+    /** Longest time a {@link Durability#GROUPED} save waits to be written. */
+    public static final long DEFAULT_GROUP_COMMIT_MILLIS = 20;
+    /** Longest time a {@link Durability#DEFERRED} save waits to be written. */
+    public static final long DEFAULT_CHECKPOINT_MILLIS = 1000;
+    /** Most decoded users kept in memory; the cache in front of this store decides what stays hot. */
+    public static final int MAX_LOADED_USERS = 64;
+
+    private static final boolean MAPPING_SUPPORTED =
+            !System.getProperty("os.name", "").toLowerCase(Locale.ROOT).startsWith("windows");
+
+    // Usernames up to this many UTF-8 bytes are spelled out in their file name; longer ones are hashed
+    private static final int MAX_PLAIN_NAME_BYTES = 60;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Path directory;
+    private final Path indexPath;
+    private final Path currentUserPath;
+    private final UserCodec codec;
+    private final long mapThresholdBytes;
+    private final Durability defaultDurability;
+    private final long groupCommitMillis;
+    private final long checkpointMillis;
+    private final ScheduledThreadPoolExecutor checkpointer;
+    // Held while record files and the index are written, so writes of one user never race each other
+    private final Object writeLock = new Object();
+    // Codec for each file extension, so records written in another format can still be read
+    private final Map<String, UserCodec> decoders = new HashMap<>();
+    // Username -> file name, for every user on disk
+    private final Map<String, String> index = new LinkedHashMap<>();
+    // Recently decoded users, least recently used first; older ones are decoded again when asked for
+    private final Map<String, User> loaded = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, User> eldest) {
+            return size() > MAX_LOADED_USERS;
+        }
+    };
+    // Encoded records waiting for the checkpointer
+    private final Map<String, Record> pending = new LinkedHashMap<>();
+    // Sequence number of the newest record written for each user; guarded by writeLock
+    private final Map<String, Long> writtenSeq = new HashMap<>();
+    private ScheduledFuture<?> nextCheckpoint;
+    private long nextCheckpointDue;
+    private long seq;
+    private String currentUsername;
+    private long mappedReads;
+    private long checkpoints;
+
+    /**
+     * Opens (or creates) a store in the given directory using the JSON record format.
+     *
+     * @param directory   the directory holding the store
+     * @param userFactory factory for creating {@link User} objects
+     * @throws UncheckedIOException if the directory cannot be read or created
+     */
+    public ShardedUserDataAccessObject(String directory, UserFactory userFactory) {
+        this(directory, userFactory, UserRecordFormat.JSON);
+    }
+
+    /**
+     * Opens (or creates) a store in the given directory that writes records in the given format.
+     *
+     * @param directory   the directory holding the store
+     * @param userFactory factory for creating {@link User} objects
+     * @param format      the format new and re-saved records are written in
+     * @throws UncheckedIOException if the directory cannot be read or created
+     */
+    public ShardedUserDataAccessObject(String directory, UserFactory userFactory, UserRecordFormat format) {
+        this(directory, userFactory, format, Durability.IMMEDIATE);
+    }
+
+    /**
+     * Opens (or creates) a store with a given record format and default durability.
+     *
+     * @param directory          the directory holding the store
+     * @param userFactory        factory for creating {@link User} objects
+     * @param format             the format new and re-saved records are written in
+     * @param defaultDurability  durability of {@link #save(User)}
+     * @throws UncheckedIOException if the directory cannot be read or created
+     */
+    public ShardedUserDataAccessObject(String directory, UserFactory userFactory, UserRecordFormat format,
+                                       Durability defaultDurability) {
+        this(directory, userFactory, format, defaultDurability, DEFAULT_MAP_THRESHOLD_BYTES,
+                DEFAULT_GROUP_COMMIT_MILLIS, DEFAULT_CHECKPOINT_MILLIS);
+    }
+
+    ShardedUserDataAccessObject(String directory, UserFactory userFactory, UserRecordFormat format,
+                                Durability defaultDurability, long mapThresholdBytes,
+                                long groupCommitMillis, long checkpointMillis) {
+        this.mapThresholdBytes = mapThresholdBytes;
+        this.defaultDurability = defaultDurability;
+        this.groupCommitMillis = groupCommitMillis;
+        this.checkpointMillis = checkpointMillis;
+        // One checkpoint thread, which goes away while there is nothing to write
+        this.checkpointer = new ScheduledThreadPoolExecutor(1, new DaemonThreadFactory("user-checkpointer"));
+        this.checkpointer.setKeepAliveTime(30, TimeUnit.SECONDS);
+        this.checkpointer.allowCoreThreadTimeOut(true);
+        this.checkpointer.setRemoveOnCancelPolicy(true);
+        this.directory = Path.of(directory);
+        this.indexPath = this.directory.resolve(INDEX_FILE);
+        this.currentUserPath = this.directory.resolve(CURRENT_USER_FILE);
+        this.codec = format.codec(userFactory);
+        for (UserRecordFormat each : UserRecordFormat.values()) {
+            final UserCodec decoder = each.codec(userFactory);
+            decoders.put(decoder.fileExtension(), decoder);
+        }
+
+        try {
+            Files.createDirectories(this.directory);
+            readIndex();
+            if (Files.exists(currentUserPath)) {
+                final String raw = Files.readString(currentUserPath);
+                currentUsername = raw.isEmpty() ? null : raw;
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Opens the sharded store in {@code directory}, first moving the users of a single-file store into it if the
+     * directory does not hold a store yet.
+     *
+     * <p>The old file (and its change log) is read once and left in place as a backup. The index is written last,
+     * so an interrupted migration is simply run again the next time.
+     *
+     * @param legacyFile  path of the {@code users.json} written by {@link FileUserDataAccessObject}
+     * @param directory   the directory of the sharded store
+     * @param userFactory factory for creating {@link User} objects
+     * @return the opened store
+     * @throws UncheckedIOException if either store cannot be read or written
+     */
+    public static ShardedUserDataAccessObject migrateFrom(String legacyFile, String directory,
+                                                          UserFactory userFactory) {
+        return migrateFrom(legacyFile, directory, userFactory, UserRecordFormat.JSON);
+    }
+
+    /**
+     * Like {@link #migrateFrom(String, String, UserFactory)}, writing records in the given format.
+     *
+     * @param legacyFile  path of the {@code users.json} written by {@link FileUserDataAccessObject}
+     * @param directory   the directory of the sharded store
+     * @param userFactory factory for creating {@link User} objects
+     * @param format      the format records are written in
+     * @return the opened store
+     * @throws UncheckedIOException if either store cannot be read or written
+     */
+    public static ShardedUserDataAccessObject migrateFrom(String legacyFile, String directory,
+                                                          UserFactory userFactory, UserRecordFormat format) {
+        return migrateFrom(legacyFile, directory, userFactory, format, Durability.IMMEDIATE);
+    }
+
+    /**
+     * Like {@link #migrateFrom(String, String, UserFactory)}, with a given record format and default durability.
+     *
+     * @param legacyFile        path of the {@code users.json} written by {@link FileUserDataAccessObject}
+     * @param directory         the directory of the sharded store
+     * @param userFactory       factory for creating {@link User} objects
+     * @param format            the format records are written in
+     * @param defaultDurability durability of {@link #save(User)}
+     * @return the opened store
+     * @throws UncheckedIOException if either store cannot be read or written
+     */
+    public static ShardedUserDataAccessObject migrateFrom(String legacyFile, String directory,
+                                                          UserFactory userFactory, UserRecordFormat format,
+                                                          Durability defaultDurability) {
+        final Path dir = Path.of(directory);
+        final UserCodec codec = format.codec(userFactory);
+        if (Files.exists(dir.resolve(INDEX_FILE)) || !Files.exists(Path.of(legacyFile))) {
+            return new ShardedUserDataAccessObject(directory, userFactory, format, defaultDurability);
+        }
+
+        final FileUserDataAccessObject legacy = new FileUserDataAccessObject(legacyFile, userFactory);
+        try {
+            Files.createDirectories(dir);
+            final StringBuilder indexText = new StringBuilder();
+            for (User user : legacy.allUsers()) {
+                final Path file = dir.resolve(fileNameFor(user.getUserName(), codec));
+                AtomicFiles.commit(AtomicFiles.writeTemp(file, codec.encode(user)), file);
+                indexText.append(indexLine(user.getUserName(), file.getFileName().toString()));
+            }
+            final String current = legacy.getCurrentUsername();
+            AtomicFiles.write(dir.resolve(CURRENT_USER_FILE),
+                    (current == null ? "" : current).getBytes(StandardCharsets.UTF_8));
+            // The index goes last: once it exists, every user file it names is already on disk
+            AtomicFiles.write(dir.resolve(INDEX_FILE), indexText.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        finally {
+            legacy.close();
+        }
+        return new ShardedUserDataAccessObject(directory, userFactory, format, defaultDurability);
+    }
+
+    // ===============================================================================================================
+    // =========================================== PUBLIC INTERFACE METHODS ==========================================
+    // ===============================================================================================================
+
+    /**
+     * Saves the full state of a user with the store's default durability.
+     *
+     * @param user the user to persist (must not be {@code null})
+     */
+    @Override
+    public void save(User user) {
+        save(user, defaultDurability);
+    }
+
+    /**
+     * Saves the full state of a user by replacing that user's file, now or from the checkpointer.
+     *
+     * <p>The user is encoded on the calling thread in every case, so later changes to the entity do not leak into a
+     * record that is still waiting to be written.
+     *
+     * @param user       the user to persist (must not be {@code null})
+     * @param durability how soon the change must be on disk
+     * @throws UncheckedIOException if an {@code IMMEDIATE} save cannot be written
+     */
+    @Override
+    public void save(User user, Durability durability) {
+        final String username = user.getUserName();
+        final Record record;
+        synchronized (this) {
+            record = new Record(username, codec.encode(user), ++seq);
+            loaded.put(username, user);
+            if (durability != Durability.IMMEDIATE) {
+                pending.put(username, record);
+                scheduleCheckpoint(durability == Durability.GROUPED ? groupCommitMillis : checkpointMillis);
+                return;
+            }
+        }
+        try {
+            writeRecords(List.of(record));
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Retrieves a user by username, reading the user's file the first time it is asked for.
+     *
+     * @param username the username to look up (must not be {@code null})
+     * @return the {@link User} if found or {@code null} otherwise
+     */
+    @Override
+    public synchronized User getUser(String username) {
+        final User cached = loaded.get(username);
+        if (cached != null) {
+            return cached;
+        }
+        final Record waiting = pending.get(username);
+        final String fileName = index.get(username);
+        if (waiting == null && fileName == null) {
+            return null;
+        }
+        final User user = waiting != null
+                ? codec.decode(ByteBuffer.wrap(waiting.bytes))
+                : read(directory.resolve(fileName));
+        loaded.put(username, user);
+        return user;
+    }
+
+    /**
+     * Returns {@code true} iff a user with this username exists in storage. Answered from the index (and records
+     * still waiting to be written) alone.
+     *
+     * @param username the username to check
+     * @return {@code true} if the user exists,
+     *         {@code false} otherwise
+     */
+    @Override
+    public synchronized boolean existsByName(String username) {
+        return index.containsKey(username) || pending.containsKey(username);
+    }
+
+    /**
+     * Records the username of the currently authenticated user, or clears it if {@code null}. Always written
+     * immediately; it is a few bytes and changes only on login and logout.
+     *
+     * @param username the username to record, or {@code null} to clear
+     */
+    @Override
+    public synchronized void setCurrentUsername(String username) {
+        try {
+            AtomicFiles.write(currentUserPath, (username == null ? "" : username).getBytes(StandardCharsets.UTF_8));
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.currentUsername = username;
+    }
+
+    /**
+     * Returns the username of the user currently recorded as logged in.
+     *
+     * @return the username of the logged-in user, or {@code null} if none is set
+     */
+    @Override
+    public synchronized String getCurrentUsername() {
+        return currentUsername;
+    }
+
+    /**
+     * Saves the updated password for an existing user.
+     *
+     * @param user the user whose password is to be updated
+     */
+    @Override
+    public void changePassword(User user) {
+        save(user, Durability.IMMEDIATE);
+    }
+
+    /**
+     * Computes and returns profile statistics for the given user.
+     *
+     * @param username the username to get stats for
+     * @return a {@link ProfileStats} instance, or {@code null} if the user does not exist
+     */
+    @Override
+    public ProfileStats getUserStats(String username) {
+        final User user = getUser(username);
+        if (user == null) {
+            return null;
+        }
+        return new ProfileStats(user.getWatchlists().size(), user.getReviews().size(),
+                user.getWatchedMovies().size());
+    }
+
+    /**
+     * Returns how many decoded users are held in memory; at most {@link #MAX_LOADED_USERS}.
+     *
+     * @return the number of users held in memory
+     */
+    public synchronized int getLoadedUserCount() {
+        return loaded.size();
+    }
+
+    /**
+     * Writes every record still waiting for the checkpointer, and makes it durable, before returning.
+     *
+     * <p>Records stay queued until they have been written; if writing fails they are retried by the next checkpoint.
+     *
+     * @throws UncheckedIOException if a record cannot be written
+     */
+    public void checkpoint() {
+        final List<Record> batch;
+        synchronized (this) {
+            batch = new ArrayList<>(pending.values());
+            if (nextCheckpoint != null) {
+                nextCheckpoint.cancel(false);
+                nextCheckpoint = null;
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            writeRecords(batch);
+            synchronized (this) {
+                checkpoints++;
+            }
+        }
+        catch (IOException e) {
+            synchronized (this) {
+                scheduleCheckpoint(checkpointMillis);
+            }
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes everything still waiting and stops the checkpointer. The store must not be used afterwards.
+     *
+     * @throws UncheckedIOException if a record cannot be written
+     */
+    @Override
+    public void close() {
+        try {
+            checkpoint();
+        }
+        finally {
+            checkpointer.shutdown();
+        }
+    }
+
+    /**
+     * Returns how many saved users are waiting for the checkpointer.
+     *
+     * @return the number of records not yet written
+     */
+    public synchronized int getPendingWriteCount() {
+        return pending.size();
+    }
+
+    /**
+     * Returns how many times the checkpointer (or {@link #checkpoint()}) has written records.
+     *
+     * @return the number of checkpoints that wrote at least one record
+     */
+    public synchronized long getCheckpointCount() {
+        return checkpoints;
+    }
+
+    // Number of records decoded straight from a mapped file
+    synchronized long getMappedReadCount() {
+        return mappedReads;
+    }
+
+    static boolean isMappingSupported() {
+        return MAPPING_SUPPORTED;
+    }
+
+    // ===============================================================================================================
+    // ================================================== I/O LOGIC ==================================================
+    // ===============================================================================================================
+
+    // Must be called while holding the lock
+    private void scheduleCheckpoint(long delayMillis) {
+        final long due = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+        if (nextCheckpoint != null && nextCheckpointDue - due <= 0) {
+            return;
+        }
+        if (nextCheckpoint != null) {
+            nextCheckpoint.cancel(false);
+        }
+        nextCheckpoint = checkpointer.schedule(this::checkpointQuietly, delayMillis, TimeUnit.MILLISECONDS);
+        nextCheckpointDue = due;
+    }
+
+    private void checkpointQuietly() {
+        try {
+            checkpoint();
+        }
+        catch (UncheckedIOException e) {
+            // The records are still queued and a retry has been scheduled
+            System.err.println("Error writing users: " + e.getMessage());
+        }
+    }
+
+    /*
+     * Writes a batch of records: each goes to a synced temporary file and is renamed into place, then the directory
+     * is synced once for the whole batch. Only after that does the index learn about new files, so it never names a
+     * file that is not on disk. A record no newer than one already written for the same user is skipped, and a
+     * written record retires any older one still pending.
+     */
+    private void writeRecords(List<Record> batch) throws IOException {
+        synchronized (writeLock) {
+            final Map<String, Path> temps = new LinkedHashMap<>();
+            final Map<String, String> fileNames = new HashMap<>();
+            for (Record record : batch) {
+                if (record.seq <= writtenSeq.getOrDefault(record.username, 0L)) {
+                    continue;
+                }
+                final String existing;
+                synchronized (this) {
+                    existing = index.get(record.username);
+                }
+                final String fileName = existing != null && existing.endsWith(codec.fileExtension())
+                        ? existing : fileNameFor(record.username, codec);
+                fileNames.put(record.username, fileName);
+                temps.put(record.username, AtomicFiles.writeTemp(directory.resolve(fileName), record.bytes));
+            }
+            for (Map.Entry<String, Path> temp : temps.entrySet()) {
+                AtomicFiles.commit(temp.getValue(), directory.resolve(fileNames.get(temp.getKey())));
+            }
+            AtomicFiles.syncDirectory(directory);
+
+            // A later line for a user wins, so a user whose format changed simply gets a second line
+            final StringBuilder newLines = new StringBuilder();
+            final List<String> replaced = new ArrayList<>();
+            synchronized (this) {
+                for (Map.Entry<String, String> entry : fileNames.entrySet()) {
+                    final String previous = index.get(entry.getKey());
+                    if (!entry.getValue().equals(previous)) {
+                        newLines.append(indexLine(entry.getKey(), entry.getValue()));
+                        if (previous != null) {
+                            replaced.add(previous);
+                        }
+                    }
+                }
+            }
+            if (newLines.length() > 0) {
+                appendToIndex(newLines.toString());
+            }
+            synchronized (this) {
+                index.putAll(fileNames);
+                // Records stay pending until written, so the user never looks missing in between
+                for (Record record : batch) {
+                    pending.computeIfPresent(record.username, (name, waiting) -> waiting.seq <= record.seq
+                            ? null : waiting);
+                }
+            }
+            for (String old : replaced) {
+                Files.deleteIfExists(directory.resolve(old));
+            }
+            for (Record record : batch) {
+                writtenSeq.merge(record.username, record.seq, Math::max);
+            }
+        }
+    }
+
+    private UserCodec decoderFor(String fileName) {
+        return decoders.get(fileName.substring(fileName.lastIndexOf('.')));
+    }
+
+    /*
+     * Large records are mapped and decoded in place instead of being copied onto the heap first. Small ones are read
+     * normally, since setting up a mapping costs more than copying a few kilobytes. Windows does not allow replacing
+     * a file while any mapping of it is still alive (until the buffer is garbage collected), so there every record
+     * is read.
+     */
+    private User read(Path file) {
+        final UserCodec decoder = decoderFor(file.getFileName().toString());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            final ByteBuffer buffer;
+            if (size >= mapThresholdBytes && MAPPING_SUPPORTED) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                mappedReads++;
+            }
+            else {
+                buffer = ByteBuffer.allocate(Math.toIntExact(size));
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    // keep reading
+                }
+                buffer.flip();
+            }
+            return decoder.decode(buffer);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /*
+     * Each line is "<file name> <JSON-quoted username>". A crash while registering a user can leave the last line
+     * without its newline; that user's registration never completed, so the line is dropped and cut off.
+     */
+    private void readIndex() throws IOException {
+        if (!Files.exists(indexPath)) {
+            return;
+        }
+        final byte[] bytes = Files.readAllBytes(indexPath);
+        int start = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] != '\n') {
+                continue;
+            }
+            final String line = new String(bytes, start, i - start, StandardCharsets.UTF_8);
+            final int space = line.indexOf(' ');
+            final String username = space < 0 ? null : parseQuoted(line.substring(space + 1));
+            if (username == null) {
+                break;
+            }
+            index.put(username, line.substring(0, space));
+            start = i + 1;
+        }
+        if (start < bytes.length) {
+            try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.WRITE)) {
+                channel.truncate(start);
+            }
+        }
+    }
+
+    private static String parseQuoted(String quoted) {
+        try {
+            final Object value = new JSONTokener(quoted).nextValue();
+            return value instanceof String ? (String) value : null;
+        }
+        catch (JSONException e) {
+            return null;
+        }
+    }
+
+    private void appendToIndex(String lines) throws IOException {
+        final boolean created = !Files.exists(indexPath);
+        try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            final ByteBuffer buffer = ByteBuffer.wrap(lines.getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        if (created) {
+            AtomicFiles.syncDirectory(directory);
+        }
+    }
+
+    private static String indexLine(String username, String fileName) {
+        return fileName + ' ' + JSONObject.quote(username) + '\n';
+    }
+
+    // Hex keeps names that differ only in case apart on case-insensitive file systems
+    static String fileNameFor(String username, UserCodec codec) {
+        byte[] bytes = username.getBytes(StandardCharsets.UTF_8);
+        char prefix = 'u';
+        if (bytes.length > MAX_PLAIN_NAME_BYTES) {
+            try {
+                bytes = MessageDigest.getInstance("SHA-256").digest(bytes);
+            }
+            catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+            prefix = 'h';
+        }
+        final StringBuilder name = new StringBuilder(bytes.length * 2 + 8).append(prefix);
+        for (byte b : bytes) {
+            name.append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+        }
+        return name.append(codec.fileExtension()).toString();
+    }
+
+    // An encoded user waiting to be written; seq orders records of the same user
+    private static final class Record {
+        private final String username;
+        private final byte[] bytes;
+        private final long seq;
+
+        private Record(String username, byte[] bytes, long seq) {
+            this.username = username;
+            this.bytes = bytes;
+            this.seq = seq;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package data_access;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates concurrent loads of the same key: while a load for a key is in flight, further callers for that key
+ * wait for its result instead of starting their own.
+ *
+ * <p>Blocking callers ({@link #call}) and non-blocking callers ({@link #callAsync}) share the same in-flight table,
+ * so a blocking lookup can piggyback on an async one and vice versa. A key leaves the table as soon as its load
+ * finishes; later callers trigger a fresh load. Failures are fanned out to every waiter like results are.
+ *
+ * @param <T> the type of the loaded value
+ */
+final class SingleFlight<T> {
+
+    private final ConcurrentMap<String, CompletableFuture<T>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Loads {@code key} on the calling thread, or waits for the load already in flight for it.
+     *
+     * @param key    the deduplication key
+     * @param loader performs the load if no other caller is currently loading {@code key}
+     * @return the loaded value
+     * @throws Exception the failure of whichever load this call was attached to
+     */
+    T call(String key, Callable<T> loader) throws Exception {
+        final CompletableFuture<T> flight = new CompletableFuture<>();
+        final CompletableFuture<T> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+
+        executed.increment();
+        final T value;
+        try {
+            value = loader.call();
+        } catch (Exception | Error e) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        inFlight.remove(key, flight);
+        flight.complete(value);
+        return value;
+    }
+
+    /**
+     * Starts a non-blocking load of {@code key}, or attaches to the load already in flight for it.
+     *
+     * <p>Each caller gets its own dependent future, so cancelling one waiter never affects the others.
+     *
+     * @param key    the deduplication key
+     * @param loader starts the load if no other caller is currently loading {@code key}
+     * @return a future completed with the loaded value or the load's failure
+     */
+    CompletableFuture<T> callAsync(String key, Supplier<CompletableFuture<T>> loader) {
+        final CompletableFuture<T> flight = new CompletableFuture<>();
+        final CompletableFuture<T> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return existing.copy();
+        }
+
+        executed.increment();
+        CompletableFuture<T> load;
+        try {
+            load = loader.get();
+        } catch (RuntimeException e) {
+            load = CompletableFuture.failedFuture(e);
+        }
+        load.whenComplete((value, error) -> {
+            inFlight.remove(key, flight);
+            if (error == null) {
+                flight.complete(value);
+            } else {
+                flight.completeExceptionally(unwrap(error));
+            }
+        });
+        return flight.copy();
+    }
+
+    /**
+     * Returns how many loads actually ran.
+     */
+    long getExecutedCount() {
+        return executed.sum();
+    }
+
+    /**
+     * Returns how many calls were served by a load started by another caller.
+     */
+    long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    /**
+     * Returns how many keys are currently being loaded.
+     */
+    int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    private static <T> T await(CompletableFuture<T> flight) throws Exception {
+        try {
+            return flight.get();
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
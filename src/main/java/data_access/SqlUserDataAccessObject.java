@@ -0,0 +1,774 @@
+package data_access;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import entity.Movie;
+import entity.Review;
+import entity.User;
+import entity.WatchHistory;
+import entity.WatchList;
+import entity.WatchedMovie;
+import entity.factories.UserFactory;
+import use_case.change_password.ChangePasswordUserDataAccessInterface;
+import use_case.view_profile.ProfileStats;
+import use_case.view_profile.ViewProfileUserDataAccessInterface;
+
+/**
+ * User store backed by an embedded H2 database in a single file, so no database server is needed.
+ *
+ * <p>Users are split over normalised tables: {@code users}, {@code watch_lists} and {@code watch_list_movies},
+ * {@code reviews}, {@code watch_histories} and {@code watch_events}, which refer to a shared {@code movies} table
+ * (with {@code movie_genres}). Every table is keyed by username first, and the movie references are indexed by
+ * movie id. A movie is stored once for all users; the latest values saved for a movie id win.
+ *
+ * <p>{@link #getUserStats} and {@link #getWatchHistory} are answered by SQL queries without loading the rest of the
+ * user, and {@link #compareAndSave} checks the version in the same transaction as the write. Delta saves such as
+ * {@link #appendWatchEvent} touch only the rows that changed instead of rewriting the user. Every {@link #getUser}
+ * call builds a new {@link User}; as with the file formats, watch list ids and creation dates are regenerated on
+ * load, so the app should keep this store behind {@link CachedUserDataAccessObject}.
+ *
+ * <p>Failures of the database are reported as {@link IllegalStateException}s.
+ */
+public class SqlUserDataAccessObject implements ViewProfileUserDataAccessInterface,
+                                                ChangePasswordUserDataAccessInterface,
+                                                AutoCloseable {
+
+    private static final String CURRENT_USER = "currentUser";
+
+    private static final String[] SCHEMA = {
+        "CREATE TABLE IF NOT EXISTS users ("
+                + "username VARCHAR PRIMARY KEY, password VARCHAR NOT NULL, version BIGINT NOT NULL)",
+        "CREATE TABLE IF NOT EXISTS app_state (state_key VARCHAR PRIMARY KEY, state_value VARCHAR)",
+        "CREATE TABLE IF NOT EXISTS movies ("
+                + "movie_id VARCHAR PRIMARY KEY, title VARCHAR NOT NULL, plot VARCHAR, release_date VARCHAR, "
+                + "rating DOUBLE PRECISION NOT NULL, poster_url VARCHAR)",
+        "CREATE TABLE IF NOT EXISTS movie_genres ("
+                + "movie_id VARCHAR NOT NULL REFERENCES movies (movie_id) ON DELETE CASCADE, "
+                + "pos INT NOT NULL, genre_id INT NOT NULL, PRIMARY KEY (movie_id, pos))",
+        "CREATE TABLE IF NOT EXISTS watch_lists ("
+                + "username VARCHAR NOT NULL REFERENCES users (username) ON DELETE CASCADE, pos INT NOT NULL, "
+                + "name VARCHAR NOT NULL, PRIMARY KEY (username, pos))",
+        "CREATE TABLE IF NOT EXISTS watch_list_movies ("
+                + "username VARCHAR NOT NULL REFERENCES users (username) ON DELETE CASCADE, list_pos INT NOT NULL, "
+                + "pos INT NOT NULL, movie_id VARCHAR NOT NULL REFERENCES movies (movie_id), "
+                + "PRIMARY KEY (username, list_pos, pos))",
+        "CREATE INDEX IF NOT EXISTS watch_list_movies_movie ON watch_list_movies (movie_id)",
+        "CREATE TABLE IF NOT EXISTS reviews ("
+                + "username VARCHAR NOT NULL REFERENCES users (username) ON DELETE CASCADE, "
+                + "movie_id VARCHAR NOT NULL REFERENCES movies (movie_id), review_id VARCHAR NOT NULL, "
+                + "rating INT NOT NULL, comment_text VARCHAR, created_at TIMESTAMP(9) NOT NULL, "
+                + "PRIMARY KEY (username, movie_id))",
+        "CREATE INDEX IF NOT EXISTS reviews_movie ON reviews (movie_id)",
+        "CREATE TABLE IF NOT EXISTS watch_histories ("
+                + "username VARCHAR PRIMARY KEY REFERENCES users (username) ON DELETE CASCADE, "
+                + "history_id VARCHAR NOT NULL)",
+        "CREATE TABLE IF NOT EXISTS watch_events ("
+                + "username VARCHAR NOT NULL REFERENCES users (username) ON DELETE CASCADE, pos INT NOT NULL, "
+                + "movie_id VARCHAR NOT NULL REFERENCES movies (movie_id), watched_at TIMESTAMP(9) NOT NULL, "
+                + "PRIMARY KEY (username, pos))",
+        "CREATE INDEX IF NOT EXISTS watch_events_movie ON watch_events (movie_id)",
+    };
+
+    // Child rows are replaced wholesale on every save; deleted in this order because of the foreign keys
+    private static final String[] DELETE_CHILDREN = {
+        "DELETE FROM watch_events WHERE username = ?",
+        "DELETE FROM watch_histories WHERE username = ?",
+        "DELETE FROM reviews WHERE username = ?",
+        "DELETE FROM watch_list_movies WHERE username = ?",
+        "DELETE FROM watch_lists WHERE username = ?",
+    };
+
+    private final Connection connection;
+    private final UserFactory userFactory;
+
+    /**
+     * Opens (creating if needed) the database stored at {@code databasePath}.
+     *
+     * @param databasePath path of the database without extension; H2 adds {@code .mv.db}
+     * @param userFactory  factory used to rebuild users
+     * @throws IllegalStateException if the database cannot be opened
+     */
+    public SqlUserDataAccessObject(String databasePath, UserFactory userFactory) {
+        this.userFactory = userFactory;
+        final Path path = Paths.get(databasePath).toAbsolutePath();
+        try {
+            connection = DriverManager.getConnection("jdbc:h2:file:" + path, "sa", "");
+            try (Statement statement = connection.createStatement()) {
+                for (String ddl : SCHEMA) {
+                    statement.execute(ddl);
+                }
+            }
+            connection.setAutoCommit(false);
+        }
+        catch (SQLException e) {
+            throw new IllegalStateException("Could not open user database " + path, e);
+        }
+    }
+
+    // ===============================================================================================================
+    // =========================================== PUBLIC INTERFACE METHODS ==========================================
+    // ===============================================================================================================
+
+    /**
+     * Saves the full state of a user in one transaction, replacing its watch lists, reviews and watch history.
+     *
+     * @param user the user to persist (must not be {@code null})
+     */
+    @Override
+    public synchronized void save(User user) {
+        inTransaction("save user " + user.getUserName(), () -> {
+            upsertUser(user, user.getVersion());
+            writeChildren(user);
+            return null;
+        });
+    }
+
+    /**
+     * Saves the user if the stored row is still at {@code expectedVersion}, checked by the {@code UPDATE} itself.
+     *
+     * @param user            the changed user (must not be {@code null})
+     * @param expectedVersion the version the user had when it was read
+     * @return {@code true} if the user was saved, {@code false} on a version conflict
+     */
+    @Override
+    public synchronized boolean compareAndSave(User user, long expectedVersion) {
+        return saveIfCurrent(user, expectedVersion, () -> false);
+    }
+
+    /**
+     * Inserts the one {@code watch_list_movies} row of the added movie, after checking the version like
+     * {@link #compareAndSave}. Falls back to saving the whole user if the stored watch lists do not match the user's.
+     *
+     * @param user            the changed user (must not be {@code null})
+     * @param watchList       the user's watch list the movie was added to
+     * @param movie           the added movie
+     * @param expectedVersion the version the user had when it was read
+     * @return {@code true} if the change was saved, {@code false} on a version conflict
+     */
+    @Override
+    public synchronized boolean addMovieToWatchList(User user, WatchList watchList, Movie movie,
+                                                    long expectedVersion) {
+        final String username = user.getUserName();
+        final int listPos = user.getWatchLists().indexOf(watchList);
+        return saveIfCurrent(user, expectedVersion, () -> {
+            if (listPos < 0 || !hasWatchList(username, listPos, watchList.getName())) {
+                return false;
+            }
+            upsertMovies(List.of(movie));
+            final int pos;
+            try (PreparedStatement query = connection.prepareStatement(
+                    "SELECT COALESCE(MAX(pos) + 1, 0) FROM watch_list_movies WHERE username = ? AND list_pos = ?")) {
+                query.setString(1, username);
+                query.setInt(2, listPos);
+                try (ResultSet rows = query.executeQuery()) {
+                    rows.next();
+                    pos = rows.getInt(1);
+                }
+            }
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO watch_list_movies (username, list_pos, pos, movie_id) VALUES (?, ?, ?, ?)")) {
+                insert.setString(1, username);
+                insert.setInt(2, listPos);
+                insert.setInt(3, pos);
+                insert.setString(4, movie.getMovieId());
+                insert.executeUpdate();
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Inserts the one {@code watch_events} row of the recorded movie, after checking the version like
+     * {@link #compareAndSave}.
+     *
+     * @param user            the changed user (must not be {@code null})
+     * @param watched         the recorded watch event
+     * @param expectedVersion the version the user had when it was read
+     * @return {@code true} if the change was saved, {@code false} on a version conflict
+     */
+    @Override
+    public synchronized boolean appendWatchEvent(User user, WatchedMovie watched, long expectedVersion) {
+        final String username = user.getUserName();
+        final WatchHistory history = user.getWatchHistory();
+        return saveIfCurrent(user, expectedVersion, () -> {
+            if (history == null) {
+                return false;
+            }
+            try (PreparedStatement merge = connection.prepareStatement(
+                    "MERGE INTO watch_histories (username, history_id) KEY (username) VALUES (?, ?)")) {
+                merge.setString(1, username);
+                merge.setString(2, history.getWatchHistoryId());
+                merge.executeUpdate();
+            }
+            upsertMovies(List.of(watched));
+            final int pos;
+            try (PreparedStatement query = connection.prepareStatement(
+                    "SELECT COALESCE(MAX(pos) + 1, 0) FROM watch_events WHERE username = ?")) {
+                query.setString(1, username);
+                try (ResultSet rows = query.executeQuery()) {
+                    rows.next();
+                    pos = rows.getInt(1);
+                }
+            }
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO watch_events (username, pos, movie_id, watched_at) VALUES (?, ?, ?, ?)")) {
+                insert.setString(1, username);
+                insert.setInt(2, pos);
+                insert.setString(3, watched.getMovieId());
+                insert.setObject(4, watched.getWatchedDate());
+                insert.executeUpdate();
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Merges the one {@code reviews} row of the review, after checking the version like {@link #compareAndSave}.
+     *
+     * @param user            the changed user (must not be {@code null})
+     * @param review          the user's review, replacing any earlier review of the same movie
+     * @param expectedVersion the version the user had when it was read
+     * @return {@code true} if the change was saved, {@code false} on a version conflict
+     */
+    @Override
+    public synchronized boolean upsertReview(User user, Review review, long expectedVersion) {
+        return saveIfCurrent(user, expectedVersion, () -> {
+            upsertMovies(List.of(review.getMovie()));
+            try (PreparedStatement merge = connection.prepareStatement(
+                    "MERGE INTO reviews (username, movie_id, review_id, rating, comment_text, created_at) "
+                            + "KEY (username, movie_id) VALUES (?, ?, ?, ?, ?, ?)")) {
+                merge.setString(1, user.getUserName());
+                merge.setString(2, review.getMovie().getMovieId());
+                merge.setString(3, review.getReviewId());
+                merge.setInt(4, review.getRating());
+                merge.setString(5, review.getComment());
+                merge.setObject(6, review.getCreatedAt());
+                merge.executeUpdate();
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Deletes the {@code watch_events} rows of a movie, after checking the version like {@link #compareAndSave}.
+     *
+     * @param user            the changed user (must not be {@code null})
+     * @param movieId         the movie whose entries were removed
+     * @param expectedVersion the version the user had when it was read
+     * @return {@code true} if the change was saved, {@code false} on a version conflict
+     */
+    @Override
+    public synchronized boolean removeWatchEvent(User user, String movieId, long expectedVersion) {
+        return saveIfCurrent(user, expectedVersion, () -> {
+            try (PreparedStatement delete = connection.prepareStatement(
+                    "DELETE FROM watch_events WHERE username = ? AND movie_id = ?")) {
+                delete.setString(1, user.getUserName());
+                delete.setString(2, movieId);
+                delete.executeUpdate();
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Loads a user with its watch lists, reviews and watch history.
+     *
+     * @param username the username to look up (must not be {@code null})
+     * @return a new {@link User} if found or {@code null} otherwise
+     */
+    @Override
+    public synchronized User getUser(String username) {
+        return inTransaction("load user " + username, () -> readUser(username));
+    }
+
+    /**
+     * Returns {@code true} iff a user with this username exists in storage.
+     *
+     * @param username the username to check
+     * @return {@code true} if the user exists,
+     *         {@code false} otherwise
+     */
+    @Override
+    public synchronized boolean existsByName(String username) {
+        return inTransaction("look up user " + username, () -> exists(username));
+    }
+
+    /**
+     * Records the username of the currently authenticated user, or clears it if {@code null}.
+     *
+     * @param username the username to record, or {@code null} to clear
+     */
+    @Override
+    public synchronized void setCurrentUsername(String username) {
+        inTransaction("record current user", () -> {
+            try (PreparedStatement merge = connection.prepareStatement(
+                    "MERGE INTO app_state (state_key, state_value) KEY (state_key) VALUES (?, ?)")) {
+                merge.setString(1, CURRENT_USER);
+                merge.setString(2, username);
+                merge.executeUpdate();
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Returns the username of the user currently recorded as logged in.
+     *
+     * @return the username of the logged-in user, or {@code null} if none is set
+     */
+    @Override
+    public synchronized String getCurrentUsername() {
+        return inTransaction("read current user", () -> {
+            try (PreparedStatement query = connection.prepareStatement(
+                    "SELECT state_value FROM app_state WHERE state_key = ?")) {
+                query.setString(1, CURRENT_USER);
+                try (ResultSet rows = query.executeQuery()) {
+                    return rows.next() ? rows.getString(1) : null;
+                }
+            }
+        });
+    }
+
+    /**
+     * Saves the updated password for an existing user.
+     *
+     * @param user the user whose password is to be updated
+     */
+    @Override
+    public void changePassword(User user) {
+        save(user);
+    }
+
+    /**
+     * Counts a user's watch lists, reviews and watched movies with one aggregate query.
+     *
+     * @param username the user
+     * @return the counts, all zero if the user does not exist
+     */
+    @Override
+    public synchronized ProfileStats getUserStats(String username) {
+        return inTransaction("count profile of " + username, () -> {
+            try (PreparedStatement query = connection.prepareStatement(
+                    "SELECT (SELECT COUNT(*) FROM watch_lists WHERE username = ?), "
+                            + "(SELECT COUNT(*) FROM reviews WHERE username = ?), "
+                            + "(SELECT COUNT(*) FROM watch_events WHERE username = ?)")) {
+                for (int i = 1; i <= 3; i++) {
+                    query.setString(i, username);
+                }
+                try (ResultSet rows = query.executeQuery()) {
+                    rows.next();
+                    return new ProfileStats(rows.getInt(1), rows.getInt(2), rows.getInt(3));
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns a user's watch history, oldest entry first, without loading the user's watch lists or reviews.
+     *
+     * @param username the user
+     * @return the watched movies; empty if the user has none or does not exist
+     */
+    public synchronized List<WatchedMovie> getWatchHistory(String username) {
+        return inTransaction("load watch history of " + username, () -> readWatchEvents(username));
+    }
+
+    /**
+     * Closes the database.
+     */
+    @Override
+    public synchronized void close() {
+        try {
+            connection.close();
+        }
+        catch (SQLException e) {
+            throw new IllegalStateException("Could not close the user database", e);
+        }
+    }
+
+    // ===============================================================================================================
+    // ==================================================== WRITING ==================================================
+    // ===============================================================================================================
+
+    private void upsertUser(User user, long version) throws SQLException {
+        try (PreparedStatement merge = connection.prepareStatement(
+                "MERGE INTO users (username, password, version) KEY (username) VALUES (?, ?, ?)")) {
+            merge.setString(1, user.getUserName());
+            merge.setString(2, user.getPassword());
+            merge.setLong(3, version);
+            merge.executeUpdate();
+        }
+    }
+
+    // Claims the next version with an UPDATE that checks the current one, then applies the change. A delta returning
+    // false, or a user stored for the first time, falls back to rewriting all of the user's rows.
+    private boolean saveIfCurrent(User user, long expectedVersion, SqlWork<Boolean> delta) {
+        final boolean saved = inTransaction("save user " + user.getUserName(), () -> {
+            boolean claimed;
+            try (PreparedStatement update = connection.prepareStatement(
+                    "UPDATE users SET password = ?, version = ? WHERE username = ? AND version = ?")) {
+                update.setString(1, user.getPassword());
+                update.setLong(2, expectedVersion + 1);
+                update.setString(3, user.getUserName());
+                update.setLong(4, expectedVersion);
+                claimed = update.executeUpdate() == 1;
+            }
+            boolean inserted = false;
+            // A user that was never stored is at version 0
+            if (!claimed && expectedVersion == 0 && !exists(user.getUserName())) {
+                upsertUser(user, 1);
+                claimed = true;
+                inserted = true;
+            }
+            if (!claimed) {
+                return false;
+            }
+            if (inserted || !delta.run()) {
+                writeChildren(user);
+            }
+            return true;
+        });
+        if (saved) {
+            user.setVersion(expectedVersion + 1);
+        }
+        return saved;
+    }
+
+    private void writeChildren(User user) throws SQLException {
+        final String username = user.getUserName();
+        for (String delete : DELETE_CHILDREN) {
+            try (PreparedStatement statement = connection.prepareStatement(delete)) {
+                statement.setString(1, username);
+                statement.executeUpdate();
+            }
+        }
+
+        final Map<String, Movie> movies = new HashMap<>();
+        for (WatchList watchList : user.getWatchLists()) {
+            for (Movie movie : watchList.getMovies()) {
+                movies.put(movie.getMovieId(), movie);
+            }
+        }
+        for (Review review : user.getReviewsByMovieId().values()) {
+            movies.put(review.getMovie().getMovieId(), review.getMovie());
+        }
+        if (user.getWatchHistory() != null) {
+            for (WatchedMovie watched : user.getWatchHistory().getMovies()) {
+                movies.put(watched.getMovieId(), watched);
+            }
+        }
+        upsertMovies(movies.values());
+
+        try (PreparedStatement lists = connection.prepareStatement(
+                "INSERT INTO watch_lists (username, pos, name) VALUES (?, ?, ?)");
+             PreparedStatement entries = connection.prepareStatement(
+                     "INSERT INTO watch_list_movies (username, list_pos, pos, movie_id) VALUES (?, ?, ?, ?)")) {
+            final List<WatchList> watchLists = user.getWatchLists();
+            for (int l = 0; l < watchLists.size(); l++) {
+                lists.setString(1, username);
+                lists.setInt(2, l);
+                lists.setString(3, watchLists.get(l).getName());
+                lists.addBatch();
+                final List<Movie> listMovies = watchLists.get(l).getMovies();
+                for (int m = 0; m < listMovies.size(); m++) {
+                    entries.setString(1, username);
+                    entries.setInt(2, l);
+                    entries.setInt(3, m);
+                    entries.setString(4, listMovies.get(m).getMovieId());
+                    entries.addBatch();
+                }
+            }
+            lists.executeBatch();
+            entries.executeBatch();
+        }
+
+        try (PreparedStatement reviews = connection.prepareStatement(
+                "INSERT INTO reviews (username, movie_id, review_id, rating, comment_text, created_at) "
+                        + "VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (Review review : user.getReviewsByMovieId().values()) {
+                reviews.setString(1, username);
+                reviews.setString(2, review.getMovie().getMovieId());
+                reviews.setString(3, review.getReviewId());
+                reviews.setInt(4, review.getRating());
+                reviews.setString(5, review.getComment());
+                reviews.setObject(6, review.getCreatedAt());
+                reviews.addBatch();
+            }
+            reviews.executeBatch();
+        }
+
+        final WatchHistory history = user.getWatchHistory();
+        if (history != null) {
+            try (PreparedStatement header = connection.prepareStatement(
+                    "INSERT INTO watch_histories (username, history_id) VALUES (?, ?)");
+                 PreparedStatement events = connection.prepareStatement(
+                         "INSERT INTO watch_events (username, pos, movie_id, watched_at) VALUES (?, ?, ?, ?)")) {
+                header.setString(1, username);
+                header.setString(2, history.getWatchHistoryId());
+                header.executeUpdate();
+                final List<WatchedMovie> watched = history.getMovies();
+                for (int e = 0; e < watched.size(); e++) {
+                    events.setString(1, username);
+                    events.setInt(2, e);
+                    events.setString(3, watched.get(e).getMovieId());
+                    events.setObject(4, watched.get(e).getWatchedDate());
+                    events.addBatch();
+                }
+                events.executeBatch();
+            }
+        }
+    }
+
+    private void upsertMovies(Collection<Movie> movies) throws SQLException {
+        if (movies.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement merge = connection.prepareStatement(
+                "MERGE INTO movies (movie_id, title, plot, release_date, rating, poster_url) KEY (movie_id) "
+                        + "VALUES (?, ?, ?, ?, ?, ?)");
+             PreparedStatement clearGenres = connection.prepareStatement(
+                     "DELETE FROM movie_genres WHERE movie_id = ?");
+             PreparedStatement genres = connection.prepareStatement(
+                     "INSERT INTO movie_genres (movie_id, pos, genre_id) VALUES (?, ?, ?)")) {
+            for (Movie movie : movies) {
+                merge.setString(1, movie.getMovieId());
+                merge.setString(2, movie.getTitle());
+                merge.setString(3, movie.getPlot());
+                merge.setString(4, movie.getReleaseDate());
+                merge.setDouble(5, movie.getRating());
+                merge.setString(6, movie.getPosterUrl());
+                merge.addBatch();
+                clearGenres.setString(1, movie.getMovieId());
+                clearGenres.addBatch();
+                final List<Integer> genreIds = movie.getGenreIds();
+                for (int g = 0; g < genreIds.size(); g++) {
+                    genres.setString(1, movie.getMovieId());
+                    genres.setInt(2, g);
+                    genres.setInt(3, genreIds.get(g));
+                    genres.addBatch();
+                }
+            }
+            merge.executeBatch();
+            clearGenres.executeBatch();
+            genres.executeBatch();
+        }
+    }
+
+    // ===============================================================================================================
+    // ==================================================== READING ==================================================
+    // ===============================================================================================================
+
+    private boolean exists(String username) throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement("SELECT 1 FROM users WHERE username = ?")) {
+            query.setString(1, username);
+            try (ResultSet rows = query.executeQuery()) {
+                return rows.next();
+            }
+        }
+    }
+
+    private boolean hasWatchList(String username, int pos, String name) throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT 1 FROM watch_lists WHERE username = ? AND pos = ? AND name = ?")) {
+            query.setString(1, username);
+            query.setInt(2, pos);
+            query.setString(3, name);
+            try (ResultSet rows = query.executeQuery()) {
+                return rows.next();
+            }
+        }
+    }
+
+    private User readUser(String username) throws SQLException {
+        final User user;
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT password, version FROM users WHERE username = ?")) {
+            query.setString(1, username);
+            try (ResultSet rows = query.executeQuery()) {
+                if (!rows.next()) {
+                    return null;
+                }
+                user = userFactory.create(username, rows.getString(1));
+                user.setVersion(rows.getLong(2));
+            }
+        }
+        user.getWatchLists().clear();
+
+        final List<String> listNames = new ArrayList<>();
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT name FROM watch_lists WHERE username = ? ORDER BY pos")) {
+            query.setString(1, username);
+            try (ResultSet rows = query.executeQuery()) {
+                while (rows.next()) {
+                    listNames.add(rows.getString(1));
+                }
+            }
+        }
+        final List<List<String>> listMovieIds = new ArrayList<>();
+        for (int l = 0; l < listNames.size(); l++) {
+            listMovieIds.add(new ArrayList<>());
+        }
+        final Set<String> movieIds = new LinkedHashSet<>();
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT list_pos, movie_id FROM watch_list_movies WHERE username = ? ORDER BY list_pos, pos")) {
+            query.setString(1, username);
+            try (ResultSet rows = query.executeQuery()) {
+                while (rows.next()) {
+                    listMovieIds.get(rows.getInt(1)).add(rows.getString(2));
+                    movieIds.add(rows.getString(2));
+                }
+            }
+        }
+
+        final List<ReviewRow> reviewRows = new ArrayList<>();
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT review_id, movie_id, rating, comment_text, created_at FROM reviews WHERE username = ?")) {
+            query.setString(1, username);
+            try (ResultSet rows = query.executeQuery()) {
+                while (rows.next()) {
+                    reviewRows.add(new ReviewRow(rows.getString(1), rows.getString(2), rows.getInt(3),
+                            rows.getString(4), rows.getObject(5, LocalDateTime.class)));
+                    movieIds.add(rows.getString(2));
+                }
+            }
+        }
+
+        final Map<String, Movie> movies = readMovies(movieIds);
+        for (int l = 0; l < listNames.size(); l++) {
+            final WatchList watchList = new WatchList(user, listNames.get(l));
+            for (String movieId : listMovieIds.get(l)) {
+                watchList.addMovie(movies.get(movieId));
+            }
+            user.addWatchList(watchList);
+        }
+        for (ReviewRow row : reviewRows) {
+            user.addReview(new Review(row.reviewId, user, movies.get(row.movieId), row.rating, row.comment,
+                    row.createdAt));
+        }
+
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT history_id FROM watch_histories WHERE username = ?")) {
+            query.setString(1, username);
+            try (ResultSet rows = query.executeQuery()) {
+                if (rows.next()) {
+                    final WatchHistory history = new WatchHistory(rows.getString(1), user);
+                    history.addWatchedMovies(readWatchEvents(username));
+                    user.setWatchHistory(history);
+                }
+            }
+        }
+        return user;
+    }
+
+    private List<WatchedMovie> readWatchEvents(String username) throws SQLException {
+        final List<String> movieIds = new ArrayList<>();
+        final List<LocalDateTime> watchedAt = new ArrayList<>();
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT movie_id, watched_at FROM watch_events WHERE username = ? ORDER BY pos")) {
+            query.setString(1, username);
+            try (ResultSet rows = query.executeQuery()) {
+                while (rows.next()) {
+                    movieIds.add(rows.getString(1));
+                    watchedAt.add(rows.getObject(2, LocalDateTime.class));
+                }
+            }
+        }
+        final Map<String, Movie> movies = readMovies(new LinkedHashSet<>(movieIds));
+        final List<WatchedMovie> watched = new ArrayList<>(movieIds.size());
+        for (int i = 0; i < movieIds.size(); i++) {
+            watched.add(new WatchedMovie(movies.get(movieIds.get(i)), watchedAt.get(i)));
+        }
+        return watched;
+    }
+
+    // A review read before its movie is loaded
+    private static final class ReviewRow {
+        private final String reviewId;
+        private final String movieId;
+        private final int rating;
+        private final String comment;
+        private final LocalDateTime createdAt;
+
+        private ReviewRow(String reviewId, String movieId, int rating, String comment, LocalDateTime createdAt) {
+            this.reviewId = reviewId;
+            this.movieId = movieId;
+            this.rating = rating;
+            this.comment = comment;
+            this.createdAt = createdAt;
+        }
+    }
+
+    // Loads movies (with genres) by id in two queries, resolving them through the shared catalog
+    private Map<String, Movie> readMovies(Set<String> movieIds) throws SQLException {
+        final Map<String, Movie> movies = new HashMap<>();
+        if (movieIds.isEmpty()) {
+            return movies;
+        }
+        final Array ids = connection.createArrayOf("VARCHAR", movieIds.toArray());
+        final Map<String, List<Integer>> genres = new HashMap<>();
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT movie_id, genre_id FROM movie_genres WHERE movie_id = ANY(?) ORDER BY movie_id, pos")) {
+            query.setArray(1, ids);
+            try (ResultSet rows = query.executeQuery()) {
+                while (rows.next()) {
+                    genres.computeIfAbsent(rows.getString(1), id -> new ArrayList<>()).add(rows.getInt(2));
+                }
+            }
+        }
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT movie_id, title, plot, release_date, rating, poster_url FROM movies WHERE movie_id = ANY(?)")) {
+            query.setArray(1, ids);
+            try (ResultSet rows = query.executeQuery()) {
+                while (rows.next()) {
+                    final String id = rows.getString(1);
+                    movies.put(id, MovieCatalog.shared().intern(new Movie(id, rows.getString(2), rows.getString(3),
+                            genres.getOrDefault(id, List.of()), rows.getString(4), rows.getDouble(5), 0.0,
+                            rows.getString(6))));
+                }
+            }
+        }
+        return movies;
+    }
+
+    // ===============================================================================================================
+    // ================================================== TRANSACTIONS ===============================================
+    // ===============================================================================================================
+
+    private interface SqlWork<T> {
+        T run() throws SQLException;
+    }
+
+    // Must be called while holding the monitor; commits on success and rolls back on failure
+    private <T> T inTransaction(String what, SqlWork<T> work) {
+        try {
+            final T result = work.run();
+            connection.commit();
+            return result;
+        }
+        catch (SQLException e) {
+            try {
+                connection.rollback();
+            }
+            catch (SQLException rollbackFailure) {
+                e.addSuppressed(rollbackFailure);
+            }
+            throw new IllegalStateException("Could not " + what, e);
+        }
+    }
+}
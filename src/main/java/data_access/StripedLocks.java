@@ -0,0 +1,65 @@
+package data_access;
+
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed set of locks shared out by key hash, so that work on one username is serialised while work on other
+ * usernames (almost always guarded by a different stripe) runs in parallel, without keeping a lock per user.
+ *
+ * <p>The locks are reentrant: a read-modify-save cycle may call back into the store that holds them.
+ */
+final class StripedLocks {
+
+    static final int DEFAULT_STRIPES = 64;
+
+    private final ReentrantLock[] locks;
+
+    /**
+     * Creates the locks.
+     *
+     * @param stripes number of locks, rounded up to a power of two
+     * @throws IllegalArgumentException if {@code stripes} is not positive
+     */
+    StripedLocks(int stripes) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("stripes must be positive");
+        }
+        int size = 1;
+        while (size < stripes) {
+            size <<= 1;
+        }
+        locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Returns the lock guarding a key.
+     *
+     * @param key the key, may be {@code null}
+     * @return the key's lock
+     */
+    ReentrantLock lockFor(String key) {
+        final int hash = Objects.hashCode(key);
+        return locks[(hash ^ (hash >>> 16)) & (locks.length - 1)];
+    }
+
+    /**
+     * Runs an action while holding the lock for a key.
+     *
+     * @param key    the key
+     * @param action the action
+     */
+    void run(String key, Runnable action) {
+        final ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            action.run();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package data_access;
+
+import java.io.IOException;
+
+/**
+ * Signals that TMDb answered with a non-2xx status, so the response body is an error payload rather than data.
+ */
+final class TMDbHttpException extends IOException {
+
+    private final int statusCode;
+
+    TMDbHttpException(int statusCode, String statusMessage) {
+        super("TMDb returned HTTP " + statusCode + (statusMessage == null ? "" : ": " + statusMessage));
+        this.statusCode = statusCode;
+    }
+
+    int getStatusCode() {
+        return statusCode;
+    }
+}
@@ -0,0 +1,472 @@
+package data_access;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Minimal single-pass JSON pull tokenizer used to read TMDb responses.
+ *
+ * <p>The reader consumes characters from a {@link Reader} through a small fixed buffer, so a response
+ * body never has to be materialised as one {@code String}. Callers walk the document with
+ * {@link #beginObject()}, {@link #nextName()}, {@link #nextString()} and friends, and use
+ * {@link #skipValue()} for anything they are not interested in.
+ *
+ * <p>Only the subset of JSON produced by TMDb is relevant here, but the tokenizer is strict about
+ * structure and handles every standard string escape (including {@code \\uXXXX}).
+ */
+final class TMDbJsonReader {
+
+    /** Kind of the next token in the stream. */
+    enum Token {
+        BEGIN_OBJECT,
+        END_OBJECT,
+        BEGIN_ARRAY,
+        END_ARRAY,
+        NAME,
+        STRING,
+        NUMBER,
+        BOOLEAN,
+        NULL,
+        END_DOCUMENT
+    }
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader in;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int pos;
+    private int limit;
+
+    // Scope stack: 'o' = object expecting a name, 'v' = object expecting a value, 'a' = array
+    private char[] scopes = new char[32];
+    private int depth;
+    private boolean needsSeparator;
+
+    private final StringBuilder scratch = new StringBuilder();
+
+    TMDbJsonReader(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * Returns the kind of the next token without consuming it.
+     *
+     * @return the next token type
+     * @throws IOException if the underlying reader fails or the document is malformed
+     */
+    Token peek() throws IOException {
+        int c = nextNonWhitespace();
+        if (c == -1) {
+            if (depth != 0) {
+                throw syntaxError("Unexpected end of document");
+            }
+            return Token.END_DOCUMENT;
+        }
+
+        if (depth > 0) {
+            char scope = scopes[depth - 1];
+            if (c == '}' && scope != 'a') {
+                return Token.END_OBJECT;
+            }
+            if (c == ']' && scope == 'a') {
+                return Token.END_ARRAY;
+            }
+            if (needsSeparator) {
+                char expected = scope == 'v' ? ':' : ',';
+                if (c != expected) {
+                    throw syntaxError("Expected '" + expected + "'");
+                }
+                pos++;
+                needsSeparator = false;
+                c = nextNonWhitespace();
+            }
+            if (scope == 'o') {
+                if (c != '"') {
+                    throw syntaxError("Expected a field name");
+                }
+                return Token.NAME;
+            }
+        }
+
+        switch (c) {
+            case '{':
+                return Token.BEGIN_OBJECT;
+            case '[':
+                return Token.BEGIN_ARRAY;
+            case '"':
+                return Token.STRING;
+            case 't':
+            case 'f':
+                return Token.BOOLEAN;
+            case 'n':
+                return Token.NULL;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return Token.NUMBER;
+                }
+                throw syntaxError("Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT);
+        pos++;
+        push('o');
+    }
+
+    void endObject() throws IOException {
+        expect(Token.END_OBJECT);
+        pos++;
+        pop();
+    }
+
+    void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY);
+        pos++;
+        push('a');
+    }
+
+    void endArray() throws IOException {
+        expect(Token.END_ARRAY);
+        pos++;
+        pop();
+    }
+
+    /**
+     * Returns whether the current object or array has another element.
+     *
+     * @return {@code true} unless the next token closes the current scope
+     * @throws IOException if the underlying reader fails or the document is malformed
+     */
+    boolean hasNext() throws IOException {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    String nextName() throws IOException {
+        expect(Token.NAME);
+        pos++;
+        String name = readQuoted();
+        scopes[depth - 1] = 'v';
+        needsSeparator = true;
+        return name;
+    }
+
+    /**
+     * Consumes a string value. A JSON {@code null} is returned as {@code null}.
+     *
+     * @return the decoded string, or {@code null}
+     * @throws IOException if the next token is neither a string nor null
+     */
+    String nextString() throws IOException {
+        Token token = peek();
+        if (token == Token.NULL) {
+            nextNull();
+            return null;
+        }
+        if (token != Token.STRING) {
+            throw syntaxError("Expected a string but was " + token);
+        }
+        pos++;
+        String value = readQuoted();
+        afterValue();
+        return value;
+    }
+
+    /**
+     * Consumes a number (or {@code null}) as a double.
+     *
+     * @param fallback value returned for a JSON {@code null}
+     * @return the parsed number
+     * @throws IOException if the next token is not a number or null
+     */
+    double nextDouble(double fallback) throws IOException {
+        Token token = peek();
+        if (token == Token.NULL) {
+            nextNull();
+            return fallback;
+        }
+        if (token != Token.NUMBER) {
+            throw syntaxError("Expected a number but was " + token);
+        }
+        String literal = readLiteral();
+        afterValue();
+        try {
+            return Double.parseDouble(literal);
+        }
+        catch (NumberFormatException e) {
+            throw syntaxError("Malformed number '" + literal + "'");
+        }
+    }
+
+    /**
+     * Consumes an integral number as a long, keeping the exact digits TMDb sends for ids.
+     *
+     * @return the parsed number
+     * @throws IOException if the next token is not an integral number
+     */
+    long nextLong() throws IOException {
+        String literal = nextNumberLiteral();
+        try {
+            return Long.parseLong(literal);
+        }
+        catch (NumberFormatException e) {
+            throw syntaxError("Malformed integer '" + literal + "'");
+        }
+    }
+
+    /**
+     * Consumes a number and returns its literal text, or {@code null} for a JSON {@code null}.
+     *
+     * @return the literal digits of the number
+     * @throws IOException if the next token is not a number or null
+     */
+    String nextNumberLiteral() throws IOException {
+        Token token = peek();
+        if (token == Token.NULL) {
+            nextNull();
+            return null;
+        }
+        if (token != Token.NUMBER) {
+            throw syntaxError("Expected a number but was " + token);
+        }
+        String literal = readLiteral();
+        afterValue();
+        return literal;
+    }
+
+    boolean nextBoolean() throws IOException {
+        expect(Token.BOOLEAN);
+        String literal = readLiteral();
+        afterValue();
+        if ("true".equals(literal)) {
+            return true;
+        }
+        if ("false".equals(literal)) {
+            return false;
+        }
+        throw syntaxError("Malformed literal '" + literal + "'");
+    }
+
+    void nextNull() throws IOException {
+        expect(Token.NULL);
+        String literal = readLiteral();
+        if (!"null".equals(literal)) {
+            throw syntaxError("Malformed literal '" + literal + "'");
+        }
+        afterValue();
+    }
+
+    /**
+     * Skips the next value, including any nested objects or arrays, without decoding it.
+     *
+     * @throws IOException if the underlying reader fails or the document is malformed
+     */
+    void skipValue() throws IOException {
+        int startDepth = depth;
+        do {
+            Token token = peek();
+            switch (token) {
+                case BEGIN_OBJECT:
+                    beginObject();
+                    break;
+                case END_OBJECT:
+                    endObject();
+                    break;
+                case BEGIN_ARRAY:
+                    beginArray();
+                    break;
+                case END_ARRAY:
+                    endArray();
+                    break;
+                case NAME:
+                    nextName();
+                    break;
+                case STRING:
+                    pos++;
+                    skipQuoted();
+                    afterValue();
+                    break;
+                case NUMBER:
+                case BOOLEAN:
+                case NULL:
+                    readLiteral();
+                    afterValue();
+                    break;
+                default:
+                    throw syntaxError("Unexpected end of document");
+            }
+        } while (depth > startDepth);
+    }
+
+    // ===============================================================================================================
+    // =================================================== INTERNALS =================================================
+    // ===============================================================================================================
+
+    private void expect(Token expected) throws IOException {
+        Token actual = peek();
+        if (actual != expected) {
+            throw syntaxError("Expected " + expected + " but was " + actual);
+        }
+    }
+
+    private void push(char scope) {
+        if (depth == scopes.length) {
+            char[] grown = new char[depth * 2];
+            System.arraycopy(scopes, 0, grown, 0, depth);
+            scopes = grown;
+        }
+        scopes[depth++] = scope;
+        needsSeparator = false;
+    }
+
+    private void pop() {
+        depth--;
+        afterValue();
+    }
+
+    // After a value: an object goes back to expecting a name, and a separator is required before the next element
+    private void afterValue() {
+        if (depth > 0) {
+            if (scopes[depth - 1] == 'v') {
+                scopes[depth - 1] = 'o';
+            }
+            needsSeparator = true;
+        }
+    }
+
+    private boolean fill() throws IOException {
+        if (pos < limit) {
+            return true;
+        }
+        int read = in.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            pos = 0;
+            limit = 0;
+            return false;
+        }
+        pos = 0;
+        limit = read;
+        return true;
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        while (fill()) {
+            char c = buffer[pos];
+            if (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                pos++;
+                continue;
+            }
+            return c;
+        }
+        return -1;
+    }
+
+    // Reads an unquoted literal (number, true, false, null) up to the next delimiter
+    private String readLiteral() throws IOException {
+        scratch.setLength(0);
+        while (fill()) {
+            char c = buffer[pos];
+            if (c == ',' || c == '}' || c == ']' || c == ':'
+                    || c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                break;
+            }
+            scratch.append(c);
+            pos++;
+        }
+        return scratch.toString();
+    }
+
+    // Reads the body of a string whose opening quote has already been consumed
+    private String readQuoted() throws IOException {
+        scratch.setLength(0);
+        while (true) {
+            if (!fill()) {
+                throw syntaxError("Unterminated string");
+            }
+            int start = pos;
+            while (pos < limit) {
+                char c = buffer[pos];
+                if (c == '"') {
+                    scratch.append(buffer, start, pos - start);
+                    pos++;
+                    return scratch.toString();
+                }
+                if (c == '\\') {
+                    scratch.append(buffer, start, pos - start);
+                    pos++;
+                    scratch.append(readEscape());
+                    start = pos;
+                    if (pos >= limit) {
+                        break;
+                    }
+                    continue;
+                }
+                pos++;
+            }
+            scratch.append(buffer, start, pos - start);
+        }
+    }
+
+    private void skipQuoted() throws IOException {
+        while (fill()) {
+            char c = buffer[pos++];
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                readEscape();
+            }
+        }
+        throw syntaxError("Unterminated string");
+    }
+
+    private char readEscape() throws IOException {
+        if (!fill()) {
+            throw syntaxError("Unterminated escape sequence");
+        }
+        char c = buffer[pos++];
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                return c;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    if (!fill()) {
+                        throw syntaxError("Unterminated unicode escape");
+                    }
+                    int digit = Character.digit(buffer[pos++], 16);
+                    if (digit == -1) {
+                        throw syntaxError("Malformed unicode escape");
+                    }
+                    value = (value << 4) | digit;
+                }
+                return (char) value;
+            default:
+                throw syntaxError("Invalid escape '\\" + c + "'");
+        }
+    }
+
+    private IOException syntaxError(String message) {
+        return new MalformedResponseException("Malformed TMDb response: " + message);
+    }
+
+    /** Thrown when the body is not the JSON TMDb should have sent, as opposed to an I/O failure while reading it. */
+    static final class MalformedResponseException extends IOException {
+        MalformedResponseException(String message) {
+            super(message);
+        }
+    }
+}
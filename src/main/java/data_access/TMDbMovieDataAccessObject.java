@@ -1,30 +1,94 @@
 package data_access;
 
 import entity.Movie;
+import use_case.common.AsyncMovieGateway;
 import use_case.common.MovieGateway;
 import use_case.common.PagedMovieResult;
 import use_case.common.MovieDataAccessException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.ArrayList;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 //Imports for the API call
 import java.net.URI;
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 // for the hiding of api
 import io.github.cdimascio.dotenv.Dotenv;
 
 
-public class TMDbMovieDataAccessObject implements MovieGateway {
-    private final HttpClient client = HttpClient.newHttpClient();
+public class TMDbMovieDataAccessObject implements MovieGateway, AsyncMovieGateway {
+    private static final String DEFAULT_BASE_URL = "https://api.themoviedb.org/3";
+
+    // TMDb allows roughly 40-50 requests per second; stay a little below that and back off when told to
+    private static final double BURST_SIZE = 20;
+    private static final double MAX_REQUESTS_PER_SECOND = 40;
+    private static final double MIN_REQUESTS_PER_SECOND = 2;
+
+    // Concurrent detail requests issued by findByIds; the rate limiter still caps the overall request rate
+    public static final int DEFAULT_BATCH_PARALLELISM = 8;
+
+    private final String baseUrl;
+    private final TokenBucketRateLimiter rateLimiter;
+    private final RetryPolicy retryPolicy;
+
+    // Dedicated pool for response parsing, so async callers never tie up the UI thread
+    private final ExecutorService executor = Executors.newFixedThreadPool(4, new DaemonThreadFactory("tmdb-io"));
+    // The parser blocks on the streamed body, which the HttpClient fills from its own threads; sharing one
+    // bounded pool would let a handful of concurrent parses starve the client and deadlock
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newCachedThreadPool(new DaemonThreadFactory("tmdb-http")))
+            .build();
     private String cachedApiToken = null; // Cache the API token to avoid reloading .env file
 
+    // Identical requests that overlap in time share one HTTP call, keyed by URL
+    private final SingleFlight<Movie> detailsFlights = new SingleFlight<>();
+    private final SingleFlight<PagedMovieResult> pageFlights = new SingleFlight<>();
+
+    public TMDbMovieDataAccessObject() {
+        this(DEFAULT_BASE_URL,
+                null,
+                new TokenBucketRateLimiter(BURST_SIZE, MAX_REQUESTS_PER_SECOND, MIN_REQUESTS_PER_SECOND),
+                new RetryPolicy(4, 250, 8_000));
+    }
+
+    // Lets tests point the DAO at a local server with a fixed token and fast retries
+    TMDbMovieDataAccessObject(String baseUrl, String apiToken, TokenBucketRateLimiter rateLimiter,
+                              RetryPolicy retryPolicy) {
+        this.baseUrl = baseUrl;
+        this.cachedApiToken = apiToken;
+        this.rateLimiter = rateLimiter;
+        this.retryPolicy = retryPolicy;
+    }
+
     // Helper methods for findById
 
     // Get API token, caching it after first load
-    private String getApiToken() throws Exception {
+    private synchronized String getApiToken() throws Exception {
         if (cachedApiToken != null) {
             return cachedApiToken;
         }
@@ -45,172 +109,258 @@ public class TMDbMovieDataAccessObject implements MovieGateway {
         return cachedApiToken;
     }
 
-    // makeRequest actually makes the api call
-    private String makeRequest(String url) throws Exception {
-        String apiToken = getApiToken();
-
-        HttpRequest request = HttpRequest.newBuilder()
+    private HttpRequest buildRequest(String url) throws Exception {
+        return HttpRequest.newBuilder()
                 .uri(URI.create(url))
-                .header("Authorization", "Bearer " + apiToken)
+                .header("Authorization", "Bearer " + getApiToken())
                 .header("Accept", "application/json")
                 .build();
-        HttpResponse<String> response =
-                client.send(request, HttpResponse.BodyHandlers.ofString());
-        return response.body();
     }
 
-    // extractString extracts a field for string values (i.e "title": "Avengers Endgame"
-    private String extractString(String json, String key) {
-        int start = json.indexOf(key);
-        if (start == -1) return null;
-
-        start += key.length();
-        int end = json.indexOf("\"", start);
-        return json.substring(start, end);
+    // makeRequest actually makes the api call
+    // Every attempt waits for a rate limiter permit; 429 and 5xx responses are retried with jittered backoff.
+    // The body is handed back as a stream so the parser can build movies without buffering the whole response
+    private Reader makeRequest(String url) throws Exception {
+        final HttpRequest request = buildRequest(url);
+        for (int attempt = 0; ; attempt++) {
+            pause(rateLimiter.reserve());
+            HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            long backoffMillis = inspect(response, attempt);
+            if (backoffMillis < 0) {
+                return bodyReader(response);
+            }
+            pause(TimeUnit.MILLISECONDS.toNanos(backoffMillis));
+        }
     }
 
-    // extractNumber extracts numerica fields like "id":299534
-    private String extractNumber(String json, String key) {
-        int start = json.indexOf(key);
-        if (start == -1) return null;
-        start += key.length();
-        int end = json.indexOf(",", start);
-        return json.substring(start, end).trim();
+    // Non-blocking version of makeRequest: waits are scheduled on a timer instead of sleeping a thread,
+    // and the future completes on the tmdb-io pool once the headers of a successful response arrive
+    private CompletableFuture<Reader> makeRequestAsync(String url) {
+        final HttpRequest request;
+        try {
+            request = buildRequest(url);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return sendAsync(request, 0, rateLimiter.reserve());
     }
 
-    // the genre lists are weird in tmdb, so we need a loop
-    // This method handles the "genres":[{...}] format (single movie endpoint)
-    private List<Integer> extractGenreIds(String json) {
-        List<Integer> ids = new ArrayList<>();
-
-        int start = json.indexOf("\"genres\":[");
-        if (start == -1) return ids;
-
-        int end = json.indexOf("]", start);
-        String section = json.substring(start, end);
+    private CompletableFuture<Reader> sendAsync(HttpRequest request, int attempt, long delayNanos) {
+        return delay(delayNanos, TimeUnit.NANOSECONDS)
+                .thenCompose(ignored -> client.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream()))
+                .thenComposeAsync(response -> {
+                    final long backoffMillis;
+                    try {
+                        backoffMillis = inspect(response, attempt);
+                    } catch (TMDbHttpException e) {
+                        return CompletableFuture.failedFuture(e);
+                    }
+                    if (backoffMillis < 0) {
+                        return CompletableFuture.completedFuture(bodyReader(response));
+                    }
+                    return delay(backoffMillis, TimeUnit.MILLISECONDS)
+                            .thenCompose(ignored -> sendAsync(request, attempt + 1, rateLimiter.reserve()));
+                }, executor);
+    }
 
-        String[] parts = section.split("\"id\":");
-        for (int i = 1; i < parts.length; i++) {
-            String num = parts[i].split(",")[0].trim();
-            try {
-                ids.add(Integer.parseInt(num));
-            } catch (Exception ignored) {
-            }
+    // Reports the response to the rate limiter. Returns -1 if the body holds data, otherwise the backoff before
+    // the next attempt; throws once the response is a failure that should not be retried
+    private long inspect(HttpResponse<InputStream> response, int attempt) throws TMDbHttpException {
+        final HttpHeaders headers = response.headers();
+        final int status = response.statusCode();
+        recordQuota(headers);
+        if (status >= 200 && status < 300) {
+            rateLimiter.onSuccess();
+            return -1;
         }
 
-        return ids;
+        final long retryAfterMillis = retryAfterMillis(headers);
+        if (status == 429) {
+            rateLimiter.onRateLimited(TimeUnit.MILLISECONDS.toNanos(retryAfterMillis));
+        }
+        final String statusMessage;
+        try (Reader body = bodyReader(response)) {
+            statusMessage = TMDbMovieParser.parseStatusMessage(body);
+        } catch (IOException e) {
+            throw new TMDbHttpException(status, null);
+        }
+        if (!retryPolicy.shouldRetry(status, attempt)) {
+            throw new TMDbHttpException(status, statusMessage);
+        }
+        rateLimiter.onRetry();
+        return retryPolicy.backoffMillis(attempt, retryAfterMillis);
     }
 
-    // Extract genre_ids from search/discover results (format: "genre_ids":[28,12,878])
-    private List<Integer> extractGenreIdsFromResult(String json) {
-        List<Integer> ids = new ArrayList<>();
-
-        int start = json.indexOf("\"genre_ids\":[");
-        if (start == -1) {
-            // Fallback to the genres format if genre_ids is not found
-            return extractGenreIds(json);
+    // Honours X-RateLimit-Remaining / X-RateLimit-Reset when the server sends them
+    private void recordQuota(HttpHeaders headers) {
+        Optional<String> remaining = headers.firstValue("X-RateLimit-Remaining");
+        Optional<String> reset = headers.firstValue("X-RateLimit-Reset");
+        if (remaining.isEmpty() || reset.isEmpty()) {
+            return;
         }
+        try {
+            long resetMillis = Long.parseLong(reset.get().trim()) * 1000 - System.currentTimeMillis();
+            rateLimiter.onQuota(Long.parseLong(remaining.get().trim()),
+                    TimeUnit.MILLISECONDS.toNanos(resetMillis));
+        } catch (NumberFormatException e) {
+            // Ignore malformed quota headers; the bucket's own rate still applies
+        }
+    }
 
-        start += "\"genre_ids\":[".length();
-        int end = json.indexOf("]", start);
-        if (end == -1) return ids;
-
-        String genreIdsStr = json.substring(start, end).trim();
-        if (genreIdsStr.isEmpty()) return ids;
-
-        // Split by comma and parse each ID
-        String[] parts = genreIdsStr.split(",");
-        for (String part : parts) {
+    // Retry-After is either a number of seconds or an HTTP date
+    static long retryAfterMillis(HttpHeaders headers) {
+        Optional<String> value = headers.firstValue("Retry-After");
+        if (value.isEmpty()) {
+            return 0;
+        }
+        String retryAfter = value.get().trim();
+        try {
+            return Math.max(0, Long.parseLong(retryAfter) * 1000);
+        } catch (NumberFormatException e) {
             try {
-                ids.add(Integer.parseInt(part.trim()));
-            } catch (Exception ignored) {
+                Instant at = ZonedDateTime.parse(retryAfter, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+                return Math.max(0, Duration.between(Instant.now(), at).toMillis());
+            } catch (DateTimeParseException ignored) {
+                return 0;
             }
         }
-
-        return ids;
     }
 
-    // without this helper whenver I used extractNumber to get the movie ID it would return the wrong one
-    // we cant just use extractNumber because it would return the id of the collection, not the movie because
-    // the id of the collection appears first (imagine avengers collection is a collection of all avengers movies
-    // whose id of avengers movies != id avengers endgame
-    private String extractMovieId(String json) {
-
-        // The correct movie ID appears after the "homepage" field.
-        int homepageIndex = json.indexOf("\"homepage\":");
-        if (homepageIndex == -1) return null;
-
-        // Now find the next "id" after homepage
-        int idIndex = json.indexOf("\"id\":", homepageIndex);
-        if (idIndex == -1) return null;
+    private static Reader bodyReader(HttpResponse<InputStream> response) {
+        return new InputStreamReader(response.body(), StandardCharsets.UTF_8);
+    }
 
-        idIndex += "\"id\":".length();
-        int end = json.indexOf(",", idIndex);
+    private static void pause(long nanos) throws InterruptedIOException {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to call TMDb");
+        }
+    }
 
-        return json.substring(idIndex, end).trim();
+    private CompletableFuture<Void> delay(long amount, TimeUnit unit) {
+        if (amount <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(amount, unit, executor));
     }
 
+    // Maps a failed call onto the MovieDataAccessException type the use cases report on
+    static MovieDataAccessException classify(String errorPrefix, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                ? error.getCause()
+                : error;
+        if (cause instanceof MovieDataAccessException) {
+            return (MovieDataAccessException) cause;
+        }
+        final MovieDataAccessException.Type type;
+        if (cause instanceof TMDbHttpException || cause instanceof TMDbJsonReader.MalformedResponseException) {
+            type = MovieDataAccessException.Type.TMDB_ERROR;
+        } else if (cause instanceof IOException) {
+            type = MovieDataAccessException.Type.NETWORK;
+        } else {
+            type = MovieDataAccessException.Type.UNKNOWN;
+        }
+        return new MovieDataAccessException(type, errorPrefix + cause.getMessage(), cause);
+    }
 
-    // parseMovie takes the raw JSON text you got from the TMDb API and turns it into a Movie object
-    private Movie parseMovie(String json) {
-        // Extract simple fields
-        String id = extractMovieId(json);
-        String title = extractString(json, "\"title\":\"");
-        String plot = extractString(json, "\"overview\":\"");
-        String releaseDate = extractString(json, "\"release_date\":\"");
-        String ratingStr = extractNumber(json, "\"vote_average\":");
-        String posterPath = extractString(json, "\"poster_path\":\"");
+    // URL builders shared by the blocking and non-blocking calls
 
-        // Convert rating to double
-        double rating = 0.0;
-        if (ratingStr != null) {
-            try {
-                rating = Double.parseDouble(ratingStr);
-            } catch (Exception ignored) {
-            }
-        }
+    private String detailsUrl(String movieId) {
+        return baseUrl + "/movie/" + movieId;
+    }
 
-        // Extract genres (list of ints) - use genre_ids format for search results
-        List<Integer> genreIds = extractGenreIdsFromResult(json);
+    private String searchUrl(String query, int page) {
+        // TMDb search endpoint: https://api.themoviedb.org/3/search/movie?query=avengers&page=1
+        String encodedQuery = query.replace(" ", "%20");
+        return baseUrl + "/search/movie?query=" + encodedQuery + "&page=" + page;
+    }
 
-        String posterUrl;
-        if (posterPath == null) {
-            // TMDb did not give a poster_path, so we return an empty string
-            posterUrl = "";
-        } else {
-            // TMDb gives poster_path like "/abc123.jpg"
-            // We must prepend the real base URL to make it usable
-            posterUrl = "https://image.tmdb.org/t/p/w500" + posterPath;
-        }
+    private String discoverUrl(List<Integer> genreIds) {
+        // TMDb discover endpoint: https://api.themoviedb.org/3/discover/movie?with_genres=28,12
+        StringBuilder urlBuilder = new StringBuilder(baseUrl + "/discover/movie?with_genres=");
 
-        // Extract popularity if available, otherwise use 0.0
-        String popularityStr = extractNumber(json, "\"popularity\":");
-        double popularity = 0.0;
-        if (popularityStr != null) {
-            try {
-                popularity = Double.parseDouble(popularityStr);
-            } catch (Exception ignored) {
+        for (int i = 0; i < genreIds.size(); i++) {
+            if (i > 0) {
+                urlBuilder.append(",");
             }
+            urlBuilder.append(genreIds.get(i));
         }
 
-        // Build and return the Movie object
-        return new Movie(id, title, plot, genreIds, releaseDate, rating, popularity, posterUrl);
+        // Add sort_by parameter to get popular movies first
+        urlBuilder.append("&sort_by=popularity.desc");
+        return urlBuilder.toString();
     }
 
+    private String popularUrl(int page) {
+        // TMDb discover endpoint for popular movies: https://api.themoviedb.org/3/discover/movie?sort_by=popularity.desc&page=1
+        return baseUrl + "/discover/movie?sort_by=popularity.desc&page=" + page;
+    }
 
     @Override
     public Optional<Movie> findById(String movieId) {
+        final String url = detailsUrl(movieId);
         try {
-            String url = "https://api.themoviedb.org/3/movie/" + movieId;
-            String json = makeRequest(url);
-            Movie movie = parseMovie(json);
-            return Optional.of(movie);
+            return Optional.ofNullable(detailsFlights.call(url, () -> {
+                try (Reader body = makeRequest(url)) {
+                    return TMDbMovieParser.parseMovieDetails(body);
+                }
+            }));
         } catch (Exception e) {
             e.printStackTrace();
             return Optional.empty();
         }
     }
 
+    @Override
+    public Map<String, Movie> findByIds(Collection<String> movieIds) {
+        return findByIds(movieIds, DEFAULT_BATCH_PARALLELISM);
+    }
+
+    /**
+     * Fetches several movies concurrently, keeping at most {@code parallelism} requests in flight at a time.
+     *
+     * @param movieIds    the ids to look up; duplicates are fetched once
+     * @param parallelism maximum number of concurrent requests
+     * @return the movies that were found, keyed by id, in the order of {@code movieIds}
+     */
+    public Map<String, Movie> findByIds(Collection<String> movieIds, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+        final Map<String, Movie> fetched = new ConcurrentHashMap<>();
+        final Semaphore permits = new Semaphore(parallelism);
+        final List<CompletableFuture<?>> requests = new ArrayList<>();
+        try {
+            for (String movieId : new LinkedHashSet<>(movieIds)) {
+                permits.acquire();
+                requests.add(findByIdAsync(movieId).whenComplete((movie, error) -> {
+                    permits.release();
+                    if (movie != null) {
+                        movie.ifPresent(m -> fetched.put(movieId, m));
+                    }
+                }));
+            }
+            CompletableFuture.allOf(requests.toArray(new CompletableFuture<?>[0])).join();
+        } catch (InterruptedException e) {
+            // Hand back whatever has arrived so far
+            Thread.currentThread().interrupt();
+        }
+
+        final Map<String, Movie> found = new LinkedHashMap<>();
+        for (String movieId : movieIds) {
+            final Movie movie = fetched.get(movieId);
+            if (movie != null) {
+                found.put(movieId, movie);
+            }
+        }
+        return found;
+    }
+
     @Override
     public List<Movie> searchByTitle(String query) {
         /*
@@ -222,222 +372,114 @@ public class TMDbMovieDataAccessObject implements MovieGateway {
     @Override
     public PagedMovieResult searchByTitle(String query, int page) throws MovieDataAccessException {
         try {
-            // TMDb search endpoint: https://api.themoviedb.org/3/search/movie?query=avengers&page=1
-            String encodedQuery = query.replace(" ", "%20");
-            String url = "https://api.themoviedb.org/3/search/movie?query=" + encodedQuery + "&page=" + page;
-            String json = makeRequest(url);
-
-            // Parse movies from results
-            List<Movie> movies = parseMoviesFromResults(json);
-
-            // Extract pagination info
-            int currentPage = extractPageNumber(json, "\"page\":");
-            int totalPages = extractPageNumber(json, "\"total_pages\":");
-
-            return new PagedMovieResult(movies, currentPage, totalPages);
+            return fetchPage(searchUrl(query, page));
         } catch (Exception e) {
-            throw new MovieDataAccessException(
-                    MovieDataAccessException.Type.NETWORK,
-                    "Failed to search movies: " + e.getMessage(),
-                    e
-            );
+            throw classify("Failed to search movies: ", e);
         }
     }
 
-    // Helper method to extract page number from JSON
-    private int extractPageNumber(String json, String key) {
-        try {
-            String numberStr = extractNumber(json, key);
-            if (numberStr != null) {
-                return Integer.parseInt(numberStr);
+    // Streams a paged search/discover response into pagination info and lazily built movies (all results kept)
+    private PagedMovieResult fetchPage(String url) throws Exception {
+        return pageFlights.call(url, () -> {
+            try (Reader body = makeRequest(url)) {
+                return TMDbMovieParser.parseMoviePage(body);
             }
-        } catch (Exception ignored) {
-        }
-        return 1; // Default to page 1 if extraction fails
+        });
     }
-    private String extractMovieIdFromResult(String json) {
-        int idIndex = json.indexOf("\"id\":");
-        if (idIndex == -1) return null;
 
-        idIndex += "\"id\":".length();
-        int end = json.indexOf(",", idIndex);
-        if (end == -1) {
-            end = json.indexOf("}", idIndex);
+    @Override
+    public List<Movie> filterByGenres(List<Integer> genreIds) {
+        try {
+            return fetchPage(discoverUrl(genreIds)).getMovies();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return Collections.emptyList();
         }
-        if (end == -1) return null;
-
-        return json.substring(idIndex, end).trim();
     }
 
-    // Parse a movie from the discover/search results array
-    // The structure is slightly different from the single movie endpoint
-    private Movie parseMovieFromResult(String json) {
-        // Extract simple fields
-        String id = extractMovieIdFromResult(json);
-        String title = extractString(json, "\"title\":\"");
-        String plot = extractString(json, "\"overview\":\"");
-        String releaseDate = extractString(json, "\"release_date\":\"");
-        String ratingStr = extractNumber(json, "\"vote_average\":");
-        String posterPath = extractString(json, "\"poster_path\":\"");
-
-        // Convert rating to double
-        double rating = 0.0;
-        if (ratingStr != null) {
-            try {
-                rating = Double.parseDouble(ratingStr);
-            } catch (Exception ignored) {}
-        }
-
-        // Extract genres (list of ints) - use genre_ids format for search results
-        List<Integer> genreIds = extractGenreIdsFromResult(json);
-
-        String posterUrl;
-        if (posterPath == null || posterPath.equals("null")) {
-            posterUrl = "";
-        } else {
-            posterUrl = "https://image.tmdb.org/t/p/w500" + posterPath;
-        }
-
-        // Extract popularity if available, otherwise use 0.0
-        String popularityStr = extractNumber(json, "\"popularity\":");
-        double popularity = 0.0;
-        if (popularityStr != null) {
-            try {
-                popularity = Double.parseDouble(popularityStr);
-            } catch (Exception ignored) {
-            }
+    @Override
+    public PagedMovieResult getPopularMovies(int page) throws MovieDataAccessException {
+        try {
+            return fetchPage(popularUrl(page));
+        } catch (Exception e) {
+            throw classify("Failed to get popular movies: ", e);
         }
-
-        // Build and return the Movie object
-        return new Movie(id, title, plot, genreIds, releaseDate, rating, popularity, posterUrl);
     }
 
-    // Maximum number of movies to parse from API response to prevent lag
-    private static final int MAX_MOVIES_TO_PARSE = 10;
+    // ===============================================================================================================
+    // ================================================ ASYNC METHODS ================================================
+    // ===============================================================================================================
 
-    // Extract all movie objects from the results array in discover/search response
-    private List<Movie> parseMoviesFromResults(String json) {
-        return parseMoviesFromResults(json, MAX_MOVIES_TO_PARSE);
+    @Override
+    public CompletableFuture<Optional<Movie>> findByIdAsync(String movieId) {
+        // Mirrors findById: any failure becomes an empty result rather than an exception
+        final String url = detailsUrl(movieId);
+        return detailsFlights.callAsync(url, () -> makeRequestAsync(url)
+                        .thenApplyAsync(body -> {
+                            try (Reader reader = body) {
+                                return TMDbMovieParser.parseMovieDetails(reader);
+                            } catch (Exception e) {
+                                throw new CompletionException(e);
+                            }
+                        }, executor))
+                .thenApply(Optional::ofNullable)
+                .exceptionally(e -> Optional.empty());
     }
 
-    // Extract movie objects from the results array, limiting to maxMovies
-    // Optimized to stop parsing as soon as we have enough movies
-    // This avoids processing the full JSON response when we only need a few movies
-    private List<Movie> parseMoviesFromResults(String json, int maxMovies) {
-        List<Movie> movies = new ArrayList<>();
-        if (maxMovies <= 0) return movies;
-
-        // Find the results array
-        int resultsStart = json.indexOf("\"results\":[");
-        if (resultsStart == -1) return movies;
-
-        resultsStart += "\"results\":[".length();
-
-        // Parse directly from JSON without extracting the entire results array
-        // This is more memory-efficient when we only need a few movies
-        int currentPos = resultsStart;
-        int moviesParsed = 0;
-
-        while (currentPos < json.length() && moviesParsed < maxMovies) {
-            // Find the start of the next movie object
-            int movieStart = json.indexOf("{", currentPos);
-            if (movieStart == -1 || movieStart >= json.length()) break;
-
-            // Check if we've hit the end of the results array
-            int nextBracket = json.indexOf("]", movieStart);
-            if (nextBracket != -1 && nextBracket < movieStart) break;
-
-            // Find the matching closing brace for this movie object
-            int braceCount = 0;
-            int movieEnd = movieStart;
-            boolean foundEnd = false;
-
-            for (int i = movieStart; i < json.length(); i++) {
-                char c = json.charAt(i);
-                if (c == '{') braceCount++;
-                if (c == '}') {
-                    braceCount--;
-                    if (braceCount == 0) {
-                        movieEnd = i + 1;
-                        foundEnd = true;
-                        break;
-                    }
-                }
-            }
-
-            if (foundEnd && movieEnd > movieStart) {
-                String movieJson = json.substring(movieStart, movieEnd);
-                try {
-                    Movie movie = parseMovieFromResult(movieJson);
-                    if (movie.getMovieId() != null && movie.getTitle() != null) {
-                        movies.add(movie);
-                        moviesParsed++;
-                        // Stop immediately once we have enough movies
-                        if (moviesParsed >= maxMovies) {
-                            break;
-                        }
-                    }
-                } catch (Exception e) {
-                    // Skip invalid movie entries
-                }
-            }
-
-            currentPos = movieEnd;
-        }
-
-        return movies;
+    @Override
+    public CompletableFuture<PagedMovieResult> searchByTitleAsync(String query, int page) {
+        return fetchPageAsync(searchUrl(query, page), "Failed to search movies: ");
     }
 
     @Override
-    public List<Movie> filterByGenres(List<Integer> genreIds) {
-        try {
-            // Build URL with comma-separated genre IDs
-            // TMDb discover endpoint: https://api.themoviedb.org/3/discover/movie?with_genres=28,12
-            StringBuilder urlBuilder = new StringBuilder("https://api.themoviedb.org/3/discover/movie?with_genres=");
-
-            for (int i = 0; i < genreIds.size(); i++) {
-                if (i > 0) {
-                    urlBuilder.append(",");
-                }
-                urlBuilder.append(genreIds.get(i));
-            }
-
-            // Add sort_by parameter to get popular movies first
-            urlBuilder.append("&sort_by=popularity.desc");
-
-            String url = urlBuilder.toString();
-            String json = makeRequest(url);
-
-            // Parse the results array and convert to Movie objects
-
-            return parseMoviesFromResults(json);
-        } catch (Exception e) {
-            e.printStackTrace();
-            return Collections.emptyList();
-        }
+    public CompletableFuture<List<Movie>> filterByGenresAsync(List<Integer> genreIds) {
+        return fetchPageAsync(discoverUrl(genreIds), "Failed to filter movies: ")
+                .thenApply(PagedMovieResult::getMovies)
+                .exceptionally(e -> Collections.emptyList());
     }
 
     @Override
-    public PagedMovieResult getPopularMovies(int page) throws MovieDataAccessException {
-        try {
-            // TMDb discover endpoint for popular movies: https://api.themoviedb.org/3/discover/movie?sort_by=popularity.desc&page=1
-            String url = "https://api.themoviedb.org/3/discover/movie?sort_by=popularity.desc&page=" + page;
-            String json = makeRequest(url);
+    public CompletableFuture<PagedMovieResult> getPopularMoviesAsync(int page) {
+        return fetchPageAsync(popularUrl(page), "Failed to get popular movies: ");
+    }
 
-            // Parse movies from results
-            List<Movie> movies = parseMoviesFromResults(json);
+    // Parses on the tmdb-io pool and maps every failure to a classified MovieDataAccessException
+    private CompletableFuture<PagedMovieResult> fetchPageAsync(String url, String errorPrefix) {
+        return pageFlights.callAsync(url, () -> makeRequestAsync(url)
+                        .thenApplyAsync(body -> {
+                            try (Reader reader = body) {
+                                return TMDbMovieParser.parseMoviePage(reader);
+                            } catch (Exception e) {
+                                throw new CompletionException(e);
+                            }
+                        }, executor))
+                .handle((result, error) -> {
+                    if (error == null) {
+                        return result;
+                    }
+                    throw new CompletionException(classify(errorPrefix, error));
+                });
+    }
 
-            // Extract pagination info
-            int currentPage = extractPageNumber(json, "\"page\":");
-            int totalPages = extractPageNumber(json, "\"total_pages\":");
+    /**
+     * Returns how many TMDb calls were served by an identical request that was already in flight.
+     *
+     * @return a snapshot of the request coalescing counters
+     */
+    public RequestCoalescingStats getCoalescingStats() {
+        return new RequestCoalescingStats(
+                detailsFlights.getExecutedCount() + pageFlights.getExecutedCount(),
+                detailsFlights.getCoalescedCount() + pageFlights.getCoalescedCount(),
+                detailsFlights.getInFlightCount() + pageFlights.getInFlightCount());
+    }
 
-            return new PagedMovieResult(movies, currentPage, totalPages);
-        } catch (Exception e) {
-            throw new MovieDataAccessException(
-                    MovieDataAccessException.Type.NETWORK,
-                    "Failed to get popular movies: " + e.getMessage(),
-                    e
-            );
-        }
+    /**
+     * Returns the state of the request rate limiter, including how often TMDb pushed back and how many requests
+     * were retried.
+     *
+     * @return a snapshot of the rate limiter and retry counters
+     */
+    public RateLimiterStats getRateLimiterStats() {
+        return rateLimiter.getStats();
     }
 }
@@ -0,0 +1,282 @@
+package data_access;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import entity.Movie;
+import use_case.common.PagedMovieResult;
+
+/**
+ * Builds {@link Movie} objects directly from TMDb response streams.
+ *
+ * <p>Both the paged endpoints ({@code /search/movie}, {@code /discover/movie}) and the details endpoint
+ * ({@code /movie/{id}}) are read in a single pass with {@link TMDbJsonReader}. Fields are matched by name at
+ * the correct nesting depth, so the id of a nested {@code belongs_to_collection} object or of a production
+ * company can never be mistaken for the movie id.
+ *
+ * <p>For paged responses the fields a {@link Movie} needs are decoded up front, but each {@link Movie} is only built
+ * and interned the first time it is read from the page. A result with a field of the wrong type is dropped instead of
+ * failing the whole page.
+ */
+final class TMDbMovieParser {
+
+    static final String POSTER_BASE_URL = "https://image.tmdb.org/t/p/w500";
+
+    private TMDbMovieParser() {
+    }
+
+    /**
+     * Parses the body of a {@code /movie/{id}} response.
+     *
+     * @param body the response body
+     * @return the movie, or {@code null} if the payload has no id or title, or a field of the wrong type
+     * @throws IOException if the body cannot be read or is malformed
+     */
+    static Movie parseMovieDetails(Reader body) throws IOException {
+        MovieFields fields = readMovieFields(new TMDbJsonReader(body));
+        return fields == null ? null : fields.build();
+    }
+
+    /**
+     * Parses the body of a paged search or discover response, keeping every result.
+     *
+     * @param body the response body
+     * @return the page of lazily built movies, with page numbers defaulting to 1 when absent
+     * @throws IOException if the body cannot be read or is malformed
+     */
+    static PagedMovieResult parseMoviePage(Reader body) throws IOException {
+        return parseMoviePage(body, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Parses the body of a paged search or discover response.
+     *
+     * <p>At most {@code maxMovies} entries of the {@code results} array are kept; the rest are skipped without being
+     * decoded. Kept entries are decoded now but only built into movies when read from the returned page.
+     *
+     * @param body      the response body
+     * @param maxMovies maximum number of movies to keep
+     * @return the page of lazily built movies, with page numbers defaulting to 1 when absent
+     * @throws IOException if the body cannot be read or is malformed
+     */
+    static PagedMovieResult parseMoviePage(Reader body, int maxMovies) throws IOException {
+        TMDbJsonReader reader = new TMDbJsonReader(body);
+        List<MovieFields> movies = new ArrayList<>();
+        int page = 1;
+        int totalPages = 1;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            switch (name) {
+                case "page":
+                    page = (int) reader.nextLong();
+                    break;
+                case "total_pages":
+                    totalPages = (int) reader.nextLong();
+                    break;
+                case "results":
+                    readResults(reader, movies, maxMovies);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return PagedMovieResult.lazy(movies.size(), i -> movies.get(i).build(), page, totalPages);
+    }
+
+    /**
+     * Extracts {@code status_message} from a TMDb error body such as
+     * {@code {"status_code":7,"status_message":"Invalid API key"}}.
+     *
+     * @param body the response body
+     * @return the status message, or {@code null} if the body has none or is not valid JSON
+     */
+    static String parseStatusMessage(Reader body) {
+        try {
+            TMDbJsonReader reader = new TMDbJsonReader(body);
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if ("status_message".equals(reader.nextName())) {
+                    return reader.nextString();
+                }
+                reader.skipValue();
+            }
+            return null;
+        }
+        catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static void readResults(TMDbJsonReader reader, List<MovieFields> movies, int maxMovies)
+            throws IOException {
+        if (reader.peek() == TMDbJsonReader.Token.NULL) {
+            reader.nextNull();
+            return;
+        }
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (movies.size() >= maxMovies) {
+                reader.skipValue();
+                continue;
+            }
+            MovieFields movie = readMovieFields(reader);
+            if (movie != null) {
+                movies.add(movie);
+            }
+        }
+        reader.endArray();
+    }
+
+    // Reads one movie object; accepts both "genre_ids":[..] (results) and "genres":[{..}] (details). Returns null when
+    // the object lacks an id or title, or has a field of the wrong type. Types are checked before each value is read,
+    // so a bad field is skipped and leaves the reader at the next one
+    private static MovieFields readMovieFields(TMDbJsonReader reader) throws IOException {
+        MovieFields fields = new MovieFields();
+        boolean valid = true;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            TMDbJsonReader.Token expected = expectedToken(name);
+            if (expected == null) {
+                reader.skipValue();
+                continue;
+            }
+            TMDbJsonReader.Token token = reader.peek();
+            if (token == TMDbJsonReader.Token.NULL) {
+                reader.nextNull();
+                continue;
+            }
+            if (token != expected) {
+                reader.skipValue();
+                valid = false;
+                continue;
+            }
+            switch (name) {
+                case "id":
+                    fields.id = reader.nextNumberLiteral();
+                    break;
+                case "title":
+                    fields.title = reader.nextString();
+                    break;
+                case "overview":
+                    fields.plot = reader.nextString();
+                    break;
+                case "release_date":
+                    fields.releaseDate = reader.nextString();
+                    break;
+                case "poster_path":
+                    fields.posterPath = reader.nextString();
+                    break;
+                case "vote_average":
+                    fields.rating = reader.nextDouble(0.0);
+                    break;
+                case "popularity":
+                    fields.popularity = reader.nextDouble(0.0);
+                    break;
+                case "genre_ids":
+                    valid &= readGenreIds(reader, fields.genreIds);
+                    break;
+                default:
+                    valid &= readGenreObjects(reader, fields.genreIds);
+            }
+        }
+        reader.endObject();
+
+        return valid && fields.id != null && fields.title != null ? fields : null;
+    }
+
+    // The token a known field's value must start with, or null for fields a movie does not use
+    private static TMDbJsonReader.Token expectedToken(String field) {
+        switch (field) {
+            case "id":
+            case "vote_average":
+            case "popularity":
+                return TMDbJsonReader.Token.NUMBER;
+            case "title":
+            case "overview":
+            case "release_date":
+            case "poster_path":
+                return TMDbJsonReader.Token.STRING;
+            case "genre_ids":
+            case "genres":
+                return TMDbJsonReader.Token.BEGIN_ARRAY;
+            default:
+                return null;
+        }
+    }
+
+    // Returns false if an element is not an integral number; the rest of the array is still consumed
+    private static boolean readGenreIds(TMDbJsonReader reader, List<Integer> genreIds) throws IOException {
+        boolean valid = true;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            valid &= readGenreId(reader, genreIds);
+        }
+        reader.endArray();
+        return valid;
+    }
+
+    // Returns false if a genre is not an object or its id is not an integral number
+    private static boolean readGenreObjects(TMDbJsonReader reader, List<Integer> genreIds) throws IOException {
+        boolean valid = true;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() != TMDbJsonReader.Token.BEGIN_OBJECT) {
+                reader.skipValue();
+                valid = false;
+                continue;
+            }
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if ("id".equals(reader.nextName())) {
+                    valid &= readGenreId(reader, genreIds);
+                }
+                else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        reader.endArray();
+        return valid;
+    }
+
+    private static boolean readGenreId(TMDbJsonReader reader, List<Integer> genreIds) throws IOException {
+        if (reader.peek() != TMDbJsonReader.Token.NUMBER) {
+            reader.skipValue();
+            return false;
+        }
+        try {
+            genreIds.add(Integer.parseInt(reader.nextNumberLiteral()));
+            return true;
+        }
+        catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    // The decoded fields of one movie, kept until the movie is first read from its page
+    private static final class MovieFields {
+        private String id;
+        private String title;
+        private String plot;
+        private String releaseDate;
+        private String posterPath;
+        private double rating;
+        private double popularity;
+        private final List<Integer> genreIds = new ArrayList<>();
+
+        private Movie build() {
+            String posterUrl = posterPath == null || posterPath.isEmpty() ? "" : POSTER_BASE_URL + posterPath;
+            return MovieCatalog.shared().intern(
+                    new Movie(id, title, plot, genreIds, releaseDate, rating, popularity, posterUrl));
+        }
+    }
+}
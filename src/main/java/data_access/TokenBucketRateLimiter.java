@@ -0,0 +1,158 @@
+package data_access;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token-bucket limiter for outgoing TMDb requests that adapts to what the server reports.
+ *
+ * <p>Callers {@link #reserve() reserve} a permit and wait for the returned delay before sending. Reservations may
+ * run the bucket into debt, so concurrent callers queue up behind each other instead of all waking at once.
+ *
+ * <p>The limiter reacts to the server in two ways: a {@code 429} halves the refill rate (down to a floor) and pauses
+ * the bucket for the reported {@code Retry-After}; an exhausted quota header pauses it until the reported reset.
+ * Every successful response then raises the rate back towards its configured maximum a little at a time.
+ */
+final class TokenBucketRateLimiter {
+
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final double RECOVERY_FRACTION = 0.1;
+
+    private final double capacity;
+    private final double maxRatePerSecond;
+    private final double minRatePerSecond;
+    private final LongSupplier nanoClock;
+
+    private double ratePerSecond;
+    private double tokens;
+    private long lastRefillNanos;
+
+    private long permitsGranted;
+    private long throttledPermits;
+    private long totalWaitNanos;
+    private long rateLimitedResponses;
+    private long retries;
+
+    /**
+     * Creates a limiter that starts with a full bucket.
+     *
+     * @param capacity         maximum burst size
+     * @param maxRatePerSecond steady-state refill rate when the server is not pushing back
+     * @param minRatePerSecond lowest rate the limiter backs off to
+     */
+    TokenBucketRateLimiter(double capacity, double maxRatePerSecond, double minRatePerSecond) {
+        this(capacity, maxRatePerSecond, minRatePerSecond, System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(double capacity, double maxRatePerSecond, double minRatePerSecond, LongSupplier nanoClock) {
+        if (capacity < 1 || maxRatePerSecond <= 0 || minRatePerSecond <= 0 || minRatePerSecond > maxRatePerSecond) {
+            throw new IllegalArgumentException("Invalid rate limiter configuration");
+        }
+        this.capacity = capacity;
+        this.maxRatePerSecond = maxRatePerSecond;
+        this.minRatePerSecond = minRatePerSecond;
+        this.nanoClock = nanoClock;
+        this.ratePerSecond = maxRatePerSecond;
+        this.tokens = capacity;
+        this.lastRefillNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * Takes one permit.
+     *
+     * @return how long, in nanoseconds, the caller must wait before sending; {@code 0} if it may send right away
+     */
+    synchronized long reserve() {
+        final long now = nanoClock.getAsLong();
+        refill(now);
+        tokens -= 1;
+
+        long waitNanos = Math.max(0, lastRefillNanos - now);
+        if (tokens < 0) {
+            waitNanos += (long) (-tokens / ratePerSecond * NANOS_PER_SECOND);
+        }
+
+        permitsGranted++;
+        if (waitNanos > 0) {
+            throttledPermits++;
+            totalWaitNanos += waitNanos;
+        }
+        return waitNanos;
+    }
+
+    /**
+     * Records a successful response and nudges the rate back up.
+     */
+    synchronized void onSuccess() {
+        ratePerSecond = Math.min(maxRatePerSecond, ratePerSecond + maxRatePerSecond * RECOVERY_FRACTION);
+    }
+
+    /**
+     * Records a {@code 429 Too Many Requests} response.
+     *
+     * @param retryAfterNanos the server's {@code Retry-After}, or {@code 0} if it sent none
+     */
+    synchronized void onRateLimited(long retryAfterNanos) {
+        final long now = nanoClock.getAsLong();
+        refill(now);
+        rateLimitedResponses++;
+        ratePerSecond = Math.max(minRatePerSecond, ratePerSecond / 2);
+        final long pauseNanos = retryAfterNanos > 0
+                ? retryAfterNanos
+                : (long) (NANOS_PER_SECOND / ratePerSecond);
+        pauseUntil(now + pauseNanos);
+    }
+
+    /**
+     * Records the quota the server reported alongside a response.
+     *
+     * @param remaining  requests left in the current window
+     * @param resetNanos time until the window resets
+     */
+    synchronized void onQuota(long remaining, long resetNanos) {
+        if (remaining > 0 || resetNanos <= 0) {
+            return;
+        }
+        final long now = nanoClock.getAsLong();
+        refill(now);
+        pauseUntil(now + resetNanos);
+    }
+
+    /**
+     * Records that a request is being retried.
+     */
+    synchronized void onRetry() {
+        retries++;
+    }
+
+    /**
+     * Returns a snapshot of the limiter's state and counters.
+     */
+    synchronized RateLimiterStats getStats() {
+        final long now = nanoClock.getAsLong();
+        refill(now);
+        return new RateLimiterStats(
+                Math.max(0, tokens),
+                ratePerSecond,
+                Math.max(0, lastRefillNanos - now) / 1_000_000L,
+                permitsGranted,
+                throttledPermits,
+                totalWaitNanos / 1_000_000L,
+                rateLimitedResponses,
+                retries);
+    }
+
+    // Nothing accrues while the bucket is paused, i.e. while lastRefillNanos lies in the future
+    private void refill(long now) {
+        if (now <= lastRefillNanos) {
+            return;
+        }
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * ratePerSecond / NANOS_PER_SECOND);
+        lastRefillNanos = now;
+    }
+
+    private void pauseUntil(long untilNanos) {
+        tokens = Math.min(tokens, 0);
+        lastRefillNanos = Math.max(lastRefillNanos, untilNanos);
+    }
+}
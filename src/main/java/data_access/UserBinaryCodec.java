@@ -0,0 +1,311 @@
+package data_access;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import entity.Movie;
+import entity.Review;
+import entity.User;
+import entity.WatchHistory;
+import entity.WatchList;
+import entity.WatchedMovie;
+import entity.factories.UserFactory;
+
+/**
+ * Compact, versioned binary encoding of a {@link User} with its watch lists, reviews and watch history.
+ *
+ * <p>Every distinct movie is written once, in a table at the start of the record; watch lists, reviews and watch
+ * history entries refer to it by position. Counts, genre ids and table positions are varints, and timestamps are
+ * seconds since the epoch (UTC) plus nanoseconds. Strings are UTF-8 with a varint length, where length {@code 0}
+ * stands for {@code null}.
+ *
+ * <p>Layout of version 2 (version 1 records, which lack the user's version stamp, are still read):
+ * <pre>
+ * "MNU" formatVersion
+ * username password userVersion
+ * movieCount { id title plot genreCount {genreId} releaseDate rating(double) posterUrl }
+ * watchListCount { name movieCount {movieRef} }
+ * reviewCount { id movieRef rating(zigzag) comment createdAt }
+ * hasHistory [ id entryCount { movieRef watchedAt } ]
+ * </pre>
+ *
+ * <p>Like the JSON format, watch list ids and creation dates are not kept (the entity cannot be rebuilt with them),
+ * and movie popularity is not kept because {@link Movie} always starts at {@code 0}. Decoded movies are resolved
+ * through the shared {@link MovieCatalog}, so users that share a title share one instance of it.
+ */
+final class UserBinaryCodec implements UserCodec {
+
+    static final int VERSION = 2;
+    private static final byte[] MAGIC = {'M', 'N', 'U'};
+
+    private final UserFactory userFactory;
+
+    UserBinaryCodec(UserFactory userFactory) {
+        this.userFactory = userFactory;
+    }
+
+    @Override
+    public String fileExtension() {
+        return ".bin";
+    }
+
+    // ===============================================================================================================
+    // =================================================== ENCODING ==================================================
+    // ===============================================================================================================
+
+    @Override
+    public byte[] encode(User user) {
+        final MovieTable movies = new MovieTable();
+        final Output body = new Output();
+
+        body.writeString(user.getUserName());
+        body.writeString(user.getPassword());
+        body.writeVarint(user.getVersion());
+
+        final List<WatchList> watchLists = user.getWatchLists();
+        body.writeVarint(watchLists.size());
+        for (WatchList watchList : watchLists) {
+            body.writeString(watchList.getName());
+            body.writeVarint(watchList.getMovies().size());
+            for (Movie movie : watchList.getMovies()) {
+                body.writeVarint(movies.refOf(movie));
+            }
+        }
+
+        final Map<String, Review> reviews = user.getReviewsByMovieId();
+        body.writeVarint(reviews.size());
+        for (Review review : reviews.values()) {
+            body.writeString(review.getReviewId());
+            body.writeVarint(movies.refOf(review.getMovie()));
+            body.writeVarint(zigzag(review.getRating()) & 0xFFFFFFFFL);
+            body.writeString(review.getComment());
+            body.writeTimestamp(review.getCreatedAt());
+        }
+
+        final WatchHistory history = user.getWatchHistory();
+        body.write(history == null ? 0 : 1);
+        if (history != null) {
+            body.writeString(history.getWatchHistoryId());
+            body.writeVarint(history.getMovies().size());
+            for (WatchedMovie watched : history.getMovies()) {
+                body.writeVarint(movies.refOf(watched));
+                body.writeTimestamp(watched.getWatchedDate());
+            }
+        }
+
+        // The table is only complete once the body has been walked, but it has to come first in the record
+        final Output out = new Output();
+        out.write(MAGIC, 0, MAGIC.length);
+        out.write(VERSION);
+        out.writeVarint(movies.entries.size());
+        for (Movie movie : movies.entries) {
+            out.writeString(movie.getMovieId());
+            out.writeString(movie.getTitle());
+            out.writeString(movie.getPlot());
+            out.writeVarint(movie.getGenreIds().size());
+            for (int genreId : movie.getGenreIds()) {
+                out.writeVarint(genreId);
+            }
+            out.writeString(movie.getReleaseDate());
+            out.writeLong(Double.doubleToLongBits(movie.getRating()));
+            out.writeString(movie.getPosterUrl());
+        }
+        body.writeTo(out);
+        return out.toByteArray();
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    // Movies are shared by value: the same id with a different rating is a different entry
+    private static final class MovieTable {
+        private final List<Movie> entries = new ArrayList<>();
+        private final Map<MovieKey, Integer> refs = new HashMap<>();
+
+        private int refOf(Movie movie) {
+            return refs.computeIfAbsent(new MovieKey(movie), key -> {
+                entries.add(movie);
+                return entries.size() - 1;
+            });
+        }
+    }
+
+    private static final class MovieKey {
+        private final Movie movie;
+
+        private MovieKey(Movie movie) {
+            this.movie = movie;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof MovieKey)) {
+                return false;
+            }
+            return MovieCatalog.sameValues(movie, ((MovieKey) other).movie);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(movie.getMovieId(), movie.getTitle(), movie.getRating());
+        }
+    }
+
+    private static final class Output extends ByteArrayOutputStream {
+
+        private Output() {
+            super(256);
+        }
+
+        private void writeVarint(long value) {
+            long remaining = value;
+            while ((remaining & ~0x7FL) != 0) {
+                write((int) ((remaining & 0x7F) | 0x80));
+                remaining >>>= 7;
+            }
+            write((int) remaining);
+        }
+
+        private void writeLong(long value) {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                write((int) (value >>> shift));
+            }
+        }
+
+        private void writeString(String value) {
+            if (value == null) {
+                writeVarint(0);
+                return;
+            }
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length + 1L);
+            write(bytes, 0, bytes.length);
+        }
+
+        private void writeTimestamp(LocalDateTime time) {
+            final long seconds = time.toEpochSecond(ZoneOffset.UTC);
+            writeVarint((seconds << 1) ^ (seconds >> 63));
+            writeVarint(time.getNano());
+        }
+
+        private void writeTo(Output target) {
+            target.write(buf, 0, count);
+        }
+    }
+
+    // ===============================================================================================================
+    // =================================================== DECODING ==================================================
+    // ===============================================================================================================
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException if the record is not in this format or was written by a newer version
+     * @throws java.nio.BufferUnderflowException if the record is cut short
+     */
+    @Override
+    public User decode(ByteBuffer bytes) {
+        for (byte expected : MAGIC) {
+            if (bytes.get() != expected) {
+                throw new IllegalArgumentException("Not a binary user record");
+            }
+        }
+        final int formatVersion = bytes.get();
+        if (formatVersion < 1 || formatVersion > VERSION) {
+            throw new IllegalArgumentException("Unsupported user record version " + formatVersion);
+        }
+
+        final Movie[] movies = new Movie[readVarintInt(bytes)];
+        for (int i = 0; i < movies.length; i++) {
+            final String id = readString(bytes);
+            final String title = readString(bytes);
+            final String plot = readString(bytes);
+            final List<Integer> genreIds = new ArrayList<>();
+            for (int g = readVarintInt(bytes); g > 0; g--) {
+                genreIds.add(readVarintInt(bytes));
+            }
+            final String releaseDate = readString(bytes);
+            final double rating = Double.longBitsToDouble(bytes.getLong());
+            movies[i] = MovieCatalog.shared().intern(
+                    new Movie(id, title, plot, genreIds, releaseDate, rating, 0.0, readString(bytes)));
+        }
+
+        final User user = userFactory.create(readString(bytes), readString(bytes));
+        if (formatVersion >= 2) {
+            user.setVersion(readVarint(bytes));
+        }
+        user.getWatchLists().clear();
+
+        for (int w = readVarintInt(bytes); w > 0; w--) {
+            final WatchList watchList = new WatchList(user, readString(bytes));
+            for (int m = readVarintInt(bytes); m > 0; m--) {
+                watchList.addMovie(movies[readVarintInt(bytes)]);
+            }
+            user.addWatchList(watchList);
+        }
+
+        for (int r = readVarintInt(bytes); r > 0; r--) {
+            final String id = readString(bytes);
+            final Movie movie = movies[readVarintInt(bytes)];
+            final int encodedRating = (int) readVarint(bytes);
+            final int rating = (encodedRating >>> 1) ^ -(encodedRating & 1);
+            final String comment = readString(bytes);
+            user.addReview(new Review(id, user, movie, rating, comment, readTimestamp(bytes)));
+        }
+
+        if (bytes.get() == 1) {
+            final WatchHistory history = new WatchHistory(readString(bytes), user);
+            final int count = readVarintInt(bytes);
+            final List<WatchedMovie> entries = new ArrayList<>(count);
+            for (int e = count; e > 0; e--) {
+                final Movie movie = movies[readVarintInt(bytes)];
+                entries.add(new WatchedMovie(movie, readTimestamp(bytes)));
+            }
+            history.addWatchedMovies(entries);
+            user.setWatchHistory(history);
+        }
+        return user;
+    }
+
+    private static long readVarint(ByteBuffer bytes) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final byte b = bytes.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private static int readVarintInt(ByteBuffer bytes) {
+        return Math.toIntExact(readVarint(bytes));
+    }
+
+    private static String readString(ByteBuffer bytes) {
+        final int length = readVarintInt(bytes);
+        if (length == 0) {
+            return null;
+        }
+        // Copied out rather than read from the backing array, so mapped buffers work too
+        final byte[] utf8 = new byte[length - 1];
+        bytes.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private static LocalDateTime readTimestamp(ByteBuffer bytes) {
+        final long encoded = readVarint(bytes);
+        final long seconds = (encoded >>> 1) ^ -(encoded & 1);
+        return LocalDateTime.ofEpochSecond(seconds, readVarintInt(bytes), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,175 @@
+package data_access;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import entity.User;
+
+/**
+ * Bounded least-recently-used cache of {@link User} entities used by {@link CachedUserDataAccessObject}.
+ *
+ * <p>Once more than {@code maxUsers} users are cached, the one accessed longest ago is dropped. With a positive
+ * {@code expireAfterAccessMillis}, users not accessed for that long are dropped as well; expired entries are removed
+ * lazily, when they are looked up or reach the old end of the queue. One username can be pinned (the logged-in
+ * user), which is never evicted or expired.
+ *
+ * <p>All methods are thread-safe.
+ */
+final class UserCache {
+
+    private final int maxUsers;
+    private final long expireAfterAccessNanos;
+    private final LongSupplier ticker;
+    // Access-ordered: iteration starts at the least recently used user
+    private final LinkedHashMap<String, Entry> users = new LinkedHashMap<>(16, 0.75f, true);
+    private String pinned;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private long loads;
+    private long totalLoadNanos;
+    private long maxLoadNanos;
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxUsers               most users kept at once, not counting the pinned user
+     * @param expireAfterAccessMillis time after its last access at which a user is dropped, or {@code 0} for never
+     * @throws IllegalArgumentException if {@code maxUsers} is not positive or the expiry is negative
+     */
+    UserCache(int maxUsers, long expireAfterAccessMillis) {
+        this(maxUsers, expireAfterAccessMillis, System::nanoTime);
+    }
+
+    UserCache(int maxUsers, long expireAfterAccessMillis, LongSupplier ticker) {
+        if (maxUsers < 1 || expireAfterAccessMillis < 0) {
+            throw new IllegalArgumentException("maxUsers must be positive and expireAfterAccessMillis non-negative");
+        }
+        this.maxUsers = maxUsers;
+        this.expireAfterAccessNanos = TimeUnit.MILLISECONDS.toNanos(expireAfterAccessMillis);
+        this.ticker = ticker;
+    }
+
+    /**
+     * Looks a user up, counting a hit or a miss.
+     *
+     * @param username the username
+     * @return the cached user, or {@code null} if it is not cached or has expired
+     */
+    synchronized User get(String username) {
+        final User user = lookup(username);
+        if (user == null) {
+            misses++;
+        }
+        else {
+            hits++;
+        }
+        return user;
+    }
+
+    /**
+     * Returns whether a user is cached, without counting a lookup.
+     *
+     * @param username the username
+     * @return {@code true} if the user is cached and not expired
+     */
+    synchronized boolean contains(String username) {
+        return lookup(username) != null;
+    }
+
+    /**
+     * Adds or replaces a user and evicts users beyond the bound.
+     *
+     * @param user the user
+     */
+    synchronized void put(User user) {
+        final long now = ticker.getAsLong();
+        users.put(user.getUserName(), new Entry(user, now));
+        evict(now);
+    }
+
+    /**
+     * Records the time taken to load a user that missed the cache.
+     *
+     * @param nanos load duration
+     */
+    synchronized void recordLoad(long nanos) {
+        loads++;
+        totalLoadNanos += nanos;
+        maxLoadNanos = Math.max(maxLoadNanos, nanos);
+    }
+
+    /**
+     * Exempts one user from eviction and expiry, releasing the previously pinned one.
+     *
+     * @param username the user to pin, or {@code null} to pin nobody
+     */
+    synchronized void pin(String username) {
+        pinned = username;
+        evict(ticker.getAsLong());
+    }
+
+    synchronized UserCacheStats stats() {
+        return new UserCacheStats(users.size(), hits, misses, evictions, expirations, loads, totalLoadNanos,
+                maxLoadNanos);
+    }
+
+    // Must be called while holding the lock
+    private User lookup(String username) {
+        final Entry entry = users.get(username);
+        if (entry == null) {
+            return null;
+        }
+        final long now = ticker.getAsLong();
+        if (isExpired(username, entry, now)) {
+            users.remove(username);
+            expirations++;
+            return null;
+        }
+        entry.lastAccess = now;
+        return entry.user;
+    }
+
+    // Must be called while holding the lock
+    private void evict(long now) {
+        final int limit = maxUsers + (pinned != null && users.containsKey(pinned) ? 1 : 0);
+        final Iterator<Map.Entry<String, Entry>> eldest = users.entrySet().iterator();
+        while (eldest.hasNext()) {
+            final Map.Entry<String, Entry> candidate = eldest.next();
+            if (candidate.getKey().equals(pinned)) {
+                continue;
+            }
+            if (isExpired(candidate.getKey(), candidate.getValue(), now)) {
+                eldest.remove();
+                expirations++;
+            }
+            else if (users.size() > limit) {
+                eldest.remove();
+                evictions++;
+            }
+            else {
+                break;
+            }
+        }
+    }
+
+    private boolean isExpired(String username, Entry entry, long now) {
+        return expireAfterAccessNanos > 0 && !username.equals(pinned)
+                && now - entry.lastAccess >= expireAfterAccessNanos;
+    }
+
+    private static final class Entry {
+        private final User user;
+        private long lastAccess;
+
+        private Entry(User user, long lastAccess) {
+            this.user = user;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package data_access;
+
+/**
+ * Immutable snapshot of the counters kept by the user cache of {@link CachedUserDataAccessObject}.
+ */
+public final class UserCacheStats {
+
+    private final int size;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long expirations;
+    private final long loads;
+    private final long totalLoadNanos;
+    private final long maxLoadNanos;
+
+    /**
+     * Creates a snapshot.
+     *
+     * @param size           users currently cached
+     * @param hits           lookups answered from the cache
+     * @param misses         lookups that had to go to the persistent store
+     * @param evictions      users dropped because the cache was full
+     * @param expirations    users dropped because they had not been accessed for too long
+     * @param loads          users loaded from the persistent store
+     * @param totalLoadNanos total time spent loading users
+     * @param maxLoadNanos   duration of the slowest load
+     */
+    public UserCacheStats(int size, long hits, long misses, long evictions, long expirations, long loads,
+                          long totalLoadNanos, long maxLoadNanos) {
+        this.size = size;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.expirations = expirations;
+        this.loads = loads;
+        this.totalLoadNanos = totalLoadNanos;
+        this.maxLoadNanos = maxLoadNanos;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the share of lookups answered from the cache.
+     *
+     * @return hits divided by lookups, or {@code 0} if there were no lookups
+     */
+    public double getHitRatio() {
+        final long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public long getExpirations() {
+        return expirations;
+    }
+
+    public long getLoads() {
+        return loads;
+    }
+
+    /**
+     * Returns the mean time taken to load a user from the persistent store.
+     *
+     * @return average load time in milliseconds, or {@code 0} if nothing has been loaded
+     */
+    public double getAverageLoadMillis() {
+        return loads == 0 ? 0.0 : totalLoadNanos / 1_000_000.0 / loads;
+    }
+
+    public double getMaxLoadMillis() {
+        return maxLoadNanos / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return "UserCacheStats{size=" + size
+                + ", hits=" + hits
+                + ", misses=" + misses
+                + ", hitRatio=" + String.format("%.2f", getHitRatio())
+                + ", evictions=" + evictions
+                + ", expirations=" + expirations
+                + ", loads=" + loads
+                + ", averageLoadMillis=" + String.format("%.1f", getAverageLoadMillis())
+                + ", maxLoadMillis=" + String.format("%.1f", getMaxLoadMillis()) + '}';
+    }
+}
@@ -0,0 +1,37 @@
+package data_access;
+
+import java.nio.ByteBuffer;
+
+import entity.User;
+
+/**
+ * Turns a {@link User}, with everything it owns, into bytes and back.
+ *
+ * <p>Decoding reads from a {@link ByteBuffer} so a record can be decoded straight from a file or a mapped region
+ * without copying it into a string first.
+ */
+interface UserCodec {
+
+    /**
+     * Encodes a user.
+     *
+     * @param user the user
+     * @return the encoded record
+     */
+    byte[] encode(User user);
+
+    /**
+     * Decodes a user from the remaining bytes of a buffer.
+     *
+     * @param bytes the record; its position is advanced past what was read
+     * @return a new user
+     */
+    User decode(ByteBuffer bytes);
+
+    /**
+     * Returns the extension used for files holding records of this codec.
+     *
+     * @return the extension, including the leading dot
+     */
+    String fileExtension();
+}
@@ -0,0 +1,273 @@
+package data_access;
+
+import java.io.CharArrayReader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import entity.Movie;
+import entity.Review;
+import entity.User;
+import entity.WatchHistory;
+import entity.WatchList;
+import entity.WatchedMovie;
+import entity.factories.UserFactory;
+
+/**
+ * Encodes a {@link User} with its nested watch lists, reviews and watch history as a JSON object.
+ *
+ * <p>This is the shape users have in {@code users.json}; the same record is what each user's file holds in the
+ * sharded store.
+ */
+final class UserJsonCodec implements UserCodec {
+
+    private final UserFactory userFactory;
+
+    UserJsonCodec(UserFactory userFactory) {
+        this.userFactory = userFactory;
+    }
+
+    @Override
+    public byte[] encode(User user) {
+        return toJson(user).toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public User decode(ByteBuffer bytes) {
+        // Tokenise the decoded characters directly rather than copying them into a String first
+        final CharBuffer chars = StandardCharsets.UTF_8.decode(bytes);
+        return fromJson(new JSONObject(new JSONTokener(
+                new CharArrayReader(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining()))));
+    }
+
+    @Override
+    public String fileExtension() {
+        return ".json";
+    }
+
+    /**
+     * Converts a user, with everything it owns, to JSON.
+     *
+     * @param user the user
+     * @return a new JSON object
+     */
+    JSONObject toJson(User user) {
+        final JSONObject json = new JSONObject();
+        json.put(JsonKeys.USERNAME, user.getUserName());
+        json.put(JsonKeys.PASSWORD, user.getPassword());
+        json.put(JsonKeys.VERSION, user.getVersion());
+
+        // WatchLists
+        final JSONArray wlsJson = new JSONArray();
+        for (WatchList wl : user.getWatchLists()) {
+            wlsJson.put(watchListToJson(wl));
+        }
+        json.put(JsonKeys.WATCHLISTS, wlsJson);
+
+        // Reviews
+        final JSONObject reviewsJson = new JSONObject();
+        for (Review r : user.getReviewsByMovieId().values()) {
+            reviewsJson.put(r.getReviewId(), reviewToJson(r));
+        }
+        json.put(JsonKeys.REVIEWS, reviewsJson);
+
+        // WatchHistory
+        if (user.getWatchHistory() != null) {
+            json.put(JsonKeys.WATCH_HISTORY, watchHistoryToJSON(user.getWatchHistory()));
+        }
+
+        return json;
+    }
+
+    /**
+     * Rebuilds a user from JSON written by {@link #toJson}.
+     *
+     * @param json the JSON object
+     * @return a new user
+     */
+    User fromJson(JSONObject json) {
+        final User user = userFactory.create(
+                json.getString(JsonKeys.USERNAME),
+                json.getString(JsonKeys.PASSWORD)
+        );
+
+        // Records written before versioning count as version 0
+        user.setVersion(json.optLong(JsonKeys.VERSION, 0));
+        user.getWatchLists().clear();
+
+        // WatchLists
+        final JSONArray wlsJson = json.optJSONArray(JsonKeys.WATCHLISTS);
+        if (wlsJson != null) {
+            for (int i = 0; i < wlsJson.length(); i++) {
+                final WatchList wl = jsonToWatchList(wlsJson.getJSONObject(i), user);
+                user.addWatchList(wl);
+            }
+        }
+
+        // Reviews
+        final JSONObject reviewsJson = json.optJSONObject(JsonKeys.REVIEWS);
+        if (reviewsJson != null) {
+            for (String id : reviewsJson.keySet()) {
+                final Review r = jsonToReview(reviewsJson.getJSONObject(id), user);
+                user.addReview(r);
+            }
+        }
+
+        // WatchHistory
+        if (json.has(JsonKeys.WATCH_HISTORY)) {
+            final WatchHistory wh = jsonToWatchHistory(json.getJSONObject(JsonKeys.WATCH_HISTORY), user);
+            user.setWatchHistory(wh);
+        }
+
+        return user;
+    }
+
+    // ================================================== WatchList ==================================================
+
+    private JSONObject watchListToJson(WatchList watchList) {
+        final JSONObject json = new JSONObject();
+        json.put(JsonKeys.WL_ID, watchList.getWatchListId());
+        json.put(JsonKeys.WL_NAME, watchList.getName());
+        json.put(JsonKeys.WL_DATE_CREATED, watchList.getDateCreated().toString());
+
+        final JSONArray moviesJson = new JSONArray();
+        for (Movie m : watchList.getMovies()) {
+            moviesJson.put(movieToJSON(m));
+        }
+        json.put(JsonKeys.WL_MOVIES, moviesJson);
+
+        return json;
+    }
+
+    private WatchList jsonToWatchList(JSONObject json, User owner) {
+        final WatchList wl = new WatchList(owner, json.getString(JsonKeys.WL_NAME));
+        final JSONArray moviesJson = json.optJSONArray(JsonKeys.WL_MOVIES);
+
+        if (moviesJson != null) {
+            for (int i = 0; i < moviesJson.length(); i++) {
+                final Movie m = jsonToMovie(moviesJson.getJSONObject(i));
+                wl.addMovie(m);
+            }
+        }
+
+        return wl;
+    }
+
+    // ==================================================== Movie ====================================================
+
+    private JSONObject movieToJSON(Movie movie) {
+        return MovieJsonMapper.toJson(movie);
+    }
+
+    private Movie jsonToMovie(JSONObject json) {
+        return MovieJsonMapper.fromJson(json);
+    }
+
+    // =================================================== Review ====================================================
+
+    private JSONObject reviewToJson(Review review) {
+        final JSONObject json = new JSONObject();
+        json.put(JsonKeys.REVIEW_ID, review.getReviewId());
+        json.put(JsonKeys.REVIEW_MOVIE, movieToJSON(review.getMovie()));
+        json.put(JsonKeys.REVIEW_RATING, review.getRating());
+        json.put(JsonKeys.REVIEW_COMMENT, review.getComment());
+        json.put(JsonKeys.REVIEW_CREATED_AT, review.getCreatedAt().toString());
+        return json;
+    }
+
+    private Review jsonToReview(JSONObject json, User owner) {
+        final Movie movie = jsonToMovie(json.getJSONObject(JsonKeys.REVIEW_MOVIE));
+        final int rating = json.getInt(JsonKeys.REVIEW_RATING);
+        final String comment = json.optString(JsonKeys.REVIEW_COMMENT, "");
+        final LocalDateTime createdAt = LocalDateTime.parse(json.getString(JsonKeys.REVIEW_CREATED_AT));
+
+        return new Review(
+                json.getString(JsonKeys.REVIEW_ID),
+                owner,
+                movie,
+                rating,
+                comment,
+                createdAt
+        );
+    }
+
+    // ================================================= WatchHistory ================================================
+
+    private JSONObject watchHistoryToJSON(WatchHistory watchHistory) {
+        final JSONObject json = new JSONObject();
+        json.put(JsonKeys.WH_ID, watchHistory.getWatchHistoryId());
+
+        final JSONArray moviesJson = new JSONArray();
+        for (WatchedMovie wm : watchHistory.getMovies()) {
+            final JSONObject obj = movieToJSON(wm);
+            obj.put(JsonKeys.WH_WATCHED_AT, wm.getWatchedDate().toString());
+            moviesJson.put(obj);
+        }
+        json.put(JsonKeys.WH_MOVIES, moviesJson);
+
+        return json;
+    }
+
+    private WatchHistory jsonToWatchHistory(JSONObject json, User owner) {
+        final WatchHistory wh = new WatchHistory(
+                json.getString(JsonKeys.WH_ID),
+                owner
+        );
+
+        final JSONArray moviesJson = json.optJSONArray(JsonKeys.WH_MOVIES);
+        if (moviesJson != null) {
+            final List<WatchedMovie> entries = new ArrayList<>(moviesJson.length());
+            for (int i = 0; i < moviesJson.length(); i++) {
+                final JSONObject obj = moviesJson.getJSONObject(i);
+                final Movie m = jsonToMovie(obj);
+                final LocalDateTime watchedAt = LocalDateTime.parse(obj.getString(JsonKeys.WH_WATCHED_AT));
+                entries.add(new WatchedMovie(m, watchedAt));
+            }
+            wh.addWatchedMovies(entries);
+        }
+
+        return wh;
+    }
+
+    /**
+     * JSON key constants of a user record.
+     */
+    private static final class JsonKeys {
+
+        // User
+        static final String USERNAME = "username";
+        static final String PASSWORD = "password";
+        static final String VERSION = "version";
+        static final String WATCHLISTS = "watchlists";
+        static final String REVIEWS = "reviews";
+        static final String WATCH_HISTORY = "watchHistory";
+
+        // WatchList
+        static final String WL_ID = "id";
+        static final String WL_NAME = "name";
+        static final String WL_DATE_CREATED = "dateCreated";
+        static final String WL_MOVIES = "movies";
+
+        // Review
+        static final String REVIEW_ID = "id";
+        static final String REVIEW_MOVIE = "movie";
+        static final String REVIEW_RATING = "rating";
+        static final String REVIEW_COMMENT = "comment";
+        static final String REVIEW_CREATED_AT = "createdAt";
+
+        // WatchHistory / WatchedMovie
+        static final String WH_ID = "id";
+        static final String WH_MOVIES = "movies";
+        static final String WH_WATCHED_AT = "watchedAt";
+
+        private JsonKeys() {
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package data_access;
+
+import entity.factories.UserFactory;
+
+/**
+ * The formats {@link ShardedUserDataAccessObject} can write user records in. Records in either format can always be
+ * read, so switching formats converts each user the next time it is saved.
+ */
+public enum UserRecordFormat {
+    /** Human-readable JSON, the same shape as in {@code users.json}. */
+    JSON,
+    /** The compact binary encoding of {@link UserBinaryCodec}, with each movie stored once per user. */
+    BINARY;
+
+    UserCodec codec(UserFactory userFactory) {
+        return this == JSON ? new UserJsonCodec(userFactory) : new UserBinaryCodec(userFactory);
+    }
+}
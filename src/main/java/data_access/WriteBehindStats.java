@@ -0,0 +1,98 @@
+package data_access;
+
+/**
+ * Immutable snapshot of the write-behind counters kept by {@link CachedUserDataAccessObject}.
+ */
+public final class WriteBehindStats {
+
+    private final int queueDepth;
+    private final long savesRequested;
+    private final long writesPerformed;
+    private final long flushes;
+    private final long failedWrites;
+    private final long lastFlushMillis;
+    private final long maxFlushMillis;
+    private final long totalFlushMillis;
+
+    /**
+     * Creates a snapshot.
+     *
+     * @param queueDepth       users (and a pending current-user change) waiting to be written
+     * @param savesRequested   saves and current-user changes accepted from callers
+     * @param writesPerformed  writes that reached the persistent store
+     * @param flushes          flushes that wrote at least one change
+     * @param failedWrites     writes that failed and were queued again
+     * @param lastFlushMillis  duration of the most recent flush
+     * @param maxFlushMillis   duration of the slowest flush
+     * @param totalFlushMillis total time spent flushing
+     */
+    public WriteBehindStats(int queueDepth, long savesRequested, long writesPerformed, long flushes,
+                            long failedWrites, long lastFlushMillis, long maxFlushMillis, long totalFlushMillis) {
+        this.queueDepth = queueDepth;
+        this.savesRequested = savesRequested;
+        this.writesPerformed = writesPerformed;
+        this.flushes = flushes;
+        this.failedWrites = failedWrites;
+        this.lastFlushMillis = lastFlushMillis;
+        this.maxFlushMillis = maxFlushMillis;
+        this.totalFlushMillis = totalFlushMillis;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public long getSavesRequested() {
+        return savesRequested;
+    }
+
+    public long getWritesPerformed() {
+        return writesPerformed;
+    }
+
+    /**
+     * Returns how many saves were absorbed by a later save of the same user.
+     *
+     * @return saves that never needed a write of their own
+     */
+    public long getCoalescedSaves() {
+        return Math.max(0, savesRequested - writesPerformed - queueDepth);
+    }
+
+    public long getFlushes() {
+        return flushes;
+    }
+
+    public long getFailedWrites() {
+        return failedWrites;
+    }
+
+    public long getLastFlushMillis() {
+        return lastFlushMillis;
+    }
+
+    public long getMaxFlushMillis() {
+        return maxFlushMillis;
+    }
+
+    /**
+     * Returns the mean duration of a flush.
+     *
+     * @return average flush time in milliseconds, or {@code 0} if nothing has been flushed
+     */
+    public double getAverageFlushMillis() {
+        return flushes == 0 ? 0.0 : (double) totalFlushMillis / flushes;
+    }
+
+    @Override
+    public String toString() {
+        return "WriteBehindStats{queueDepth=" + queueDepth
+                + ", savesRequested=" + savesRequested
+                + ", writesPerformed=" + writesPerformed
+                + ", flushes=" + flushes
+                + ", failedWrites=" + failedWrites
+                + ", lastFlushMillis=" + lastFlushMillis
+                + ", maxFlushMillis=" + maxFlushMillis
+                + ", averageFlushMillis=" + String.format("%.1f", getAverageFlushMillis()) + '}';
+    }
+}
@@ -0,0 +1,98 @@
+package entity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes sets of TMDb movie genres as bitmasks.
+ *
+ * <p>Every known genre ID is given a dense index, and a set of genres becomes a {@code long} with the bits of its
+ * genres set. Testing whether a movie has any or all of some genres is then a single AND of two masks, instead of
+ * scanning boxed genre lists. The known genres are those of {@code common.GenreUtils}; genre IDs outside that list
+ * have no bit and are left out of masks.
+ */
+public final class GenreMask {
+
+    // TMDb movie genre IDs in bit order; new genres must be appended so stored masks keep their meaning
+    private static final int[] GENRE_IDS = {
+        28, 12, 16, 35, 80, 99, 18, 10751, 14, 36, 27, 10402, 9648, 10749, 878, 10770, 53, 10752, 37,
+    };
+
+    private static final Map<Integer, Integer> BIT_BY_GENRE_ID = new HashMap<>();
+
+    static {
+        for (int bit = 0; bit < GENRE_IDS.length; bit++) {
+            BIT_BY_GENRE_ID.put(GENRE_IDS[bit], bit);
+        }
+    }
+
+    private GenreMask() {
+        throw new AssertionError("Utility class should not be instantiated");
+    }
+
+    /**
+     * Returns the genre IDs that have a bit, in bit order.
+     *
+     * @return the known genre IDs
+     */
+    public static List<Integer> knownGenreIds() {
+        final List<Integer> genreIds = new ArrayList<>(GENRE_IDS.length);
+        for (int genreId : GENRE_IDS) {
+            genreIds.add(genreId);
+        }
+        return List.copyOf(genreIds);
+    }
+
+    /**
+     * Returns the mask of a set of genres. Unknown and {@code null} genre IDs are ignored.
+     *
+     * @param genreIds the genre IDs (may be {@code null})
+     * @return the mask, {@code 0} if none of the genres is known
+     */
+    public static long of(List<Integer> genreIds) {
+        long mask = 0;
+        if (genreIds != null) {
+            for (Integer genreId : genreIds) {
+                final Integer bit = genreId == null ? null : BIT_BY_GENRE_ID.get(genreId);
+                if (bit != null) {
+                    mask |= 1L << bit;
+                }
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Returns whether every genre ID in the list has a bit, i.e. whether {@link #of} loses nothing.
+     *
+     * @param genreIds the genre IDs
+     * @return {@code true} if all genre IDs are known
+     */
+    public static boolean isRepresentable(List<Integer> genreIds) {
+        for (Integer genreId : genreIds) {
+            if (genreId == null || !BIT_BY_GENRE_ID.containsKey(genreId)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Decodes a mask back into genre IDs, in bit order.
+     *
+     * @param mask the mask
+     * @return the genre IDs whose bits are set
+     */
+    public static List<Integer> toGenreIds(long mask) {
+        final List<Integer> genreIds = new ArrayList<>(Long.bitCount(mask));
+        for (long rest = mask; rest != 0; rest &= rest - 1) {
+            final int bit = Long.numberOfTrailingZeros(rest);
+            if (bit < GENRE_IDS.length) {
+                genreIds.add(GENRE_IDS[bit]);
+            }
+        }
+        return List.copyOf(genreIds);
+    }
+}
@@ -1,6 +1,5 @@
 package entity;
 
-import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
@@ -13,6 +12,8 @@ public class Movie {
     private final String title;
     private final String plot;
     private final List<Integer> genreIds;
+    // Bits of the known genres in genreIds, see GenreMask
+    private final long genreMask;
     private final String releaseDate;
     private double rating;
     private final String posterUrl;
@@ -30,6 +31,7 @@ public class Movie {
         this.title = Objects.requireNonNull(title, "title");
         this.plot = plot;
         this.genreIds = genreIds == null ? List.of() : List.copyOf(genreIds);
+        this.genreMask = GenreMask.of(this.genreIds);
         this.releaseDate = releaseDate;
         this.rating = rating;
         this.posterUrl = posterUrl;
@@ -49,7 +51,12 @@ public class Movie {
     }
 
     public List<Integer> getGenreIds() {
-        return Collections.unmodifiableList(genreIds);
+        // Already immutable (List.copyOf in the constructor)
+        return genreIds;
+    }
+
+    public long getGenreMask() {
+        return genreMask;
     }
 
     public double getRating() {
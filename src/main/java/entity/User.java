@@ -20,6 +20,11 @@ public class User {
     private final List<WatchList> watchLists = new ArrayList<>();
     private WatchHistory watchHistory;
     private final Map<String, Review> reviewsByMovieId = new HashMap<>();
+    // Read-only views handed out by the getters, so reading a user never copies its collections
+    private final Map<String, Review> reviewsView = Collections.unmodifiableMap(reviewsByMovieId);
+    private final Collection<Object> watchListsView = Collections.unmodifiableCollection(watchLists);
+    private final Collection<Object> reviewsValuesView = Collections.unmodifiableCollection(reviewsByMovieId.values());
+    private long version;
 
     /**
      * Constructs a new {@code User} with a non-empty username and password.
@@ -62,6 +67,27 @@ public class User {
         return password;
     }
 
+    /**
+     * Returns the version of the stored state this user was loaded from or last saved as.
+     *
+     * <p>Stores increase it on every compare-and-save, so a writer can tell whether someone else saved the user
+     * since it was read. A user that has never been stored is at version {@code 0}.
+     *
+     * @return the version stamp
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the version stamp. Called by the stores when a user is loaded or saved.
+     *
+     * @param version the version of the stored state
+     */
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     /**
      * Returns all watchlists belonging to the user.
      * @return a list of watchlists
@@ -155,40 +181,65 @@ public class User {
     }
 
     /**
-     * Returns an immutable copy of all reviews keyed by movie ID.
+     * Removes the user's review of a movie.
+     *
+     * @param movieId the movie ID
+     * @return the removed review, or {@code null} if the user had not reviewed the movie
+     */
+    public Review removeReview(String movieId) {
+        return reviewsByMovieId.remove(movieId);
+    }
+
+    /**
+     * Returns a read-only view of all reviews keyed by movie ID.
+     *
+     * <p>The view reflects reviews added later; it is not a copy.
      *
      * @return an unmodifiable map of movie ID to review
      */
     public Map<String, Review> getReviewsByMovieId() {
-        return Map.copyOf(reviewsByMovieId);
+        return reviewsView;
+    }
+
+    /**
+     * Returns the user's review of a movie.
+     *
+     * @param movieId the movie ID
+     * @return the review, or {@code null} if the user has not reviewed the movie
+     */
+    public Review getReview(String movieId) {
+        return reviewsByMovieId.get(movieId);
     }
+
     /**
-     * Returns all watchlists belonging to this user.
+     * Returns a read-only view of all watchlists belonging to this user.
      *
      * @return a collection of watchlists
      */
     public Collection<Object> getWatchlists() {
-        return new ArrayList<>(watchLists);
+        return watchListsView;
     }
 
     /**
-     * Returns all reviews written by this user.
+     * Returns a read-only view of all reviews written by this user.
      *
      * @return a collection of reviews
      */
     public Collection<Object> getReviews() {
-        return new ArrayList<>(reviewsByMovieId.values());
+        return reviewsValuesView;
     }
 
     /**
-     * Returns all watched movies from the user's watch history.
+     * Returns all watched movies from the user's watch history, oldest first.
+     *
+     * <p>This is the history's own read-only list (see {@link WatchHistory#getMovies()}), so no wrapper is made.
      *
-     * @return a collection of watched movies, or empty collection if no watch history
+     * @return the watched movies, or an empty list if no watch history
      */
-    public Collection<Object> getWatchedMovies() {
+    public List<WatchedMovie> getWatchedMovies() {
         if (watchHistory == null) {
-            return new ArrayList<>();
+            return List.of();
         }
-        return new ArrayList<>(watchHistory.getMovies());
+        return watchHistory.getMovies();
     }
 }
@@ -2,14 +2,31 @@ package entity;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Objects;
+import java.util.TreeMap;
 
+/**
+ * A user's viewings, kept in watch time order.
+ *
+ * <p>Entries are indexed both by watch time and by movie id, so range queries, lookups and removals do not scan
+ * the whole history. Entries watched at the same moment keep the order in which they were added.
+ */
 public class WatchHistory {
 
     private final String watchHistoryId;
     private final User user;
-    private final List<WatchedMovie> movies = new ArrayList<>();
+    private final NavigableMap<LocalDateTime, List<WatchedMovie>> byWatchedDate = new TreeMap<>();
+    // Each movie's entries in the order they were added
+    private final Map<String, List<WatchedMovie>> byMovieId = new HashMap<>();
+    private int size;
+    // Result of getMovies(), replaced by every change so that reading it never writes
+    private volatile List<WatchedMovie> movies = List.of();
 
     public WatchHistory(String watchHistoryId, User user) {
         this.watchHistoryId = Objects.requireNonNull(watchHistoryId, "watchHistoryId");
@@ -24,12 +41,86 @@ public class WatchHistory {
         return user;
     }
 
+    /**
+     * Returns every entry, oldest first.
+     *
+     * <p>The list is read-only and does not change when the history does. It is rebuilt when the history changes,
+     * not when it is read, so calls without a change in between return the same list, and threads that only read the
+     * history may call this while another thread changes it.
+     *
+     * @return the entries ordered by watch time
+     */
     public List<WatchedMovie> getMovies() {
-        return List.copyOf(movies);
+        return movies;
+    }
+
+    /**
+     * Returns the entries watched between two times, both inclusive, oldest first.
+     *
+     * @param from the earliest watch time
+     * @param to   the latest watch time
+     * @return the matching entries; empty if {@code from} is after {@code to}
+     */
+    public List<WatchedMovie> getMoviesWatchedBetween(LocalDateTime from, LocalDateTime to) {
+        if (from.isAfter(to)) {
+            return List.of();
+        }
+        final List<WatchedMovie> range = new ArrayList<>();
+        for (List<WatchedMovie> sameTime : byWatchedDate.subMap(from, true, to, true).values()) {
+            range.addAll(sameTime);
+        }
+        return Collections.unmodifiableList(range);
+    }
+
+    /**
+     * Returns a read-only view of a movie's entries in the order they were added. The view follows later changes.
+     *
+     * @param movieId the movie ID
+     * @return the movie's entries; empty if it was never watched
+     */
+    public List<WatchedMovie> getEntriesForMovie(String movieId) {
+        final List<WatchedMovie> entries = byMovieId.get(movieId);
+        return entries == null ? List.of() : Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Returns the first-added entry of a movie.
+     *
+     * @param movieId the movie ID
+     * @return the entry, or {@code null} if the movie was never watched
+     */
+    public WatchedMovie findByMovieId(String movieId) {
+        final List<WatchedMovie> entries = byMovieId.get(movieId);
+        return entries == null ? null : entries.get(0);
+    }
+
+    public boolean containsMovie(String movieId) {
+        return byMovieId.containsKey(movieId);
+    }
+
+    public int size() {
+        return size;
     }
 
     public void addWatchedMovie(WatchedMovie watchedMovie) {
-        movies.add(Objects.requireNonNull(watchedMovie));
+        index(watchedMovie);
+        rebuildMovies();
+    }
+
+    /**
+     * Adds several entries, rebuilding the list returned by {@link #getMovies()} once rather than per entry.
+     *
+     * @param watchedMovies the entries to add
+     */
+    public void addWatchedMovies(Collection<WatchedMovie> watchedMovies) {
+        try {
+            for (WatchedMovie watchedMovie : watchedMovies) {
+                index(watchedMovie);
+            }
+        }
+        finally {
+            rebuildMovies();
+        }
     }
 
     public WatchedMovie recordMovie(Movie movie, LocalDateTime watchedAt) {
@@ -39,8 +130,7 @@ public class WatchHistory {
     }
 
     /**
-     * Removes a watched movie from the history by movie ID.
-     * If multiple entries exist for the same movie, removes the first one found.
+     * Removes every entry of a movie from the history.
      *
      * @param movieId the ID of the movie to remove
      * @return true if a movie was removed, false if not found
@@ -49,7 +139,16 @@ public class WatchHistory {
         if (movieId == null) {
             return false;
         }
-        return movies.removeIf(movie -> movieId.equals(movie.getMovieId()));
+        final List<WatchedMovie> entries = byMovieId.remove(movieId);
+        if (entries == null) {
+            return false;
+        }
+        for (WatchedMovie entry : entries) {
+            removeFromTimeIndex(entry);
+        }
+        size -= entries.size();
+        rebuildMovies();
+        return true;
     }
 
     /**
@@ -62,6 +161,39 @@ public class WatchHistory {
         if (watchedMovie == null) {
             return false;
         }
-        return movies.remove(watchedMovie);
+        final List<WatchedMovie> entries = byMovieId.get(watchedMovie.getMovieId());
+        if (entries == null || !entries.remove(watchedMovie)) {
+            return false;
+        }
+        if (entries.isEmpty()) {
+            byMovieId.remove(watchedMovie.getMovieId());
+        }
+        removeFromTimeIndex(watchedMovie);
+        size--;
+        rebuildMovies();
+        return true;
+    }
+
+    private void index(WatchedMovie watchedMovie) {
+        Objects.requireNonNull(watchedMovie);
+        byWatchedDate.computeIfAbsent(watchedMovie.getWatchedDate(), time -> new ArrayList<>(1)).add(watchedMovie);
+        byMovieId.computeIfAbsent(watchedMovie.getMovieId(), id -> new ArrayList<>(1)).add(watchedMovie);
+        size++;
+    }
+
+    private void rebuildMovies() {
+        final List<WatchedMovie> ordered = new ArrayList<>(size);
+        for (List<WatchedMovie> sameTime : byWatchedDate.values()) {
+            ordered.addAll(sameTime);
+        }
+        movies = Collections.unmodifiableList(ordered);
+    }
+
+    private void removeFromTimeIndex(WatchedMovie watchedMovie) {
+        final List<WatchedMovie> sameTime = byWatchedDate.get(watchedMovie.getWatchedDate());
+        sameTime.remove(watchedMovie);
+        if (sameTime.isEmpty()) {
+            byWatchedDate.remove(watchedMovie.getWatchedDate());
+        }
     }
 }
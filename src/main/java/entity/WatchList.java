@@ -2,7 +2,11 @@ package entity;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -18,8 +22,9 @@ import java.util.UUID;
  *     <li>A modifiable list of {@link Movie} objects</li>
  * </ul>
  *
- * <p>The {@code movies} list prevents duplicates. Callers should rely on
- * {@link #addMovie(Movie)} to enforce this rule.
+ * <p>The {@code movies} list prevents duplicates: a movie is in the list at most once per movie ID. Callers should
+ * rely on {@link #addMovie(Movie)} to enforce this rule. Movies are kept in a map keyed by movie ID in the order
+ * they were added, so membership checks, lookups and removals take constant time.
  */
 public class WatchList {
 
@@ -27,7 +32,11 @@ public class WatchList {
     private final User user;
     private final String name;
     private final LocalDateTime dateCreated;
-    private final List<Movie> movies = new ArrayList<>();
+    private final Map<String, Movie> movies = new LinkedHashMap<>();
+    private final Collection<Movie> movieView = Collections.unmodifiableCollection(movies.values());
+    // Result of getMovies(), rebuilt on the first call after a change
+    private List<Movie> movieList = List.of();
+    private boolean movieListStale;
 
     /**
      * Creates a new Watch List with a custom name for the given user.
@@ -92,12 +101,49 @@ public class WatchList {
     }
 
     /**
-     * Returns an immutable view of the movies in this Watch List.
+     * Returns an immutable list of the movies in this Watch List, in the order they were added.
+     *
+     * <p>The list does not change when the Watch List does. Calls without a change in between return the same list
+     * instead of copying the movies again.
      *
      * @return an unmodifiable list of movies
      */
     public List<Movie> getMovies() {
-        return List.copyOf(movies);
+        if (movieListStale) {
+            movieList = Collections.unmodifiableList(new ArrayList<>(movies.values()));
+            movieListStale = false;
+        }
+        return movieList;
+    }
+
+    /**
+     * Returns a read-only live view of the movies in this Watch List, in the order they were added.
+     *
+     * <p>The view reflects later changes without copying; it must not be iterated while the Watch List is changed.
+     *
+     * @return an unmodifiable view of the movies
+     */
+    public Collection<Movie> getMovieView() {
+        return movieView;
+    }
+
+    /**
+     * Returns the number of movies in this Watch List.
+     *
+     * @return the number of movies
+     */
+    public int size() {
+        return movies.size();
+    }
+
+    /**
+     * Returns whether a movie with the given movieId is in this Watch List.
+     *
+     * @param movieId the movieId to look for
+     * @return {@code true} if the movie is in the list
+     */
+    public boolean containsMovie(String movieId) {
+        return movieId != null && movies.containsKey(movieId);
     }
 
     /**
@@ -111,41 +157,52 @@ public class WatchList {
         if (movieId == null) {
             return null;
         }
-
-        for (Movie movie : movies) {
-            if (movieId.equals(movie.getMovieId())) {
-                return movie;
-            }
-        }
-        return null;
+        return movies.get(movieId);
     }
 
     /**
      * Attempts to add a movie to the Watch List.
      *
-     * <p>This method prevents duplicates: if the movie is already in the list, no change occurs.</p>
+     * <p>This method prevents duplicates: if a movie with the same movieId is already in the list, no change
+     * occurs.</p>
      *
      * @param movie the movie to add (must not be null)
      * @return {@code true} if the movie was added; {@code false} if it was already present
      * @throws NullPointerException if {@code movie} is null
      */
     public boolean addMovie(Movie movie) {
-        if (movies.contains(movie)) {
+        if (movies.putIfAbsent(Objects.requireNonNull(movie).getMovieId(), movie) != null) {
             return false;
         }
-        movies.add(Objects.requireNonNull(movie));
+        movieListStale = true;
         return true;
     }
 
     /**
      * Removes a movie from the Watch List.
      *
-     * <p>If the movie is not present, no action is taken.</p>
+     * <p>The movie with the same movieId is removed. If the movie is not present, no action is taken.</p>
      *
      * @param movie the movie to remove
      */
     public void removeMovie(Movie movie) {
-        movies.remove(movie);
+        if (movie != null) {
+            removeMovieById(movie.getMovieId());
+        }
+    }
+
+    /**
+     * Removes the movie with the given movieId from the Watch List.
+     *
+     * @param movieId the movieId of the movie to remove
+     * @return {@code true} if a movie was removed; {@code false} if none had this movieId
+     */
+    public boolean removeMovieById(String movieId) {
+        if (movieId == null || movies.remove(movieId) == null) {
+            return false;
+        }
+        movieListStale = true;
+        return true;
     }
 
     /**
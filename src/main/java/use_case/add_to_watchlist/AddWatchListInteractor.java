@@ -4,6 +4,7 @@ import entity.Movie;
 import entity.User;
 import entity.WatchList;
 import use_case.common.MovieGateway;
+import use_case.common.UserChanges;
 import use_case.common.UserDataAccessInterface;
 
 /**
@@ -53,31 +54,33 @@ public class AddWatchListInteractor implements AddWatchListInputBoundary {
      */
     @Override
     public void execute(AddWatchListRequestModel requestModel) {
+        // The movie may come from TMDb, so it is looked up before the user is locked
+        final Movie movie = movieDataAccessObject.findById(requestModel.getMovieId()).orElse(null);
+
+        // Only the read-modify-save runs under the lock; the presenter is called once it is released
+        userDataAccessObject.callLocked(requestModel.getUsername(), () -> addToWatchList(requestModel, movie)).run();
+    }
+
+    private Runnable addToWatchList(AddWatchListRequestModel requestModel, Movie movie) {
         // Retrieve user
         final String username = requestModel.getUsername();
         final User user = userDataAccessObject.getUser(username);
 
         if (user == null) {
-            presenter.prepareFailView("User not found: " + username);
-            return;
+            return () -> presenter.prepareFailView("User not found: " + username);
         }
+        final long version = user.getVersion();
 
         // Retrieve user's watchlist
         final String watchListId = requestModel.getWatchListId();
         final WatchList watchList = user.getWatchListById(watchListId);
 
         if (watchList == null) {
-            presenter.prepareFailView("WatchList not found: " + watchListId);
-            return;
+            return () -> presenter.prepareFailView("WatchList not found: " + watchListId);
         }
 
-        // Retrieve the movie
-        final String movieId = requestModel.getMovieId();
-        final Movie movie = movieDataAccessObject.findById(movieId).orElse(null);
-
         if (movie == null) {
-            presenter.prepareFailView("Movie not found: " + movieId);
-            return;
+            return () -> presenter.prepareFailView("Movie not found: " + requestModel.getMovieId());
         }
 
         // Attempt adding to list
@@ -86,24 +89,25 @@ public class AddWatchListInteractor implements AddWatchListInputBoundary {
         final boolean success;
         final String message;
 
-        if (added) {
-            // Persist updated user
-            userDataAccessObject.save(user);
-
+        if (!added) {
+            success = false;
+            message = movie.getTitle() + " is already in " + watchList.getName() + ".";
+        }
+        else if (UserChanges.saveOrUndo(
+                () -> userDataAccessObject.addMovieToWatchList(user, watchList, movie, version),
+                () -> watchList.removeMovieById(movie.getMovieId()))) {
             success = true;
             message = movie.getTitle() + " successfully added to " + watchList.getName() + "!";
         }
         else {
             success = false;
-            message = movie.getTitle() + " is already in " + watchList.getName() + ".";
+            message = watchList.getName() + " was changed elsewhere. Please try again.";
         }
 
         final AddWatchListResponseModel responseModel = new AddWatchListResponseModel(success, message);
         if (success) {
-            presenter.prepareSuccessView(responseModel);
-        }
-        else {
-            presenter.prepareFailView(message);
+            return () -> presenter.prepareSuccessView(responseModel);
         }
+        return () -> presenter.prepareFailView(message);
     }
 }
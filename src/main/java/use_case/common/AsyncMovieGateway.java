@@ -0,0 +1,30 @@
+package use_case.common;
+
+import entity.Movie;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link MovieGateway}.
+ *
+ * <p>Every method returns immediately without blocking on I/O. A result that has to be fetched completes the future on
+ * a background thread owned by the implementation, but a result the implementation already holds (a cached or
+ * prefetched page) may be returned as an already completed future. Stages attached with the non-async
+ * {@code CompletableFuture} methods then run on the caller's thread, so callers that must keep work off their own
+ * thread attach it with an {@code ...Async} method and an executor. Failures of the paged calls complete the future
+ * exceptionally
+ * with a {@link MovieDataAccessException} (possibly wrapped in a
+ * {@link java.util.concurrent.CompletionException}).
+ */
+public interface AsyncMovieGateway {
+
+    CompletableFuture<Optional<Movie>> findByIdAsync(String movieId);
+
+    CompletableFuture<PagedMovieResult> searchByTitleAsync(String query, int page);
+
+    CompletableFuture<List<Movie>> filterByGenresAsync(List<Integer> genreIds);
+
+    CompletableFuture<PagedMovieResult> getPopularMoviesAsync(int page);
+}
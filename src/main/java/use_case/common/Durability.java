@@ -0,0 +1,16 @@
+package use_case.common;
+
+/**
+ * How soon a saved change must be safe on disk, trading save latency against how much can be lost in a crash.
+ */
+public enum Durability {
+    /** The change is on disk, and survives a crash or power loss, by the time {@code save} returns. */
+    IMMEDIATE,
+    /**
+     * The change is made durable shortly afterwards, together with other changes saved around the same time, so that
+     * they share the cost of syncing. A crash can lose the last few milliseconds of changes.
+     */
+    GROUPED,
+    /** The change is written at the next background checkpoint, or when the store is closed. */
+    DEFERRED
+}
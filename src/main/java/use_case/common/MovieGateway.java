@@ -2,13 +2,37 @@ package use_case.common;
 
 import entity.Movie;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface MovieGateway {
 
     Optional<Movie> findById(String movieId);
 
+    /**
+     * Looks up several movies at once.
+     *
+     * <p>The default implementation calls {@link #findById(String)} once per distinct id. Gateways backed by a
+     * remote service override it to fetch concurrently.
+     *
+     * @param movieIds the ids to look up; duplicates are fetched once
+     * @return the movies that were found, keyed by id, in the order of {@code movieIds}; ids that could not be
+     *         found are absent
+     */
+    default Map<String, Movie> findByIds(Collection<String> movieIds) {
+        final Map<String, Movie> found = new LinkedHashMap<>();
+        for (String movieId : movieIds) {
+            if (!found.containsKey(movieId)) {
+                findById(movieId).ifPresent(movie -> found.put(movieId, movie));
+            }
+        }
+        return found;
+    }
+
     List<Movie> searchByTitle(String query);
 
     PagedMovieResult searchByTitle(String query, int page)
@@ -17,5 +41,24 @@ public interface MovieGateway {
     List<Movie> filterByGenres(List<Integer> genreIds);
 
     PagedMovieResult getPopularMovies(int page) throws MovieDataAccessException;
+
+    /**
+     * Streams every search result for {@code query}, fetching further pages only as the stream is consumed.
+     *
+     * @param query the search query
+     * @return a lazy stream of movies; a failed page fetch throws {@link UncheckedMovieDataAccessException}
+     */
+    default Stream<Movie> streamSearchResults(String query) {
+        return MoviePageIterator.stream(page -> searchByTitle(query, page), 1);
+    }
+
+    /**
+     * Streams popular movies, fetching further pages only as the stream is consumed.
+     *
+     * @return a lazy stream of movies; a failed page fetch throws {@link UncheckedMovieDataAccessException}
+     */
+    default Stream<Movie> streamPopularMovies() {
+        return MoviePageIterator.stream(this::getPopularMovies, 1);
+    }
 }
 
@@ -0,0 +1,90 @@
+package use_case.common;
+
+import entity.Movie;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Walks the movies of a paged TMDb listing across page boundaries.
+ *
+ * <p>Pages are fetched one at a time, only when the previous one has been consumed, and the walk stops after the
+ * last page the service reports. Combined with lazily materialised pages, a caller that stops early (for example
+ * {@code stream.limit(30)}) neither fetches nor builds movies it never looks at.
+ *
+ * <p>A failed page fetch surfaces as an {@link UncheckedMovieDataAccessException}.
+ */
+public final class MoviePageIterator implements Iterator<Movie> {
+
+    /**
+     * Fetches one page of a listing.
+     */
+    @FunctionalInterface
+    public interface PageSource {
+        PagedMovieResult fetch(int page) throws MovieDataAccessException;
+    }
+
+    private final PageSource source;
+    private int nextPage;
+    private int lastPage = Integer.MAX_VALUE;
+    private List<Movie> current = List.of();
+    private int index;
+
+    /**
+     * Creates an iterator starting at {@code firstPage}. No page is fetched until the first call to
+     * {@link #hasNext()} or {@link #next()}.
+     *
+     * @param source    fetches pages
+     * @param firstPage the first page to read
+     */
+    public MoviePageIterator(PageSource source, int firstPage) {
+        this.source = source;
+        this.nextPage = Math.max(1, firstPage);
+    }
+
+    /**
+     * Returns a sequential stream over every movie from {@code firstPage} onwards.
+     *
+     * @param source    fetches pages
+     * @param firstPage the first page to read
+     * @return a lazy stream of movies
+     */
+    public static Stream<Movie> stream(PageSource source, int firstPage) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                new MoviePageIterator(source, firstPage), Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (index >= current.size()) {
+            if (nextPage > lastPage) {
+                return false;
+            }
+            final PagedMovieResult page;
+            try {
+                page = source.fetch(nextPage);
+            }
+            catch (MovieDataAccessException e) {
+                throw new UncheckedMovieDataAccessException(e);
+            }
+            nextPage++;
+            lastPage = page.getTotalPages();
+            current = page.getMovies();
+            index = 0;
+        }
+        return true;
+    }
+
+    @Override
+    public Movie next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.get(index++);
+    }
+}
@@ -2,10 +2,18 @@ package use_case.common;
 
 import entity.Movie;
 
+import java.util.AbstractList;
 import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
 
 /**
  * used to package info from TMDB
+ *
+ * <p>The movies of a page may be materialised lazily (see {@link #lazy}): the list then knows its size up front,
+ * but each {@link Movie} is only built the first time it is read.
  */
 public class PagedMovieResult {
 
@@ -19,6 +27,41 @@ public class PagedMovieResult {
         this.totalPages = totalPages;
     }
 
+    /**
+     * Creates a page whose movies are built on first access.
+     *
+     * @param size       number of movies on the page
+     * @param factory    builds the movie at a given index; called at most once per index that is read
+     * @param page       the page number
+     * @param totalPages the total number of pages
+     * @return the page
+     */
+    public static PagedMovieResult lazy(int size, IntFunction<Movie> factory, int page, int totalPages) {
+        return new PagedMovieResult(new LazyMovieList(size, factory), page, totalPages);
+    }
+
+    /**
+     * Returns this page with {@code action} run on each movie once it has been built.
+     *
+     * <p>For a lazily built page the returned page reads its movies through this one, running {@code action} the
+     * first time each movie is read, so no movie is built just for the action. For an eagerly built page
+     * {@code action} runs on every movie now and this page is returned.
+     *
+     * @param action what to do with each built movie
+     * @return a page with the same movies
+     */
+    public PagedMovieResult onMaterialise(Consumer<Movie> action) {
+        if (!(movies instanceof LazyMovieList)) {
+            movies.forEach(action);
+            return this;
+        }
+        return lazy(movies.size(), index -> {
+            final Movie movie = movies.get(index);
+            action.accept(movie);
+            return movie;
+        }, page, totalPages);
+    }
+
     public List<Movie> getMovies() {
         return movies;
     }
@@ -30,4 +73,50 @@ public class PagedMovieResult {
     public int getTotalPages() {
         return totalPages;
     }
+
+    /**
+     * Returns how many movies of this page have been built so far.
+     *
+     * @return the number of materialised movies; for an eagerly built page, all of them
+     */
+    public int getMaterialisedCount() {
+        return movies instanceof LazyMovieList ? ((LazyMovieList) movies).materialisedCount() : movies.size();
+    }
+
+    // Read-only list that builds each element once; safe to read from several threads
+    private static final class LazyMovieList extends AbstractList<Movie> implements RandomAccess {
+
+        private final AtomicReferenceArray<Movie> built;
+        private final IntFunction<Movie> factory;
+
+        private LazyMovieList(int size, IntFunction<Movie> factory) {
+            this.built = new AtomicReferenceArray<>(size);
+            this.factory = factory;
+        }
+
+        @Override
+        public Movie get(int index) {
+            final Movie existing = built.get(index);
+            if (existing != null) {
+                return existing;
+            }
+            final Movie movie = factory.apply(index);
+            return built.compareAndSet(index, null, movie) ? movie : built.get(index);
+        }
+
+        @Override
+        public int size() {
+            return built.length();
+        }
+
+        private int materialisedCount() {
+            int count = 0;
+            for (int i = 0; i < built.length(); i++) {
+                if (built.get(i) != null) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
 }
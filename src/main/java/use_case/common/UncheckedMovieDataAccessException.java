@@ -0,0 +1,17 @@
+package use_case.common;
+
+/**
+ * Carries a {@link MovieDataAccessException} out of APIs that cannot throw checked exceptions, such as the
+ * {@link java.util.Iterator} and {@link java.util.stream.Stream} views of paged results.
+ */
+public class UncheckedMovieDataAccessException extends RuntimeException {
+
+    public UncheckedMovieDataAccessException(MovieDataAccessException cause) {
+        super(cause.getMessage(), cause);
+    }
+
+    @Override
+    public synchronized MovieDataAccessException getCause() {
+        return (MovieDataAccessException) super.getCause();
+    }
+}
@@ -0,0 +1,55 @@
+package use_case.common;
+
+import entity.Review;
+import entity.User;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Saves changes that an interactor has already made to a {@link User}, taking them back if they are not saved.
+ *
+ * <p>Stores may hand every reader the same {@code User} instance, so a change that is rejected, or whose save throws,
+ * must not stay on that instance for the next reader to see.
+ */
+public final class UserChanges {
+
+    private UserChanges() {
+    }
+
+    /**
+     * Runs {@code save}, and runs {@code undo} unless it returned {@code true}.
+     *
+     * @param save saves the changed user, returning {@code false} if the change was rejected
+     * @param undo takes the change back off the user
+     * @return whether the change was saved
+     * @throws RuntimeException whatever {@code save} throws, after the change has been taken back
+     */
+    public static boolean saveOrUndo(BooleanSupplier save, Runnable undo) {
+        boolean saved = false;
+        try {
+            saved = save.getAsBoolean();
+            return saved;
+        }
+        finally {
+            if (!saved) {
+                undo.run();
+            }
+        }
+    }
+
+    /**
+     * Puts back the review a user had for a movie before it was replaced.
+     *
+     * @param user     the user whose review was replaced
+     * @param movieId  the reviewed movie
+     * @param previous the review before the change, or {@code null} if there was none
+     */
+    public static void restoreReview(User user, String movieId, Review previous) {
+        if (previous != null) {
+            user.addReview(previous);
+        }
+        else {
+            user.removeReview(movieId);
+        }
+    }
+}
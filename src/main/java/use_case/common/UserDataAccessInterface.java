@@ -1,6 +1,14 @@
 package use_case.common;
 
+import entity.Movie;
+import entity.Review;
 import entity.User;
+import entity.WatchList;
+import entity.WatchedMovie;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Provides the core operations for accessing and saving {@link User} entities.
@@ -27,6 +35,145 @@ public interface UserDataAccessInterface {
      */
     void save(User user);
 
+    /**
+     * Persists the full state of the given user with the requested durability.
+     *
+     * <p>Stores that do not distinguish durability levels simply {@link #save(User) save} the user.
+     *
+     * @param user       the user to persist (must not be {@code null})
+     * @param durability how soon the change must be safe on disk
+     */
+    default void save(User user, Durability durability) {
+        save(user);
+    }
+
+    /**
+     * Saves the user only if nobody else has saved it since it was read, i.e. if the stored user is still at
+     * {@code expectedVersion}. On success the user's {@linkplain User#getVersion() version} is increased.
+     *
+     * <p>Writers read a user, remember its version, change it and then compare-and-save it; a {@code false} result
+     * means a concurrent writer got there first and the change should be reported or redone from a fresh read. The
+     * default compares against {@link #getUser} inside {@link #runLocked}, which makes it atomic in thread-safe
+     * stores; stores that can check the version as part of the write itself override it.
+     *
+     * <p>Within one process, writers that hold {@link #runLocked} for the whole cycle cannot conflict, and stores
+     * sharing one instance per user see their own changes. The check is for the writers the lock does not cover:
+     * stores that read fresh copies without locking, such as a database shared by several processes, and callers
+     * holding a copy read before the cycle began.
+     *
+     * <p>The new version is part of what is saved, so it is set first; if the save throws, the user keeps
+     * {@code expectedVersion}.
+     *
+     * @param user            the changed user (must not be {@code null})
+     * @param expectedVersion the version the user had when it was read
+     * @return {@code true} if the user was saved, {@code false} on a version conflict
+     */
+    default boolean compareAndSave(User user, long expectedVersion) {
+        final boolean[] saved = new boolean[1];
+        runLocked(user.getUserName(), () -> {
+            final User stored = getUser(user.getUserName());
+            final long storedVersion = stored == null ? 0 : stored.getVersion();
+            if (storedVersion == expectedVersion) {
+                user.setVersion(expectedVersion + 1);
+                try {
+                    save(user);
+                }
+                catch (RuntimeException e) {
+                    user.setVersion(expectedVersion);
+                    throw e;
+                }
+                saved[0] = true;
+            }
+        });
+        return saved[0];
+    }
+
+    /**
+     * Persists a movie just added to one of the user's watch lists, under the same version check as
+     * {@link #compareAndSave}.
+     *
+     * <p>The delta methods are called after the change has been made to the user entity. They let stores that keep
+     * users in pieces write only what changed; the defaults fall back to {@link #compareAndSave saving the whole
+     * user}.
+     *
+     * @param user            the changed user (must not be {@code null})
+     * @param watchList       the user's watch list the movie was added to
+     * @param movie           the added movie
+     * @param expectedVersion the version the user had when it was read
+     * @return {@code true} if the change was saved, {@code false} on a version conflict
+     */
+    default boolean addMovieToWatchList(User user, WatchList watchList, Movie movie, long expectedVersion) {
+        return compareAndSave(user, expectedVersion);
+    }
+
+    /**
+     * Persists a movie just recorded at the end of the user's watch history, under the same version check as
+     * {@link #compareAndSave}.
+     *
+     * @param user            the changed user (must not be {@code null})
+     * @param watched         the recorded watch event
+     * @param expectedVersion the version the user had when it was read
+     * @return {@code true} if the change was saved, {@code false} on a version conflict
+     */
+    default boolean appendWatchEvent(User user, WatchedMovie watched, long expectedVersion) {
+        return compareAndSave(user, expectedVersion);
+    }
+
+    /**
+     * Persists a review the user just added or replaced, under the same version check as {@link #compareAndSave}.
+     *
+     * @param user            the changed user (must not be {@code null})
+     * @param review          the user's review, replacing any earlier review of the same movie
+     * @param expectedVersion the version the user had when it was read
+     * @return {@code true} if the change was saved, {@code false} on a version conflict
+     */
+    default boolean upsertReview(User user, Review review, long expectedVersion) {
+        return compareAndSave(user, expectedVersion);
+    }
+
+    /**
+     * Persists the removal of every watch history entry of a movie, under the same version check as
+     * {@link #compareAndSave}.
+     *
+     * @param user            the changed user (must not be {@code null})
+     * @param movieId         the movie whose entries were removed
+     * @param expectedVersion the version the user had when it was read
+     * @return {@code true} if the change was saved, {@code false} on a version conflict
+     */
+    default boolean removeWatchEvent(User user, String movieId, long expectedVersion) {
+        return compareAndSave(user, expectedVersion);
+    }
+
+    /**
+     * Runs a read-modify-save cycle on one user so that it never interleaves with another cycle on the same user.
+     *
+     * <p>Interactors that {@link #getUser get} a user, change it and {@link #save save} it do all three inside
+     * {@code cycle}. Thread-safe stores run it while holding a lock for {@code username} only, so cycles on different
+     * users still run in parallel; stores meant for a single thread simply run it.
+     *
+     * @param username the user the cycle reads and writes (may be {@code null} if the cycle rejects it)
+     * @param cycle    the read-modify-save steps
+     */
+    default void runLocked(String username, Runnable cycle) {
+        cycle.run();
+    }
+
+    /**
+     * Runs a read-modify-save cycle like {@link #runLocked}, returning what the cycle returns.
+     *
+     * <p>Interactors return from here whatever must happen once the lock is released, such as the presenter call.
+     *
+     * @param username the user the cycle reads and writes (may be {@code null} if the cycle rejects it)
+     * @param cycle    the read-modify-save steps
+     * @param <T>      the type of the cycle's result
+     * @return the cycle's result
+     */
+    default <T> T callLocked(String username, Supplier<T> cycle) {
+        final List<T> result = new ArrayList<>(1);
+        runLocked(username, () -> result.add(cycle.get()));
+        return result.get(0);
+    }
+
     /**
      * Returns whether a user with the given username exists.
      *
@@ -1,8 +1,12 @@
 package use_case.delete_watchedmovie;
 
 import entity.User;
+import entity.WatchedMovie;
+import use_case.common.UserChanges;
 import use_case.common.UserDataAccessInterface;
 
+import java.util.List;
+
 /**
  * Interactor for deleting a movie from watch history.
  */
@@ -19,46 +23,54 @@ public class DeleteWatchedMovieInteractor implements DeleteWatchedMovieInputBoun
 
     @Override
     public void execute(DeleteWatchedMovieRequestModel requestModel) {
+        // The presenter is called after the lock is released
+        userDataAccessInterface.callLocked(requestModel.getUserName(), () -> deleteWatchedMovie(requestModel)).run();
+    }
+
+    private Runnable deleteWatchedMovie(DeleteWatchedMovieRequestModel requestModel) {
         User user = userDataAccessInterface.getUser(requestModel.getUserName());
 
         if (user == null) {
-            presenter.prepareFailView("User not found: " + requestModel.getUserName());
-            return;
+            return () -> presenter.prepareFailView("User not found: " + requestModel.getUserName());
         }
+        final long version = user.getVersion();
 
         if (user.getWatchHistory() == null) {
-            presenter.prepareFailView("User has no watch history.");
-            return;
+            return () -> presenter.prepareFailView("User has no watch history.");
         }
 
         // Find the movie to get its title before deletion
         String movieTitle = "Unknown Movie";
-        var watchedMovies = user.getWatchHistory().getMovies();
-        for (var watchedMovie : watchedMovies) {
-            if (requestModel.getMovieId().equals(watchedMovie.getMovieId())) {
-                movieTitle = watchedMovie.getTitle();
-                break;
-            }
+        var watchedMovie = user.getWatchHistory().findByMovieId(requestModel.getMovieId());
+        if (watchedMovie != null) {
+            movieTitle = watchedMovie.getTitle();
         }
 
+        // Kept so the removal can be taken back if it cannot be saved
+        final List<WatchedMovie> removedEntries =
+                List.copyOf(user.getWatchHistory().getEntriesForMovie(requestModel.getMovieId()));
+
         // Remove the movie from watch history
         boolean removed = user.getWatchHistory().removeMovieByMovieId(requestModel.getMovieId());
 
         if (!removed) {
-            presenter.prepareFailView("Movie not found in watch history: " + requestModel.getMovieId());
-            return;
+            return () -> presenter.prepareFailView("Movie not found in watch history: " + requestModel.getMovieId());
         }
 
-        // Save the updated user
-        userDataAccessInterface.save(user);
+        // Save the removal
+        final boolean saved = UserChanges.saveOrUndo(
+                () -> userDataAccessInterface.removeWatchEvent(user, requestModel.getMovieId(), version),
+                () -> removedEntries.forEach(user.getWatchHistory()::addWatchedMovie));
+        if (!saved) {
+            return () -> presenter.prepareFailView("Watch history was changed elsewhere. Please try again.");
+        }
 
-        presenter.prepareSuccessView(
-                new DeleteWatchedMovieResponseModel(
-                        requestModel.getUserName(),
-                        requestModel.getMovieId(),
-                        movieTitle
-                )
+        final DeleteWatchedMovieResponseModel responseModel = new DeleteWatchedMovieResponseModel(
+                requestModel.getUserName(),
+                requestModel.getMovieId(),
+                movieTitle
         );
+        return () -> presenter.prepareSuccessView(responseModel);
     }
 }
 
@@ -5,6 +5,7 @@ import entity.Review;
 import entity.User;
 import entity.WatchedMovie;
 import use_case.common.MovieGateway;
+import use_case.common.UserChanges;
 import use_case.common.UserDataAccessInterface;
 
 import java.time.LocalDateTime;
@@ -29,54 +30,70 @@ public class EditWatchedMovieInteractor implements EditWatchedMovieInputBoundary
 
     @Override
     public void execute(EditWatchedMovieRequestModel requestModel) {
-        User user = userDataAccessInterface.getUser(requestModel.getUserName());
-
-        if (user == null) {
-            presenter.prepareFailView("User not found: " + requestModel.getUserName());
+        // Requests the user's current state already rules out are answered without asking the gateway
+        final Runnable rejection = checkWatchedMovie(
+                userDataAccessInterface.getUser(requestModel.getUserName()), requestModel);
+        if (rejection != null) {
+            rejection.run();
             return;
         }
 
+        // Resolved before locking the user, since the gateway may have to ask TMDb
+        final Movie movie = movieGateway.findById(requestModel.getMovieId()).orElse(null);
+
+        // The presenter is called after the lock is released
+        userDataAccessInterface.callLocked(requestModel.getUserName(), () -> editWatchedMovie(requestModel, movie))
+                .run();
+    }
+
+    // Returns the failure to present if the user has no such watched movie, or null
+    private Runnable checkWatchedMovie(User user, EditWatchedMovieRequestModel requestModel) {
+        if (user == null) {
+            return () -> presenter.prepareFailView("User not found: " + requestModel.getUserName());
+        }
         if (user.getWatchHistory() == null) {
-            presenter.prepareFailView("User has no watch history.");
-            return;
+            return () -> presenter.prepareFailView("User has no watch history.");
         }
-
-        // Find the watched movie to update
-        WatchedMovie oldWatchedMovie = null;
-        for (WatchedMovie wm : user.getWatchHistory().getMovies()) {
-            if (requestModel.getMovieId().equals(wm.getMovieId())) {
-                oldWatchedMovie = wm;
-                break;
-            }
+        if (!user.getWatchHistory().containsMovie(requestModel.getMovieId())) {
+            return () -> presenter.prepareFailView("Movie not found in watch history: " + requestModel.getMovieId());
         }
+        return null;
+    }
 
-        if (oldWatchedMovie == null) {
-            presenter.prepareFailView("Movie not found in watch history: " + requestModel.getMovieId());
-            return;
+    private Runnable editWatchedMovie(EditWatchedMovieRequestModel requestModel, Movie movie) {
+        User user = userDataAccessInterface.getUser(requestModel.getUserName());
+
+        // Checked again, as the user may have changed before the lock was taken
+        final Runnable rejection = checkWatchedMovie(user, requestModel);
+        if (rejection != null) {
+            return rejection;
         }
+        final long version = user.getVersion();
+
+        // Find the watched movie to update
+        WatchedMovie oldWatchedMovie = user.getWatchHistory().findByMovieId(requestModel.getMovieId());
 
-        // Get the base Movie entity
-        Movie movie = movieGateway.findById(requestModel.getMovieId()).orElse(null);
+        // The base Movie entity
         if (movie == null) {
-            presenter.prepareFailView("Movie not found: " + requestModel.getMovieId());
-            return;
+            return () -> presenter.prepareFailView("Movie not found: " + requestModel.getMovieId());
         }
 
         // Validate watched date is not in the future
         LocalDateTime watchedDate = requestModel.getWatchedDate();
         if (watchedDate != null && watchedDate.isAfter(LocalDateTime.now())) {
-            presenter.prepareFailView("Watched date cannot be in the future.");
-            return;
+            return () -> presenter.prepareFailView("Watched date cannot be in the future.");
         }
 
         // Validate rating if provided
         if (requestModel.getRating() != null) {
             if (requestModel.getRating() < 1 || requestModel.getRating() > 5) {
-                presenter.prepareFailView("Rating must be between 1 and 5.");
-                return;
+                return () -> presenter.prepareFailView("Rating must be between 1 and 5.");
             }
         }
 
+        // Kept so the edit can be taken back if it cannot be saved
+        final Review previousReview = user.getReview(requestModel.getMovieId());
+
         // Remove old watched movie entry
         user.getWatchHistory().removeMovie(oldWatchedMovie);
 
@@ -91,7 +108,7 @@ public class EditWatchedMovieInteractor implements EditWatchedMovieInputBoundary
             String reviewText = requestModel.getReview() != null ? requestModel.getReview().trim() : "";
 
             // Check if review already exists
-            Review existingReview = user.getReviewsByMovieId().get(requestModel.getMovieId());
+            Review existingReview = user.getReview(requestModel.getMovieId());
             if (existingReview != null) {
                 // Remove old review (reviews are immutable, so we need to create a new one)
                 // Note: User.addReview replaces existing review, so we can just add a new one
@@ -109,19 +126,27 @@ public class EditWatchedMovieInteractor implements EditWatchedMovieInputBoundary
             user.addReview(review);
         }
 
-        // Save the updated user
-        userDataAccessInterface.save(user);
-
-        presenter.prepareSuccessView(
-                new EditWatchedMovieResponseModel(
-                        requestModel.getUserName(),
-                        requestModel.getMovieId(),
-                        movie.getTitle(),
-                        newWatchedDate,
-                        requestModel.getRating(),
-                        requestModel.getReview()
-                )
+        // Save the updated user, unless another edit was saved since it was read
+        final boolean saved = UserChanges.saveOrUndo(
+                () -> userDataAccessInterface.compareAndSave(user, version),
+                () -> {
+                    user.getWatchHistory().removeMovie(newWatchedMovie);
+                    user.getWatchHistory().addWatchedMovie(oldWatchedMovie);
+                    UserChanges.restoreReview(user, requestModel.getMovieId(), previousReview);
+                });
+        if (!saved) {
+            return () -> presenter.prepareFailView("Watch history was changed elsewhere. Please try again.");
+        }
+
+        final EditWatchedMovieResponseModel responseModel = new EditWatchedMovieResponseModel(
+                requestModel.getUserName(),
+                requestModel.getMovieId(),
+                movie.getTitle(),
+                newWatchedDate,
+                requestModel.getRating(),
+                requestModel.getReview()
         );
+        return () -> presenter.prepareSuccessView(responseModel);
     }
 }
 
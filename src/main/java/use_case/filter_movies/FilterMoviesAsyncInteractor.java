@@ -0,0 +1,104 @@
+package use_case.filter_movies;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import use_case.common.MovieGateway;
+
+/**
+ * Non-blocking variant of {@link FilterMoviesInteractor}.
+ * <p>
+ * The filtering itself runs on {@code workerExecutor}, so large result sets never stall the caller's
+ * thread. The outcome is handed to the presenter through {@code presenterExecutor} (the Swing event
+ * dispatch thread in the application). Validation, filtering and genre-name conversion are delegated to a
+ * regular {@link FilterMoviesInteractor} per request, so both variants behave identically.
+ * <p>
+ * When several filter requests are issued in quick succession, only the outcome of the latest one is
+ * presented.
+ */
+public class FilterMoviesAsyncInteractor implements FilterMoviesInputBoundary {
+
+    private final MovieGateway movieGateway;
+    private final FilterMoviesOutputBoundary presenter;
+    private final FilterMoviesValidator validator;
+    private final MovieFilterStrategy filterStrategy;
+    private final GenreConverter genreConverter;
+    private final Executor workerExecutor;
+    private final Executor presenterExecutor;
+    private final AtomicLong latestRequest = new AtomicLong();
+
+    /**
+     * Constructs a new {@code FilterMoviesAsyncInteractor}.
+     *
+     * @param movieGateway      the gateway (used for potential future data access)
+     * @param presenter         the presenter to prepare the response for the view
+     * @param validator         the validator for request models
+     * @param filterStrategy    the strategy for filtering movies
+     * @param genreConverter    the converter for genre IDs to names
+     * @param workerExecutor    the executor the filtering runs on
+     * @param presenterExecutor the executor the presenter is called on
+     */
+    public FilterMoviesAsyncInteractor(MovieGateway movieGateway,
+                                       FilterMoviesOutputBoundary presenter,
+                                       FilterMoviesValidator validator,
+                                       MovieFilterStrategy filterStrategy,
+                                       GenreConverter genreConverter,
+                                       Executor workerExecutor,
+                                       Executor presenterExecutor) {
+        this.movieGateway = movieGateway;
+        this.presenter = presenter;
+        this.validator = validator;
+        this.filterStrategy = filterStrategy;
+        this.genreConverter = genreConverter;
+        this.workerExecutor = workerExecutor;
+        this.presenterExecutor = presenterExecutor;
+    }
+
+    /**
+     * Schedules the filter movies use case on the worker executor and returns immediately.
+     *
+     * @param requestModel the request model containing genre IDs and movies to filter
+     */
+    @Override
+    public void execute(FilterMoviesRequestModel requestModel) {
+        final long requestId = latestRequest.incrementAndGet();
+        final FilterMoviesInteractor interactor = new FilterMoviesInteractor(
+                movieGateway,
+                new LatestOnlyPresenter(requestId),
+                validator,
+                filterStrategy,
+                genreConverter);
+        workerExecutor.execute(() -> interactor.execute(requestModel));
+    }
+
+    /**
+     * Forwards the results of one request to the real presenter on the presenter executor, unless a newer
+     * request has been issued in the meantime.
+     */
+    private final class LatestOnlyPresenter implements FilterMoviesOutputBoundary {
+
+        private final long requestId;
+
+        private LatestOnlyPresenter(long requestId) {
+            this.requestId = requestId;
+        }
+
+        @Override
+        public void prepareSuccessView(FilterMoviesResponseModel responseModel) {
+            presenterExecutor.execute(() -> {
+                if (requestId == latestRequest.get()) {
+                    presenter.prepareSuccessView(responseModel);
+                }
+            });
+        }
+
+        @Override
+        public void prepareFailView(String errorMessage) {
+            presenterExecutor.execute(() -> {
+                if (requestId == latestRequest.get()) {
+                    presenter.prepareFailView(errorMessage);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package use_case.filter_movies;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import entity.GenreMask;
+import entity.Movie;
+
+/**
+ * High-throughput filtering strategy for large movie catalogs.
+ * <p>
+ * Genres are compared with {@link GenreMatchMode any-of, all-of or none-of} semantics using the movies'
+ * {@linkplain Movie#getGenreMask() genre bitmasks}, so each movie costs one AND. Selected genres without a bit fall
+ * back to comparing the genre lists. Further criteria such as {@link MoviePredicates#minRating rating} or
+ * {@link MoviePredicates#releasedBetween release year} can be required as well.
+ * <p>
+ * Lists of at least {@code parallelThreshold} movies are filtered in parallel on the common fork-join pool; smaller
+ * ones are filtered in a plain loop, where splitting the work would cost more than it saves. Either way the result
+ * keeps the order of the input.
+ */
+public class GenreFilterEngine implements MovieFilterStrategy {
+
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 8192;
+
+    private final GenreMatchMode mode;
+    private final Predicate<Movie> criteria;
+    private final int parallelThreshold;
+
+    /**
+     * Creates an engine keeping movies with any of the selected genres, like {@link GenreMatchFilterStrategy}.
+     */
+    public GenreFilterEngine() {
+        this(GenreMatchMode.ANY, MoviePredicates.any(), DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Creates an engine.
+     *
+     * @param mode              how movie genres are compared with the selected genres
+     * @param criteria          further criteria every kept movie must meet, see {@link MoviePredicates}
+     * @param parallelThreshold smallest number of movies filtered in parallel
+     * @throws IllegalArgumentException if {@code parallelThreshold} is not positive
+     */
+    public GenreFilterEngine(GenreMatchMode mode, Predicate<Movie> criteria, int parallelThreshold) {
+        if (parallelThreshold < 1) {
+            throw new IllegalArgumentException("parallelThreshold must be positive");
+        }
+        this.mode = Objects.requireNonNull(mode, "mode");
+        this.criteria = Objects.requireNonNull(criteria, "criteria");
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * Filters movies by the selected genres and the engine's criteria.
+     *
+     * @param movies the list of movies to filter
+     * @param genreIds the list of genre IDs to match against
+     * @return the matching movies in their original order
+     */
+    @Override
+    public List<Movie> filter(List<Movie> movies, List<Integer> genreIds) {
+        if (movies == null || genreIds == null) {
+            return List.of();
+        }
+
+        final Predicate<Movie> matcher = genreMatcher(genreIds).and(criteria);
+        if (movies.size() >= parallelThreshold) {
+            return movies.parallelStream()
+                    .filter(matcher)
+                    .collect(Collectors.toList());
+        }
+        final List<Movie> matches = new ArrayList<>();
+        for (Movie movie : movies) {
+            if (matcher.test(movie)) {
+                matches.add(movie);
+            }
+        }
+        return matches;
+    }
+
+    private Predicate<Movie> genreMatcher(List<Integer> genreIds) {
+        if (GenreMask.isRepresentable(genreIds)) {
+            final long selected = GenreMask.of(genreIds);
+            switch (mode) {
+                case ALL:
+                    return movie -> (movie.getGenreMask() & selected) == selected;
+                case NONE:
+                    return movie -> (movie.getGenreMask() & selected) == 0;
+                default:
+                    return movie -> (movie.getGenreMask() & selected) != 0;
+            }
+        }
+
+        final Set<Integer> selected = new HashSet<>(genreIds);
+        switch (mode) {
+            case ALL:
+                return movie -> movie.getGenreIds().containsAll(selected);
+            case NONE:
+                return movie -> movie.getGenreIds().stream().noneMatch(selected::contains);
+            default:
+                return movie -> movie.getGenreIds().stream().anyMatch(selected::contains);
+        }
+    }
+}
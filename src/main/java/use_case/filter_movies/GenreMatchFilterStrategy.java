@@ -3,17 +3,19 @@ package use_case.filter_movies;
 import entity.Movie;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Default filtering strategy that matches movies containing at least one
  * of the specified genre IDs.
  * <p>
  * This is the standard "OR" filtering strategy where a movie matches if
- * it has any of the selected genres.
+ * it has any of the selected genres. The matching itself is done by a
+ * {@link GenreFilterEngine} in {@link GenreMatchMode#ANY any-of} mode.
  */
 public class GenreMatchFilterStrategy implements MovieFilterStrategy {
 
+    private final GenreFilterEngine engine = new GenreFilterEngine();
+
     /**
      * Filters movies to include only those that have at least one
      * of the specified genre IDs.
@@ -24,20 +26,6 @@ public class GenreMatchFilterStrategy implements MovieFilterStrategy {
      */
     @Override
     public List<Movie> filter(List<Movie> movies, List<Integer> genreIds) {
-        if (movies == null || genreIds == null) {
-            return List.of();
-        }
-
-        return movies.stream()
-                .filter(movie -> {
-                    List<Integer> movieGenres = movie.getGenreIds();
-                    if (movieGenres == null || movieGenres.isEmpty()) {
-                        return false;
-                    }
-                    // Check if movie has at least one of the selected genres
-                    return movieGenres.stream().anyMatch(genreIds::contains);
-                })
-                .collect(Collectors.toList());
+        return engine.filter(movies, genreIds);
     }
 }
-
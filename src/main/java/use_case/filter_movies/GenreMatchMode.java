@@ -0,0 +1,16 @@
+package use_case.filter_movies;
+
+/**
+ * How the genres of a movie are compared with the selected genres.
+ */
+public enum GenreMatchMode {
+
+    /** The movie has at least one of the selected genres. */
+    ANY,
+
+    /** The movie has every selected genre. */
+    ALL,
+
+    /** The movie has none of the selected genres. */
+    NONE
+}
@@ -0,0 +1,68 @@
+package use_case.filter_movies;
+
+import java.util.function.Predicate;
+
+import entity.Movie;
+
+/**
+ * Non-genre criteria for {@link GenreFilterEngine}, combined with {@link Predicate#and}.
+ * <p>
+ * For example {@code MoviePredicates.minRating(7.0).and(MoviePredicates.releasedBetween(1990, 1999))}
+ * keeps well-rated movies from the nineties.
+ */
+public final class MoviePredicates {
+
+    private MoviePredicates() {
+        throw new AssertionError("Utility class should not be instantiated");
+    }
+
+    /**
+     * Matches every movie.
+     *
+     * @return a predicate that is always {@code true}
+     */
+    public static Predicate<Movie> any() {
+        return movie -> true;
+    }
+
+    /**
+     * Matches movies rated at least {@code minRating}.
+     *
+     * @param minRating the lowest rating kept
+     * @return the predicate
+     */
+    public static Predicate<Movie> minRating(double minRating) {
+        return movie -> movie.getRating() >= minRating;
+    }
+
+    /**
+     * Matches movies released between two years, both inclusive. Movies without a parsable release year
+     * ({@code "YYYY-..."}) do not match.
+     *
+     * @param fromYear the earliest release year
+     * @param toYear   the latest release year
+     * @return the predicate
+     */
+    public static Predicate<Movie> releasedBetween(int fromYear, int toYear) {
+        return movie -> {
+            final int year = releaseYear(movie.getReleaseDate());
+            return year >= fromYear && year <= toYear;
+        };
+    }
+
+    // Parses the leading four digits without allocating; Integer.MIN_VALUE if there are none
+    private static int releaseYear(String releaseDate) {
+        if (releaseDate == null || releaseDate.length() < 4) {
+            return Integer.MIN_VALUE;
+        }
+        int year = 0;
+        for (int i = 0; i < 4; i++) {
+            final char digit = releaseDate.charAt(i);
+            if (digit < '0' || digit > '9') {
+                return Integer.MIN_VALUE;
+            }
+            year = year * 10 + (digit - '0');
+        }
+        return year;
+    }
+}
@@ -3,7 +3,9 @@ package use_case.record_watchhistory;
 import entity.Movie;
 import entity.User;
 import entity.WatchHistory;
+import entity.WatchedMovie;
 import use_case.common.MovieGateway;
+import use_case.common.UserChanges;
 import use_case.common.UserDataAccessInterface;
 
 import java.time.LocalDateTime;
@@ -36,30 +38,35 @@ public class RecordWatchHistoryInteractor implements RecordWatchHistoryInputBoun
             return;
         }
 
-        User user = userDataAccessInterface.getUser(requestModel.getUserName());
-        if (user == null) {
+        // An unknown user is reported without asking the gateway
+        if (userDataAccessInterface.getUser(requestModel.getUserName()) == null) {
             presenter.prepareFailView("User not found: " + requestModel.getUserName());
             return;
         }
 
-        handleUser(user, requestModel);
-    }
+        // Resolved before locking the user, since the gateway may have to ask TMDb
+        final Movie movie = movieGateway.findById(requestModel.getMovieId()).orElse(null);
 
-    private void handleUser(User user, RecordWatchHistoryRequestModel requestModel) {
-        movieGateway.findById(requestModel.getMovieId()).ifPresentOrElse(
-                movie -> recordMovie(user, movie, requestModel),
-                () -> presenter.prepareFailView("Movie not found: " + requestModel.getMovieId())
-        );
+        // The presenter is called after the lock is released
+        userDataAccessInterface.callLocked(requestModel.getUserName(), () -> recordWatchHistory(requestModel, movie))
+                .run();
     }
 
-    private void recordMovie(User user, Movie movie, RecordWatchHistoryRequestModel requestModel) {
-        // Ensure user has a watch history, create one if not
-        WatchHistory watchHistory = user.getWatchHistory();
-        if (watchHistory == null) {
-            watchHistory = new WatchHistory(UUID.randomUUID().toString(), user);
-            user.setWatchHistory(watchHistory);
+    private Runnable recordWatchHistory(RecordWatchHistoryRequestModel requestModel, Movie movie) {
+        User user = userDataAccessInterface.getUser(requestModel.getUserName());
+        if (user == null) {
+            return () -> presenter.prepareFailView("User not found: " + requestModel.getUserName());
+        }
+        if (movie == null) {
+            return () -> presenter.prepareFailView("Movie not found: " + requestModel.getMovieId());
         }
 
+        return recordMovie(user, movie, requestModel);
+    }
+
+    private Runnable recordMovie(User user, Movie movie, RecordWatchHistoryRequestModel requestModel) {
+        final long version = user.getVersion();
+
         // Capture current time once for consistency
         LocalDateTime now = LocalDateTime.now();
 
@@ -72,8 +79,15 @@ public class RecordWatchHistoryInteractor implements RecordWatchHistoryInputBoun
         // Validate watched time is not in the future
         // Use isAfter with a small tolerance to handle timing edge cases
         if (watchedAt.isAfter(now)) {
-            presenter.prepareFailView("Watched time cannot be in the future.");
-            return;
+            return () -> presenter.prepareFailView("Watched time cannot be in the future.");
+        }
+
+        // Ensure user has a watch history, create one if not
+        WatchHistory watchHistory = user.getWatchHistory();
+        final boolean newHistory = watchHistory == null;
+        if (newHistory) {
+            watchHistory = new WatchHistory(UUID.randomUUID().toString(), user);
+            user.setWatchHistory(watchHistory);
         }
 
         // Note: We allow duplicate entries (same movie watched multiple times) since users
@@ -82,14 +96,26 @@ public class RecordWatchHistoryInteractor implements RecordWatchHistoryInputBoun
         // chronologically.
 
         // Record the movie in watch history
-        watchHistory.recordMovie(movie, watchedAt);
-        userDataAccessInterface.save(user);
+        final WatchHistory history = watchHistory;
+        final WatchedMovie watched = history.recordMovie(movie, watchedAt);
+        final boolean saved = UserChanges.saveOrUndo(
+                () -> userDataAccessInterface.appendWatchEvent(user, watched, version),
+                () -> {
+                    history.removeMovie(watched);
+                    if (newHistory) {
+                        user.setWatchHistory(null);
+                    }
+                });
+        if (!saved) {
+            return () -> presenter.prepareFailView("Watch history was changed elsewhere. Please try again.");
+        }
 
-        presenter.prepareSuccessView(new RecordWatchHistoryResponseModel(
+        final RecordWatchHistoryResponseModel responseModel = new RecordWatchHistoryResponseModel(
                 user.getUserName(),
                 movie.getMovieId(),
                 movie.getTitle(),
                 watchedAt
-        ));
+        );
+        return () -> presenter.prepareSuccessView(responseModel);
     }
 }
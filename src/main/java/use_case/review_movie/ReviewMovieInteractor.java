@@ -4,6 +4,7 @@ import entity.Movie;
 import entity.Review;
 import entity.User;
 import use_case.common.MovieGateway;
+import use_case.common.UserChanges;
 import use_case.common.UserDataAccessInterface;
 
 import java.time.LocalDateTime;
@@ -30,29 +31,42 @@ public class ReviewMovieInteractor implements ReviewMovieInputBoundary {
             return;
         }
 
+        // Resolved before locking the user, since the gateway may have to ask TMDb
+        final Movie movie = movieGateway.findById(requestModel.getMovieId()).orElse(null);
+
+        // The presenter is called after the lock is released
+        userDataAccess.callLocked(requestModel.getUserName(), () -> reviewMovie(requestModel, movie)).run();
+    }
+
+    private Runnable reviewMovie(ReviewMovieRequestModel requestModel, Movie movie) {
         User user = userDataAccess.getUser(requestModel.getUserName());
         if (user == null) {
-            presenter.prepareFailView("User not found: " + requestModel.getUserName());
-            return;
+            return () -> presenter.prepareFailView("User not found: " + requestModel.getUserName());
         }
+        final long version = user.getVersion();
 
-        Movie movie = movieGateway.findById(requestModel.getMovieId()).orElse(null);
         if (movie == null) {
-            presenter.prepareFailView("Movie not found: " + requestModel.getMovieId());
-            return;
+            return () -> presenter.prepareFailView("Movie not found: " + requestModel.getMovieId());
         }
 
         Review review = new Review(UUID.randomUUID().toString(), user, movie,
                 requestModel.getRating(), requestModel.getComment(), LocalDateTime.now());
+        final Review previous = user.getReview(movie.getMovieId());
         user.addReview(review);
-        userDataAccess.save(user);
-        presenter.prepareSuccessView(new ReviewMovieResponseModel(
+        final boolean saved = UserChanges.saveOrUndo(
+                () -> userDataAccess.upsertReview(user, review, version),
+                () -> UserChanges.restoreReview(user, movie.getMovieId(), previous));
+        if (!saved) {
+            return () -> presenter.prepareFailView("Reviews were changed elsewhere. Please try again.");
+        }
+        final ReviewMovieResponseModel responseModel = new ReviewMovieResponseModel(
                 review.getReviewId(),
                 user.getUserName(),
                 movie.getMovieId(),
                 movie.getTitle(),
                 review.getRating(),
-                review.getComment()));
+                review.getComment());
+        return () -> presenter.prepareSuccessView(responseModel);
     }
 }
 
@@ -0,0 +1,99 @@
+package use_case.search_movie;
+
+import use_case.common.AsyncMovieGateway;
+import use_case.common.MovieDataAccessException;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Non-blocking variant of {@link SearchMovieInteractor}.
+ *
+ * <p>{@link #execute(SearchMovieRequestModel)} returns as soon as the request has been handed to the
+ * {@link AsyncMovieGateway}. The outcome is delivered to the presenter through {@code presenterExecutor}
+ * (the Swing event dispatch thread in the application), using the same validation, ranking and error messages
+ * as the blocking interactor. Results are ranked on {@code rankingExecutor} before they are handed to
+ * {@code presenterExecutor}, so the page's movies are built off the presenter's thread even when the gateway answers
+ * from its cache with an already completed future.
+ *
+ * <p>Only the latest search is ever presented: when the user fires several searches in quick succession,
+ * results of the superseded ones are dropped instead of overwriting newer results.
+ */
+public class SearchMovieAsyncInteractor implements SearchMovieInputBoundary {
+
+    private final AsyncMovieGateway movieGateway;
+    private final SearchMovieOutputBoundary presenter;
+    private final Executor presenterExecutor;
+    private final Executor rankingExecutor;
+    private final AtomicLong latestRequest = new AtomicLong();
+
+    public SearchMovieAsyncInteractor(AsyncMovieGateway movieGateway,
+                                      SearchMovieOutputBoundary presenter,
+                                      Executor presenterExecutor) {
+        this(movieGateway, presenter, presenterExecutor, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates the interactor.
+     *
+     * @param movieGateway      the gateway that searches for movies
+     * @param presenter         receives the outcome of each search
+     * @param presenterExecutor the thread the presenter must be called on
+     * @param rankingExecutor   where results are ranked before being handed to {@code presenterExecutor}
+     */
+    public SearchMovieAsyncInteractor(AsyncMovieGateway movieGateway,
+                                      SearchMovieOutputBoundary presenter,
+                                      Executor presenterExecutor,
+                                      Executor rankingExecutor) {
+        this.movieGateway = movieGateway;
+        this.presenter = presenter;
+        this.presenterExecutor = presenterExecutor;
+        this.rankingExecutor = rankingExecutor;
+    }
+
+    @Override
+    public void execute(SearchMovieRequestModel requestModel) {
+        final long requestId = latestRequest.incrementAndGet();
+        final String query = requestModel.getQuery();
+
+        String validationError = SearchMovieInteractor.validateQuery(query);
+        if (validationError != null) {
+            presenterExecutor.execute(() -> presenter.prepareFailView(validationError));
+            return;
+        }
+
+        int requestedPage = SearchMovieInteractor.requestedPage(requestModel);
+
+        movieGateway.searchByTitleAsync(query, requestedPage).whenCompleteAsync((pagedResult, error) -> {
+            if (requestId != latestRequest.get()) {
+                return; // a newer search has been issued since
+            }
+            // Ranked here, on the ranking executor, so the page's movies are not built on the presenter's thread
+            final SearchMovieResponseModel responseModel =
+                    error == null ? SearchMovieInteractor.rankResult(query, pagedResult) : null;
+            presenterExecutor.execute(() -> {
+                if (requestId != latestRequest.get()) {
+                    return;
+                }
+                if (error == null) {
+                    SearchMovieInteractor.presentResult(presenter, query, responseModel);
+                }
+                else {
+                    presenter.prepareFailView(SearchMovieInteractor.errorMessageFor(toDataAccessException(error)));
+                }
+            });
+        }, rankingExecutor);
+    }
+
+    private static MovieDataAccessException toDataAccessException(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                ? error.getCause()
+                : error;
+        if (cause instanceof MovieDataAccessException) {
+            return (MovieDataAccessException) cause;
+        }
+        return new MovieDataAccessException(MovieDataAccessException.Type.UNKNOWN, cause.getMessage(), cause);
+    }
+}
@@ -24,58 +24,81 @@ public class SearchMovieInteractor implements SearchMovieInputBoundary {
     public void execute(SearchMovieRequestModel requestModel) {
         String query = requestModel.getQuery();
 
-        if (query == null || query.isBlank()) {
-            presenter.prepareFailView("Search query cannot be empty.");
+        String validationError = validateQuery(query);
+        if (validationError != null) {
+            presenter.prepareFailView(validationError);
             return;
         }
+
+        int requestedPage = requestedPage(requestModel);
+
+        try {
+            PagedMovieResult pagedResult = movieGateway.searchByTitle(query, requestedPage);
+            presentResult(presenter, query, rankResult(query, pagedResult));
+        } catch (MovieDataAccessException e) {
+            presenter.prepareFailView(errorMessageFor(e));
+        }
+    }
+
+    // Shared with SearchMovieAsyncInteractor so both variants validate, rank and report identically
+
+    static String validateQuery(String query) {
+        if (query == null || query.isBlank()) {
+            return "Search query cannot be empty.";
+        }
         if (query.length() < 2) {
-            presenter.prepareFailView("Search query must be at least 2 characters long.");
-            return;
+            return "Search query must be at least 2 characters long.";
         }
 
         if (query.matches("[^a-zA-Z0-9]+")) {
-            presenter.prepareFailView("Please enter a meaningful movie title.");
-            return;
+            return "Please enter a meaningful movie title.";
         }
+        return null;
+    }
 
-        int requestedPage = requestModel.getPage() <= 0 ? 1 : requestModel.getPage();
+    static int requestedPage(SearchMovieRequestModel requestModel) {
+        return requestModel.getPage() <= 0 ? 1 : requestModel.getPage();
+    }
 
-        try {
-            PagedMovieResult pagedResult = movieGateway.searchByTitle(query, requestedPage);
+    // Ranking reads, and so builds, every movie of the page; the async interactor does it before switching to the
+    // presenter's thread. Returns null when the page is empty
+    static SearchMovieResponseModel rankResult(String query, PagedMovieResult pagedResult) {
+        if (pagedResult.getMovies().isEmpty()) {
+            return null;
+        }
 
-            if (pagedResult.getMovies().isEmpty()) {
-                presenter.prepareFailView("No movies found for: \"" + query + "\". Please try a different search term.");
-                return;
-            }
+        List<Movie> scoredAndSorted = scoreAndSortMovies(pagedResult.getMovies(), query);
 
-            List<Movie> scoredAndSorted = scoreAndSortMovies(pagedResult.getMovies(), query);
+        return new SearchMovieResponseModel(
+                query,
+                scoredAndSorted,
+                pagedResult.getPage(),
+                pagedResult.getTotalPages()
+        );
+    }
 
-            SearchMovieResponseModel responseModel = new SearchMovieResponseModel(
-                    query,
-                    scoredAndSorted,
-                    pagedResult.getPage(),
-                    pagedResult.getTotalPages()
-            );
+    static void presentResult(SearchMovieOutputBoundary presenter, String query,
+                              SearchMovieResponseModel responseModel) {
+        if (responseModel == null) {
+            presenter.prepareFailView("No movies found for: \"" + query + "\". Please try a different search term.");
+            return;
+        }
 
-            presenter.prepareSuccessView(responseModel);
+        presenter.prepareSuccessView(responseModel);
+    }
 
-        } catch (MovieDataAccessException e) {
-            String errorMessage;
-            switch (e.getType()) {
-                case NETWORK:
-                    errorMessage = "Network error while searching. Please check your internet connection.";
-                    break;
-                case TMDB_ERROR:
-                    errorMessage = "Movie service is temporarily unavailable. Please try again later.";
-                    break;
-                default:
-                    errorMessage = "Search failed due to an unexpected error.";
-            }
-            presenter.prepareFailView(errorMessage);
+    static String errorMessageFor(MovieDataAccessException e) {
+        switch (e.getType()) {
+            case NETWORK:
+                return "Network error while searching. Please check your internet connection.";
+            case TMDB_ERROR:
+                return "Movie service is temporarily unavailable. Please try again later.";
+            default:
+                return "Search failed due to an unexpected error.";
         }
     }
 
-    private List<Movie> scoreAndSortMovies(List<Movie> movies, String query) {
+    private static List<Movie> scoreAndSortMovies(List<Movie> movies, String query) {
         List<Movie> copy = new ArrayList<>(movies);
         final String loweredQuery = query.toLowerCase();
 
@@ -86,7 +109,7 @@ public class SearchMovieInteractor implements SearchMovieInputBoundary {
         return copy;
     }
 
-    private double scoreMovie(Movie movie, String loweredQuery) {
+    private static double scoreMovie(Movie movie, String loweredQuery) {
         double score = 0.0;
 
         String title = movie.getTitle() != null
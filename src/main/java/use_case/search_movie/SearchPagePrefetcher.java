@@ -0,0 +1,291 @@
+package use_case.search_movie;
+
+import entity.Movie;
+import use_case.common.AsyncMovieGateway;
+import use_case.common.PagedMovieResult;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Prefetches neighbouring result pages so that paging through search (and popular) results is near-instant.
+ *
+ * <p>Whenever page {@code N} of a query has been served, pages {@code N+1 .. N+prefetchDepth} (and optionally
+ * {@code N-1}) are requested in the background and kept in a small per-query cache. A later request for one of those
+ * pages is answered from that cache, or attaches to the prefetch that is still in flight. Only the most recently used
+ * {@code maxQueries} queries are kept, and within a query only pages near the last one served. A page is only
+ * served for {@code pageTtl} after it arrived; after that it is fetched again, so a long session still sees fresh
+ * results.
+ *
+ * <p>What happens to prefetches of a query the user has moved away from is decided by the {@link CancellationPolicy}.
+ * Failed pages are never cached, so asking again always retries.
+ *
+ * <p>Movie-by-id and genre lookups are passed straight through to the wrapped gateway.
+ */
+public class SearchPagePrefetcher implements AsyncMovieGateway {
+
+    /**
+     * What to do with outstanding prefetches when the user starts paging through a different query.
+     */
+    public enum CancellationPolicy {
+        /**
+         * Cancel prefetches that belong to any other query, so they do not compete with the new one.
+         *
+         * <p>Cancelling only drops the prefetcher's interest in the page: the wrapped gateway is not told, so a
+         * request that has already been sent still runs to the end and still counts against the rate limit.
+         */
+        CANCEL_ON_NEW_QUERY,
+        /** Let them finish; their pages stay available if the user goes back to that query. */
+        LET_FINISH
+    }
+
+    public static final int DEFAULT_PREFETCH_DEPTH = 1;
+    public static final int DEFAULT_MAX_QUERIES = 4;
+    /** Matches how long the caching gateway keeps search pages. */
+    public static final Duration DEFAULT_PAGE_TTL = Duration.ofMinutes(10);
+
+    private static final String POPULAR_KEY = "popular";
+
+    private final AsyncMovieGateway delegate;
+    private final int prefetchDepth;
+    private final boolean prefetchPrevious;
+    private final CancellationPolicy cancellationPolicy;
+    private final long pageTtlMillis;
+    private final Clock clock;
+    private final LinkedHashMap<String, Map<Integer, Page>> queries;
+
+    /**
+     * Creates a prefetcher that looks one page ahead and cancels prefetches of abandoned queries.
+     *
+     * @param delegate the gateway that actually fetches pages
+     */
+    public SearchPagePrefetcher(AsyncMovieGateway delegate) {
+        this(delegate, DEFAULT_PREFETCH_DEPTH, false, CancellationPolicy.CANCEL_ON_NEW_QUERY, DEFAULT_MAX_QUERIES);
+    }
+
+    /**
+     * Creates a prefetcher.
+     *
+     * @param delegate           the gateway that actually fetches pages
+     * @param prefetchDepth      how many pages after the one served to fetch ahead; {@code 0} disables look-ahead
+     * @param prefetchPrevious   whether to also fetch the page before the one served
+     * @param cancellationPolicy what to do with prefetches of a query the user moved away from
+     * @param maxQueries         how many queries to keep pages for
+     */
+    public SearchPagePrefetcher(AsyncMovieGateway delegate,
+                                int prefetchDepth,
+                                boolean prefetchPrevious,
+                                CancellationPolicy cancellationPolicy,
+                                int maxQueries) {
+        this(delegate, prefetchDepth, prefetchPrevious, cancellationPolicy, maxQueries, DEFAULT_PAGE_TTL,
+                Clock.systemUTC());
+    }
+
+    /**
+     * Creates a prefetcher whose pages expire after a given time.
+     *
+     * @param delegate           the gateway that actually fetches pages
+     * @param prefetchDepth      how many pages after the one served to fetch ahead; {@code 0} disables look-ahead
+     * @param prefetchPrevious   whether to also fetch the page before the one served
+     * @param cancellationPolicy what to do with prefetches of a query the user moved away from
+     * @param maxQueries         how many queries to keep pages for
+     * @param pageTtl            how long a page is served after it arrived
+     * @param clock              the clock used to expire pages
+     */
+    public SearchPagePrefetcher(AsyncMovieGateway delegate,
+                                int prefetchDepth,
+                                boolean prefetchPrevious,
+                                CancellationPolicy cancellationPolicy,
+                                int maxQueries,
+                                Duration pageTtl,
+                                Clock clock) {
+        if (prefetchDepth < 0 || maxQueries < 1) {
+            throw new IllegalArgumentException("prefetchDepth must be >= 0 and maxQueries >= 1");
+        }
+        if (pageTtl.isNegative() || pageTtl.isZero()) {
+            throw new IllegalArgumentException("pageTtl must be positive");
+        }
+        this.delegate = delegate;
+        this.prefetchDepth = prefetchDepth;
+        this.prefetchPrevious = prefetchPrevious;
+        this.cancellationPolicy = cancellationPolicy;
+        this.pageTtlMillis = pageTtl.toMillis();
+        this.clock = clock;
+        this.queries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Map<Integer, Page>> eldest) {
+                if (size() <= maxQueries) {
+                    return false;
+                }
+                cancelPrefetches(eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    @Override
+    public CompletableFuture<PagedMovieResult> searchByTitleAsync(String query, int page) {
+        return pageOf("search:" + query, page);
+    }
+
+    @Override
+    public CompletableFuture<PagedMovieResult> getPopularMoviesAsync(int page) {
+        return pageOf(POPULAR_KEY, page);
+    }
+
+    @Override
+    public CompletableFuture<Optional<Movie>> findByIdAsync(String movieId) {
+        return delegate.findByIdAsync(movieId);
+    }
+
+    @Override
+    public CompletableFuture<List<Movie>> filterByGenresAsync(List<Integer> genreIds) {
+        return delegate.filterByGenresAsync(genreIds);
+    }
+
+    /**
+     * Returns whether a page is currently cached or being prefetched.
+     *
+     * @param query the search query
+     * @param page  the page number
+     * @return {@code true} if a request for the page would not go to the wrapped gateway
+     */
+    public synchronized boolean isAvailable(String query, int page) {
+        final Map<Integer, Page> pages = queries.get("search:" + query);
+        final Page cached = pages == null ? null : pages.get(page);
+        return cached != null && !cached.isExpired(clock.millis());
+    }
+
+    private CompletableFuture<PagedMovieResult> pageOf(String key, int page) {
+        final CompletableFuture<PagedMovieResult> result;
+        synchronized (this) {
+            if (cancellationPolicy == CancellationPolicy.CANCEL_ON_NEW_QUERY) {
+                for (Map.Entry<String, Map<Integer, Page>> entry : queries.entrySet()) {
+                    if (!entry.getKey().equals(key)) {
+                        cancelPrefetches(entry.getValue());
+                    }
+                }
+            }
+            final Page cached = pages(key).get(page);
+            if (cached != null && !cached.isExpired(clock.millis())) {
+                cached.prefetch = false;
+                result = cached.future;
+            }
+            else {
+                result = fetch(key, page, false);
+            }
+        }
+
+        // Look around the served page once it is known how many pages there are
+        result.thenAccept(served -> prefetchAround(key, page, served.getTotalPages()));
+        return result.copy();
+    }
+
+    private synchronized void prefetchAround(String key, int page, int totalPages) {
+        final Map<Integer, Page> pages = queries.get(key);
+        if (pages == null) {
+            return; // the query has been evicted since
+        }
+        for (int next = page + 1; next <= page + prefetchDepth && next <= totalPages; next++) {
+            if (!pages.containsKey(next)) {
+                fetch(key, next, true);
+            }
+        }
+        if (prefetchPrevious && page > 1 && !pages.containsKey(page - 1)) {
+            fetch(key, page - 1, true);
+        }
+
+        // Only keep the window the user can reach with a click or two
+        final int keep = prefetchDepth + 1;
+        final List<Page> cancelled = new ArrayList<>();
+        final Iterator<Map.Entry<Integer, Page>> it = pages.entrySet().iterator();
+        while (it.hasNext()) {
+            final Map.Entry<Integer, Page> entry = it.next();
+            if (Math.abs(entry.getKey() - page) > keep) {
+                if (entry.getValue().prefetch) {
+                    cancelled.add(entry.getValue());
+                }
+                it.remove();
+            }
+        }
+        cancelAll(cancelled);
+    }
+
+    // Must be called while holding the lock
+    private CompletableFuture<PagedMovieResult> fetch(String key, int page, boolean prefetch) {
+        final CompletableFuture<PagedMovieResult> future = POPULAR_KEY.equals(key)
+                ? delegate.getPopularMoviesAsync(page)
+                : delegate.searchByTitleAsync(key.substring("search:".length()), page);
+        final Page entry = new Page(future, prefetch);
+        pages(key).put(page, entry);
+
+        future.whenComplete((result, error) -> {
+            if (error != null) {
+                forget(key, page, entry);
+            }
+            else {
+                arrived(entry);
+            }
+        });
+        return future;
+    }
+
+    private synchronized void arrived(Page entry) {
+        entry.expiresAt = clock.millis() + pageTtlMillis;
+    }
+
+    private synchronized void forget(String key, int page, Page entry) {
+        final Map<Integer, Page> pages = queries.get(key);
+        if (pages != null) {
+            pages.remove(page, entry);
+        }
+    }
+
+    private Map<Integer, Page> pages(String key) {
+        return queries.computeIfAbsent(key, k -> new LinkedHashMap<>());
+    }
+
+    private static void cancelPrefetches(Map<Integer, Page> pages) {
+        final List<Page> cancelled = new ArrayList<>();
+        final Iterator<Page> it = pages.values().iterator();
+        while (it.hasNext()) {
+            final Page entry = it.next();
+            if (entry.prefetch && !entry.future.isDone()) {
+                cancelled.add(entry);
+                it.remove();
+            }
+        }
+        cancelAll(cancelled);
+    }
+
+    // Cancelling completes the future, which runs its callbacks inline, so never cancel while iterating a page map
+    private static void cancelAll(List<Page> entries) {
+        for (Page entry : entries) {
+            entry.future.cancel(false);
+        }
+    }
+
+    private static final class Page {
+        private final CompletableFuture<PagedMovieResult> future;
+        // True until a caller actually asks for the page; only speculative fetches are ever cancelled
+        private boolean prefetch;
+        // Pages still in flight never expire; the clock starts when the page arrives
+        private long expiresAt = Long.MAX_VALUE;
+
+        private Page(CompletableFuture<PagedMovieResult> future, boolean prefetch) {
+            this.future = future;
+            this.prefetch = prefetch;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
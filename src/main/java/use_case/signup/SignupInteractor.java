@@ -2,6 +2,7 @@ package use_case.signup;
 
 import entity.User;
 import entity.factories.UserFactory;
+import use_case.common.Durability;
 import use_case.common.UserDataAccessInterface;
 
 /**
@@ -22,24 +23,31 @@ public class SignupInteractor implements SignupInputBoundary {
 
     @Override
     public void execute(SignupInputData signupInputData) {
+        // Held from the existence check to the save, so two sign-ups for one name cannot both succeed;
+        // the presenter is called after the lock is released
+        userDataAccessObject.callLocked(signupInputData.getUsername(), () -> signUp(signupInputData)).run();
+    }
+
+    private Runnable signUp(SignupInputData signupInputData) {
         if (userDataAccessObject.existsByName(signupInputData.getUsername())) {
-            userPresenter.prepareFailView("User already exists.");
+            return () -> userPresenter.prepareFailView("User already exists.");
         }
         else if (!signupInputData.getPassword().equals(signupInputData.getRepeatPassword())) {
-            userPresenter.prepareFailView("Passwords don't match.");
+            return () -> userPresenter.prepareFailView("Passwords don't match.");
         }
         else if ("".equals(signupInputData.getPassword())) {
-            userPresenter.prepareFailView("New password cannot be empty");
+            return () -> userPresenter.prepareFailView("New password cannot be empty");
         }
         else if ("".equals(signupInputData.getUsername())) {
-            userPresenter.prepareFailView("Username cannot be empty");
+            return () -> userPresenter.prepareFailView("Username cannot be empty");
         }
         else {
             final User user = userFactory.create(signupInputData.getUsername(), signupInputData.getPassword());
-            userDataAccessObject.save(user);
+            // A new account must not be lost, whatever the store's usual durability
+            userDataAccessObject.save(user, Durability.IMMEDIATE);
 
             final SignupOutputData signupOutputData = new SignupOutputData(user.getUserName());
-            userPresenter.prepareSuccessView(signupOutputData);
+            return () -> userPresenter.prepareSuccessView(signupOutputData);
         }
     }
 
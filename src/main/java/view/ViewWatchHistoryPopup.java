@@ -170,10 +170,16 @@ public class ViewWatchHistoryPopup extends JDialog implements ViewWatchHistoryVi
         } else {
             countLabel.setText("Total: " + watchedMovies.size() + " movie(s) watched");
 
+            // Look the user up once for all cards rather than once per card
+            User user = null;
+            if (userDataAccess != null && currentUserName != null) {
+                user = userDataAccess.getUser(currentUserName);
+            }
+
             // Add each movie card
             for (int i = 0; i < watchedMovies.size(); i++) {
                 WatchedMovie movie = watchedMovies.get(i);
-                JPanel movieCard = createMovieCard(movie, i + 1);
+                JPanel movieCard = createMovieCard(movie, i + 1, user);
                 moviesPanel.add(movieCard);
                 moviesPanel.add(Box.createRigidArea(new Dimension(0, 10)));
             }
@@ -184,7 +190,7 @@ public class ViewWatchHistoryPopup extends JDialog implements ViewWatchHistoryVi
         setVisible(true);
     }
 
-    private JPanel createMovieCard(WatchedMovie movie, int index) {
+    private JPanel createMovieCard(WatchedMovie movie, int index, User user) {
         JPanel card = new JPanel();
         card.setLayout(new BorderLayout(15, 0));
         card.setBorder(BorderFactory.createCompoundBorder(
@@ -212,13 +218,7 @@ public class ViewWatchHistoryPopup extends JDialog implements ViewWatchHistoryVi
         dateLabel.setBorder(new EmptyBorder(5, 0, 0, 0));
 
         // Get user's review to display rating and review text
-        Review userReview = null;
-        if (userDataAccess != null && currentUserName != null) {
-            User user = userDataAccess.getUser(currentUserName);
-            if (user != null) {
-                userReview = user.getReviewsByMovieId().get(movie.getMovieId());
-            }
-        }
+        Review userReview = user == null ? null : user.getReview(movie.getMovieId());
 
         // User's rating (from review, not TMDb rating)
         JLabel ratingLabel = new JLabel();
@@ -329,7 +329,7 @@ public class ViewWatchHistoryPopup extends JDialog implements ViewWatchHistoryVi
         User user = userDataAccess.getUser(currentUserName);
         Review existingReview = null;
         if (user != null) {
-            existingReview = user.getReviewsByMovieId().get(watchedMovie.getMovieId());
+            existingReview = user.getReview(watchedMovie.getMovieId());
         }
 
         // Create and show edit dialog
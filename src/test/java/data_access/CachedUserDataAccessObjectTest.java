@@ -0,0 +1,286 @@
+package data_access;
+
+import entity.User;
+import entity.WatchList;
+import org.junit.jupiter.api.Test;
+import use_case.common.UserDataAccessInterface;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachedUserDataAccessObjectTest {
+
+    // Persistent store that records every write and can be told to fail
+    private static final class RecordingStore implements UserDataAccessInterface, AutoCloseable {
+        private final Map<String, User> users = new HashMap<>();
+        private final List<String> saves = new ArrayList<>();
+        private final List<String> currentUserWrites = new ArrayList<>();
+        private String currentUsername;
+        private volatile boolean failing;
+        private volatile boolean closed;
+
+        @Override
+        public synchronized User getUser(String userName) {
+            return users.get(userName);
+        }
+
+        @Override
+        public synchronized void save(User user) {
+            if (failing) {
+                throw new IllegalStateException("disk full");
+            }
+            users.put(user.getUserName(), user);
+            saves.add(user.getUserName());
+        }
+
+        @Override
+        public synchronized boolean existsByName(String username) {
+            return users.containsKey(username);
+        }
+
+        @Override
+        public synchronized void setCurrentUsername(String username) {
+            currentUsername = username;
+            currentUserWrites.add(username);
+        }
+
+        @Override
+        public synchronized String getCurrentUsername() {
+            return currentUsername;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        synchronized List<String> saves() {
+            return new ArrayList<>(saves);
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met in time");
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void testWriteThroughByDefault() {
+        RecordingStore store = new RecordingStore();
+        CachedUserDataAccessObject dao = new CachedUserDataAccessObject(store);
+
+        dao.save(new User("alice", "pw"));
+
+        assertEquals(List.of("alice"), store.saves());
+        assertEquals(0, dao.getWriteBehindStats().getQueueDepth());
+    }
+
+    @Test
+    void testRepeatedSavesOfOneUserCostOneWrite() {
+        RecordingStore store = new RecordingStore();
+        CachedUserDataAccessObject dao = new CachedUserDataAccessObject(store, 100, 60_000);
+        User alice = new User("alice", "pw");
+
+        for (int i = 0; i < 5; i++) {
+            alice.addWatchList(new WatchList(alice, "List " + i));
+            dao.save(alice);
+        }
+        assertTrue(store.saves().isEmpty());
+        assertEquals(1, dao.getWriteBehindStats().getQueueDepth());
+
+        dao.flush();
+
+        assertEquals(List.of("alice"), store.saves());
+        assertEquals(6, store.getUser("alice").getWatchLists().size());
+        WriteBehindStats stats = dao.getWriteBehindStats();
+        assertEquals(5, stats.getSavesRequested());
+        assertEquals(1, stats.getWritesPerformed());
+        assertEquals(4, stats.getCoalescedSaves());
+        assertEquals(0, stats.getQueueDepth());
+        assertEquals(1, stats.getFlushes());
+        dao.close();
+    }
+
+    @Test
+    void testFlushWaitsForCycleOnSameUser() throws Exception {
+        RecordingStore store = new RecordingStore();
+        CachedUserDataAccessObject dao = new CachedUserDataAccessObject(store, 100, 60_000);
+        User alice = new User("alice", "pw");
+        dao.save(alice);
+
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread cycle = new Thread(() -> dao.runLocked("alice", () -> {
+            holding.countDown();
+            try {
+                release.await();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            alice.addWatchList(new WatchList(alice, "Later"));
+        }));
+        cycle.start();
+        assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+        Thread flusher = new Thread(dao::flush);
+        flusher.start();
+        flusher.join(200);
+        assertTrue(flusher.isAlive());
+        assertTrue(store.saves().isEmpty());
+
+        release.countDown();
+        flusher.join(5000);
+        cycle.join();
+        assertEquals(List.of("alice"), store.saves());
+        assertEquals(2, store.getUser("alice").getWatchLists().size());
+        dao.close();
+    }
+
+    @Test
+    void testReadsSeePendingChanges() {
+        RecordingStore store = new RecordingStore();
+        CachedUserDataAccessObject dao = new CachedUserDataAccessObject(store, 100, 60_000);
+        User alice = new User("alice", "pw");
+
+        dao.save(alice);
+        dao.setCurrentUsername("alice");
+
+        assertSame(alice, dao.getUser("alice"));
+        assertTrue(dao.existsByName("alice"));
+        assertEquals("alice", dao.getCurrentUsername());
+        assertFalse(store.existsByName("alice"));
+        dao.close();
+    }
+
+    @Test
+    void testFlushesAfterDelay() throws InterruptedException {
+        RecordingStore store = new RecordingStore();
+        CachedUserDataAccessObject dao = new CachedUserDataAccessObject(store, 100, 20);
+
+        dao.save(new User("alice", "pw"));
+
+        awaitTrue(() -> store.existsByName("alice"));
+        dao.close();
+    }
+
+    @Test
+    void testFlushesWhenQueueIsFull() throws InterruptedException {
+        RecordingStore store = new RecordingStore();
+        CachedUserDataAccessObject dao = new CachedUserDataAccessObject(store, 3, 60_000);
+
+        dao.save(new User("alice", "pw"));
+        dao.save(new User("bob", "pw"));
+        assertTrue(store.saves().isEmpty());
+        dao.save(new User("carol", "pw"));
+
+        awaitTrue(() -> store.saves().size() == 3);
+        dao.close();
+    }
+
+    @Test
+    void testFailedWritesStayQueued() {
+        RecordingStore store = new RecordingStore();
+        CachedUserDataAccessObject dao = new CachedUserDataAccessObject(store, 100, 60_000);
+        dao.save(new User("alice", "pw"));
+
+        store.failing = true;
+        assertThrows(IllegalStateException.class, dao::flush);
+        assertEquals(1, dao.getWriteBehindStats().getQueueDepth());
+        assertEquals(1, dao.getWriteBehindStats().getFailedWrites());
+
+        store.failing = false;
+        dao.flush();
+        assertEquals(List.of("alice"), store.saves());
+        assertEquals(0, dao.getWriteBehindStats().getQueueDepth());
+        dao.close();
+    }
+
+    @Test
+    void testCloseFlushesAndClosesStore() {
+        RecordingStore store = new RecordingStore();
+        CachedUserDataAccessObject dao = new CachedUserDataAccessObject(store, 100, 60_000);
+        dao.save(new User("alice", "pw"));
+        dao.setCurrentUsername("alice");
+        dao.setCurrentUsername(null);
+
+        dao.close();
+
+        assertEquals(List.of("alice"), store.saves());
+        assertEquals(1, store.currentUserWrites.size());
+        assertNull(store.getCurrentUsername());
+        assertTrue(store.closed);
+    }
+
+    @Test
+    void testBoundedCacheReloadsEvictedUsers() {
+        RecordingStore store = new RecordingStore();
+        store.save(new User("alice", "pw"));
+        store.save(new User("bob", "pw"));
+        store.save(new User("carol", "pw"));
+        CachedUserDataAccessObject dao = new CachedUserDataAccessObject(store, new UserCache(2, 0));
+
+        dao.getUser("alice");
+        dao.getUser("bob");
+        dao.getUser("carol");
+        dao.getUser("carol");
+        dao.getUser("alice");
+
+        UserCacheStats stats = dao.getCacheStats();
+        assertEquals(2, stats.getSize());
+        assertEquals(2, stats.getEvictions());
+        assertEquals(4, stats.getLoads());
+        assertEquals(0.2, stats.getHitRatio(), 1e-9);
+    }
+
+    @Test
+    void testCurrentUserStaysCached() {
+        RecordingStore store = new RecordingStore();
+        User alice = new User("alice", "pw");
+        store.save(alice);
+        store.setCurrentUsername("alice");
+        store.save(new User("bob", "pw"));
+        store.save(new User("carol", "pw"));
+        CachedUserDataAccessObject dao = new CachedUserDataAccessObject(store, new UserCache(1, 0));
+
+        dao.getUser("alice");
+        dao.getUser("bob");
+        dao.getUser("carol");
+
+        assertSame(alice, dao.getUser("alice"));
+        assertEquals(3, dao.getCacheStats().getLoads());
+    }
+
+    @Test
+    void testEvictedDirtyUserIsNotReadStale() {
+        RecordingStore store = new RecordingStore();
+        CachedUserDataAccessObject dao = new CachedUserDataAccessObject(store, 100, 60_000, 1, 0);
+        User alice = new User("alice", "pw");
+        dao.save(alice);
+        dao.save(new User("bob", "pw"));
+
+        assertSame(alice, dao.getUser("alice"));
+        assertTrue(dao.existsByName("alice"));
+        assertEquals(0, dao.getCacheStats().getLoads());
+        dao.close();
+    }
+
+    @Test
+    void testRejectsNonPositiveLimits() {
+        RecordingStore store = new RecordingStore();
+
+        assertThrows(IllegalArgumentException.class, () -> new CachedUserDataAccessObject(store, 0, 100));
+        assertThrows(IllegalArgumentException.class, () -> new CachedUserDataAccessObject(store, 10, 0));
+        assertThrows(IllegalArgumentException.class, () -> new CachedUserDataAccessObject(store, 10, 100, 0, 0));
+    }
+}
@@ -0,0 +1,294 @@
+package data_access;
+
+import entity.Movie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import use_case.common.MovieDataAccessException;
+import use_case.common.MovieGateway;
+import use_case.common.PagedMovieResult;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachingMovieGatewayTest {
+
+    private Path cacheDir;
+    private CountingGateway delegate;
+    private MutableClock clock;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        cacheDir = Files.createTempDirectory("movie_cache");
+        delegate = new CountingGateway();
+        clock = new MutableClock();
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        try (Stream<Path> files = Files.walk(cacheDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private CachingMovieGateway newCache(int maxEntries) {
+        return new CachingMovieGateway(delegate, cacheDir.toString(), maxEntries, Map.of(), clock);
+    }
+
+    private static Movie movie(String id) {
+        return new Movie(id, "Movie " + id, "plot", List.of(28), "2020-01-01", 7.0, 10.0, "p.jpg");
+    }
+
+    @Test
+    void testFindByIdIsServedFromMemoryAfterFirstCall() {
+        CachingMovieGateway cache = newCache(10);
+
+        assertEquals("Movie 1", cache.findById("1").orElseThrow().getTitle());
+        assertEquals("Movie 1", cache.findById("1").orElseThrow().getTitle());
+
+        assertEquals(1, delegate.findByIdCalls);
+        assertEquals(1, cache.getStats().getMemoryHits());
+        assertEquals(1, cache.getStats().getMisses());
+    }
+
+    @Test
+    void testDiskTierSurvivesRestart() {
+        newCache(10).findById("42");
+
+        CachingMovieGateway restarted = newCache(10);
+        Optional<Movie> movie = restarted.findById("42");
+
+        assertTrue(movie.isPresent());
+        assertEquals("Movie 42", movie.get().getTitle());
+        assertEquals(List.of(28), movie.get().getGenreIds());
+        assertEquals(1, delegate.findByIdCalls);
+        assertEquals(1, restarted.getStats().getDiskHits());
+    }
+
+    @Test
+    void testDiskEntryKeepsItsOriginalExpiry() {
+        newCache(10).findById("42");
+
+        // Reloaded from disk halfway through its life, the movie must still expire 24 hours after it was fetched
+        clock.advance(Duration.ofHours(20));
+        CachingMovieGateway restarted = newCache(10);
+        restarted.findById("42");
+        assertEquals(1, delegate.findByIdCalls);
+
+        clock.advance(Duration.ofHours(5));
+        restarted.findById("42");
+        assertEquals(2, delegate.findByIdCalls);
+    }
+
+    @Test
+    void testDiskTierLeavesNoTemporaryFiles() throws IOException {
+        newCache(10).findById("42");
+
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            assertEquals(List.of("42.json"), files.map(p -> p.getFileName().toString()).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void testExpiredEntriesAreRefetched() {
+        CachingMovieGateway cache = newCache(10);
+        cache.findById("1");
+
+        clock.advance(Duration.ofHours(25));
+        cache.findById("1");
+
+        assertEquals(2, delegate.findByIdCalls);
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntryIsEvicted() {
+        CachingMovieGateway cache = new CachingMovieGateway(delegate, null, 2, Map.of(), clock);
+        cache.findById("1");
+        cache.findById("2");
+        cache.findById("1"); // touch 1 so 2 becomes eldest
+        cache.findById("3");
+
+        assertEquals(1, cache.getStats().getEvictions());
+        assertEquals(2, cache.getStats().getMemorySize());
+
+        cache.findById("1");
+        assertEquals(3, delegate.findByIdCalls);
+        cache.findById("2");
+        assertEquals(4, delegate.findByIdCalls);
+    }
+
+    @Test
+    void testSearchResultsFeedFindById() throws MovieDataAccessException {
+        CachingMovieGateway cache = newCache(10);
+
+        cache.searchByTitle("movie", 1);
+        Optional<Movie> movie = cache.findById("s2");
+
+        assertTrue(movie.isPresent());
+        assertEquals(0, delegate.findByIdCalls);
+    }
+
+    @Test
+    void testSearchPagesUseTheirOwnTtl() throws MovieDataAccessException {
+        CachingMovieGateway cache = new CachingMovieGateway(delegate, null, 10,
+                Map.of(CachingMovieGateway.Endpoint.SEARCH, Duration.ofMinutes(1)), clock);
+
+        cache.searchByTitle("movie", 1);
+        cache.searchByTitle("movie", 1);
+        assertEquals(1, delegate.searchCalls);
+
+        clock.advance(Duration.ofMinutes(2));
+        cache.searchByTitle("movie", 1);
+        assertEquals(2, delegate.searchCalls);
+    }
+
+    @Test
+    void testPopularPagesAreCached() throws MovieDataAccessException {
+        CachingMovieGateway cache = newCache(10);
+
+        cache.getPopularMovies(1);
+        cache.getPopularMovies(1);
+        cache.getPopularMovies(2);
+
+        assertEquals(2, delegate.popularCalls);
+    }
+
+    @Test
+    void testLazyPagesFeedFindByIdOnlyWithMoviesThatWereRead() throws MovieDataAccessException {
+        CachingMovieGateway cache = newCache(10);
+
+        PagedMovieResult page = cache.getPopularMovies(1);
+        assertEquals(0, page.getMaterialisedCount());
+
+        assertEquals("p1-0", page.getMovies().get(0).getMovieId());
+        assertEquals(1, page.getMaterialisedCount());
+
+        assertTrue(cache.findById("p1-0").isPresent());
+        assertEquals(0, delegate.findByIdCalls);
+        assertTrue(cache.findById("p1-1").isPresent());
+        assertEquals(1, delegate.findByIdCalls);
+    }
+
+    @Test
+    void testTMDbStatsAreEmptyForOtherGateways() {
+        CachingMovieGateway cache = newCache(10);
+
+        assertTrue(cache.getRateLimiterStats().isEmpty());
+        assertTrue(cache.getCoalescingStats().isEmpty());
+    }
+
+    @Test
+    void testMissingMovieIsNotCached() {
+        CachingMovieGateway cache = newCache(10);
+
+        assertTrue(cache.findById("missing").isEmpty());
+        assertTrue(cache.findById("missing").isEmpty());
+
+        assertEquals(2, delegate.findByIdCalls);
+    }
+
+    @Test
+    void testFindByIdsFetchesOnlyMissesAsOneBatch() {
+        CachingMovieGateway cache = newCache(100);
+        cache.findById("1");
+        cache.findById("3");
+        delegate.findByIdCalls = 0;
+
+        Map<String, Movie> found = cache.findByIds(List.of("4", "1", "missing", "3", "2", "4"));
+
+        assertEquals(List.of("4", "1", "3", "2"), new ArrayList<>(found.keySet()));
+        assertEquals(List.of(List.of("4", "missing", "2")), delegate.batches);
+        assertEquals(3, delegate.findByIdCalls);
+
+        // Everything fetched by the batch is now cached
+        cache.findByIds(List.of("2", "4"));
+        assertEquals(1, delegate.batches.size());
+    }
+
+    private static final class CountingGateway implements MovieGateway {
+        int findByIdCalls;
+        int searchCalls;
+        int popularCalls;
+        final List<List<String>> batches = new ArrayList<>();
+
+        @Override
+        public Map<String, Movie> findByIds(Collection<String> movieIds) {
+            batches.add(new ArrayList<>(movieIds));
+            return MovieGateway.super.findByIds(movieIds);
+        }
+
+        @Override
+        public Optional<Movie> findById(String movieId) {
+            findByIdCalls++;
+            if ("missing".equals(movieId)) {
+                return Optional.empty();
+            }
+            return Optional.of(movie(movieId));
+        }
+
+        @Override
+        public List<Movie> searchByTitle(String query) {
+            return List.of();
+        }
+
+        @Override
+        public PagedMovieResult searchByTitle(String query, int page) {
+            searchCalls++;
+            List<Movie> movies = new ArrayList<>();
+            movies.add(movie("s1"));
+            movies.add(movie("s2"));
+            return new PagedMovieResult(movies, page, 3);
+        }
+
+        @Override
+        public List<Movie> filterByGenres(List<Integer> genreIds) {
+            return List.of(movie("d1"));
+        }
+
+        @Override
+        public PagedMovieResult getPopularMovies(int page) {
+            popularCalls++;
+            // Built lazily, like the pages of the TMDb gateway
+            return PagedMovieResult.lazy(2, i -> movie("p" + page + "-" + i), page, 5);
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
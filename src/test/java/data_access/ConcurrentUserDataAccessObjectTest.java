@@ -0,0 +1,242 @@
+package data_access;
+
+import entity.Movie;
+import entity.User;
+import org.junit.jupiter.api.Test;
+import use_case.common.MovieGateway;
+import use_case.common.PagedMovieResult;
+import use_case.common.UserDataAccessInterface;
+import use_case.record_watchhistory.RecordWatchHistoryInteractor;
+import use_case.record_watchhistory.RecordWatchHistoryOutputBoundary;
+import use_case.record_watchhistory.RecordWatchHistoryRequestModel;
+import use_case.record_watchhistory.RecordWatchHistoryResponseModel;
+import use_case.review_movie.ReviewMovieInteractor;
+import use_case.review_movie.ReviewMovieOutputBoundary;
+import use_case.review_movie.ReviewMovieRequestModel;
+import use_case.review_movie.ReviewMovieResponseModel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentUserDataAccessObjectTest {
+
+    private static final int THREADS = 8;
+    private static final int ITERATIONS = 250;
+
+    // Knows every movie id it is asked for
+    private static final class AnyMovieGateway implements MovieGateway {
+        @Override
+        public Optional<Movie> findById(String movieId) {
+            return Optional.of(new Movie(movieId, "Movie " + movieId, "", List.of(18), "2020-01-01", 7.0, 0.0, ""));
+        }
+
+        @Override
+        public List<Movie> searchByTitle(String query) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public PagedMovieResult searchByTitle(String query, int page) {
+            return new PagedMovieResult(Collections.emptyList(), page, 1);
+        }
+
+        @Override
+        public List<Movie> filterByGenres(List<Integer> genreIds) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public PagedMovieResult getPopularMovies(int page) {
+            return new PagedMovieResult(Collections.emptyList(), page, 1);
+        }
+    }
+
+    private static final class CountingPresenter implements RecordWatchHistoryOutputBoundary,
+                                                            ReviewMovieOutputBoundary {
+        private final AtomicInteger failures = new AtomicInteger();
+
+        @Override
+        public void prepareSuccessView(RecordWatchHistoryResponseModel responseModel) {
+        }
+
+        @Override
+        public void prepareSuccessView(ReviewMovieResponseModel responseModel) {
+        }
+
+        @Override
+        public void prepareFailView(String errorMessage) {
+            failures.incrementAndGet();
+        }
+    }
+
+    // Every thread records and reviews its own movies for the same user at the same time
+    private static void runInteractorsConcurrently(UserDataAccessInterface dao) throws Exception {
+        dao.save(new User("alice", "pw"));
+        MovieGateway gateway = new AnyMovieGateway();
+        CountingPresenter presenter = new CountingPresenter();
+        RecordWatchHistoryInteractor record = new RecordWatchHistoryInteractor(dao, gateway, presenter);
+        ReviewMovieInteractor review = new ReviewMovieInteractor(dao, gateway, presenter);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            final int thread = t;
+            results.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < ITERATIONS; i++) {
+                    String movieId = thread + "-" + i;
+                    record.execute(new RecordWatchHistoryRequestModel("alice", movieId, null));
+                    review.execute(new ReviewMovieRequestModel("alice", movieId, i % 5 + 1, "ok"));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        User alice = dao.getUser("alice");
+        assertEquals(0, presenter.failures.get());
+        assertEquals(THREADS * ITERATIONS, alice.getWatchHistory().getMovies().size());
+        assertEquals(THREADS * ITERATIONS, alice.getReviewsByMovieId().size());
+    }
+
+    @Test
+    void testConcurrentInteractorsLoseNoUpdates() throws Exception {
+        runInteractorsConcurrently(new ConcurrentUserDataAccessObject());
+    }
+
+    @Test
+    void testConcurrentInteractorsLoseNoUpdatesThroughCache() throws Exception {
+        CachedUserDataAccessObject dao =
+                new CachedUserDataAccessObject(new ConcurrentUserDataAccessObject(), 16, 5);
+        runInteractorsConcurrently(dao);
+        dao.close();
+    }
+
+    @Test
+    void testDifferentUsersDoNotWaitForEachOther() throws Exception {
+        ConcurrentUserDataAccessObject dao = new ConcurrentUserDataAccessObject();
+        StripedLocks probe = new StripedLocks(StripedLocks.DEFAULT_STRIPES);
+        String other = "bob";
+        for (int i = 0; probe.lockFor(other) == probe.lockFor("alice"); i++) {
+            other = "bob" + i;
+        }
+        final String bob = other;
+
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread aliceCycle = new Thread(() -> dao.runLocked("alice", () -> {
+            holding.countDown();
+            try {
+                release.await();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        aliceCycle.start();
+        assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        Future<?> bobCycle = pool.submit(() -> dao.runLocked(bob, () -> dao.save(new User(bob, "pw"))));
+        Future<?> aliceWaiter = pool.submit(() -> dao.runLocked("alice", () -> dao.save(new User("alice", "pw"))));
+
+        bobCycle.get(5, TimeUnit.SECONDS);
+        assertTrue(dao.existsByName(bob));
+        assertFalse(aliceWaiter.isDone());
+
+        release.countDown();
+        aliceWaiter.get(5, TimeUnit.SECONDS);
+        assertTrue(dao.existsByName("alice"));
+        aliceCycle.join();
+        pool.shutdown();
+    }
+
+    @Test
+    void testCallLockedReturnsResultWhileHoldingTheLock() throws Exception {
+        ConcurrentUserDataAccessObject dao = new ConcurrentUserDataAccessObject();
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        Future<?>[] waiter = new Future<?>[1];
+
+        String result = dao.callLocked("alice", () -> {
+            waiter[0] = pool.submit(() -> dao.runLocked("alice", () -> dao.save(new User("alice", "pw"))));
+            try {
+                Thread.sleep(100);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return waiter[0].isDone() ? "not held" : "held";
+        });
+
+        assertEquals("held", result);
+        waiter[0].get(5, TimeUnit.SECONDS);
+        assertTrue(dao.existsByName("alice"));
+        pool.shutdown();
+    }
+
+    @Test
+    void testCompareAndSaveRejectsStaleVersion() {
+        ConcurrentUserDataAccessObject dao = new ConcurrentUserDataAccessObject();
+        dao.save(new User("alice", "pw"));
+
+        // The store hands out its own instance, so a stale copy has to be a separate user read at version 0
+        User stored = dao.getUser("alice");
+        User stale = new User("alice", "pw");
+
+        assertTrue(dao.compareAndSave(stored, 0));
+        assertEquals(1, dao.getUser("alice").getVersion());
+
+        assertFalse(dao.compareAndSave(stale, 0));
+        assertEquals(0, stale.getVersion());
+        assertSame(stored, dao.getUser("alice"));
+        assertEquals(1, dao.getUser("alice").getVersion());
+
+        User fresh = dao.getUser("alice");
+        assertTrue(dao.compareAndSave(fresh, fresh.getVersion()));
+        assertEquals(2, dao.getUser("alice").getVersion());
+    }
+
+    @Test
+    void testCompareAndSaveKeepsVersionWhenSaveFails() {
+        boolean[] failing = {false};
+        ConcurrentUserDataAccessObject dao = new ConcurrentUserDataAccessObject() {
+            @Override
+            public void save(User user) {
+                if (failing[0]) {
+                    throw new IllegalStateException("disk full");
+                }
+                super.save(user);
+            }
+        };
+        User user = new User("alice", "pw");
+        dao.save(user);
+
+        failing[0] = true;
+        assertThrows(IllegalStateException.class, () -> dao.compareAndSave(user, 0));
+        assertEquals(0, user.getVersion());
+
+        failing[0] = false;
+        assertTrue(dao.compareAndSave(user, 0));
+        assertEquals(1, user.getVersion());
+    }
+
+    @Test
+    void testRejectsNonPositiveStripeCount() {
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentUserDataAccessObject(0));
+    }
+}
@@ -6,10 +6,16 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import org.json.JSONObject;
+import use_case.common.Durability;
+
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 
@@ -18,17 +24,20 @@ import static org.junit.jupiter.api.Assertions.*;
 public class FileUserDataAccessObjectTest {
 
     private Path tempFile;
+    private Path logFile;
     private UserFactory userFactory;
 
     @BeforeEach
     void setUp() throws IOException {
         tempFile = Files.createTempFile("users", ".json");
+        logFile = tempFile.resolveSibling(tempFile.getFileName() + ".log");
         userFactory = new UserFactory();
     }
 
     @AfterEach
     void cleanup() throws IOException {
         Files.deleteIfExists(tempFile);
+        Files.deleteIfExists(logFile);
     }
 
     // ---------------------------------------------------
@@ -209,4 +218,164 @@ public class FileUserDataAccessObjectTest {
         assertTrue(dao.existsByName("frank"));
         assertFalse(dao.existsByName("notAUser"));
     }
+
+    // ---------------------------------------------------
+    // 7. CHANGE LOG + COMPACTION
+    // ---------------------------------------------------
+
+    @Test
+    void testSaveAppendsWithoutRewritingSnapshot() throws IOException {
+        FileUserDataAccessObject dao = new FileUserDataAccessObject(tempFile.toString(), userFactory);
+        String snapshotBefore = Files.readString(tempFile);
+
+        dao.save(userFactory.create("alice", "pw"));
+        dao.save(userFactory.create("bob", "pw"));
+
+        assertEquals(snapshotBefore, Files.readString(tempFile));
+        assertEquals(2, Files.readAllLines(logFile).size());
+    }
+
+    @Test
+    void testLatestRecordWinsOnReplay() {
+        FileUserDataAccessObject dao = new FileUserDataAccessObject(tempFile.toString(), userFactory);
+        User u = userFactory.create("alice", "pw");
+        dao.save(u);
+        u.addWatchList(new WatchList(u, "Later"));
+        dao.save(u);
+        dao.setCurrentUsername("alice");
+        dao.setCurrentUsername(null);
+
+        FileUserDataAccessObject dao2 = new FileUserDataAccessObject(tempFile.toString(), userFactory);
+
+        assertEquals(2, dao2.getUser("alice").getWatchLists().size());
+        assertNull(dao2.getCurrentUsername());
+    }
+
+    @Test
+    void testRecordTruncatedMidWriteIsDiscarded() throws IOException {
+        FileUserDataAccessObject dao = new FileUserDataAccessObject(tempFile.toString(), userFactory);
+        dao.save(userFactory.create("alice", "pw"));
+        long intact = Files.size(logFile);
+        dao.save(userFactory.create("bob", "pw"));
+
+        // Simulate a crash halfway through writing bob's record
+        long torn = intact + (Files.size(logFile) - intact) / 2;
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.WRITE)) {
+            channel.truncate(torn);
+        }
+
+        FileUserDataAccessObject dao2 = new FileUserDataAccessObject(tempFile.toString(), userFactory);
+        assertTrue(dao2.existsByName("alice"));
+        assertFalse(dao2.existsByName("bob"));
+        assertEquals(intact, Files.size(logFile));
+
+        // New records are not appended after the torn one
+        dao2.save(userFactory.create("carol", "pw"));
+        FileUserDataAccessObject dao3 = new FileUserDataAccessObject(tempFile.toString(), userFactory);
+        assertTrue(dao3.existsByName("alice"));
+        assertTrue(dao3.existsByName("carol"));
+    }
+
+    @Test
+    void testEveryTruncationPointRecoversAPrefix() throws IOException {
+        FileUserDataAccessObject dao = new FileUserDataAccessObject(tempFile.toString(), userFactory);
+        dao.save(userFactory.create("alice", "pw"));
+        dao.setCurrentUsername("alice");
+        dao.save(userFactory.create("bob", "pw"));
+        byte[] full = Files.readAllBytes(logFile);
+
+        for (int length = 0; length <= full.length; length++) {
+            Files.write(logFile, Arrays.copyOf(full, length));
+
+            FileUserDataAccessObject reloaded = new FileUserDataAccessObject(tempFile.toString(), userFactory);
+
+            // Whatever survives is a prefix of the changes, in order
+            if (reloaded.existsByName("bob")) {
+                assertEquals(full.length, length);
+            }
+            if (reloaded.getCurrentUsername() != null) {
+                assertTrue(reloaded.existsByName("alice"));
+            }
+            reloaded.close();
+        }
+    }
+
+    @Test
+    void testCorruptedRecordIsDiscarded() throws IOException {
+        FileUserDataAccessObject dao = new FileUserDataAccessObject(tempFile.toString(), userFactory);
+        dao.save(userFactory.create("alice", "pw"));
+        dao.save(userFactory.create("bob", "pw"));
+
+        // Flip a byte inside bob's record; the length is intact but the checksum no longer matches
+        byte[] bytes = Files.readAllBytes(logFile);
+        bytes[bytes.length - 5] ^= 0x01;
+        Files.write(logFile, bytes);
+
+        FileUserDataAccessObject dao2 = new FileUserDataAccessObject(tempFile.toString(), userFactory);
+        assertTrue(dao2.existsByName("alice"));
+        assertFalse(dao2.existsByName("bob"));
+    }
+
+    @Test
+    void testCompactFoldsLogIntoSnapshot() throws IOException {
+        FileUserDataAccessObject dao = new FileUserDataAccessObject(tempFile.toString(), userFactory);
+        dao.save(userFactory.create("alice", "pw"));
+        dao.setCurrentUsername("alice");
+
+        dao.compact();
+
+        assertEquals(0, Files.size(logFile));
+        JSONObject snapshot = new JSONObject(Files.readString(tempFile));
+        assertEquals("alice", snapshot.getString("currentUser"));
+        assertTrue(snapshot.getJSONObject("users").has("alice"));
+
+        dao.save(userFactory.create("bob", "pw"));
+        FileUserDataAccessObject dao2 = new FileUserDataAccessObject(tempFile.toString(), userFactory);
+        assertTrue(dao2.existsByName("alice"));
+        assertTrue(dao2.existsByName("bob"));
+        assertEquals("alice", dao2.getCurrentUsername());
+    }
+
+    @Test
+    void testCrashBetweenSnapshotAndLogRotationIsHarmless() throws IOException {
+        FileUserDataAccessObject dao = new FileUserDataAccessObject(tempFile.toString(), userFactory);
+        User u = userFactory.create("alice", "pw");
+        dao.save(u);
+        u.addWatchList(new WatchList(u, "Later"));
+        dao.save(u);
+        byte[] logBeforeCompaction = Files.readAllBytes(logFile);
+
+        dao.compact();
+        dao.close();
+        // The snapshot was replaced but the log was never cut back
+        Files.write(logFile, logBeforeCompaction);
+
+        FileUserDataAccessObject dao2 = new FileUserDataAccessObject(tempFile.toString(), userFactory);
+        assertEquals(2, dao2.getUser("alice").getWatchLists().size());
+    }
+
+    @Test
+    void testBackgroundCompactionKeepsEveryUser() {
+        FileUserDataAccessObject dao = new FileUserDataAccessObject(tempFile.toString(), userFactory, 256);
+        for (int i = 0; i < 50; i++) {
+            dao.save(userFactory.create("user" + i, "pw"));
+        }
+        dao.close();
+
+        FileUserDataAccessObject dao2 = new FileUserDataAccessObject(tempFile.toString(), userFactory);
+        for (int i = 0; i < 50; i++) {
+            assertTrue(dao2.existsByName("user" + i));
+        }
+    }
+
+    @Test
+    void testImmediateSaveIsInTheLogWhenItReturns() throws IOException {
+        FileUserDataAccessObject dao = new FileUserDataAccessObject(tempFile.toString(), userFactory);
+
+        dao.save(userFactory.create("alice", "pw"), Durability.IMMEDIATE);
+
+        assertTrue(Files.readString(logFile).contains("\"alice\""));
+        FileUserDataAccessObject dao2 = new FileUserDataAccessObject(tempFile.toString(), userFactory);
+        assertTrue(dao2.existsByName("alice"));
+    }
 }
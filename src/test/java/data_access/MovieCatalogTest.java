@@ -0,0 +1,93 @@
+package data_access;
+
+import entity.Movie;
+import entity.User;
+import entity.WatchList;
+import entity.WatchedMovie;
+import entity.factories.UserFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MovieCatalogTest {
+
+    private static Movie movie(String id, double rating) {
+        return new Movie(id, "Movie " + id, "Plot of " + id, List.of(18, 35), "2021-05-01", rating, 0.0,
+                "https://image.tmdb.org/t/p/w500/" + id + ".jpg");
+    }
+
+    @Test
+    void testEqualMoviesShareOneInstance() {
+        MovieCatalog catalog = new MovieCatalog();
+        Movie first = movie("1", 7.5);
+
+        assertSame(first, catalog.intern(first));
+        assertSame(first, catalog.intern(movie("1", 7.5)));
+        assertSame(first, catalog.intern(movie("1", 7.5)));
+
+        assertEquals(1, catalog.size());
+        assertEquals(3, catalog.getLookupCount());
+        assertEquals(2, catalog.getSharedCount());
+    }
+
+    @Test
+    void testChangedMovieBecomesCanonical() {
+        MovieCatalog catalog = new MovieCatalog();
+        Movie old = catalog.intern(movie("1", 7.5));
+
+        Movie updated = movie("1", 8.0);
+        assertSame(updated, catalog.intern(updated));
+        assertSame(updated, catalog.intern(movie("1", 8.0)));
+        assertEquals(7.5, old.getRating());
+        assertEquals(1, catalog.size());
+    }
+
+    @Test
+    void testWatchedMoviesAndNullPassThrough() {
+        MovieCatalog catalog = new MovieCatalog();
+        WatchedMovie watched = new WatchedMovie(movie("1", 7.5), LocalDateTime.of(2024, 1, 1, 20, 0));
+
+        assertSame(watched, catalog.intern(watched));
+        assertNull(catalog.intern(null));
+        assertEquals(0, catalog.size());
+    }
+
+    @Test
+    void testDecodedUsersShareMovies() {
+        UserFactory userFactory = new UserFactory();
+        UserBinaryCodec binary = new UserBinaryCodec(userFactory);
+        UserJsonCodec json = new UserJsonCodec(userFactory);
+
+        User alice = userFactory.create("alice", "pw");
+        alice.getWatchLists().get(0).addMovie(movie("catalog-42", 6.5));
+        User bob = userFactory.create("bob", "pw");
+        WatchList later = new WatchList(bob, "Later");
+        later.addMovie(movie("catalog-42", 6.5));
+        bob.addWatchList(later);
+
+        Movie fromAlice = binary.decode(ByteBuffer.wrap(binary.encode(alice)))
+                .getWatchLists().get(0).getMovies().get(0);
+        Movie fromBob = json.fromJson(json.toJson(bob)).getWatchLists().get(1).getMovies().get(0);
+
+        assertSame(fromAlice, fromBob);
+        assertSame(fromAlice.getPlot(), new WatchedMovie(fromBob, null).getPlot());
+    }
+
+    @Test
+    void testParsedMoviesShareInstances() throws IOException {
+        String details = "{\"id\":987654,\"title\":\"Shared\",\"overview\":\"Same every time\","
+                + "\"genres\":[{\"id\":18,\"name\":\"Drama\"}],\"release_date\":\"2019-03-01\","
+                + "\"vote_average\":6.9,\"poster_path\":\"/shared.jpg\"}";
+
+        Movie first = TMDbMovieParser.parseMovieDetails(new StringReader(details));
+        Movie second = TMDbMovieParser.parseMovieDetails(new StringReader(details));
+
+        assertSame(first, second);
+    }
+}
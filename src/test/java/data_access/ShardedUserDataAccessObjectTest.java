@@ -0,0 +1,417 @@
+package data_access;
+
+import entity.Movie;
+import entity.Review;
+import entity.User;
+import entity.WatchHistory;
+import entity.WatchList;
+import entity.factories.UserFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import use_case.common.Durability;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class ShardedUserDataAccessObjectTest {
+
+    private Path dir;
+    private Path storeDir;
+    private UserFactory userFactory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("sharded_users");
+        storeDir = dir.resolve("users");
+        userFactory = new UserFactory();
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private ShardedUserDataAccessObject open() {
+        return new ShardedUserDataAccessObject(storeDir.toString(), userFactory);
+    }
+
+    private static Movie movie(String id) {
+        return new Movie(id, "Movie " + id, "plot", List.of(28, 12), "2020-01-01", 7.5, 0.0, "p.jpg");
+    }
+
+    @Test
+    void testSaveAndReloadNestedUser() {
+        ShardedUserDataAccessObject dao = open();
+        User u = userFactory.create("alice", "pw");
+        WatchList favourites = new WatchList(u, "Favourites");
+        favourites.addMovie(movie("1"));
+        u.addWatchList(favourites);
+        u.addReview(new Review("r1", u, movie("2"), 4, "Good", LocalDateTime.of(2024, 5, 1, 20, 0)));
+        WatchHistory history = new WatchHistory("h1", u);
+        history.recordMovie(movie("3"), LocalDateTime.of(2024, 5, 2, 21, 0));
+        u.setWatchHistory(history);
+        dao.save(u);
+
+        User loaded = open().getUser("alice");
+
+        assertEquals("pw", loaded.getPassword());
+        assertEquals(2, loaded.getWatchLists().size());
+        assertEquals("Movie 1", loaded.getWatchListByName("Favourites").orElseThrow().getMovies().get(0).getTitle());
+        assertEquals("Good", loaded.getReviewsByMovieId().values().iterator().next().getComment());
+        assertEquals(LocalDateTime.of(2024, 5, 2, 21, 0),
+                loaded.getWatchHistory().getMovies().get(0).getWatchedDate());
+    }
+
+    @Test
+    void testOneFilePerUser() throws IOException {
+        ShardedUserDataAccessObject dao = open();
+        dao.save(userFactory.create("alice", "pw"));
+        dao.save(userFactory.create("Alice", "pw"));
+        dao.save(userFactory.create("alice", "changed"));
+
+        try (Stream<Path> files = Files.list(storeDir)) {
+            assertEquals(2, files.filter(p -> p.toString().endsWith(".json")).count());
+        }
+        assertEquals(2, Files.readAllLines(storeDir.resolve(ShardedUserDataAccessObject.INDEX_FILE)).size());
+        assertEquals("changed", open().getUser("alice").getPassword());
+    }
+
+    @Test
+    void testUsersAreLoadedLazily() {
+        ShardedUserDataAccessObject writer = open();
+        writer.save(userFactory.create("alice", "pw"));
+        writer.save(userFactory.create("bob", "pw"));
+
+        ShardedUserDataAccessObject dao = open();
+        assertEquals(0, dao.getLoadedUserCount());
+
+        assertTrue(dao.existsByName("bob"));
+        assertFalse(dao.existsByName("carol"));
+        assertEquals(0, dao.getLoadedUserCount());
+
+        User bob = dao.getUser("bob");
+        assertSame(bob, dao.getUser("bob"));
+        assertEquals(1, dao.getLoadedUserCount());
+        assertNull(dao.getUser("carol"));
+    }
+
+    @Test
+    void testExistsByNameDoesNotReadUserFiles() throws IOException {
+        ShardedUserDataAccessObject writer = open();
+        writer.save(userFactory.create("alice", "pw"));
+        Files.delete(storeDir.resolve(ShardedUserDataAccessObject.fileNameFor("alice", new UserJsonCodec(userFactory))));
+
+        assertTrue(open().existsByName("alice"));
+    }
+
+    @Test
+    void testCurrentUserPersists() {
+        open().setCurrentUsername("alice");
+        assertEquals("alice", open().getCurrentUsername());
+
+        open().setCurrentUsername(null);
+        assertNull(open().getCurrentUsername());
+    }
+
+    @Test
+    void testTornIndexLineIsDropped() throws IOException {
+        ShardedUserDataAccessObject dao = open();
+        dao.save(userFactory.create("alice", "pw"));
+        Path index = storeDir.resolve(ShardedUserDataAccessObject.INDEX_FILE);
+        long intact = Files.size(index);
+        dao.save(userFactory.create("bob", "pw"));
+        try (FileChannel channel = FileChannel.open(index, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(index) - 3);
+        }
+
+        ShardedUserDataAccessObject reopened = open();
+        assertTrue(reopened.existsByName("alice"));
+        assertFalse(reopened.existsByName("bob"));
+        assertEquals(intact, Files.size(index));
+
+        reopened.save(userFactory.create("carol", "pw"));
+        assertTrue(open().existsByName("carol"));
+    }
+
+    @Test
+    void testLongAndUnusualUsernames() {
+        ShardedUserDataAccessObject dao = open();
+        String longName = "x".repeat(200);
+        String oddName = "a b/c\\d\n\"e\"";
+        dao.save(userFactory.create(longName, "pw"));
+        dao.save(userFactory.create(oddName, "pw"));
+
+        ShardedUserDataAccessObject reopened = open();
+        assertEquals(longName, reopened.getUser(longName).getUserName());
+        assertEquals(oddName, reopened.getUser(oddName).getUserName());
+    }
+
+    @Test
+    void testMigratesSingleFileStore() {
+        Path legacy = dir.resolve("users.json");
+        FileUserDataAccessObject old = new FileUserDataAccessObject(legacy.toString(), userFactory);
+        User alice = userFactory.create("alice", "pw");
+        WatchList later = new WatchList(alice, "Later");
+        later.addMovie(movie("7"));
+        alice.addWatchList(later);
+        old.save(alice);
+        old.save(userFactory.create("bob", "pw2"));
+        old.setCurrentUsername("bob");
+        old.close();
+
+        ShardedUserDataAccessObject dao =
+                ShardedUserDataAccessObject.migrateFrom(legacy.toString(), storeDir.toString(), userFactory);
+
+        assertTrue(dao.existsByName("alice"));
+        assertEquals("pw2", dao.getUser("bob").getPassword());
+        assertEquals("bob", dao.getCurrentUsername());
+        assertEquals("Movie 7", dao.getUser("alice").getWatchListByName("Later").orElseThrow()
+                .getMovies().get(0).getTitle());
+        assertTrue(Files.exists(legacy));
+    }
+
+    @Test
+    void testMigrationRunsOnlyOnce() {
+        Path legacy = dir.resolve("users.json");
+        FileUserDataAccessObject old = new FileUserDataAccessObject(legacy.toString(), userFactory);
+        old.save(userFactory.create("alice", "pw"));
+        old.close();
+        ShardedUserDataAccessObject.migrateFrom(legacy.toString(), storeDir.toString(), userFactory)
+                .save(userFactory.create("bob", "pw"));
+
+        // Changes to the old file after migration are not picked up again
+        FileUserDataAccessObject stale = new FileUserDataAccessObject(legacy.toString(), userFactory);
+        stale.save(userFactory.create("carol", "pw"));
+        stale.close();
+
+        ShardedUserDataAccessObject dao =
+                ShardedUserDataAccessObject.migrateFrom(legacy.toString(), storeDir.toString(), userFactory);
+        assertTrue(dao.existsByName("alice"));
+        assertTrue(dao.existsByName("bob"));
+        assertFalse(dao.existsByName("carol"));
+    }
+
+    @Test
+    void testStartsEmptyWithoutLegacyFile() {
+        ShardedUserDataAccessObject dao = ShardedUserDataAccessObject.migrateFrom(
+                dir.resolve("missing.json").toString(), storeDir.toString(), userFactory);
+
+        assertFalse(dao.existsByName("alice"));
+        assertNull(dao.getCurrentUsername());
+    }
+
+    @Test
+    void testBinaryFormatRoundTrips() {
+        ShardedUserDataAccessObject dao =
+                new ShardedUserDataAccessObject(storeDir.toString(), userFactory, UserRecordFormat.BINARY);
+        User u = userFactory.create("alice", "pw");
+        u.getWatchLists().get(0).addMovie(movie("1"));
+        dao.save(u);
+
+        User loaded = new ShardedUserDataAccessObject(storeDir.toString(), userFactory, UserRecordFormat.BINARY)
+                .getUser("alice");
+        assertEquals("Movie 1", loaded.getWatchLists().get(0).getMovies().get(0).getTitle());
+    }
+
+    @Test
+    void testSwitchingFormatConvertsOnSave() throws IOException {
+        open().save(userFactory.create("alice", "pw"));
+        open().save(userFactory.create("bob", "pw"));
+
+        ShardedUserDataAccessObject binary =
+                new ShardedUserDataAccessObject(storeDir.toString(), userFactory, UserRecordFormat.BINARY);
+        // Old records stay readable
+        assertEquals("pw", binary.getUser("bob").getPassword());
+        binary.save(userFactory.create("alice", "new"));
+
+        try (Stream<Path> files = Files.list(storeDir)) {
+            assertEquals(List.of(".bin", ".json"), files
+                    .map(p -> p.getFileName().toString())
+                    .filter(name -> name.startsWith("u"))
+                    .map(name -> name.substring(name.lastIndexOf('.')))
+                    .sorted()
+                    .toList());
+        }
+        ShardedUserDataAccessObject reopened = open();
+        assertEquals("new", reopened.getUser("alice").getPassword());
+        assertEquals("pw", reopened.getUser("bob").getPassword());
+    }
+
+    @Test
+    void testLargeRecordsAreMapped() {
+        assumeTrue(ShardedUserDataAccessObject.isMappingSupported());
+        for (UserRecordFormat format : UserRecordFormat.values()) {
+            Path formatDir = storeDir.resolve(format.name());
+            User heavy = userFactory.create("heavy", "pw");
+            for (int i = 0; i < 2000; i++) {
+                heavy.getWatchLists().get(0).addMovie(movie(String.valueOf(i)));
+            }
+            ShardedUserDataAccessObject writer =
+                    new ShardedUserDataAccessObject(formatDir.toString(), userFactory, format);
+            writer.save(heavy);
+            writer.save(userFactory.create("light", "pw"));
+
+            ShardedUserDataAccessObject dao =
+                    new ShardedUserDataAccessObject(formatDir.toString(), userFactory, format);
+            assertEquals("light", dao.getUser("light").getUserName());
+            assertEquals(0, dao.getMappedReadCount(), format.name());
+
+            List<Movie> movies = dao.getUser("heavy").getWatchLists().get(0).getMovies();
+            assertEquals(1, dao.getMappedReadCount(), format.name());
+            assertEquals(2000, movies.size());
+            assertEquals("Movie 1999", movies.get(1999).getTitle());
+        }
+    }
+
+    @Test
+    void testMappedRecordCanBeReplaced() {
+        assumeTrue(ShardedUserDataAccessObject.isMappingSupported());
+        ShardedUserDataAccessObject dao =
+                new ShardedUserDataAccessObject(storeDir.toString(), userFactory, UserRecordFormat.BINARY,
+                        Durability.IMMEDIATE, 0, 20, 1000);
+        dao.save(userFactory.create("alice", "pw"));
+
+        ShardedUserDataAccessObject reader =
+                new ShardedUserDataAccessObject(storeDir.toString(), userFactory, UserRecordFormat.BINARY,
+                        Durability.IMMEDIATE, 0, 20, 1000);
+        User alice = reader.getUser("alice");
+        assertEquals(1, reader.getMappedReadCount());
+        alice.getWatchLists().get(0).addMovie(movie("5"));
+        reader.save(alice);
+
+        assertEquals(1, open().getUser("alice").getWatchLists().get(0).getMovies().size());
+    }
+
+    private ShardedUserDataAccessObject openWith(Durability durability) {
+        return new ShardedUserDataAccessObject(storeDir.toString(), userFactory, UserRecordFormat.JSON,
+                durability, ShardedUserDataAccessObject.DEFAULT_MAP_THRESHOLD_BYTES, 20, 60_000);
+    }
+
+    @Test
+    void testDeferredSaveIsWrittenAtCheckpoint() {
+        ShardedUserDataAccessObject dao = openWith(Durability.DEFERRED);
+        User alice = userFactory.create("alice", "pw");
+        dao.save(alice);
+
+        assertSame(alice, dao.getUser("alice"));
+        assertTrue(dao.existsByName("alice"));
+        assertEquals(1, dao.getPendingWriteCount());
+        assertFalse(open().existsByName("alice"));
+
+        dao.checkpoint();
+
+        assertEquals(0, dao.getPendingWriteCount());
+        assertEquals(1, dao.getCheckpointCount());
+        assertEquals("pw", open().getUser("alice").getPassword());
+    }
+
+    @Test
+    void testRepeatedDeferredSavesAreWrittenOnce() {
+        ShardedUserDataAccessObject dao = openWith(Durability.DEFERRED);
+        User alice = userFactory.create("alice", "pw");
+        for (int i = 0; i < 5; i++) {
+            alice.addWatchList(new WatchList(alice, "List " + i));
+            dao.save(alice);
+        }
+        dao.save(userFactory.create("bob", "pw"));
+        assertEquals(2, dao.getPendingWriteCount());
+
+        dao.checkpoint();
+
+        assertEquals(1, dao.getCheckpointCount());
+        assertEquals(6, open().getUser("alice").getWatchLists().size());
+        assertTrue(open().existsByName("bob"));
+    }
+
+    @Test
+    void testPendingRecordIsNotAffectedByLaterEdits() {
+        ShardedUserDataAccessObject dao = openWith(Durability.DEFERRED);
+        User alice = userFactory.create("alice", "pw");
+        dao.save(alice);
+
+        // Changed in memory but not saved again
+        alice.addWatchList(new WatchList(alice, "Unsaved"));
+        dao.checkpoint();
+
+        assertEquals(1, open().getUser("alice").getWatchLists().size());
+    }
+
+    @Test
+    void testGroupedSavesAreWrittenInTheBackground() throws InterruptedException {
+        ShardedUserDataAccessObject dao = openWith(Durability.GROUPED);
+        for (int i = 0; i < 10; i++) {
+            dao.save(userFactory.create("user" + i, "pw"));
+        }
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (dao.getPendingWriteCount() > 0) {
+            assertTrue(System.currentTimeMillis() < deadline, "checkpoint did not run");
+            Thread.sleep(5);
+        }
+        ShardedUserDataAccessObject reopened = open();
+        for (int i = 0; i < 10; i++) {
+            assertTrue(reopened.existsByName("user" + i));
+        }
+        dao.close();
+    }
+
+    @Test
+    void testImmediateSaveSupersedesPendingOne() {
+        ShardedUserDataAccessObject dao = openWith(Durability.DEFERRED);
+        dao.save(userFactory.create("alice", "old"));
+        dao.save(userFactory.create("alice", "new"), Durability.IMMEDIATE);
+
+        assertEquals(0, dao.getPendingWriteCount());
+        assertEquals("new", open().getUser("alice").getPassword());
+        dao.checkpoint();
+        assertEquals("new", open().getUser("alice").getPassword());
+    }
+
+    @Test
+    void testChangePasswordIsWrittenImmediately() {
+        ShardedUserDataAccessObject dao = openWith(Durability.DEFERRED);
+
+        dao.changePassword(userFactory.create("alice", "changed"));
+
+        assertEquals("changed", open().getUser("alice").getPassword());
+    }
+
+    @Test
+    void testCloseWritesPendingSaves() throws IOException {
+        ShardedUserDataAccessObject dao = openWith(Durability.DEFERRED);
+        dao.save(userFactory.create("alice", "pw"));
+
+        dao.close();
+
+        assertTrue(open().existsByName("alice"));
+        try (Stream<Path> files = Files.list(storeDir)) {
+            assertTrue(files.noneMatch(p -> p.toString().endsWith(".tmp")));
+        }
+    }
+
+    @Test
+    void testCrashBeforeRenameKeepsOldRecord() throws IOException {
+        open().save(userFactory.create("alice", "old"));
+        Path file = storeDir.resolve(ShardedUserDataAccessObject.fileNameFor("alice", new UserJsonCodec(userFactory)));
+
+        // The new record reached its temporary file, but the process died before the rename
+        AtomicFiles.writeTemp(file, new UserJsonCodec(userFactory).encode(userFactory.create("alice", "new")));
+
+        assertEquals("old", open().getUser("alice").getPassword());
+        open().save(userFactory.create("alice", "newer"));
+        assertEquals("newer", open().getUser("alice").getPassword());
+    }
+}
@@ -0,0 +1,155 @@
+package data_access;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    @Test
+    void testConcurrentBlockingCallsShareOneLoad() throws Exception {
+        SingleFlight<String> flights = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> flights.call("movie/1", () -> {
+                    loads.incrementAndGet();
+                    release.await();
+                    return "Inception";
+                })));
+            }
+
+            waitFor(() -> flights.getCoalescedCount() == callers - 1);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("Inception", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(1, flights.getExecutedCount());
+        assertEquals(callers - 1, flights.getCoalescedCount());
+        assertEquals(0, flights.getInFlightCount());
+    }
+
+    @Test
+    void testAsyncCallsShareOneLoadAndKeyIsReleasedAfterwards() throws Exception {
+        SingleFlight<String> flights = new SingleFlight<>();
+        CompletableFuture<String> load = new CompletableFuture<>();
+        AtomicInteger loads = new AtomicInteger();
+
+        CompletableFuture<String> first = flights.callAsync("search?q=a", () -> {
+            loads.incrementAndGet();
+            return load;
+        });
+        CompletableFuture<String> second = flights.callAsync("search?q=a", () -> {
+            loads.incrementAndGet();
+            return new CompletableFuture<>();
+        });
+
+        assertEquals(1, flights.getInFlightCount());
+        load.complete("page");
+
+        assertEquals("page", first.get());
+        assertEquals("page", second.get());
+        assertEquals(1, loads.get());
+        assertEquals(0, flights.getInFlightCount());
+
+        // Once finished, the next call goes out again instead of reusing the old result
+        flights.callAsync("search?q=a", () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture("fresh");
+        });
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testBlockingCallerJoinsAsyncLoad() throws Exception {
+        SingleFlight<String> flights = new SingleFlight<>();
+        CompletableFuture<String> load = new CompletableFuture<>();
+        flights.callAsync("movie/2", () -> load);
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> blocking = pool.submit(() -> flights.call("movie/2", () -> "unexpected"));
+            waitFor(() -> flights.getCoalescedCount() == 1);
+            load.complete("Arrival");
+
+            assertEquals("Arrival", blocking.get(5, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testFailureIsFannedOutToAllWaiters() {
+        SingleFlight<String> flights = new SingleFlight<>();
+        CompletableFuture<String> load = new CompletableFuture<>();
+
+        CompletableFuture<String> first = flights.callAsync("movie/3", () -> load);
+        CompletableFuture<String> second = flights.callAsync("movie/3", () -> load);
+        load.completeExceptionally(new IOException("boom"));
+
+        ExecutionException firstError = assertThrows(ExecutionException.class, first::get);
+        ExecutionException secondError = assertThrows(ExecutionException.class, second::get);
+        assertTrue(firstError.getCause() instanceof IOException);
+        assertTrue(secondError.getCause() instanceof IOException);
+        assertEquals(0, flights.getInFlightCount());
+    }
+
+    @Test
+    void testBlockingFailureIsRethrownAndReleasesKey() {
+        SingleFlight<String> flights = new SingleFlight<>();
+
+        IOException error = assertThrows(IOException.class, () -> flights.call("movie/4", () -> {
+            throw new IOException("offline");
+        }));
+
+        assertEquals("offline", error.getMessage());
+        assertEquals(0, flights.getInFlightCount());
+    }
+
+    @Test
+    void testCancellingOneWaiterDoesNotCancelOthers() throws Exception {
+        SingleFlight<String> flights = new SingleFlight<>();
+        CompletableFuture<String> load = new CompletableFuture<>();
+
+        CompletableFuture<String> first = flights.callAsync("movie/5", () -> load);
+        CompletableFuture<String> second = flights.callAsync("movie/5", () -> load);
+        first.cancel(true);
+        load.complete("Dune");
+
+        assertTrue(first.isCancelled());
+        assertEquals("Dune", second.get());
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Timed out waiting for condition");
+            }
+            Thread.sleep(5);
+        }
+    }
+}
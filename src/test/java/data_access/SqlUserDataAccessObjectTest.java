@@ -0,0 +1,218 @@
+package data_access;
+
+import entity.Movie;
+import entity.Review;
+import entity.User;
+import entity.WatchHistory;
+import entity.WatchList;
+import entity.WatchedMovie;
+import entity.factories.UserFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import use_case.view_profile.ProfileStats;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlUserDataAccessObjectTest {
+
+    private Path dir;
+    private UserFactory userFactory;
+    private SqlUserDataAccessObject dao;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("sql_users");
+        userFactory = new UserFactory();
+        dao = open();
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        dao.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private SqlUserDataAccessObject open() {
+        return new SqlUserDataAccessObject(dir.resolve("users").toString(), userFactory);
+    }
+
+    private static Movie movie(String id) {
+        return new Movie(id, "Movie " + id, "plot " + id, List.of(28, 12), "2020-01-01", 7.5, 0.0, "p.jpg");
+    }
+
+    // A user with two watch lists, two reviews and three watch history entries
+    private User nestedUser() {
+        User user = userFactory.create("alice", "pw");
+        user.getWatchLists().get(0).addMovie(movie("1"));
+        WatchList later = new WatchList(user, "Later");
+        later.addMovie(movie("2"));
+        later.addMovie(movie("3"));
+        user.addWatchList(later);
+        user.addReview(new Review("r1", user, movie("1"), 5, "Great", LocalDateTime.of(2024, 3, 1, 10, 0)));
+        user.addReview(new Review("r2", user, movie("2"), 2, null, LocalDateTime.of(2024, 3, 2, 10, 0)));
+        WatchHistory history = new WatchHistory("h1", user);
+        history.recordMovie(movie("1"), LocalDateTime.of(2024, 1, 1, 20, 0, 0, 123_456_789));
+        history.recordMovie(movie("3"), LocalDateTime.of(2024, 1, 2, 20, 0));
+        history.recordMovie(movie("1"), LocalDateTime.of(2024, 1, 3, 20, 0));
+        user.setWatchHistory(history);
+        return user;
+    }
+
+    @Test
+    void testSaveAndReloadNestedUser() {
+        dao.save(nestedUser());
+        dao.close();
+        dao = open();
+
+        User loaded = dao.getUser("alice");
+
+        assertEquals("pw", loaded.getPassword());
+        assertEquals(2, loaded.getWatchLists().size());
+        assertEquals("Later", loaded.getWatchLists().get(1).getName());
+        assertEquals(List.of("2", "3"),
+                loaded.getWatchLists().get(1).getMovies().stream().map(Movie::getMovieId).toList());
+        Movie first = loaded.getWatchLists().get(0).getMovies().get(0);
+        assertEquals("plot 1", first.getPlot());
+        assertEquals(List.of(28, 12), first.getGenreIds());
+        assertEquals(5, loaded.getReviewsByMovieId().get("1").getRating());
+        assertEquals("Great", loaded.getReviewsByMovieId().get("1").getComment());
+        assertEquals("", loaded.getReviewsByMovieId().get("2").getComment());
+        assertEquals("h1", loaded.getWatchHistory().getWatchHistoryId());
+        List<WatchedMovie> watched = loaded.getWatchHistory().getMovies();
+        assertEquals(List.of("1", "3", "1"), watched.stream().map(Movie::getMovieId).toList());
+        assertEquals(LocalDateTime.of(2024, 1, 1, 20, 0, 0, 123_456_789), watched.get(0).getWatchedDate());
+    }
+
+    @Test
+    void testSaveReplacesRemovedChildren() {
+        User user = nestedUser();
+        dao.save(user);
+
+        user.getWatchHistory().removeMovieByMovieId("3");
+        user.getWatchLists().remove(1);
+        dao.save(user);
+
+        User loaded = dao.getUser("alice");
+        assertEquals(1, loaded.getWatchLists().size());
+        assertEquals(2, loaded.getWatchHistory().getMovies().size());
+    }
+
+    @Test
+    void testStatsAndHistoryComeFromQueries() {
+        dao.save(nestedUser());
+        dao.save(userFactory.create("bob", "pw"));
+
+        ProfileStats stats = dao.getUserStats("alice");
+        assertEquals(2, stats.getWatchlistCount());
+        assertEquals(2, stats.getReviewCount());
+        assertEquals(3, stats.getWatchedMoviesCount());
+        assertEquals(1, dao.getUserStats("bob").getWatchlistCount());
+        assertEquals(0, dao.getUserStats("nobody").getWatchlistCount());
+
+        assertEquals(List.of("1", "3", "1"),
+                dao.getWatchHistory("alice").stream().map(Movie::getMovieId).toList());
+        assertTrue(dao.getWatchHistory("bob").isEmpty());
+    }
+
+    @Test
+    void testExistsAndCurrentUser() {
+        assertFalse(dao.existsByName("alice"));
+        assertNull(dao.getUser("alice"));
+        assertNull(dao.getCurrentUsername());
+
+        dao.save(userFactory.create("alice", "pw"));
+        dao.setCurrentUsername("alice");
+        dao.close();
+        dao = open();
+
+        assertTrue(dao.existsByName("alice"));
+        assertEquals("alice", dao.getCurrentUsername());
+        dao.setCurrentUsername(null);
+        assertNull(dao.getCurrentUsername());
+    }
+
+    @Test
+    void testCompareAndSaveChecksStoredVersion() {
+        User created = userFactory.create("alice", "pw");
+        assertTrue(dao.compareAndSave(created, 0));
+        assertFalse(dao.compareAndSave(userFactory.create("alice", "pw"), 0));
+
+        User first = dao.getUser("alice");
+        User second = dao.getUser("alice");
+        first.addWatchList(new WatchList(first, "First"));
+        second.addWatchList(new WatchList(second, "Second"));
+
+        assertTrue(dao.compareAndSave(first, first.getVersion()));
+        assertFalse(dao.compareAndSave(second, second.getVersion()));
+
+        User loaded = dao.getUser("alice");
+        assertEquals(2, loaded.getVersion());
+        assertEquals("First", loaded.getWatchLists().get(1).getName());
+    }
+
+    @Test
+    void testDeltaSavesMatchWholeSave() {
+        User user = nestedUser();
+        dao.save(user);
+
+        Movie added = movie("4");
+        WatchList later = user.getWatchLists().get(1);
+        later.addMovie(added);
+        assertTrue(dao.addMovieToWatchList(user, later, added, user.getVersion()));
+        WatchedMovie watched = user.getWatchHistory().recordMovie(added, LocalDateTime.of(2024, 1, 4, 20, 0));
+        assertTrue(dao.appendWatchEvent(user, watched, user.getVersion()));
+        Review replaced = new Review("r3", user, movie("1"), 3, "Rewatched", LocalDateTime.of(2024, 3, 3, 10, 0));
+        user.addReview(replaced);
+        assertTrue(dao.upsertReview(user, replaced, user.getVersion()));
+        user.getWatchHistory().removeMovieByMovieId("1");
+        assertTrue(dao.removeWatchEvent(user, "1", user.getVersion()));
+
+        User loaded = dao.getUser("alice");
+        assertEquals(4, loaded.getVersion());
+        assertEquals(List.of("2", "3", "4"),
+                loaded.getWatchLists().get(1).getMovies().stream().map(Movie::getMovieId).toList());
+        assertEquals(List.of("3", "4"),
+                loaded.getWatchHistory().getMovies().stream().map(Movie::getMovieId).toList());
+        assertEquals(2, loaded.getReviewsByMovieId().size());
+        assertEquals("Rewatched", loaded.getReviewsByMovieId().get("1").getComment());
+    }
+
+    @Test
+    void testDeltaSaveRejectsStaleVersion() {
+        dao.save(nestedUser());
+        User first = dao.getUser("alice");
+        User second = dao.getUser("alice");
+
+        WatchedMovie watched = first.getWatchHistory().recordMovie(movie("5"), LocalDateTime.of(2024, 2, 1, 20, 0));
+        assertTrue(dao.appendWatchEvent(first, watched, first.getVersion()));
+        second.getWatchHistory().removeMovieByMovieId("3");
+        assertFalse(dao.removeWatchEvent(second, "3", second.getVersion()));
+
+        assertEquals(List.of("1", "3", "1", "5"),
+                dao.getWatchHistory("alice").stream().map(Movie::getMovieId).toList());
+    }
+
+    @Test
+    void testDeltaSaveOfNewUserWritesEverything() {
+        User user = userFactory.create("carol", "pw");
+        WatchList watchList = user.getWatchLists().get(0);
+        watchList.addMovie(movie("1"));
+
+        assertTrue(dao.addMovieToWatchList(user, watchList, movie("1"), 0));
+
+        User loaded = dao.getUser("carol");
+        assertEquals(1, loaded.getVersion());
+        assertEquals(1, loaded.getWatchLists().get(0).getMovies().size());
+    }
+}
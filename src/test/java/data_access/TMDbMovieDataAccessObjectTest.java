@@ -0,0 +1,253 @@
+package data_access;
+
+import com.sun.net.httpserver.HttpServer;
+import entity.Movie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import use_case.common.MovieDataAccessException;
+import use_case.common.PagedMovieResult;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpHeaders;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the TMDb DAO against a local stub server to check status handling, retries and error classification.
+ */
+class TMDbMovieDataAccessObjectTest {
+
+    private static final String PAGE_BODY =
+            "{\"page\":1,\"total_pages\":3,\"results\":[{\"id\":27205,\"title\":\"Inception\",\"genre_ids\":[28]}]}";
+
+    private HttpServer server;
+    private final Deque<StubResponse> responses = new ArrayDeque<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private TMDbMovieDataAccessObject dao;
+
+    private static final class StubResponse {
+        final int status;
+        final String body;
+        final String retryAfter;
+
+        StubResponse(int status, String body, String retryAfter) {
+            this.status = status;
+            this.body = body;
+            this.retryAfter = retryAfter;
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            StubResponse response;
+            synchronized (responses) {
+                response = responses.size() > 1 ? responses.poll() : responses.peek();
+            }
+            if (response.retryAfter != null) {
+                exchange.getResponseHeaders().add("Retry-After", response.retryAfter);
+            }
+            byte[] body = response.body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(response.status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/3";
+        dao = new TMDbMovieDataAccessObject(baseUrl, "test-token",
+                new TokenBucketRateLimiter(20, 1000, 10), new RetryPolicy(3, 1, 5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    private void respond(int status, String body) {
+        responses.add(new StubResponse(status, body, null));
+    }
+
+    @Test
+    void testSuccessfulResponseIsParsed() throws MovieDataAccessException {
+        respond(200, PAGE_BODY);
+
+        PagedMovieResult result = dao.searchByTitle("inception", 1);
+
+        assertEquals(1, result.getMovies().size());
+        assertEquals("Inception", result.getMovies().get(0).getTitle());
+        assertEquals(3, result.getTotalPages());
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void testRateLimitedResponseIsRetried() throws MovieDataAccessException {
+        responses.add(new StubResponse(429, "{\"status_code\":25,\"status_message\":\"Slow down\"}", "0"));
+        respond(200, PAGE_BODY);
+
+        PagedMovieResult result = dao.getPopularMovies(1);
+
+        assertEquals(1, result.getMovies().size());
+        assertEquals(2, requests.get());
+        RateLimiterStats stats = dao.getRateLimiterStats();
+        assertEquals(1, stats.getRateLimitedResponses());
+        assertEquals(1, stats.getRetries());
+        assertEquals(500.0, stats.getCurrentRatePerSecond(), 100.0, "A 429 should halve the rate before recovery");
+    }
+
+    @Test
+    void testStatsAreReachableThroughTheCache() throws MovieDataAccessException {
+        responses.add(new StubResponse(429, "{\"status_code\":25,\"status_message\":\"Slow down\"}", "0"));
+        respond(200, PAGE_BODY);
+        CachingMovieGateway cache = new CachingMovieGateway(dao, null);
+
+        cache.getPopularMovies(1);
+
+        assertEquals(1, cache.getRateLimiterStats().orElseThrow().getRetries());
+        assertEquals(1, cache.getCoalescingStats().orElseThrow().getExecutedRequests());
+    }
+
+    @Test
+    void testPersistentServerErrorIsReportedAsTMDbError() {
+        respond(503, "{\"status_code\":43,\"status_message\":\"Service offline\"}");
+
+        MovieDataAccessException error =
+                assertThrows(MovieDataAccessException.class, () -> dao.searchByTitle("inception", 1));
+
+        assertEquals(MovieDataAccessException.Type.TMDB_ERROR, error.getType());
+        assertTrue(error.getMessage().contains("503"));
+        assertTrue(error.getMessage().contains("Service offline"));
+        assertEquals(3, requests.get(), "A 5xx should be retried up to the attempt limit");
+    }
+
+    @Test
+    void testClientErrorIsNotRetriedOrParsedAsData() {
+        respond(401, "{\"status_code\":7,\"status_message\":\"Invalid API key\",\"results\":[]}");
+
+        MovieDataAccessException error =
+                assertThrows(MovieDataAccessException.class, () -> dao.getPopularMovies(1));
+
+        assertEquals(MovieDataAccessException.Type.TMDB_ERROR, error.getType());
+        assertTrue(error.getMessage().contains("Invalid API key"));
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void testMalformedBodyIsReportedAsTMDbError() {
+        respond(200, "<html>gateway</html>");
+
+        MovieDataAccessException error =
+                assertThrows(MovieDataAccessException.class, () -> dao.searchByTitle("inception", 1));
+
+        assertEquals(MovieDataAccessException.Type.TMDB_ERROR, error.getType());
+    }
+
+    @Test
+    void testUnreachableServerIsReportedAsNetworkError() {
+        server.stop(0);
+
+        MovieDataAccessException error =
+                assertThrows(MovieDataAccessException.class, () -> dao.searchByTitle("inception", 1));
+
+        assertEquals(MovieDataAccessException.Type.NETWORK, error.getType());
+    }
+
+    @Test
+    void testAsyncPathRetriesAndClassifies() throws Exception {
+        responses.add(new StubResponse(500, "{}", null));
+        respond(200, PAGE_BODY);
+
+        PagedMovieResult result = dao.searchByTitleAsync("inception", 1).get(5, TimeUnit.SECONDS);
+        assertEquals(1, result.getMovies().size());
+        assertEquals(2, requests.get());
+
+        responses.clear();
+        respond(404, "{\"status_code\":34,\"status_message\":\"Not found\"}");
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> dao.getPopularMoviesAsync(2).get(5, TimeUnit.SECONDS));
+        assertTrue(error.getCause() instanceof MovieDataAccessException);
+        assertEquals(MovieDataAccessException.Type.TMDB_ERROR,
+                ((MovieDataAccessException) error.getCause()).getType());
+    }
+
+    @Test
+    void testMissingMovieIsEmpty() throws Exception {
+        respond(404, "{\"status_code\":34,\"status_message\":\"Not found\"}");
+
+        assertEquals(Optional.empty(), dao.findById("1"));
+        Optional<Movie> async = dao.findByIdAsync("1").get(5, TimeUnit.SECONDS);
+        assertTrue(async.isEmpty());
+    }
+
+    @Test
+    void testFindByIdsFetchesConcurrentlyWithinParallelismLimit() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        server.createContext("/3/movie/", exchange -> {
+            int now = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(now, Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            String id = exchange.getRequestURI().getPath().substring("/3/movie/".length());
+            byte[] body = ("404".equals(id)
+                    ? "{\"status_code\":34}"
+                    : "{\"id\":" + id + ",\"title\":\"Movie " + id + "\"}").getBytes(StandardCharsets.UTF_8);
+            inFlight.decrementAndGet();
+            exchange.sendResponseHeaders("404".equals(id) ? 404 : 200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        List<String> ids = IntStream.rangeClosed(1, 24).mapToObj(String::valueOf).collect(Collectors.toList());
+        List<String> requested = new ArrayList<>(ids);
+        requested.add("404");
+        requested.add("3");
+
+        Map<String, Movie> found = dao.findByIds(requested, 4);
+
+        assertEquals(ids, List.copyOf(found.keySet()), "Found movies keep the requested order; misses are absent");
+        assertEquals("Movie 7", found.get("7").getTitle());
+        assertTrue(maxInFlight.get() > 1, "Requests should overlap");
+        assertTrue(maxInFlight.get() <= 4, "No more than the parallelism limit may be in flight");
+    }
+
+    @Test
+    void testRetryAfterHeaderIsParsedFromSecondsAndDates() {
+        assertEquals(0, TMDbMovieDataAccessObject.retryAfterMillis(headers(null)));
+        assertEquals(2000, TMDbMovieDataAccessObject.retryAfterMillis(headers("2")));
+        assertEquals(0, TMDbMovieDataAccessObject.retryAfterMillis(headers("Wed, 21 Oct 2015 07:28:00 GMT")));
+        assertEquals(0, TMDbMovieDataAccessObject.retryAfterMillis(headers("soon")));
+    }
+
+    private static HttpHeaders headers(String retryAfter) {
+        Map<String, List<String>> map = new HashMap<>();
+        if (retryAfter != null) {
+            map.put("Retry-After", List.of(retryAfter));
+        }
+        return HttpHeaders.of(map, (name, value) -> true);
+    }
+}
@@ -0,0 +1,194 @@
+package data_access;
+
+import entity.Movie;
+import org.junit.jupiter.api.Test;
+import use_case.common.PagedMovieResult;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TMDbMovieParserTest {
+
+    private static final String SEARCH_PAYLOAD = "{\"page\":2,\"results\":["
+            + "{\"adult\":false,\"backdrop_path\":\"/bd.jpg\",\"genre_ids\":[12,878,28],\"id\":299534,"
+            + "\"original_language\":\"en\",\"original_title\":\"Avengers: Endgame\","
+            + "\"overview\":\"After the \\\"devastating\\\" events, the universe is in ruins.\","
+            + "\"popularity\":98.5,\"poster_path\":\"/or06F.jpg\",\"release_date\":\"2019-04-24\","
+            + "\"title\":\"Avengers: Endgame\",\"video\":false,\"vote_average\":8.2,\"vote_count\":25000},"
+            + "{\"adult\":false,\"backdrop_path\":null,\"genre_ids\":[],\"id\":12,"
+            + "\"overview\":\"\",\"popularity\":1.0,\"poster_path\":null,\"release_date\":\"\","
+            + "\"title\":\"Caf\\u00e9 {Test}\",\"video\":false,\"vote_average\":0,\"vote_count\":0}"
+            + "],\"total_pages\":7,\"total_results\":140}";
+
+    private static final String DETAILS_PAYLOAD = "{\"adult\":false,\"backdrop_path\":\"/bd.jpg\","
+            + "\"belongs_to_collection\":{\"id\":86311,\"name\":\"The Avengers Collection\","
+            + "\"poster_path\":\"/c.jpg\",\"backdrop_path\":\"/cb.jpg\"},"
+            + "\"budget\":356000000,\"genres\":[{\"id\":12,\"name\":\"Adventure\"},"
+            + "{\"id\":878,\"name\":\"Science Fiction\"}],\"homepage\":\"https://example.com\","
+            + "\"id\":299534,\"imdb_id\":\"tt4154796\",\"origin_country\":[\"US\"],"
+            + "\"overview\":\"Line one\\nLine \\\"two\\\"\",\"popularity\":98.5,\"poster_path\":\"/or06F.jpg\","
+            + "\"production_companies\":[{\"id\":420,\"logo_path\":null,\"name\":\"Marvel Studios\"}],"
+            + "\"release_date\":\"2019-04-24\",\"title\":\"Avengers: Endgame\",\"vote_average\":8.237}";
+
+    @Test
+    void testParseSearchPage() throws IOException {
+        PagedMovieResult result = TMDbMovieParser.parseMoviePage(new StringReader(SEARCH_PAYLOAD), 20);
+
+        assertEquals(2, result.getPage());
+        assertEquals(7, result.getTotalPages());
+        assertEquals(2, result.getMovies().size());
+
+        Movie first = result.getMovies().get(0);
+        assertEquals("299534", first.getMovieId());
+        assertEquals("Avengers: Endgame", first.getTitle());
+        assertEquals("After the \"devastating\" events, the universe is in ruins.", first.getPlot());
+        assertEquals(List.of(12, 878, 28), first.getGenreIds());
+        assertEquals("2019-04-24", first.getReleaseDate());
+        assertEquals(8.2, first.getRating());
+        assertEquals("https://image.tmdb.org/t/p/w500/or06F.jpg", first.getPosterUrl());
+
+        Movie second = result.getMovies().get(1);
+        assertEquals("12", second.getMovieId());
+        assertEquals("Café {Test}", second.getTitle());
+        assertEquals("", second.getPosterUrl());
+        assertTrue(second.getGenreIds().isEmpty());
+    }
+
+    @Test
+    void testParseSearchPageRespectsLimit() throws IOException {
+        PagedMovieResult result = TMDbMovieParser.parseMoviePage(new StringReader(SEARCH_PAYLOAD), 1);
+
+        assertEquals(1, result.getMovies().size());
+        assertEquals("299534", result.getMovies().get(0).getMovieId());
+        // Pagination after the skipped results is still read
+        assertEquals(7, result.getTotalPages());
+    }
+
+    @Test
+    void testParseEmptyResults() throws IOException {
+        String json = "{\"page\":1,\"results\":[],\"total_pages\":0,\"total_results\":0}";
+        PagedMovieResult result = TMDbMovieParser.parseMoviePage(new StringReader(json), 20);
+
+        assertTrue(result.getMovies().isEmpty());
+        assertEquals(0, result.getTotalPages());
+    }
+
+    @Test
+    void testParseDetailsIgnoresNestedIds() throws IOException {
+        Movie movie = TMDbMovieParser.parseMovieDetails(new StringReader(DETAILS_PAYLOAD));
+
+        assertNotNull(movie);
+        assertEquals("299534", movie.getMovieId());
+        assertEquals("Avengers: Endgame", movie.getTitle());
+        assertEquals("Line one\nLine \"two\"", movie.getPlot());
+        assertEquals(List.of(12, 878), movie.getGenreIds());
+        assertEquals(8.237, movie.getRating());
+        assertEquals("https://image.tmdb.org/t/p/w500/or06F.jpg", movie.getPosterUrl());
+    }
+
+    @Test
+    void testParseDetailsWithoutTitleReturnsNull() throws IOException {
+        String json = "{\"success\":false,\"status_code\":34,\"status_message\":\"Not found.\"}";
+        assertNull(TMDbMovieParser.parseMovieDetails(new StringReader(json)));
+    }
+
+    @Test
+    void testParseDetailsAcrossBufferBoundary() throws IOException {
+        // A plot longer than the tokenizer buffer, containing escapes, must survive refills intact
+        StringBuilder plot = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            plot.append("ab\\\"c");
+            expected.append("ab\"c");
+        }
+        String json = "{\"id\":1,\"title\":\"Long\",\"overview\":\"" + plot + "\",\"genres\":[]}";
+
+        Movie movie = TMDbMovieParser.parseMovieDetails(new StringReader(json));
+
+        assertNotNull(movie);
+        assertEquals(expected.toString(), movie.getPlot());
+    }
+
+    @Test
+    void testPageMoviesAreBuiltOnDemand() throws IOException {
+        PagedMovieResult result = TMDbMovieParser.parseMoviePage(new StringReader(SEARCH_PAYLOAD));
+
+        assertEquals(2, result.getMovies().size());
+        assertEquals(0, result.getMaterialisedCount());
+
+        assertEquals("Café {Test}", result.getMovies().get(1).getTitle());
+        assertEquals(1, result.getMaterialisedCount());
+        assertSame(result.getMovies().get(1), result.getMovies().get(1));
+    }
+
+    @Test
+    void testFullPageIsKept() throws IOException {
+        StringBuilder json = new StringBuilder("{\"page\":1,\"total_pages\":2,\"results\":[");
+        for (int i = 1; i <= 20; i++) {
+            if (i > 1) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(i).append(",\"title\":\"Movie ").append(i)
+                    .append("\",\"original_title\":\"skip me\",\"genre_ids\":[28,12]}");
+        }
+        json.append("]}");
+
+        PagedMovieResult result = TMDbMovieParser.parseMoviePage(new StringReader(json.toString()));
+
+        assertEquals(20, result.getMovies().size());
+        assertEquals("Movie 20", result.getMovies().get(19).getTitle());
+        assertEquals(List.of(28, 12), result.getMovies().get(19).getGenreIds());
+    }
+
+    @Test
+    void testResultsWithoutIdOrTitleAreDropped() throws IOException {
+        String json = "{\"results\":[{\"id\":1},{\"id\":2,\"title\":null},{\"id\":3,\"title\":\"Kept\"}]}";
+
+        PagedMovieResult result = TMDbMovieParser.parseMoviePage(new StringReader(json));
+
+        assertEquals(1, result.getMovies().size());
+        assertEquals("3", result.getMovies().get(0).getMovieId());
+    }
+
+    @Test
+    void testResultsWithMistypedFieldsAreDropped() throws IOException {
+        String json = "{\"results\":[{\"id\":1,\"title\":\"Bad rating\",\"vote_average\":\"n/a\"},"
+                + "{\"id\":2,\"title\":\"Bad genres\",\"genre_ids\":[\"drama\"]},"
+                + "{\"id\":3,\"title\":\"Kept\",\"vote_average\":7.5,\"genres\":[{\"id\":18,\"name\":\"Drama\"}]}]}";
+
+        PagedMovieResult result = TMDbMovieParser.parseMoviePage(new StringReader(json));
+
+        assertEquals(1, result.getMovies().size());
+        assertEquals("3", result.getMovies().get(0).getMovieId());
+        assertEquals(7.5, result.getMovies().get(0).getRating());
+        assertEquals(List.of(18), result.getMovies().get(0).getGenreIds());
+    }
+
+    @Test
+    void testLazyMovieAcrossBufferBoundary() throws IOException {
+        // Captured fields that straddle a buffer refill must be kept intact
+        StringBuilder plot = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            plot.append("ab\\\"c");
+            expected.append("ab\"c");
+        }
+        String json = "{\"results\":[{\"id\":1,\"title\":\"Long\",\"overview\":\"" + plot
+                + "\",\"genre_ids\":[]},{\"id\":2,\"title\":\"Next\"}]}";
+
+        PagedMovieResult result = TMDbMovieParser.parseMoviePage(new StringReader(json));
+
+        assertEquals(expected.toString(), result.getMovies().get(0).getPlot());
+        assertEquals("Next", result.getMovies().get(1).getTitle());
+    }
+
+    @Test
+    void testMalformedPayloadThrows() {
+        String json = "{\"page\":1,\"results\":[{\"id\":1,\"title\":\"Broken\"";
+        assertThrows(IOException.class,
+                () -> TMDbMovieParser.parseMoviePage(new StringReader(json), 20));
+    }
+}
@@ -0,0 +1,97 @@
+package data_access;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketRateLimiterTest {
+
+    private long now = 0;
+
+    private TokenBucketRateLimiter limiter(double capacity, double rate, double minRate) {
+        return new TokenBucketRateLimiter(capacity, rate, minRate, () -> now);
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    @Test
+    void testBurstIsServedWithoutWaiting() {
+        TokenBucketRateLimiter limiter = limiter(5, 10, 1);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.reserve());
+        }
+        assertEquals(100, millis(limiter.reserve()), "The sixth permit needs one refill interval at 10/s");
+        assertEquals(200, millis(limiter.reserve()), "Queued callers wait behind each other");
+
+        RateLimiterStats stats = limiter.getStats();
+        assertEquals(7, stats.getPermitsGranted());
+        assertEquals(2, stats.getThrottledRequests());
+        assertEquals(300, stats.getTotalWaitMillis());
+    }
+
+    @Test
+    void testTokensRefillOverTime() {
+        TokenBucketRateLimiter limiter = limiter(2, 10, 1);
+        limiter.reserve();
+        limiter.reserve();
+
+        now += TimeUnit.MILLISECONDS.toNanos(200);
+
+        assertEquals(0, limiter.reserve());
+        assertEquals(0, limiter.reserve());
+        assertTrue(limiter.reserve() > 0);
+    }
+
+    @Test
+    void testRateLimitedResponsePausesAndHalvesRate() {
+        TokenBucketRateLimiter limiter = limiter(10, 40, 2);
+
+        limiter.onRateLimited(TimeUnit.SECONDS.toNanos(3));
+
+        RateLimiterStats stats = limiter.getStats();
+        assertEquals(20.0, stats.getCurrentRatePerSecond(), 1e-9);
+        assertEquals(3000, stats.getPausedForMillis());
+        assertEquals(1, stats.getRateLimitedResponses());
+        assertEquals(0.0, stats.getAvailableTokens(), 1e-9);
+
+        // The first request after the pause has to wait out the Retry-After plus one refill interval
+        assertEquals(3050, millis(limiter.reserve()));
+    }
+
+    @Test
+    void testRateNeverDropsBelowFloorAndRecoversOnSuccess() {
+        TokenBucketRateLimiter limiter = limiter(10, 40, 5);
+        for (int i = 0; i < 10; i++) {
+            limiter.onRateLimited(0);
+        }
+        assertEquals(5.0, limiter.getStats().getCurrentRatePerSecond(), 1e-9);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.onSuccess();
+        }
+        assertEquals(40.0, limiter.getStats().getCurrentRatePerSecond(), 1e-9);
+    }
+
+    @Test
+    void testExhaustedQuotaPausesUntilReset() {
+        TokenBucketRateLimiter limiter = limiter(10, 40, 2);
+
+        limiter.onQuota(5, TimeUnit.SECONDS.toNanos(1));
+        assertEquals(0, limiter.reserve(), "Remaining quota must not pause the bucket");
+
+        limiter.onQuota(0, TimeUnit.SECONDS.toNanos(1));
+        assertEquals(1000, limiter.getStats().getPausedForMillis());
+        assertEquals(40.0, limiter.getStats().getCurrentRatePerSecond(), 1e-9, "A quota pause is not a penalty");
+    }
+
+    @Test
+    void testInvalidConfigurationIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketRateLimiter(0, 10, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketRateLimiter(5, 1, 10));
+    }
+}
@@ -0,0 +1,162 @@
+package data_access;
+
+import entity.Movie;
+import entity.Review;
+import entity.User;
+import entity.WatchHistory;
+import entity.WatchList;
+import entity.WatchedMovie;
+import entity.factories.UserFactory;
+import org.junit.jupiter.api.Test;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserBinaryCodecTest {
+
+    private final UserFactory userFactory = new UserFactory();
+    private final UserBinaryCodec codec = new UserBinaryCodec(userFactory);
+
+    private static Movie movie(String id) {
+        return new Movie(id, "Movie " + id, "A long plot for movie " + id + " that is repeated in every copy",
+                List.of(28, 12, 10751), "2020-01-0" + (id.length() % 9 + 1), 7.25,
+                0.0, "https://image.tmdb.org/t/p/w500/poster" + id + ".jpg");
+    }
+
+    // A user who has the same movies in a watch list, in reviews and in the watch history
+    private User heavyUser(int movies) {
+        User user = userFactory.create("alice", "pw");
+        WatchList later = new WatchList(user, "Later");
+        WatchHistory history = new WatchHistory("history-1", user);
+        for (int i = 0; i < movies; i++) {
+            Movie movie = movie(String.valueOf(i));
+            later.addMovie(movie);
+            user.getWatchLists().get(0).addMovie(movie);
+            history.recordMovie(movie, LocalDateTime.of(2024, 1, 1, 20, 0).plusDays(i).withNano(i));
+            user.addReview(new Review("review-" + i, user, movie, i % 5 + 1, i % 2 == 0 ? "Great" : null,
+                    LocalDateTime.of(2024, 2, 1, 9, 30).plusHours(i)));
+        }
+        user.addWatchList(later);
+        user.setWatchHistory(history);
+        return user;
+    }
+
+    @Test
+    void testRoundTripsNestedUser() {
+        User original = heavyUser(5);
+
+        User decoded = codec.decode(ByteBuffer.wrap(codec.encode(original)));
+
+        assertEquals("alice", decoded.getUserName());
+        assertEquals("pw", decoded.getPassword());
+        assertEquals(2, decoded.getWatchLists().size());
+        assertEquals("Later", decoded.getWatchLists().get(1).getName());
+        Movie first = decoded.getWatchLists().get(1).getMovies().get(0);
+        assertEquals("0", first.getMovieId());
+        assertEquals(List.of(28, 12, 10751), first.getGenreIds());
+        assertEquals(7.25, first.getRating());
+        assertEquals(original.getWatchLists().get(1).getMovies().get(0).getPlot(), first.getPlot());
+
+        Review review = decoded.getReviewsByMovieId().get("1");
+        assertEquals("review-1", review.getReviewId());
+        assertEquals(2, review.getRating());
+        assertEquals("", review.getComment());
+        assertEquals(LocalDateTime.of(2024, 2, 1, 10, 30), review.getCreatedAt());
+
+        List<WatchedMovie> watched = decoded.getWatchHistory().getMovies();
+        assertEquals("history-1", decoded.getWatchHistory().getWatchHistoryId());
+        assertEquals(5, watched.size());
+        assertEquals(LocalDateTime.of(2024, 1, 4, 20, 0, 0, 3), watched.get(3).getWatchedDate());
+    }
+
+    @Test
+    void testUserWithoutHistoryOrReviews() {
+        User original = userFactory.create("bob", "secret");
+
+        User decoded = codec.decode(ByteBuffer.wrap(codec.encode(original)));
+
+        assertEquals("bob", decoded.getUserName());
+        assertEquals(1, decoded.getWatchLists().size());
+        assertNull(decoded.getWatchHistory());
+        assertTrue(decoded.getReviewsByMovieId().isEmpty());
+    }
+
+    @Test
+    void testMoviesAreStoredOnce() {
+        User few = heavyUser(1);
+        User many = heavyUser(40);
+
+        int jsonSize = new UserJsonCodec(userFactory).encode(many).length;
+        int binarySize = codec.encode(many).length;
+
+        // Each movie appears four times in the user but once in the record
+        assertTrue(binarySize * 4 < jsonSize, "binary " + binarySize + " vs json " + jsonSize);
+        int perMovie = (codec.encode(many).length - codec.encode(few).length) / 39;
+        assertTrue(perMovie < 200, "bytes per movie: " + perMovie);
+    }
+
+    @Test
+    void testSameIdWithDifferentRatingIsKeptApart() {
+        User user = userFactory.create("carol", "pw");
+        Movie original = movie("9");
+        Movie rerated = movie("9");
+        rerated.updateRating(3.0);
+        user.getWatchLists().get(0).addMovie(original);
+        WatchList other = new WatchList(user, "Other");
+        other.addMovie(rerated);
+        user.addWatchList(other);
+
+        User decoded = codec.decode(ByteBuffer.wrap(codec.encode(user)));
+
+        assertEquals(7.25, decoded.getWatchLists().get(0).getMovies().get(0).getRating());
+        assertEquals(3.0, decoded.getWatchLists().get(1).getMovies().get(0).getRating());
+    }
+
+    @Test
+    void testKeepsVersionStamp() {
+        User user = userFactory.create("dave", "pw");
+        user.setVersion(300);
+
+        assertEquals(300, codec.decode(ByteBuffer.wrap(codec.encode(user))).getVersion());
+    }
+
+    @Test
+    void testReadsVersionOneRecords() {
+        // A version 1 record is a version 2 record without the user's version stamp
+        byte[] current = codec.encode(userFactory.create("dave", "pw"));
+        int stamp = 4 + 1 + 1 + "dave".length() + 1 + "pw".length();
+        byte[] old = new byte[current.length - 1];
+        System.arraycopy(current, 0, old, 0, stamp);
+        System.arraycopy(current, stamp + 1, old, stamp, current.length - stamp - 1);
+        old[3] = 1;
+
+        User decoded = codec.decode(ByteBuffer.wrap(old));
+
+        assertEquals("dave", decoded.getUserName());
+        assertEquals(0, decoded.getVersion());
+        assertEquals(1, decoded.getWatchLists().size());
+    }
+
+    @Test
+    void testRejectsOtherFormatsAndVersions() {
+        byte[] json = new UserJsonCodec(userFactory).encode(userFactory.create("dave", "pw"));
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(ByteBuffer.wrap(json)));
+
+        byte[] future = codec.encode(userFactory.create("dave", "pw"));
+        future[3] = (byte) (UserBinaryCodec.VERSION + 1);
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(ByteBuffer.wrap(future)));
+    }
+
+    @Test
+    void testTruncatedRecordFails() {
+        byte[] full = codec.encode(heavyUser(3));
+
+        assertThrows(BufferUnderflowException.class,
+                () -> codec.decode(ByteBuffer.wrap(Arrays.copyOf(full, full.length / 2))));
+    }
+}
@@ -0,0 +1,90 @@
+package data_access;
+
+import entity.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private void advanceMillis(long millis) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsed() {
+        UserCache cache = new UserCache(2, 0, now::get);
+        cache.put(new User("alice", "pw"));
+        cache.put(new User("bob", "pw"));
+        assertNotNull(cache.get("alice"));
+
+        cache.put(new User("carol", "pw"));
+
+        assertNotNull(cache.get("alice"));
+        assertNull(cache.get("bob"));
+        assertNotNull(cache.get("carol"));
+        UserCacheStats stats = cache.stats();
+        assertEquals(2, stats.getSize());
+        assertEquals(1, stats.getEvictions());
+        assertEquals(3, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(0.75, stats.getHitRatio());
+    }
+
+    @Test
+    void testPinnedUserIsNeverEvicted() {
+        UserCache cache = new UserCache(1, 0, now::get);
+        cache.pin("alice");
+        cache.put(new User("alice", "pw"));
+        cache.put(new User("bob", "pw"));
+        cache.put(new User("carol", "pw"));
+
+        assertTrue(cache.contains("alice"));
+        assertFalse(cache.contains("bob"));
+        assertTrue(cache.contains("carol"));
+
+        cache.pin(null);
+        assertEquals(1, cache.stats().getSize());
+    }
+
+    @Test
+    void testExpiresAfterAccess() {
+        UserCache cache = new UserCache(10, 1000, now::get);
+        cache.pin("alice");
+        cache.put(new User("alice", "pw"));
+        cache.put(new User("bob", "pw"));
+        cache.put(new User("carol", "pw"));
+
+        advanceMillis(600);
+        assertNotNull(cache.get("bob"));
+        advanceMillis(600);
+
+        assertNotNull(cache.get("alice"));
+        assertNotNull(cache.get("bob"));
+        assertNull(cache.get("carol"));
+        assertEquals(1, cache.stats().getExpirations());
+    }
+
+    @Test
+    void testRecordsLoadTimes() {
+        UserCache cache = new UserCache(10, 0, now::get);
+        cache.recordLoad(TimeUnit.MILLISECONDS.toNanos(2));
+        cache.recordLoad(TimeUnit.MILLISECONDS.toNanos(4));
+
+        UserCacheStats stats = cache.stats();
+        assertEquals(2, stats.getLoads());
+        assertEquals(3.0, stats.getAverageLoadMillis());
+        assertEquals(4.0, stats.getMaxLoadMillis());
+    }
+
+    @Test
+    void testRejectsInvalidBounds() {
+        assertThrows(IllegalArgumentException.class, () -> new UserCache(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new UserCache(1, -1));
+    }
+}
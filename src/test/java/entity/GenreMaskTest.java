@@ -0,0 +1,47 @@
+package entity;
+
+import common.GenreUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenreMaskTest {
+
+    @Test
+    void knownGenresMatchGenreUtils() {
+        List<Integer> known = GenreMask.knownGenreIds();
+
+        assertEquals(GenreUtils.getAllGenres().keySet(), new HashSet<>(known));
+        assertEquals(known.size(), new HashSet<>(known).size());
+    }
+
+    @Test
+    void maskRoundTripsKnownGenres() {
+        long mask = GenreMask.of(List.of(18, 28, 37));
+
+        assertEquals(3, Long.bitCount(mask));
+        assertEquals(List.of(28, 18, 37), GenreMask.toGenreIds(mask));
+        assertEquals(0, GenreMask.of(List.of()));
+        assertEquals(0, GenreMask.of(null));
+    }
+
+    @Test
+    void unknownGenresHaveNoBit() {
+        assertEquals(GenreMask.of(List.of(28)), GenreMask.of(Arrays.asList(28, 99999, null)));
+        assertTrue(GenreMask.isRepresentable(List.of(28, 12)));
+        assertFalse(GenreMask.isRepresentable(List.of(28, 99999)));
+        assertFalse(GenreMask.isRepresentable(Arrays.asList(28, null)));
+    }
+
+    @Test
+    void movieKeepsGenreListAndMask() {
+        Movie movie = new Movie("m1", "Test", "Plot", List.of(12, 28, 99999), "2025", 7.0, 0.0, "poster");
+
+        assertEquals(List.of(12, 28, 99999), movie.getGenreIds());
+        assertEquals(GenreMask.of(List.of(28, 12)), movie.getGenreMask());
+    }
+}
@@ -226,6 +226,22 @@ class UserTest {
         assertEquals(review2, reviews.get("m1")); // Should be the second review
     }
 
+    @Test
+    void removeReviewRemovesOnlyThatMovie() {
+        User user = new User("testuser", "password");
+        Movie movie1 = new Movie("m1", "Test Movie", "Plot", List.of(1, 2), "2025-01-01", 7.5, 0.0, "poster");
+        Movie movie2 = new Movie("m2", "Other Movie", "Plot", List.of(3), "2025-01-01", 6.0, 0.0, "poster");
+        Review review1 = new Review("r1", user, movie1, 4, "Good", LocalDateTime.now());
+        Review review2 = new Review("r2", user, movie2, 3, "Fine", LocalDateTime.now());
+        user.addReview(review1);
+        user.addReview(review2);
+
+        assertEquals(review1, user.removeReview("m1"));
+        assertNull(user.removeReview("m1"));
+        assertNull(user.getReview("m1"));
+        assertEquals(review2, user.getReview("m2"));
+    }
+
     @Test
     void addReviewThrowsExceptionWhenNull() {
         User user = new User("testuser", "password");
@@ -288,7 +304,7 @@ class UserTest {
     void getWatchedMoviesReturnsEmptyWhenHistoryIsNull() {
         User user = new User("test", "1234");
 
-        Collection<Object> watched = user.getWatchedMovies();
+        List<WatchedMovie> watched = user.getWatchedMovies();
 
         assertNotNull(watched);
         assertTrue(watched.isEmpty());
@@ -314,9 +330,28 @@ class UserTest {
         history.recordMovie(movie, LocalDateTime.now());
         user.setWatchHistory(history);
 
-        Collection<Object> watched = user.getWatchedMovies();
+        List<WatchedMovie> watched = user.getWatchedMovies();
 
         assertEquals(1, watched.size());
+        assertSame(user.getWatchedMovies(), watched);
     }
-}
 
+    @Test
+    void readViewsAreLiveAndNotCopied() {
+        User user = new User("test", "1234");
+        Map<String, Review> reviews = user.getReviewsByMovieId();
+        Collection<Object> watchlists = user.getWatchlists();
+        Movie movie = new Movie("m1", "Test", "Plot", List.of(1), "2025", 7.0, 0.0, "poster");
+        Review review = new Review("r1", user, movie, 4, "Good", LocalDateTime.now());
+
+        user.addReview(review);
+        user.addWatchList(new WatchList(user, "Later"));
+
+        assertSame(reviews, user.getReviewsByMovieId());
+        assertEquals(review, reviews.get("m1"));
+        assertSame(review, user.getReview("m1"));
+        assertNull(user.getReview("m2"));
+        assertEquals(2, watchlists.size());
+        assertThrows(UnsupportedOperationException.class, () -> watchlists.add("x"));
+    }
+}
@@ -158,6 +158,25 @@ class WatchHistoryTest {
         assertEquals("Movie 2", watchHistory.getMovies().get(1).getTitle());
     }
 
+    @Test
+    void addWatchedMoviesAddsAllInWatchTimeOrder() {
+        User user = new User("testuser", "1234");
+        WatchHistory watchHistory = new WatchHistory("history1", user);
+        Movie movie1 = new Movie("m1", "Movie 1", "Plot 1", List.of(1), "2025-01-01", 7.5, 0.0, "poster1");
+        Movie movie2 = new Movie("m2", "Movie 2", "Plot 2", List.of(2), "2025-01-02", 8.0, 0.0, "poster2");
+        LocalDateTime earlier = LocalDateTime.of(2025, 3, 1, 20, 0);
+        LocalDateTime later = earlier.plusDays(1);
+        List<WatchedMovie> before = watchHistory.getMovies();
+
+        watchHistory.addWatchedMovies(List.of(new WatchedMovie(movie2, later), new WatchedMovie(movie1, earlier)));
+
+        assertTrue(before.isEmpty(), "A list already handed out does not change");
+        assertEquals(2, watchHistory.size());
+        assertEquals("Movie 1", watchHistory.getMovies().get(0).getTitle());
+        assertEquals("Movie 2", watchHistory.getMovies().get(1).getTitle());
+        assertSame(watchHistory.getMovies(), watchHistory.getMovies());
+    }
+
     @Test
     void recordMovieAllowsSameMovieMultipleTimes() {
         User user = new User("testuser", "1234");
@@ -280,5 +299,90 @@ class WatchHistoryTest {
         assertTrue(history.removeMovie(wm));
         assertTrue(history.getMovies().isEmpty());
     }
-}
 
+    @Test
+    void getMoviesIsOrderedByWatchTime() {
+        User user = new User("test", "1234");
+        WatchHistory history = new WatchHistory("h1", user);
+        Movie movie = new Movie("m1", "Test", "Plot", List.of(1), "2025", 7.0, 0.0, "poster");
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 20, 0);
+
+        WatchedMovie third = history.recordMovie(movie, base.plusDays(2));
+        WatchedMovie first = history.recordMovie(movie, base);
+        WatchedMovie second = history.recordMovie(movie, base.plusDays(1));
+        WatchedMovie alsoThird = history.recordMovie(movie, base.plusDays(2));
+
+        assertEquals(List.of(first, second, third, alsoThird), history.getMovies());
+    }
+
+    @Test
+    void getMoviesReusesListUntilChanged() {
+        User user = new User("test", "1234");
+        WatchHistory history = new WatchHistory("h1", user);
+        Movie movie = new Movie("m1", "Test", "Plot", List.of(1), "2025", 7.0, 0.0, "poster");
+        history.recordMovie(movie, LocalDateTime.of(2024, 1, 1, 20, 0));
+
+        List<WatchedMovie> before = history.getMovies();
+        assertSame(before, history.getMovies());
+
+        history.recordMovie(movie, LocalDateTime.of(2024, 1, 2, 20, 0));
+        assertEquals(1, before.size());
+        assertEquals(2, history.getMovies().size());
+    }
+
+    @Test
+    void getMoviesWatchedBetweenIncludesBothEnds() {
+        User user = new User("test", "1234");
+        WatchHistory history = new WatchHistory("h1", user);
+        Movie movie = new Movie("m1", "Test", "Plot", List.of(1), "2025", 7.0, 0.0, "poster");
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 20, 0);
+        for (int day = 0; day < 10; day++) {
+            history.recordMovie(movie, base.plusDays(day));
+        }
+
+        List<WatchedMovie> range = history.getMoviesWatchedBetween(base.plusDays(3), base.plusDays(5));
+
+        assertEquals(3, range.size());
+        assertEquals(base.plusDays(3), range.get(0).getWatchedDate());
+        assertEquals(base.plusDays(5), range.get(2).getWatchedDate());
+        assertTrue(history.getMoviesWatchedBetween(base.plusDays(5), base.plusDays(3)).isEmpty());
+    }
+
+    @Test
+    void lookupByMovieIdUsesIndex() {
+        User user = new User("test", "1234");
+        WatchHistory history = new WatchHistory("h1", user);
+        Movie movie1 = new Movie("m1", "One", "Plot", List.of(1), "2025", 7.0, 0.0, "poster");
+        Movie movie2 = new Movie("m2", "Two", "Plot", List.of(1), "2025", 7.0, 0.0, "poster");
+        WatchedMovie firstViewing = history.recordMovie(movie1, LocalDateTime.of(2024, 1, 3, 20, 0));
+        history.recordMovie(movie2, LocalDateTime.of(2024, 1, 2, 20, 0));
+        WatchedMovie secondViewing = history.recordMovie(movie1, LocalDateTime.of(2024, 1, 1, 20, 0));
+
+        assertSame(firstViewing, history.findByMovieId("m1"));
+        assertEquals(List.of(firstViewing, secondViewing), history.getEntriesForMovie("m1"));
+        assertNull(history.findByMovieId("missing"));
+        assertTrue(history.getEntriesForMovie("missing").isEmpty());
+
+        assertTrue(history.removeMovie(firstViewing));
+        assertSame(secondViewing, history.findByMovieId("m1"));
+        assertEquals(2, history.size());
+    }
+
+    @Test
+    void removeMovieByMovieIdRemovesEveryEntry() {
+        User user = new User("test", "1234");
+        WatchHistory history = new WatchHistory("h1", user);
+        Movie movie1 = new Movie("m1", "One", "Plot", List.of(1), "2025", 7.0, 0.0, "poster");
+        Movie movie2 = new Movie("m2", "Two", "Plot", List.of(1), "2025", 7.0, 0.0, "poster");
+        LocalDateTime sameTime = LocalDateTime.of(2024, 1, 1, 20, 0);
+        history.recordMovie(movie1, sameTime);
+        WatchedMovie kept = history.recordMovie(movie2, sameTime);
+        history.recordMovie(movie1, sameTime.plusDays(1));
+
+        assertTrue(history.removeMovieByMovieId("m1"));
+
+        assertEquals(List.of(kept), history.getMovies());
+        assertFalse(history.containsMovie("m1"));
+        assertEquals(1, history.size());
+    }
+}
@@ -2,6 +2,7 @@ package entity;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.Collection;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -176,4 +177,51 @@ class WatchListTest {
 
         assertNull(result);
     }
+
+    @Test
+    void addMovieRejectsOtherInstanceWithSameId() {
+        User user = new User("test", "1234");
+        WatchList wl = user.getWatchLists().get(0);
+        Movie movie = new Movie("m1", "Test Movie", "Plot", List.of(1), "2025-01-01", 7.5, 0.0, "poster-url");
+        Movie sameMovie = new Movie("m1", "Test Movie", "Plot", List.of(1), "2025-01-01", 7.5, 0.0, "poster-url");
+
+        assertTrue(wl.addMovie(movie));
+        assertFalse(wl.addMovie(sameMovie));
+
+        assertEquals(1, wl.size());
+        assertSame(movie, wl.getMovieById("m1"));
+        assertTrue(wl.containsMovie("m1"));
+    }
+
+    @Test
+    void removeMovieByIdKeepsOrderOfOthers() {
+        User user = new User("test", "1234");
+        WatchList wl = user.getWatchLists().get(0);
+        for (int i = 1; i <= 4; i++) {
+            wl.addMovie(new Movie("m" + i, "Movie " + i, "Plot", List.of(1), "2025-01-01", 7.5, 0.0, "poster"));
+        }
+
+        assertTrue(wl.removeMovieById("m2"));
+        assertFalse(wl.removeMovieById("m2"));
+        wl.removeMovie(new Movie("m4", "Movie 4", "Plot", List.of(1), "2025-01-01", 7.5, 0.0, "poster"));
+
+        assertEquals(List.of("m1", "m3"), wl.getMovies().stream().map(Movie::getMovieId).toList());
+    }
+
+    @Test
+    void getMoviesIsReusedUntilChangeAndViewIsLive() {
+        User user = new User("test", "1234");
+        WatchList wl = user.getWatchLists().get(0);
+        Collection<Movie> view = wl.getMovieView();
+        wl.addMovie(new Movie("m1", "Movie 1", "Plot", List.of(1), "2025-01-01", 7.5, 0.0, "poster"));
+
+        List<Movie> before = wl.getMovies();
+        assertSame(before, wl.getMovies());
+        wl.addMovie(new Movie("m2", "Movie 2", "Plot", List.of(1), "2025-01-01", 7.5, 0.0, "poster"));
+
+        assertEquals(1, before.size());
+        assertEquals(2, wl.getMovies().size());
+        assertEquals(2, view.size());
+        assertThrows(UnsupportedOperationException.class, view::clear);
+    }
 }
@@ -368,4 +368,64 @@ class AddWatchListInteractorTest {
                 new AddWatchListInteractor(presenter, userDAO, movieGateway);
         interactor.execute(request);
     }
+
+    @Test
+    void successLooksUpMovieAndPresentsOutsideUserLock() {
+        User testUser = new User("testuser", "1234");
+        WatchList watchList = testUser.getWatchLists().get(0);
+        Movie movie = new Movie("m1", "Test Movie", "A test movie plot happens", List.of(1, 2),
+                "2025-01-01", 7.5, 0.0, "poster-url");
+        boolean[] locked = {false};
+        boolean[] presented = {false};
+
+        UserDataAccessInterface userDAO = new UserDataAccessInterface() {
+            @Override public User getUser(String userName) { return testUser; }
+            @Override public void save(User user) { assertTrue(locked[0], "Save should run under the lock"); }
+            @Override public boolean existsByName(String username) { return true; }
+            @Override public void setCurrentUsername(String username) {}
+            @Override public String getCurrentUsername() { return "testuser"; }
+
+            @Override
+            public void runLocked(String username, Runnable cycle) {
+                locked[0] = true;
+                try {
+                    cycle.run();
+                }
+                finally {
+                    locked[0] = false;
+                }
+            }
+        };
+
+        MovieGateway movieGateway = new MovieGateway() {
+            @Override
+            public Optional<Movie> findById(String movieId) {
+                assertFalse(locked[0], "The movie should be looked up before the user is locked");
+                return Optional.of(movie);
+            }
+            @Override public List<Movie> searchByTitle(String query) { return List.of(); }
+            @Override public PagedMovieResult searchByTitle(String query, int page) { return null; }
+            @Override public List<Movie> filterByGenres(List<Integer> genreIds) { return List.of(); }
+            @Override public PagedMovieResult getPopularMovies(int page) { return null; }
+        };
+
+        AddWatchListOutputBoundary presenter = new AddWatchListOutputBoundary() {
+            @Override
+            public void prepareSuccessView(AddWatchListResponseModel responseModel) {
+                assertFalse(locked[0], "The presenter should be called after the lock is released");
+                presented[0] = true;
+            }
+
+            @Override
+            public void prepareFailView(String errorMessage) {
+                fail("Unexpected failure: " + errorMessage);
+            }
+        };
+
+        AddWatchListInteractor interactor = new AddWatchListInteractor(presenter, userDAO, movieGateway);
+        interactor.execute(new AddWatchListRequestModel("testuser", "m1", watchList.getWatchListId()));
+
+        assertTrue(presented[0]);
+        assertTrue(watchList.containsMovie("m1"));
+    }
 }
@@ -0,0 +1,96 @@
+package use_case.common;
+
+import entity.Movie;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoviePageIteratorTest {
+
+    private final List<Integer> fetchedPages = new ArrayList<>();
+    private final AtomicInteger built = new AtomicInteger();
+
+    // Three pages of three movies each, built lazily
+    private PagedMovieResult page(int page) {
+        fetchedPages.add(page);
+        return PagedMovieResult.lazy(3, i -> {
+            built.incrementAndGet();
+            String id = page + "-" + i;
+            return new Movie(id, "Movie " + id, "plot", List.of(), "2020-01-01", 5.0, 0.0, "");
+        }, page, 3);
+    }
+
+    @Test
+    void testWalksAllPagesInOrder() {
+        List<String> ids = MoviePageIterator.stream(this::page, 1)
+                .map(Movie::getMovieId)
+                .collect(Collectors.toList());
+
+        assertEquals(List.of("1-0", "1-1", "1-2", "2-0", "2-1", "2-2", "3-0", "3-1", "3-2"), ids);
+        assertEquals(List.of(1, 2, 3), fetchedPages);
+    }
+
+    @Test
+    void testStopsEarlyWithoutFetchingOrBuildingMore() {
+        List<Movie> firstFour = MoviePageIterator.stream(this::page, 1).limit(4).collect(Collectors.toList());
+
+        assertEquals(4, firstFour.size());
+        assertEquals(List.of(1, 2), fetchedPages);
+        assertEquals(4, built.get());
+    }
+
+    @Test
+    void testNothingIsFetchedUntilConsumed() {
+        MoviePageIterator iterator = new MoviePageIterator(this::page, 2);
+        assertTrue(fetchedPages.isEmpty());
+
+        assertEquals("2-0", iterator.next().getMovieId());
+        assertEquals(List.of(2), fetchedPages);
+    }
+
+    @Test
+    void testEmptyListingEnds() {
+        Iterator<Movie> iterator = new MoviePageIterator(page -> new PagedMovieResult(List.of(), page, 0), 1);
+
+        assertFalse(iterator.hasNext());
+        assertThrows(NoSuchElementException.class, iterator::next);
+    }
+
+    @Test
+    void testFailedFetchIsRethrownUnchecked() {
+        MovieDataAccessException failure =
+                new MovieDataAccessException(MovieDataAccessException.Type.NETWORK, "offline");
+        Iterator<Movie> iterator = new MoviePageIterator(page -> {
+            if (page == 2) {
+                throw failure;
+            }
+            return page(page);
+        }, 1);
+
+        for (int i = 0; i < 3; i++) {
+            iterator.next();
+        }
+        UncheckedMovieDataAccessException error =
+                assertThrows(UncheckedMovieDataAccessException.class, iterator::hasNext);
+        assertSame(failure, error.getCause());
+    }
+
+    @Test
+    void testLazyPageBuildsEachMovieOnce() {
+        PagedMovieResult result = page(1);
+
+        assertEquals(3, result.getMovies().size());
+        assertEquals(0, result.getMaterialisedCount());
+        Movie first = result.getMovies().get(0);
+        assertSame(first, result.getMovies().get(0));
+        assertEquals(1, built.get());
+        assertEquals(1, result.getMaterialisedCount());
+    }
+}
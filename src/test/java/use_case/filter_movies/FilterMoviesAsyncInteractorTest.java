@@ -0,0 +1,157 @@
+package use_case.filter_movies;
+
+import common.GenreUtilsAdapter;
+import entity.Movie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import use_case.common.MovieGateway;
+import use_case.common.PagedMovieResult;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilterMoviesAsyncInteractorTest {
+
+    private QueueExecutor worker;
+    private QueueExecutor edt;
+    private RecordingPresenter presenter;
+    private FilterMoviesAsyncInteractor interactor;
+
+    private final List<Movie> movies = List.of(
+            new Movie("1", "Action Movie", "Plot", List.of(28), "2023-01-01", 7.5, 0.0, "poster"),
+            new Movie("2", "Comedy Movie", "Plot", List.of(35), "2023-01-01", 6.5, 0.0, "poster"));
+
+    @BeforeEach
+    void setUp() {
+        worker = new QueueExecutor();
+        edt = new QueueExecutor();
+        presenter = new RecordingPresenter();
+        interactor = new FilterMoviesAsyncInteractor(
+                new EmptyMovieGateway(),
+                presenter,
+                new FilterMoviesValidator(),
+                new GenreMatchFilterStrategy(),
+                new GenreUtilsAdapter(),
+                worker,
+                edt);
+    }
+
+    @Test
+    void testExecuteRunsFilteringOnWorker() {
+        interactor.execute(new FilterMoviesRequestModel(List.of(28), movies));
+
+        assertEquals(1, worker.size(), "Filtering should be scheduled on the worker executor");
+        assertTrue(presenter.calls.isEmpty());
+
+        worker.runAll();
+        assertTrue(presenter.calls.isEmpty(), "Results must be delivered through the presenter executor");
+
+        edt.runAll();
+        assertEquals(List.of("success:1"), presenter.calls);
+    }
+
+    @Test
+    void testValidationErrorIsDelivered() {
+        interactor.execute(new FilterMoviesRequestModel(Collections.emptyList(), movies));
+
+        worker.runAll();
+        edt.runAll();
+
+        assertEquals(List.of("fail:Select at least one genre."), presenter.calls);
+    }
+
+    @Test
+    void testOnlyLatestRequestIsPresented() {
+        interactor.execute(new FilterMoviesRequestModel(List.of(28), movies));
+        interactor.execute(new FilterMoviesRequestModel(List.of(35), movies));
+
+        worker.runAll();
+        edt.runAll();
+
+        assertEquals(List.of("success:2"), presenter.calls);
+    }
+
+    @Test
+    void testRequestIssuedAfterCompletionSupersedesPendingDelivery() {
+        interactor.execute(new FilterMoviesRequestModel(List.of(28), movies));
+        worker.runAll();
+
+        // A newer request arrives while the first result is still queued for the view
+        interactor.execute(new FilterMoviesRequestModel(List.of(35), movies));
+        edt.runAll();
+        assertTrue(presenter.calls.isEmpty());
+
+        worker.runAll();
+        edt.runAll();
+        assertEquals(List.of("success:2"), presenter.calls);
+    }
+
+    private static final class QueueExecutor implements Executor {
+        private final List<Runnable> queue = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            queue.add(command);
+        }
+
+        int size() {
+            return queue.size();
+        }
+
+        void runAll() {
+            while (!queue.isEmpty()) {
+                queue.remove(0).run();
+            }
+        }
+    }
+
+    private static final class RecordingPresenter implements FilterMoviesOutputBoundary {
+        final List<String> calls = new ArrayList<>();
+
+        @Override
+        public void prepareSuccessView(FilterMoviesResponseModel responseModel) {
+            StringBuilder ids = new StringBuilder();
+            for (Movie movie : responseModel.getMovies()) {
+                ids.append(movie.getMovieId());
+            }
+            calls.add("success:" + ids);
+        }
+
+        @Override
+        public void prepareFailView(String errorMessage) {
+            calls.add("fail:" + errorMessage);
+        }
+    }
+
+    private static final class EmptyMovieGateway implements MovieGateway {
+        @Override
+        public Optional<Movie> findById(String movieId) {
+            return Optional.empty();
+        }
+
+        @Override
+        public List<Movie> searchByTitle(String query) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public PagedMovieResult searchByTitle(String query, int page) {
+            return new PagedMovieResult(Collections.emptyList(), page, 1);
+        }
+
+        @Override
+        public List<Movie> filterByGenres(List<Integer> genreIds) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public PagedMovieResult getPopularMovies(int page) {
+            return new PagedMovieResult(Collections.emptyList(), page, 1);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package use_case.filter_movies;
+
+import entity.Movie;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenreFilterEngineTest {
+
+    private static final List<Movie> MOVIES = Arrays.asList(
+            new Movie("1", "Action Drama", "Plot", Arrays.asList(28, 18), "1995-06-01", 8.0, 0.0, "poster"),
+            new Movie("2", "Action", "Plot", Arrays.asList(28), "2010-01-01", 6.0, 0.0, "poster"),
+            new Movie("3", "Comedy", "Plot", Arrays.asList(35), "1998-03-01", 7.5, 0.0, "poster"),
+            new Movie("4", "No Genres", "Plot", Arrays.asList(), "", 9.0, 0.0, "poster"),
+            new Movie("5", "Custom", "Plot", Arrays.asList(28, 99999), "2001-01-01", 5.0, 0.0, "poster")
+    );
+
+    private static List<String> ids(List<Movie> movies) {
+        return movies.stream().map(Movie::getMovieId).collect(Collectors.toList());
+    }
+
+    private static GenreFilterEngine engine(GenreMatchMode mode) {
+        return new GenreFilterEngine(mode, MoviePredicates.any(), GenreFilterEngine.DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    @Test
+    void testAnyMatchesLikeGenreMatchStrategy() {
+        // Act
+        List<Movie> result = new GenreFilterEngine().filter(MOVIES, Arrays.asList(18, 35));
+
+        // Assert
+        assertEquals(ids(new GenreMatchFilterStrategy().filter(MOVIES, Arrays.asList(18, 35))), ids(result));
+        assertEquals(List.of("1", "3"), ids(result));
+    }
+
+    @Test
+    void testAllRequiresEverySelectedGenre() {
+        // Act
+        List<Movie> result = engine(GenreMatchMode.ALL).filter(MOVIES, Arrays.asList(28, 18));
+
+        // Assert
+        assertEquals(List.of("1"), ids(result));
+    }
+
+    @Test
+    void testNoneExcludesSelectedGenres() {
+        // Act
+        List<Movie> result = engine(GenreMatchMode.NONE).filter(MOVIES, Arrays.asList(28));
+
+        // Assert
+        assertEquals(List.of("3", "4"), ids(result));
+    }
+
+    @Test
+    void testUnknownGenreFallsBackToGenreLists() {
+        // Act & Assert
+        assertEquals(List.of("5"), ids(engine(GenreMatchMode.ALL).filter(MOVIES, Arrays.asList(28, 99999))));
+        assertEquals(List.of("1", "2", "5"), ids(engine(GenreMatchMode.ANY).filter(MOVIES, Arrays.asList(28, 99999))));
+        assertEquals(List.of("3", "4"), ids(engine(GenreMatchMode.NONE).filter(MOVIES, Arrays.asList(28, 99999))));
+    }
+
+    @Test
+    void testCombinesCriteria() {
+        // Arrange
+        GenreFilterEngine engine = new GenreFilterEngine(GenreMatchMode.ANY,
+                MoviePredicates.minRating(7.0).and(MoviePredicates.releasedBetween(1990, 1999)),
+                GenreFilterEngine.DEFAULT_PARALLEL_THRESHOLD);
+
+        // Act
+        List<Movie> result = engine.filter(MOVIES, Arrays.asList(28, 35));
+
+        // Assert
+        assertEquals(List.of("1", "3"), ids(result));
+        assertFalse(MoviePredicates.releasedBetween(1990, 2020).test(MOVIES.get(3)));
+    }
+
+    @Test
+    void testParallelPathKeepsOrderAndResult() {
+        // Arrange
+        Random random = new Random(7);
+        int[] genres = {28, 12, 16, 35, 80, 18, 27, 53};
+        List<Movie> catalog = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            catalog.add(new Movie("m" + i, "Movie " + i, "Plot",
+                    Arrays.asList(genres[random.nextInt(genres.length)], genres[random.nextInt(genres.length)]),
+                    (1950 + random.nextInt(75)) + "-01-01", random.nextInt(100) / 10.0, 0.0, "poster"));
+        }
+        GenreFilterEngine sequential = new GenreFilterEngine(GenreMatchMode.ALL, MoviePredicates.minRating(5.0),
+                Integer.MAX_VALUE);
+        GenreFilterEngine parallel = new GenreFilterEngine(GenreMatchMode.ALL, MoviePredicates.minRating(5.0), 1);
+
+        // Act
+        List<Movie> expected = sequential.filter(catalog, Arrays.asList(28, 18));
+        List<Movie> result = parallel.filter(catalog, Arrays.asList(28, 18));
+
+        // Assert
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, result);
+    }
+
+    @Test
+    void testNullInputsAndInvalidThreshold() {
+        // Act & Assert
+        assertTrue(new GenreFilterEngine().filter(null, Arrays.asList(28)).isEmpty());
+        assertTrue(new GenreFilterEngine().filter(MOVIES, null).isEmpty());
+        assertThrows(IllegalArgumentException.class,
+                () -> new GenreFilterEngine(GenreMatchMode.ANY, MoviePredicates.any(), 0));
+    }
+}
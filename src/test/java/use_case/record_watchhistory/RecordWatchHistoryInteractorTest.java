@@ -693,5 +693,201 @@ class RecordWatchHistoryInteractorTest {
         );
         interactor.execute(requestModel);
     }
-}
 
+    @Test
+    void failWhenUserWasSavedConcurrently() {
+        // The interactor's copy was read at version 0, but another writer has saved version 1 since
+        User staleCopy = new User("testuser", "1234");
+        User storedUser = new User("testuser", "1234");
+        storedUser.setVersion(1);
+        boolean[] saved = {false};
+
+        Movie movie = new Movie(
+                "m1",
+                "Test Movie",
+                "A test movie plot",
+                List.of(1, 2),
+                "2025-01-01",
+                7.5,
+                0.0,
+                "poster-url"
+        );
+
+        UserDataAccessInterface userDataAccessInterface = new UserDataAccessInterface() {
+            // The interactor reads the user before and inside the lock; the version check reads it third
+            private int reads;
+
+            @Override
+            public User getUser(String userName) {
+                return ++reads <= 2 ? staleCopy : storedUser;
+            }
+
+            @Override
+            public void save(User user) {
+                saved[0] = true;
+            }
+
+            @Override
+            public boolean existsByName(String username) {
+                return true;
+            }
+
+            @Override
+            public void setCurrentUsername(String username) {
+
+            }
+
+            @Override
+            public String getCurrentUsername() {
+                return "";
+            }
+        };
+
+        MovieGateway movieGateway = new MovieGateway() {
+            @Override
+            public Optional<Movie> findById(String movieId) {
+                return Optional.of(movie);
+            }
+
+            @Override
+            public List<Movie> searchByTitle(String query) {
+                return List.of();
+            }
+
+            @Override
+            public use_case.common.PagedMovieResult searchByTitle(String query, int page) {
+                return new use_case.common.PagedMovieResult(List.of(), page, 1);
+            }
+
+            @Override
+            public List<Movie> filterByGenres(List<Integer> genreIds) {
+                return List.of();
+            }
+
+            @Override
+            public use_case.common.PagedMovieResult getPopularMovies(int page) {
+                return new use_case.common.PagedMovieResult(List.of(), page, 1);
+            }
+        };
+
+        RecordWatchHistoryRequestModel requestModel = new RecordWatchHistoryRequestModel(
+                "testuser", "m1", LocalDateTime.now().minusHours(1)
+        );
+
+        RecordWatchHistoryOutputBoundary failPresenter = new RecordWatchHistoryOutputBoundary() {
+            @Override
+            public void prepareSuccessView(RecordWatchHistoryResponseModel responseModel) {
+                fail("Should have failed - user saved concurrently");
+            }
+
+            @Override
+            public void prepareFailView(String errorMessage) {
+                assertEquals("Watch history was changed elsewhere. Please try again.", errorMessage);
+            }
+        };
+
+        RecordWatchHistoryInteractor interactor = new RecordWatchHistoryInteractor(
+                userDataAccessInterface, movieGateway, failPresenter
+        );
+        interactor.execute(requestModel);
+
+        assertFalse(saved[0]);
+        assertEquals(0, staleCopy.getVersion());
+        // The rejected entry is taken back, leaving the copy as it was read
+        assertNull(staleCopy.getWatchHistory());
+        assertTrue(staleCopy.getWatchedMovies().isEmpty());
+    }
+
+    @Test
+    void failWhenSaveThrowsLeavesUserAsRead() {
+        User testUser = new User("testuser", "1234");
+
+        Movie movie = new Movie(
+                "m1",
+                "Test Movie",
+                "A test movie plot",
+                List.of(1, 2),
+                "2025-01-01",
+                7.5,
+                0.0,
+                "poster-url"
+        );
+
+        UserDataAccessInterface userDataAccessInterface = new UserDataAccessInterface() {
+            @Override
+            public User getUser(String userName) {
+                return testUser;
+            }
+
+            @Override
+            public void save(User user) {
+                throw new IllegalStateException("disk full");
+            }
+
+            @Override
+            public boolean existsByName(String username) {
+                return true;
+            }
+
+            @Override
+            public void setCurrentUsername(String username) {
+
+            }
+
+            @Override
+            public String getCurrentUsername() {
+                return "";
+            }
+        };
+
+        MovieGateway movieGateway = new MovieGateway() {
+            @Override
+            public Optional<Movie> findById(String movieId) {
+                return Optional.of(movie);
+            }
+
+            @Override
+            public List<Movie> searchByTitle(String query) {
+                return List.of();
+            }
+
+            @Override
+            public use_case.common.PagedMovieResult searchByTitle(String query, int page) {
+                return new use_case.common.PagedMovieResult(List.of(), page, 1);
+            }
+
+            @Override
+            public List<Movie> filterByGenres(List<Integer> genreIds) {
+                return List.of();
+            }
+
+            @Override
+            public use_case.common.PagedMovieResult getPopularMovies(int page) {
+                return new use_case.common.PagedMovieResult(List.of(), page, 1);
+            }
+        };
+
+        RecordWatchHistoryOutputBoundary presenter = new RecordWatchHistoryOutputBoundary() {
+            @Override
+            public void prepareSuccessView(RecordWatchHistoryResponseModel responseModel) {
+                fail("Should have failed - save threw");
+            }
+
+            @Override
+            public void prepareFailView(String errorMessage) {
+                fail("The save error should reach the caller");
+            }
+        };
+
+        RecordWatchHistoryInteractor interactor = new RecordWatchHistoryInteractor(
+                userDataAccessInterface, movieGateway, presenter
+        );
+        assertThrows(IllegalStateException.class, () -> interactor.execute(
+                new RecordWatchHistoryRequestModel("testuser", "m1", LocalDateTime.now().minusHours(1))));
+
+        // The unsaved entry is taken back even though the save did not return
+        assertEquals(0, testUser.getVersion());
+        assertNull(testUser.getWatchHistory());
+        assertTrue(testUser.getWatchedMovies().isEmpty());
+    }
+}
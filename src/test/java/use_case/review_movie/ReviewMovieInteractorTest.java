@@ -234,6 +234,66 @@ class ReviewMovieInteractorTest {
         assertEquals("Movie not found: M001", presenter.failure);
     }
 
+    @Test
+    void failWhenReviewsWereSavedConcurrentlyKeepsEarlierReview() {
+
+        FakeUserDAO userDAO = new FakeUserDAO() {
+            @Override
+            public boolean upsertReview(User user, Review review, long expectedVersion) {
+                return false;
+            }
+        };
+        FakeMovieGateway movieGateway = new FakeMovieGateway();
+        FakePresenter presenter = new FakePresenter();
+
+        User user = new User("john", "1234");
+        Movie movie = new Movie("M001", "Test Movie", "Plot", List.of(1, 2), "2025", 5.0, 0.0, "poster");
+        Review earlier = new Review("R001", user, movie, 2, "Meh", LocalDateTime.now().minusDays(1));
+        user.addReview(earlier);
+
+        userDAO.storedUser = user;
+        movieGateway.movie = Optional.of(movie);
+
+        ReviewMovieInteractor interactor = new ReviewMovieInteractor(userDAO, movieGateway, presenter);
+        interactor.execute(new ReviewMovieRequestModel("john", "M001", 5, "Great on a rewatch"));
+
+        assertNull(presenter.success);
+        assertEquals("Reviews were changed elsewhere. Please try again.", presenter.failure);
+        // The rejected review is taken back, leaving the user as it was read
+        assertSame(earlier, user.getReview("M001"));
+        assertEquals(1, user.getReviewsByMovieId().size());
+    }
+
+    @Test
+    void failWhenSaveThrowsKeepsEarlierReview() {
+
+        FakeUserDAO userDAO = new FakeUserDAO() {
+            @Override
+            public void save(User user) {
+                throw new IllegalStateException("disk full");
+            }
+        };
+        FakeMovieGateway movieGateway = new FakeMovieGateway();
+        FakePresenter presenter = new FakePresenter();
+
+        User user = new User("john", "1234");
+        Movie movie = new Movie("M001", "Test Movie", "Plot", List.of(1, 2), "2025", 5.0, 0.0, "poster");
+        Review earlier = new Review("R001", user, movie, 2, "Meh", LocalDateTime.now().minusDays(1));
+        user.addReview(earlier);
+
+        userDAO.storedUser = user;
+        movieGateway.movie = Optional.of(movie);
+
+        ReviewMovieInteractor interactor = new ReviewMovieInteractor(userDAO, movieGateway, presenter);
+        assertThrows(IllegalStateException.class,
+                () -> interactor.execute(new ReviewMovieRequestModel("john", "M001", 5, "Great on a rewatch")));
+
+        assertNull(presenter.success);
+        // The unsaved review is taken back even though the save did not return
+        assertSame(earlier, user.getReview("M001"));
+        assertEquals(0, user.getVersion());
+    }
+
     @Test
     void responseModelAllGetters() {
 
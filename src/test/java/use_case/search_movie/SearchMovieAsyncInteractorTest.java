@@ -0,0 +1,203 @@
+package use_case.search_movie;
+
+import entity.Movie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import use_case.common.AsyncMovieGateway;
+import use_case.common.MovieDataAccessException;
+import use_case.common.PagedMovieResult;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * tests of SearchMovieAsyncInteractor
+ */
+class SearchMovieAsyncInteractorTest {
+
+    private ControlledGateway gateway;
+    private QueueExecutor edt;
+    private RecordingPresenter presenter;
+    private SearchMovieAsyncInteractor interactor;
+
+    @BeforeEach
+    void setUp() {
+        gateway = new ControlledGateway();
+        edt = new QueueExecutor();
+        presenter = new RecordingPresenter();
+        // Ranking runs inline on the thread that completes the gateway's future
+        interactor = new SearchMovieAsyncInteractor(gateway, presenter, edt, Runnable::run);
+    }
+
+    private static PagedMovieResult page(String title) {
+        return new PagedMovieResult(
+                List.of(new Movie("1", title, "plot", List.of(28), "2020-01-01", 7.0, 0.0, "p.jpg")), 1, 4);
+    }
+
+    @Test
+    void testExecuteReturnsBeforeResultArrives() {
+        interactor.execute(new SearchMovieRequestModel("batman", 1));
+
+        assertEquals(0, presenter.calls.size(), "Nothing should be presented until the gateway completes");
+
+        gateway.complete("batman", page("Batman"));
+        assertEquals(0, presenter.calls.size(), "Results must be delivered through the presenter executor");
+
+        edt.runAll();
+        assertEquals(List.of("success:Batman"), presenter.calls);
+        assertEquals(4, presenter.lastResponse.getTotalPages());
+    }
+
+    @Test
+    void testLazyPageIsBuiltBeforeHandOffToPresenterExecutor() {
+        interactor.execute(new SearchMovieRequestModel("batman", 1));
+        PagedMovieResult lazyPage = PagedMovieResult.lazy(2,
+                i -> new Movie(String.valueOf(i), "Batman " + i, "plot", List.of(28), "2020-01-01", 7.0, 0.0, "p.jpg"),
+                1, 1);
+
+        gateway.complete("batman", lazyPage);
+
+        assertEquals(2, lazyPage.getMaterialisedCount(), "Ranking must happen before the presenter thread runs");
+        edt.runAll();
+        assertEquals(1, presenter.calls.size());
+    }
+
+    @Test
+    void testCachedPageIsRankedOnRankingExecutorNotCallersThread() {
+        QueueExecutor ranking = new QueueExecutor();
+        PagedMovieResult lazyPage = PagedMovieResult.lazy(2,
+                i -> new Movie(String.valueOf(i), "Batman " + i, "plot", List.of(28), "2020-01-01", 7.0, 0.0, "p.jpg"),
+                1, 1);
+        AsyncMovieGateway cached = new ControlledGateway() {
+            @Override
+            public CompletableFuture<PagedMovieResult> searchByTitleAsync(String query, int page) {
+                return CompletableFuture.completedFuture(lazyPage);
+            }
+        };
+        interactor = new SearchMovieAsyncInteractor(cached, presenter, edt, ranking);
+
+        interactor.execute(new SearchMovieRequestModel("batman", 1));
+        assertEquals(0, lazyPage.getMaterialisedCount(), "An already completed page must not be ranked on the caller");
+
+        ranking.runAll();
+        assertEquals(2, lazyPage.getMaterialisedCount());
+        edt.runAll();
+        assertEquals(1, presenter.calls.size());
+    }
+
+    @Test
+    void testValidationErrorIsDeliveredOnPresenterExecutor() {
+        interactor.execute(new SearchMovieRequestModel(" ", 1));
+
+        assertEquals(0, gateway.pending.size(), "An invalid query must not reach the gateway");
+        edt.runAll();
+        assertEquals(List.of("fail:Search query cannot be empty."), presenter.calls);
+    }
+
+    @Test
+    void testGatewayFailureIsMappedToUserMessage() {
+        interactor.execute(new SearchMovieRequestModel("batman", 1));
+
+        gateway.fail("batman", new MovieDataAccessException(MovieDataAccessException.Type.TMDB_ERROR, "429"));
+        edt.runAll();
+
+        assertEquals(List.of("fail:Movie service is temporarily unavailable. Please try again later."),
+                presenter.calls);
+    }
+
+    @Test
+    void testEmptyResultIsReportedAsFailure() {
+        interactor.execute(new SearchMovieRequestModel("zzzz", 1));
+
+        gateway.complete("zzzz", new PagedMovieResult(List.of(), 1, 0));
+        edt.runAll();
+
+        assertEquals(1, presenter.calls.size());
+        assertTrue(presenter.calls.get(0).startsWith("fail:No movies found"));
+    }
+
+    @Test
+    void testSupersededSearchIsNeverPresented() {
+        interactor.execute(new SearchMovieRequestModel("bat", 1));
+        interactor.execute(new SearchMovieRequestModel("batman", 1));
+
+        // The newer request finishes first, then the stale one arrives late
+        gateway.complete("batman", page("Batman"));
+        gateway.complete("bat", page("Bat Out Of Hell"));
+        edt.runAll();
+
+        assertEquals(List.of("success:Batman"), presenter.calls);
+    }
+
+    private static class ControlledGateway implements AsyncMovieGateway {
+        final Map<String, CompletableFuture<PagedMovieResult>> pending = new HashMap<>();
+
+        void complete(String query, PagedMovieResult result) {
+            pending.remove(query).complete(result);
+        }
+
+        void fail(String query, Exception error) {
+            pending.remove(query).completeExceptionally(error);
+        }
+
+        @Override
+        public CompletableFuture<PagedMovieResult> searchByTitleAsync(String query, int page) {
+            CompletableFuture<PagedMovieResult> future = new CompletableFuture<>();
+            pending.put(query, future);
+            return future;
+        }
+
+        @Override
+        public CompletableFuture<Optional<Movie>> findByIdAsync(String movieId) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+
+        @Override
+        public CompletableFuture<List<Movie>> filterByGenresAsync(List<Integer> genreIds) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+
+        @Override
+        public CompletableFuture<PagedMovieResult> getPopularMoviesAsync(int page) {
+            return CompletableFuture.completedFuture(new PagedMovieResult(List.of(), page, 1));
+        }
+    }
+
+    private static final class QueueExecutor implements Executor {
+        private final List<Runnable> queue = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            queue.add(command);
+        }
+
+        void runAll() {
+            while (!queue.isEmpty()) {
+                queue.remove(0).run();
+            }
+        }
+    }
+
+    private static final class RecordingPresenter implements SearchMovieOutputBoundary {
+        final List<String> calls = new ArrayList<>();
+        SearchMovieResponseModel lastResponse;
+
+        @Override
+        public void prepareSuccessView(SearchMovieResponseModel response) {
+            lastResponse = response;
+            calls.add("success:" + response.getMovies().get(0).getTitle());
+        }
+
+        @Override
+        public void prepareFailView(String error) {
+            calls.add("fail:" + error);
+        }
+    }
+}
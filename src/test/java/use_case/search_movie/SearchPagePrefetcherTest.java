@@ -0,0 +1,258 @@
+package use_case.search_movie;
+
+import entity.Movie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import use_case.common.AsyncMovieGateway;
+import use_case.common.MovieDataAccessException;
+import use_case.common.PagedMovieResult;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchPagePrefetcherTest {
+
+    private ControlledGateway gateway;
+
+    @BeforeEach
+    void setUp() {
+        gateway = new ControlledGateway();
+    }
+
+    private static PagedMovieResult page(int page, int totalPages) {
+        return new PagedMovieResult(
+                List.of(new Movie(String.valueOf(page), "Movie " + page, "plot", List.of(28),
+                        "2020-01-01", 7.0, 0.0, "p.jpg")),
+                page, totalPages);
+    }
+
+    @Test
+    void testNextPageIsPrefetchedAndServedWithoutNewRequest() throws Exception {
+        SearchPagePrefetcher prefetcher = new SearchPagePrefetcher(gateway);
+
+        CompletableFuture<PagedMovieResult> first = prefetcher.searchByTitleAsync("batman", 1);
+        assertEquals(List.of("batman#1"), gateway.requests);
+
+        gateway.complete("batman#1", page(1, 5));
+        assertEquals(1, first.get().getPage());
+        assertEquals(List.of("batman#1", "batman#2"), gateway.requests, "Page 2 should be fetched in the background");
+
+        gateway.complete("batman#2", page(2, 5));
+        CompletableFuture<PagedMovieResult> second = prefetcher.searchByTitleAsync("batman", 2);
+
+        assertTrue(second.isDone(), "A prefetched page is served immediately");
+        assertEquals(2, second.get().getPage());
+        assertEquals("batman#3", gateway.requests.get(gateway.requests.size() - 1));
+    }
+
+    @Test
+    void testRequestAttachesToPrefetchStillInFlight() throws Exception {
+        SearchPagePrefetcher prefetcher = new SearchPagePrefetcher(gateway);
+        prefetcher.searchByTitleAsync("batman", 1);
+        gateway.complete("batman#1", page(1, 5));
+
+        CompletableFuture<PagedMovieResult> second = prefetcher.searchByTitleAsync("batman", 2);
+        assertFalse(second.isDone());
+        gateway.complete("batman#2", page(2, 5));
+
+        assertEquals(2, second.get().getPage());
+        assertEquals(1, gateway.requests.stream().filter("batman#2"::equals).count());
+    }
+
+    @Test
+    void testDepthAndPreviousPageAreConfigurable() {
+        SearchPagePrefetcher prefetcher = new SearchPagePrefetcher(
+                gateway, 2, true, SearchPagePrefetcher.CancellationPolicy.CANCEL_ON_NEW_QUERY, 4);
+
+        prefetcher.searchByTitleAsync("batman", 3);
+        gateway.complete("batman#3", page(3, 10));
+
+        assertEquals(List.of("batman#3", "batman#4", "batman#5", "batman#2"), gateway.requests);
+    }
+
+    @Test
+    void testNothingIsPrefetchedPastTheLastPage() {
+        SearchPagePrefetcher prefetcher = new SearchPagePrefetcher(gateway);
+
+        prefetcher.searchByTitleAsync("batman", 3);
+        gateway.complete("batman#3", page(3, 3));
+
+        assertEquals(List.of("batman#3"), gateway.requests);
+    }
+
+    @Test
+    void testNewQueryCancelsPrefetchesOfPreviousQuery() {
+        SearchPagePrefetcher prefetcher = new SearchPagePrefetcher(gateway);
+        prefetcher.searchByTitleAsync("batman", 1);
+        gateway.complete("batman#1", page(1, 5));
+        CompletableFuture<PagedMovieResult> prefetch = gateway.pending.get("batman#2");
+
+        prefetcher.searchByTitleAsync("superman", 1);
+
+        assertTrue(prefetch.isCancelled());
+        assertFalse(prefetcher.isAvailable("batman", 2));
+        assertTrue(prefetcher.isAvailable("batman", 1), "Pages that were actually served stay cached");
+    }
+
+    @Test
+    void testLetFinishKeepsPrefetchesOfPreviousQuery() {
+        SearchPagePrefetcher prefetcher = new SearchPagePrefetcher(
+                gateway, 1, false, SearchPagePrefetcher.CancellationPolicy.LET_FINISH, 4);
+        prefetcher.searchByTitleAsync("batman", 1);
+        gateway.complete("batman#1", page(1, 5));
+        CompletableFuture<PagedMovieResult> prefetch = gateway.pending.get("batman#2");
+
+        prefetcher.searchByTitleAsync("superman", 1);
+
+        assertFalse(prefetch.isCancelled());
+        assertTrue(prefetcher.isAvailable("batman", 2));
+    }
+
+    @Test
+    void testFailedPageIsNotCached() {
+        SearchPagePrefetcher prefetcher = new SearchPagePrefetcher(gateway);
+        CompletableFuture<PagedMovieResult> first = prefetcher.searchByTitleAsync("batman", 1);
+
+        gateway.fail("batman#1", new MovieDataAccessException(MovieDataAccessException.Type.NETWORK, "offline"));
+
+        assertTrue(first.isCompletedExceptionally());
+        assertFalse(prefetcher.isAvailable("batman", 1));
+        prefetcher.searchByTitleAsync("batman", 1);
+        assertEquals(List.of("batman#1", "batman#1"), gateway.requests);
+    }
+
+    @Test
+    void testPopularPagesArePrefetched() throws Exception {
+        SearchPagePrefetcher prefetcher = new SearchPagePrefetcher(gateway);
+
+        prefetcher.getPopularMoviesAsync(1);
+        gateway.complete("popular#1", page(1, 50));
+        gateway.complete("popular#2", page(2, 50));
+
+        assertTrue(prefetcher.getPopularMoviesAsync(2).isDone());
+    }
+
+    @Test
+    void testOldestQueryIsEvicted() {
+        SearchPagePrefetcher prefetcher = new SearchPagePrefetcher(
+                gateway, 0, false, SearchPagePrefetcher.CancellationPolicy.LET_FINISH, 2);
+
+        prefetcher.searchByTitleAsync("a1", 1);
+        prefetcher.searchByTitleAsync("b1", 1);
+        prefetcher.searchByTitleAsync("c1", 1);
+
+        assertFalse(prefetcher.isAvailable("a1", 1));
+        assertTrue(prefetcher.isAvailable("b1", 1));
+        assertTrue(prefetcher.isAvailable("c1", 1));
+    }
+
+    @Test
+    void testExpiredPageIsFetchedAgain() throws Exception {
+        MutableClock clock = new MutableClock();
+        SearchPagePrefetcher prefetcher = new SearchPagePrefetcher(gateway, 0, false,
+                SearchPagePrefetcher.CancellationPolicy.CANCEL_ON_NEW_QUERY, 4, Duration.ofMinutes(10), clock);
+
+        prefetcher.getPopularMoviesAsync(1);
+        gateway.complete("popular#1", page(1, 50));
+        clock.advance(Duration.ofMinutes(9));
+        assertTrue(prefetcher.getPopularMoviesAsync(1).isDone(), "A fresh page is served from the cache");
+
+        clock.advance(Duration.ofMinutes(1));
+        CompletableFuture<PagedMovieResult> again = prefetcher.getPopularMoviesAsync(1);
+
+        assertFalse(again.isDone());
+        assertEquals(List.of("popular#1", "popular#1"), gateway.requests);
+        gateway.complete("popular#1", page(1, 50));
+        assertEquals(1, again.get().getPage());
+    }
+
+    @Test
+    void testPageInFlightDoesNotExpire() {
+        MutableClock clock = new MutableClock();
+        SearchPagePrefetcher prefetcher = new SearchPagePrefetcher(gateway, 0, false,
+                SearchPagePrefetcher.CancellationPolicy.CANCEL_ON_NEW_QUERY, 4, Duration.ofMinutes(10), clock);
+
+        prefetcher.searchByTitleAsync("batman", 1);
+        clock.advance(Duration.ofHours(1));
+
+        assertTrue(prefetcher.isAvailable("batman", 1));
+        gateway.complete("batman#1", page(1, 1));
+        assertTrue(prefetcher.isAvailable("batman", 1));
+        clock.advance(Duration.ofMinutes(10));
+        assertFalse(prefetcher.isAvailable("batman", 1));
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    private static final class ControlledGateway implements AsyncMovieGateway {
+        final List<String> requests = new ArrayList<>();
+        final Map<String, CompletableFuture<PagedMovieResult>> pending = new LinkedHashMap<>();
+
+        void complete(String key, PagedMovieResult result) {
+            pending.remove(key).complete(result);
+        }
+
+        void fail(String key, Exception error) {
+            pending.remove(key).completeExceptionally(error);
+        }
+
+        private CompletableFuture<PagedMovieResult> request(String key) {
+            requests.add(key);
+            CompletableFuture<PagedMovieResult> future = new CompletableFuture<>();
+            pending.put(key, future);
+            return future;
+        }
+
+        @Override
+        public CompletableFuture<PagedMovieResult> searchByTitleAsync(String query, int page) {
+            return request(query + "#" + page);
+        }
+
+        @Override
+        public CompletableFuture<PagedMovieResult> getPopularMoviesAsync(int page) {
+            return request("popular#" + page);
+        }
+
+        @Override
+        public CompletableFuture<Optional<Movie>> findByIdAsync(String movieId) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+
+        @Override
+        public CompletableFuture<List<Movie>> filterByGenresAsync(List<Integer> genreIds) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+    }
+}